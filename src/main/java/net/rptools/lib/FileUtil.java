@@ -508,6 +508,7 @@ public static XStream getConfiguredXStream() {
     XStream.setupDefaultSecurity(xStream);
     xStream.allowTypesByWildcard(new String[] {"net.rptools.**", "java.awt.**", "sun.awt.**"});
     xStream.registerConverter(new AStarCellPointConverter());
+    xStream.registerConverter(new MD5KeyConverter());
     return xStream;
   }
 }
@@ -14,15 +14,26 @@
  */
 package net.rptools.lib;
 
+import com.google.common.collect.Interner;
+import com.google.common.collect.Interners;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.Serializable;
 import java.security.MessageDigest;
 import java.security.NoSuchAlgorithmException;
+import java.util.Objects;
 
 /**
  * Represents the MD5 key for a certain set of data. Can be used in maps as keys.
  *
+ * <p>The 128 bits of the md5 sum are held as two {@code long}s and the hash code is calculated
+ * once up front, so comparing and hashing keys never touches a {@code String}. The hexadecimal
+ * form is only built when {@link #toString()} is called. Keys created from a {@code String} that
+ * is not a 32 character lower case hexadecimal md5 sum keep that {@code String} instead.
+ *
+ * <p>Keys that are held on to for a long time, such as those read in with a campaign, can be
+ * passed through {@link #intern(MD5Key)} so that there is only one instance for each md5 sum.
+ *
  * <p>This class is thread safe if a couple of simple rules are followed.
  *
  * <ul>
@@ -38,8 +49,8 @@
 @SuppressWarnings("serial")
 public final class MD5Key implements Serializable {
 
-  /** The {@link MessageDigest} used for calculation of the md5 sum. */
-  private transient ThreadLocal<MessageDigest> md5Digest =
+  /** The {@link MessageDigest}s used for calculation of the md5 sum, shared by all keys. */
+  private static final ThreadLocal<MessageDigest> md5Digest =
       ThreadLocal.withInitial(
           () -> {
             try {
@@ -51,16 +62,53 @@ public final class MD5Key implements Serializable {
             }
           });
 
-  /** The {@code String} representation of the MD5key. */
+  /** The table used by {@link #intern(MD5Key)}. */
+  private static final Interner<MD5Key> interner = Interners.newWeakInterner();
+
+  /** The number of hexadecimal digits in an md5 sum. */
+  private static final int HEX_LENGTH = 32;
+
+  /** The size of the buffer used to read data from an {@link InputStream}. */
+  private static final int BUFFER_SIZE = 8192;
+
+  private static final char[] HEX_DIGITS = "0123456789abcdef".toCharArray();
+
+  /** The most significant 64 bits of the md5 sum. */
+  private final long high;
+
+  /** The least significant 64 bits of the md5 sum. */
+  private final long low;
+
+  /** The id of the key if it is not an md5 sum, otherwise {@code null}. */
   private final String id;
 
+  /** The precalculated hash code. */
+  private final int hash;
+
   /**
    * Creates a new {@code MD5Key} using the value in the {@code String} as the id.
    *
    * @param id the id of the key.
    */
   public MD5Key(String id) {
-    this.id = id;
+    long high = 0;
+    long low = 0;
+    boolean isHex = id.length() == HEX_LENGTH;
+    for (int i = 0; isHex && i < HEX_LENGTH; i++) {
+      int digit = hexDigit(id.charAt(i));
+      if (digit < 0) {
+        isHex = false;
+      } else if (i < HEX_LENGTH / 2) {
+        high = (high << 4) | digit;
+      } else {
+        low = (low << 4) | digit;
+      }
+    }
+
+    this.high = isHex ? high : 0;
+    this.low = isHex ? low : 0;
+    this.id = isHex ? null : id;
+    this.hash = isHex ? hash(high, low) : id.hashCode();
   }
 
   /**
@@ -71,7 +119,11 @@ public MD5Key(String id) {
    *     completes, doing so will result in an inconsistent state for the sale input data.
    */
   public MD5Key(byte[] data) {
-    id = encodeToHex(digestData(data));
+    byte[] digest = digestData(data);
+    high = toLong(digest, 0);
+    low = toLong(digest, Long.BYTES);
+    id = null;
+    hash = hash(high, low);
   }
 
   /**
@@ -84,7 +136,22 @@ public MD5Key(byte[] data) {
    *     for the sale input data.
    */
   public MD5Key(InputStream data) throws IOException {
-    id = encodeToHex(digestData(data));
+    byte[] digest = digestData(data);
+    high = toLong(digest, 0);
+    low = toLong(digest, Long.BYTES);
+    id = null;
+    hash = hash(high, low);
+  }
+
+  /**
+   * Returns the canonical instance of an {@code MD5Key}. Keys that are equal are interned to the
+   * same instance, which is only held on to while something else references it.
+   *
+   * @param key the key to intern.
+   * @return the key that is equal to {@code key} and shared by all callers.
+   */
+  public static MD5Key intern(MD5Key key) {
+    return interner.intern(key);
   }
 
   /**
@@ -94,21 +161,37 @@ public MD5Key(InputStream data) throws IOException {
    * @return the {@code String} representation of the {@code MD5Key}.
    */
   public String toString() {
-    return id;
+    if (id != null) {
+      return id;
+    }
+
+    char[] chars = new char[HEX_LENGTH];
+    for (int i = 0; i < HEX_LENGTH / 2; i++) {
+      int shift = 60 - 4 * i;
+      chars[i] = HEX_DIGITS[(int) (high >>> shift) & 0xf];
+      chars[i + HEX_LENGTH / 2] = HEX_DIGITS[(int) (low >>> shift) & 0xf];
+    }
+    return new String(chars);
   }
 
   @Override
   public boolean equals(Object obj) {
-    if (!(obj instanceof MD5Key)) {
+    if (this == obj) {
+      return true;
+    }
+    if (!(obj instanceof MD5Key other)) {
       return false;
     }
 
-    return id.equals(((MD5Key) obj).id);
+    return hash == other.hash
+        && high == other.high
+        && low == other.low
+        && Objects.equals(id, other.id);
   }
 
   @Override
   public int hashCode() {
-    return id.hashCode();
+    return hash;
   }
 
   /**
@@ -117,7 +200,7 @@ public int hashCode() {
    * @param data The data to calculate the md5 sum of.
    * @return the md5 sum of the data.
    */
-  private byte[] digestData(byte[] data) {
+  private static byte[] digestData(byte[] data) {
     MessageDigest digest = md5Digest.get();
     digest.reset();
     digest.update(data);
@@ -130,35 +213,50 @@ private byte[] digestData(byte[] data) {
    * @param is The {@code InputStream} providing the data to calculate the md5 sum of.
    * @return the md5 sum of the data from the {@link InputStream}.
    */
-  private byte[] digestData(InputStream is) throws IOException {
+  private static byte[] digestData(InputStream is) throws IOException {
     MessageDigest digest = md5Digest.get();
     digest.reset();
 
-    int b;
-    while (((b = is.read()) >= 0)) {
-      digest.update((byte) b);
+    byte[] buffer = new byte[BUFFER_SIZE];
+    int read;
+    while ((read = is.read(buffer)) >= 0) {
+      digest.update(buffer, 0, read);
     }
     return digest.digest();
   }
 
   /**
-   * Encode a byte array into a hexadecimal string.
+   * Returns the value of a lower case hexadecimal digit.
    *
-   * @param data the byte array to encode.
-   * @return a {@code String} containing the encoded hexadecimal value of the passed in data.
+   * @param c the digit.
+   * @return the value of the digit, or -1 if it is not a lower case hexadecimal digit.
    */
-  private String encodeToHex(byte[] data) {
-    StringBuilder strbuild = new StringBuilder();
-    for (byte datum : data) {
-      String hex = Integer.toHexString(datum);
-      if (hex.length() < 2) {
-        strbuild.append("0");
-      }
-      if (hex.length() > 2) {
-        hex = hex.substring(hex.length() - 2);
-      }
-      strbuild.append(hex);
+  private static int hexDigit(char c) {
+    if (c >= '0' && c <= '9') {
+      return c - '0';
+    }
+    if (c >= 'a' && c <= 'f') {
+      return c - 'a' + 10;
     }
-    return strbuild.toString();
+    return -1;
+  }
+
+  /**
+   * Reads eight bytes of an md5 sum as a big endian {@code long}.
+   *
+   * @param digest the md5 sum.
+   * @param offset the index of the first byte.
+   * @return the {@code long} value of the bytes.
+   */
+  private static long toLong(byte[] digest, int offset) {
+    long value = 0;
+    for (int i = offset; i < offset + Long.BYTES; i++) {
+      value = (value << 8) | (digest[i] & 0xff);
+    }
+    return value;
+  }
+
+  private static int hash(long high, long low) {
+    return Long.hashCode(high * 31 + low);
   }
 }
@@ -18,18 +18,52 @@
 import java.awt.Graphics2D;
 import java.awt.Image;
 import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.EOFException;
 import java.io.File;
 import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
 import javax.imageio.ImageIO;
-import net.rptools.lib.MD5Key;
+import javax.imageio.ImageReadParam;
+import javax.imageio.ImageReader;
+import javax.imageio.stream.ImageInputStream;
 import net.rptools.lib.swing.SwingUtil;
 import net.rptools.maptool.client.AppPreferences;
 import org.apache.commons.io.FileUtils;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
 
+/**
+ * Creates and caches thumbnails of image files.
+ *
+ * <p>Thumbnails are decoded with source subsampling, so only about as many pixels as the thumbnail
+ * needs are read from a large image. They are stored as PNGs one after the other in a single
+ * append-only file in the thumbnail location, and found through an index keyed by the path,
+ * modification time and size of the image file. The index is rebuilt by scanning the file when it
+ * is first used. Thumbnails of files that have since changed stay in the file until the cache is
+ * cleared.
+ */
 public class ThumbnailManager {
+  private static final Logger log = LogManager.getLogger(ThumbnailManager.class);
+
+  /** The name of the file the thumbnails are packed into. */
+  private static final String PACK_FILE_NAME = "thumbnails.pack";
+
+  /** Files smaller than this are shown as they are instead of having a thumbnail made. */
+  private static final long MIN_THUMBNAIL_FILE_SIZE = 102400;
+
   private final File thumbnailLocation;
   private final Dimension thumbnailSize;
 
+  /** The offset in the pack file of each thumbnail, keyed by {@link #getKey(File)}. */
+  private final Map<String, Long> index = new HashMap<>();
+
+  /** The file the thumbnails are packed into, or null if it hasn't been opened yet. */
+  private RandomAccessFile pack;
+
   public ThumbnailManager(File thumbnailLocation, Dimension thumbnailSize) {
     this.thumbnailLocation = thumbnailLocation;
     this.thumbnailSize = thumbnailSize;
@@ -43,38 +77,68 @@ public Dimension getThumbnailSize() {
     return thumbnailSize;
   }
 
+  /**
+   * Returns the thumbnail of an image file, creating it if needed. This is safe to call from many
+   * threads at once.
+   *
+   * @param file the image file.
+   * @return the thumbnail, or the image itself if it is too small to need one.
+   * @throws IOException if the image can't be read.
+   */
   public Image getThumbnail(File file) throws IOException {
+    String key = getKey(file);
     // Cache
-    BufferedImage thumbnail = getCachedThumbnail(file);
+    BufferedImage thumbnail = getCachedThumbnail(key);
     if (thumbnail != null) {
       return thumbnail;
     }
     // Create
-    return createThumbnail(file);
+    return createThumbnail(file, key);
   }
 
-  private Image createThumbnail(File file) throws IOException {
-    // Gather info
-    File thumbnailFile = getThumbnailFile(file);
-    if (thumbnailFile.exists()) {
-      return ImageUtil.getImage(thumbnailFile);
-    }
+  private Image createThumbnail(File file, String key) throws IOException {
+    BufferedImage image;
+    Dimension imgSize;
+    try (ImageInputStream iis = ImageIO.createImageInputStream(file)) {
+      Iterator<ImageReader> readers = iis != null ? ImageIO.getImageReaders(iis) : null;
+      if (readers == null || !readers.hasNext()) {
+        // Not a format ImageIO can read on its own, so there is nothing to subsample.
+        return ImageUtil.getImage(file);
+      }
+
+      ImageReader reader = readers.next();
+      try {
+        reader.setInput(iis, true, true);
+        imgSize = new Dimension(reader.getWidth(0), reader.getHeight(0));
 
-    Image image = ImageUtil.getImage(file);
-    Dimension imgSize = new Dimension(image.getWidth(null), image.getHeight(null));
+        // Test if we Should we bother making a thumbnail ?
+        // Jamz: New size 100k (was 30k) and put in check so we're not creating thumbnails LARGER
+        // than the original...
+        if (file.length() < MIN_THUMBNAIL_FILE_SIZE
+            || (imgSize.width <= thumbnailSize.width && imgSize.height <= thumbnailSize.height)) {
+          return ImageUtil.getImage(file);
+        }
 
-    // Test if we Should we bother making a thumbnail ?
-    // Jamz: New size 100k (was 30k) and put in check so we're not creating thumbnails LARGER than
-    // the original...
-    if (file.length() < 102400
-        || (imgSize.width <= thumbnailSize.width && imgSize.height <= thumbnailSize.height)) {
-      return image;
+        // Only decode every nth pixel, where n is as large as it can be while still leaving at
+        // least as many pixels as the thumbnail has.
+        double scale =
+            Math.min(
+                (double) thumbnailSize.width / imgSize.width,
+                (double) thumbnailSize.height / imgSize.height);
+        int subsampling = Math.max(1, (int) Math.floor(1 / scale));
+        ImageReadParam param = reader.getDefaultReadParam();
+        param.setSourceSubsampling(subsampling, subsampling, 0, 0);
+        image = reader.read(0, param);
+      } finally {
+        reader.dispose();
+      }
     }
+
     // Transform the image
     SwingUtil.constrainTo(
         imgSize,
-        Math.min(image.getWidth(null), thumbnailSize.width),
-        Math.min(image.getHeight(null), thumbnailSize.height));
+        Math.min(imgSize.width, thumbnailSize.width),
+        Math.min(imgSize.height, thumbnailSize.height));
     BufferedImage thumbnailImage =
         new BufferedImage(imgSize.width, imgSize.height, ImageUtil.pickBestTransparency(image));
 
@@ -84,13 +148,14 @@ private Image createThumbnail(File file) throws IOException {
     g.dispose();
 
     // Use png to preserve transparency
-    FileUtils.writeByteArrayToFile(thumbnailFile, ImageUtil.imageToBytes(thumbnailImage, "png"));
+    putCachedThumbnail(key, ImageUtil.imageToBytes(thumbnailImage, "png"));
 
     return thumbnailImage;
   }
 
-  public void clearImageThumbCache() {
+  public synchronized void clearImageThumbCache() {
     try {
+      closePack();
       if (thumbnailLocation != null) {
         FileUtils.cleanDirectory(thumbnailLocation);
       }
@@ -100,33 +165,121 @@ public void clearImageThumbCache() {
     }
   }
 
-  private BufferedImage getCachedThumbnail(File file) {
-    File thumbnailFile = getThumbnailFile(file);
+  private BufferedImage getCachedThumbnail(String key) {
+    byte[] data;
+    synchronized (this) {
+      RandomAccessFile file = getPack();
+      Long offset = index.get(key);
+      if (offset == null || file == null) {
+        return null;
+      }
+      try {
+        file.seek(offset);
+        data = new byte[file.readInt()];
+        file.readFully(data);
+      } catch (IOException ioe) {
+        log.error("Unable to read thumbnail", ioe);
+        return null;
+      }
+    }
 
-    if (!thumbnailFile.exists()) {
+    try {
+      return ImageIO.read(new ByteArrayInputStream(data));
+    } catch (IOException ioe) {
       return null;
     }
+  }
+
+  private synchronized void putCachedThumbnail(String key, byte[] data) {
+    RandomAccessFile file = getPack();
+    if (file == null || index.containsKey(key)) {
+      return;
+    }
     try {
-      // Check that it hasn't changed on disk
-      if (file.lastModified() > thumbnailFile.lastModified()) {
-        return null;
+      long start = file.length();
+      file.seek(start);
+      file.writeUTF(key);
+      long offset = file.getFilePointer();
+      file.writeInt(data.length);
+      file.write(data);
+      index.put(key, offset);
+    } catch (IOException ioe) {
+      log.error("Unable to write thumbnail", ioe);
+    }
+  }
+
+  /**
+   * Returns the pack file, opening it and reading its index the first time.
+   *
+   * @return the pack file, or null if there is no thumbnail location or it can't be opened.
+   */
+  private synchronized RandomAccessFile getPack() {
+    if (pack != null || thumbnailLocation == null) {
+      return pack;
+    }
+    try {
+      thumbnailLocation.mkdirs();
+      pack = new RandomAccessFile(new File(thumbnailLocation, PACK_FILE_NAME), "rw");
+      readIndex();
+    } catch (IOException ioe) {
+      log.error("Unable to open thumbnail cache", ioe);
+      closePack();
+    }
+    return pack;
+  }
+
+  /**
+   * Rebuilds the index by reading the key and size of each thumbnail in the pack file. Anything
+   * after the last complete thumbnail, such as one that was only partly written, is discarded.
+   */
+  private void readIndex() throws IOException {
+    long length = pack.length();
+    long position = 0;
+    try {
+      while (position < length) {
+        pack.seek(position);
+        String key = pack.readUTF();
+        long offset = pack.getFilePointer();
+        long end = offset + Integer.BYTES + pack.readInt();
+        if (end > length) {
+          break;
+        }
+        index.put(key, offset);
+        position = end;
       }
-      // Get the thumbnail
-      BufferedImage thumbnail = ImageIO.read(thumbnailFile);
+    } catch (EOFException eof) {
+      // The last thumbnail was only partly written.
+    }
+    pack.setLength(position);
+  }
 
-      // Check that we have the size we want
-      if (thumbnail.getWidth() != thumbnailSize.width
-          && thumbnail.getHeight() != thumbnailSize.height) {
-        return null;
+  private synchronized void closePack() {
+    index.clear();
+    if (pack != null) {
+      try {
+        pack.close();
+      } catch (IOException ioe) {
+        log.error("Unable to close thumbnail cache", ioe);
       }
-      return thumbnail;
-    } catch (IOException ioe) {
-      return null;
+      pack = null;
     }
   }
 
-  private File getThumbnailFile(File file) {
-    MD5Key key = new MD5Key(file.getAbsolutePath().getBytes());
-    return new File(thumbnailLocation.getPath(), key.toString());
+  /**
+   * Returns the key of the thumbnail of a file, which changes whenever the file does.
+   *
+   * @param file the image file.
+   * @return the key.
+   */
+  private String getKey(File file) {
+    return file.getAbsolutePath()
+        + '|'
+        + file.lastModified()
+        + '|'
+        + file.length()
+        + '|'
+        + thumbnailSize.width
+        + 'x'
+        + thumbnailSize.height;
   }
 }
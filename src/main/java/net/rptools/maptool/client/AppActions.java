@@ -23,11 +23,14 @@
 import java.awt.event.ActionEvent;
 import java.awt.event.InputEvent;
 import java.awt.image.BufferedImage;
+import java.io.BufferedWriter;
 import java.io.ByteArrayOutputStream;
 import java.io.File;
 import java.io.FileOutputStream;
+import java.io.FileWriter;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.Writer;
 import java.net.MalformedURLException;
 import java.net.URL;
 import java.net.UnknownHostException;
@@ -103,6 +106,7 @@
 import net.rptools.maptool.language.I18N;
 import net.rptools.maptool.model.Asset;
 import net.rptools.maptool.model.AssetManager;
+import net.rptools.maptool.model.AssetManager.AssetSummary;
 import net.rptools.maptool.model.Campaign;
 import net.rptools.maptool.model.CampaignFactory;
 import net.rptools.maptool.model.CampaignProperties;
@@ -478,7 +482,7 @@ protected void executeAction() {
           /*
            * 3. Check all assets against the repository indices and build a new list from those that are not found.
            */
-          Map<MD5Key, Asset> missing =
+          Map<MD5Key, AssetSummary> missing =
               AssetManager.findAllAssetsNotInRepositories(urd.getSelectedRepositories());
 
           /*
@@ -502,12 +506,22 @@ protected void executeAction() {
             ftp.setEnabled(true);
             ProgressBarList pbl = new ProgressBarList(MapTool.getFrame(), ftp, missing.size() + 1);
 
-            for (Map.Entry<MD5Key, Asset> entry : missing.entrySet()) {
-              String remote = entry.getKey().toString();
+            for (MD5Key key : missing.keySet()) {
+              // Assets in the persistent cache are read from their file when they are sent, so
+              // they don't all have to be in memory at once.
+              Object local;
+              if (AssetManager.assetIsInPersistentCache(key)) {
+                local = AssetManager.getAssetCacheFile(key).getPath();
+              } else {
+                Asset asset = AssetManager.getAsset(key);
+                if (asset == null) {
+                  continue;
+                }
+                local = asset.getData();
+              }
+              String remote = key.toString();
               repoEntries.put(remote, new File(dir, remote).getPath());
-              ftp.addToQueue(
-                  new FTPTransferObject(
-                      Direction.FTP_PUT, entry.getValue().getData(), dir, remote));
+              ftp.addToQueue(new FTPTransferObject(Direction.FTP_PUT, local, dir, remote));
             }
             // We're done with "missing", so empty it now.
             missing.clear();
@@ -750,9 +764,8 @@ protected void executeAction() {
             return;
           }
 
-          try {
-            String messageHistory = MapTool.getFrame().getCommandPanel().getMessageHistory();
-            FileUtils.writeByteArrayToFile(saveFile, messageHistory.getBytes());
+          try (Writer writer = new BufferedWriter(new FileWriter(saveFile))) {
+            MapTool.getFrame().getCommandPanel().writeMessageHistory(writer);
           } catch (IOException ioe) {
             MapTool.showError(I18N.getString("msg.error.failedSavingMessageHistory"), ioe);
           }
@@ -2622,7 +2635,7 @@ protected PersistedCampaign doInBackground() throws Exception {
           MapTool.getBackupManager().backup(campaignFile);
         }
         // Load
-        return PersistenceUtil.loadCampaign(campaignFile);
+        return PersistenceUtil.loadCampaign(campaignFile, this::publish);
       } finally {
         AppState.releaseBackgroundTaskLock();
       }
@@ -2658,6 +2671,10 @@ protected void done() {
           }
           current.getZoneScale().reset();
         }
+        if (campaignFile.equals(AutoSaveManager.AUTOSAVE_FILE)) {
+          // Recovering from a crash, so apply the changes made since the last autosave snapshot.
+          MapTool.getAutoSaveManager().replayJournal();
+        }
         MapTool.getAutoSaveManager().tidy();
 
         // UI related stuff
@@ -483,6 +483,14 @@ public static int getHaloLineWidth() {
   private static final String KEY_FRAME_RATE_CAP = "frameRateCap";
   private static final int DEFAULT_FRAME_RATE_CAP = 60;
 
+  private static final String KEY_IMAGE_CACHE_SIZE = "imageCacheSize";
+  private static final int DEFAULT_IMAGE_CACHE_SIZE =
+      (int) (Runtime.getRuntime().maxMemory() / 4 / (1024 * 1024)); // MB
+
+  private static final String KEY_ASSET_CACHE_SIZE = "assetCacheSize";
+  private static final int DEFAULT_ASSET_CACHE_SIZE =
+      (int) (Runtime.getRuntime().maxMemory() / 8 / (1024 * 1024)); // MB
+
   private static final String KEY_UPNP_DISCOVERY_TIMEOUT = "upnpDiscoveryTimeout";
   private static final int DEFAULT_UPNP_DISCOVERY_TIMEOUT = 5000;
 
@@ -1030,6 +1038,44 @@ public static int getFrameRateCap() {
     return prefs.getInt(KEY_FRAME_RATE_CAP, DEFAULT_FRAME_RATE_CAP);
   }
 
+  /**
+   * Sets the amount of memory used to cache decoded images.
+   *
+   * @param size the size of the cache in megabytes.
+   */
+  public static void setImageCacheSize(int size) {
+    prefs.putInt(KEY_IMAGE_CACHE_SIZE, size);
+  }
+
+  /**
+   * Returns the amount of memory used to cache decoded images. This only takes effect on restart.
+   *
+   * @return the size of the cache in megabytes.
+   */
+  public static int getImageCacheSize() {
+    return prefs.getInt(KEY_IMAGE_CACHE_SIZE, DEFAULT_IMAGE_CACHE_SIZE);
+  }
+
+  /**
+   * Sets the amount of memory used to hold the raw data of assets. This only takes effect on
+   * restart.
+   *
+   * @param size the size of the cache in megabytes.
+   */
+  public static void setAssetCacheSize(int size) {
+    prefs.putInt(KEY_ASSET_CACHE_SIZE, size);
+  }
+
+  /**
+   * Returns the amount of memory used to hold the raw data of assets. Assets beyond this are read
+   * back from the persistent asset cache when needed. This only takes effect on restart.
+   *
+   * @return the size of the cache in megabytes.
+   */
+  public static int getAssetCacheSize() {
+    return prefs.getInt(KEY_ASSET_CACHE_SIZE, DEFAULT_ASSET_CACHE_SIZE);
+  }
+
   public static void setUpnpDiscoveryTimeout(int timeout) {
     prefs.putInt(KEY_UPNP_DISCOVERY_TIMEOUT, timeout);
   }
@@ -15,9 +15,23 @@
 package net.rptools.maptool.client;
 
 import java.io.File;
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
 import javax.swing.*;
 import net.rptools.maptool.language.I18N;
 import net.rptools.maptool.model.Campaign;
+import net.rptools.maptool.model.GUID;
+import net.rptools.maptool.model.Token;
+import net.rptools.maptool.model.Zone;
+import net.rptools.maptool.server.MessageJournal;
+import net.rptools.maptool.server.proto.Message;
+import net.rptools.maptool.server.proto.ZoneDto;
 import net.rptools.maptool.util.PersistenceUtil;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
@@ -38,6 +52,43 @@ public class AutoSaveManager {
           AppUtil.getAppHome("autosave"), // $NON-NLS-1$
           "AutoSave" + AppConstants.CAMPAIGN_FILE_EXTENSION);
 
+  /** The journal of changes made since {@link #AUTOSAVE_FILE} was saved. */
+  public static final File JOURNAL_FILE =
+      new File(AppUtil.getAppHome("autosave"), "AutoSave.journal"); // $NON-NLS-1$
+
+  /** Once the journal reaches this size the next autosave writes a full snapshot. */
+  private static final long MAX_JOURNAL_BYTES = 16 * 1024 * 1024;
+
+  /** The longest time spent copying tokens for a snapshot before yielding to the UI. */
+  private static final long MAX_COPY_NANOS = TimeUnit.MILLISECONDS.toNanos(8);
+
+  /** The number of autosaves that only update the journal before a full snapshot is written. */
+  private static final int MAX_JOURNAL_ONLY_SAVES = 10;
+
+  /** The journal left behind by the last session, replayed if its autosave is recovered. */
+  private static final File RECOVERY_JOURNAL_FILE =
+      new File(AppUtil.getAppHome("autosave"), "AutoSave.journal.recovery"); // $NON-NLS-1$
+
+  private final MessageJournal journal = new MessageJournal(JOURNAL_FILE);
+  private final MessageJournal recoveryJournal = new MessageJournal(RECOVERY_JOURNAL_FILE);
+  private int journalOnlySaves = 0;
+
+  /** Has {@link #AUTOSAVE_FILE} been written for the current campaign in this session. */
+  private volatile boolean snapshotSaved = false;
+
+  /**
+   * Creates the manager. The journal of the last session is moved out of the way first, so that
+   * nothing this session sends to the server is appended to it before it can be replayed.
+   */
+  public AutoSaveManager() {
+    try {
+      journal.moveTo(RECOVERY_JOURNAL_FILE);
+    } catch (IOException e) {
+      log.error("Unable to keep the autosave journal of the last session", e);
+      journal.delete();
+    }
+  }
+
   /**
    * Queries the auto-save increment from {@link AppPreferences} and starts a new timer.
    *
@@ -69,6 +120,7 @@ private boolean executeAndContinue() {
         AppPreferences.getAutoSaveIncrement() * (log.isDebugEnabled() ? 1000 : 60 * 1000);
 
     // auto-save is turned off with <= 0
+    journal.setEnabled(interval > 0);
     if (interval <= 0) {
       log.debug("Skipping autosave because interval <=0"); // $NON-NLS-1$
       return true;
@@ -88,33 +140,182 @@ private boolean executeAndContinue() {
       return true;
     }
 
+    // Most of the time only the journal of changes since the last snapshot needs to be written.
+    if (snapshotSaved
+        && AUTOSAVE_FILE.exists()
+        && !journal.isCompactionRequested()
+        && journal.size() < MAX_JOURNAL_BYTES
+        && journalOnlySaves < MAX_JOURNAL_ONLY_SAVES) {
+      new FlushWorker().execute();
+      return false;
+    }
+
+    saveSnapshot();
+    return false;
+  }
+
+  private void saveSnapshot() {
     MapTool.getFrame().setStatusMessage(I18N.getString("AutoSaveManager.status.autoSaving"));
 
-    long startCopy = System.currentTimeMillis();
-    // This occurs on the event dispatch thread, so it's ok to mess with the models.  (XXX Is this
-    // true?  What about
-    // updates coming in on the network?)
+    // This occurs on the event dispatch thread, so it's ok to mess with the models. Changes from
+    // the network are applied on the event dispatch thread too, and are journaled as they are.
     // We need to clone the campaign so that we can save in the background, but
     // not have concurrency issues with the original model.
     //
     // NOTE: This is a cheesy way to clone the campaign, but it makes it so that I
     // don't have to keep all the various models' clone methods updated on each change.
-    final Campaign campaign = new Campaign(MapTool.getCampaign());
-    log.info(
-        "Time to copy Campaign object (ms): "
-            + (System.currentTimeMillis() - startCopy)); // $NON-NLS-1$
+    new SnapshotTask(MapTool.getCampaign()).run();
+  }
 
-    new SaveWorker(campaign).execute();
+  /** Writes the journal through to the disk without holding up the event dispatch thread. */
+  private class FlushWorker extends SwingWorker<Void, Void> {
+    @Override
+    protected Void doInBackground() throws IOException {
+      journal.flush();
+      return null;
+    }
 
-    return false;
+    @Override
+    protected void done() {
+      try {
+        get();
+      } catch (InterruptedException | ExecutionException e) {
+        log.error("Unable to write autosave journal, saving the whole campaign instead", e);
+        saveSnapshot();
+        return;
+      }
+      journalOnlySaves++;
+      MapTool.getFrame()
+          .setStatusMessage(I18N.getText("AutoSaveManager.status.journalUpdated", journal.size()));
+      next(true);
+    }
+  }
+
+  /**
+   * Copies the campaign for saving in the background, a little at a time on the event dispatch
+   * thread so that the UI keeps responding instead of freezing for the whole copy. Each zone apart
+   * from its tokens is copied in one task, and then its tokens are copied in tasks of at most
+   * {@link #MAX_COPY_NANOS}. Everything is copied to dtos, which can't change once built, and they
+   * are only turned back into zones when the snapshot is saved. The journal is told when each zone
+   * and token is copied, so that it can start its new part from the right message for each of them
+   * once the copy is done.
+   */
+  private class SnapshotTask implements Runnable {
+    private final Campaign source;
+    private final Campaign snapshot;
+    private final Deque<GUID> zonesToCopy;
+    private final List<ZoneDto> copiedZones = new ArrayList<>();
+    private ZoneDto.Builder zoneCopy;
+    private Deque<GUID> tokensToCopy;
+    private final long startCopy = System.currentTimeMillis();
+    private long copyTime = 0;
+    private long longestFreeze = 0;
+
+    private SnapshotTask(Campaign source) {
+      long start = System.currentTimeMillis();
+      journal.beginSnapshot();
+      journalOnlySaves = 0;
+      this.source = source;
+      this.snapshot = new Campaign(source, false);
+      this.zonesToCopy =
+          source.getZones().stream()
+              .map(Zone::getId)
+              .collect(Collectors.toCollection(ArrayDeque::new));
+      recordFreeze(start);
+    }
+
+    @Override
+    public void run() {
+      if (MapTool.getCampaign() != source) {
+        // The campaign was replaced while we were copying it, nothing left to autosave.
+        log.info("Abandoning autosave because the campaign was replaced"); // $NON-NLS-1$
+        journal.cancelSnapshot();
+        next(true);
+        return;
+      }
+
+      if (zoneCopy != null) {
+        long start = System.currentTimeMillis();
+        copyTokens();
+        recordFreeze(start);
+        SwingUtilities.invokeLater(this);
+        return;
+      }
+
+      if (!zonesToCopy.isEmpty()) {
+        long start = System.currentTimeMillis();
+        GUID zoneId = zonesToCopy.removeFirst();
+        Zone zone = source.getZone(zoneId);
+        if (zone != null) {
+          zoneCopy = zone.toDtoWithoutTokens();
+          tokensToCopy =
+              zone.getAllTokens().stream()
+                  .map(Token::getId)
+                  .collect(Collectors.toCollection(ArrayDeque::new));
+        }
+        journal.zoneCopied(zoneId.toString());
+        recordFreeze(start);
+        SwingUtilities.invokeLater(this);
+        return;
+      }
+
+      log.info(
+          "Time to copy Campaign object (ms): "
+              + (System.currentTimeMillis() - startCopy)
+              + ", time spent copying (ms): "
+              + copyTime
+              + ", longest UI freeze (ms): "
+              + longestFreeze); // $NON-NLS-1$
+
+      // Changes that aren't in the snapshot are journaled on top of it.
+      try {
+        journal.rotate();
+      } catch (IOException e) {
+        log.error("Unable to rotate autosave journal, discarding it", e);
+        journal.delete();
+      }
+      new SaveWorker(snapshot, copiedZones).execute();
+    }
+
+    /** Copies the next few tokens of the zone being copied. */
+    private void copyTokens() {
+      String zoneId = zoneCopy.getId();
+      Zone zone = source.getZone(GUID.valueOf(zoneId));
+      List<String> copied = new ArrayList<>();
+      long deadline = System.nanoTime() + MAX_COPY_NANOS;
+      while (!tokensToCopy.isEmpty() && System.nanoTime() < deadline) {
+        GUID tokenId = tokensToCopy.removeFirst();
+        // A token removed since the zone was copied is left out, along with its removal.
+        Token token = zone == null ? null : zone.getToken(tokenId);
+        if (token != null) {
+          zoneCopy.addTokens(token.toDto());
+        }
+        copied.add(tokenId.toString());
+      }
+      journal.tokensCopied(zoneId, copied);
+
+      if (tokensToCopy.isEmpty()) {
+        copiedZones.add(zoneCopy.build());
+        zoneCopy = null;
+        tokensToCopy = null;
+      }
+    }
+
+    private void recordFreeze(long start) {
+      long elapsed = System.currentTimeMillis() - start;
+      copyTime += elapsed;
+      longestFreeze = Math.max(longestFreeze, elapsed);
+    }
   }
 
   private class SaveWorker extends SwingWorker<String, String> {
 
     private Campaign campaign;
+    private List<ZoneDto> zones;
 
-    private SaveWorker(Campaign campaign) {
+    private SaveWorker(Campaign campaign, List<ZoneDto> zones) {
       this.campaign = campaign;
+      this.zones = zones;
     }
 
     @Override
@@ -125,7 +326,12 @@ protected String doInBackground() throws Exception {
       try {
         long startSave = System.currentTimeMillis();
         log.info("Starting autosave..."); // $NON-NLS-1$
+        for (ZoneDto zone : zones) {
+          campaign.putZone(Zone.fromDto(zone));
+        }
         PersistenceUtil.saveCampaign(campaign, AUTOSAVE_FILE, null);
+        journal.commitRotation();
+        snapshotSaved = true;
         String msg =
             I18N.getText(
                 "AutoSaveManager.status.autoSaveComplete", System.currentTimeMillis() - startSave);
@@ -158,6 +364,43 @@ public void purge() {
     if (AUTOSAVE_FILE.exists()) {
       AUTOSAVE_FILE.delete();
     }
+    snapshotSaved = false;
+    journal.delete();
+    recoveryJournal.delete();
+  }
+
+  /**
+   * Returns the journal that campaign changes are recorded to between autosaves.
+   *
+   * @return the autosave journal.
+   */
+  public MessageJournal getJournal() {
+    return journal;
+  }
+
+  /**
+   * Replays the journal of the last session on top of the campaign loaded from {@link
+   * #AUTOSAVE_FILE}, and then sends the resulting campaign to the server.
+   */
+  public void replayJournal() {
+    List<Message> messages;
+    try {
+      messages = recoveryJournal.readAll();
+    } catch (IOException e) {
+      MapTool.showError("AutoSaveManager.journalReplayFailed", e);
+      return;
+    }
+    if (messages.isEmpty()) {
+      return;
+    }
+
+    log.info("Replaying " + messages.size() + " autosave journal messages"); // $NON-NLS-1$
+    var handler = new ClientMessageHandler();
+    for (Message message : messages) {
+      handler.handleMessage("autosave", message.toByteArray()); // $NON-NLS-1$
+    }
+    handler.runAfterQueuedMessages(
+        () -> MapTool.serverCommand().setCampaign(MapTool.getCampaign()));
   }
 
   /** Removes the campaignFile if it's from Autosave, forcing to save as new */
@@ -175,6 +418,8 @@ public void check() {
       okay = MapTool.confirm("msg.confirm.recoverAutosave", AUTOSAVE_FILE.lastModified());
       if (okay) {
         AppActions.loadCampaign(AUTOSAVE_FILE);
+      } else {
+        recoveryJournal.delete();
       }
     }
   }
@@ -71,7 +71,7 @@ public void run() {
                   .setStatusMessage(
                       I18N.getString("ChatAutoSave.status.chatAutosave")); // $NON-NLS-1$
               try (FileWriter writer = new FileWriter(chatFile)) {
-                writer.write(chat.getMessageHistory());
+                chat.writeMessageHistory(writer);
               }
               if (log.isInfoEnabled()) log.info("Log saved"); // $NON-NLS-1$
             } catch (IOException e) {
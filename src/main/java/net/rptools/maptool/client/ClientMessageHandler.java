@@ -14,14 +14,18 @@
  */
 package net.rptools.maptool.client;
 
-import java.awt.EventQueue;
 import java.awt.Point;
 import java.awt.geom.Area;
 import java.io.IOException;
 import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.stream.Collectors;
 import javax.swing.SwingUtilities;
+import javax.swing.Timer;
 import net.rptools.clientserver.simple.MessageHandler;
 import net.rptools.lib.MD5Key;
 import net.rptools.maptool.client.functions.ExecFunction;
@@ -65,6 +69,7 @@
 import net.rptools.maptool.model.zones.ZoneAdded;
 import net.rptools.maptool.model.zones.ZoneRemoved;
 import net.rptools.maptool.server.Mapper;
+import net.rptools.maptool.server.MessageJournal;
 import net.rptools.maptool.server.ServerMessageHandler;
 import net.rptools.maptool.server.ServerPolicy;
 import net.rptools.maptool.server.proto.*;
@@ -81,7 +86,124 @@
 public class ClientMessageHandler implements MessageHandler {
   private static final Logger log = Logger.getLogger(ClientMessageHandler.class);
 
-  public ClientMessageHandler() {}
+  /** How often queued messages are applied, in milliseconds. */
+  private static final int FRAME_MILLIS = 16;
+
+  /** The longest time spent applying queued messages in one go before yielding to the UI. */
+  private static final long MAX_DRAIN_NANOS = TimeUnit.MILLISECONDS.toNanos(8);
+
+  /**
+   * A change to apply on the event dispatch thread.
+   *
+   * @param task the change.
+   * @param interactive if the change may run macros or interact with the user.
+   * @param journal if the task records the message of the change before it in the journal.
+   */
+  private record QueuedTask(Runnable task, boolean interactive, boolean journal) {}
+
+  /**
+   * Changes decoded from incoming messages waiting to be applied on the event dispatch thread.
+   * Rather than posting each one to the event queue they are applied in batches once per frame,
+   * so that the events and repaints they cause can be coalesced.
+   */
+  private final Queue<QueuedTask> inbox = new ConcurrentLinkedQueue<>();
+
+  private final AtomicBoolean drainScheduled = new AtomicBoolean();
+  private final Timer drainTimer = new Timer(FRAME_MILLIS, e -> drainInbox());
+
+  /** The journal the campaign changes are recorded to once applied, or null. */
+  private volatile MessageJournal messageJournal;
+
+  public ClientMessageHandler() {
+    drainTimer.setRepeats(false);
+  }
+
+  /**
+   * Queues a change to be applied on the event dispatch thread after all the changes from
+   * previously received messages.
+   *
+   * @param task the change to apply.
+   */
+  private void enqueue(Runnable task) {
+    inbox.add(new QueuedTask(task, false, false));
+    scheduleDrain();
+  }
+
+  /**
+   * Queues an action that may run macros or interact with the user. It is run on its own, after
+   * the changes before it have been applied and before any changes after it, so that a modal dialog
+   * it opens does not hold up the changes that follow.
+   *
+   * @param task the action to run.
+   */
+  private void enqueueInteractive(Runnable task) {
+    inbox.add(new QueuedTask(task, true, false));
+    scheduleDrain();
+  }
+
+  /**
+   * Runs the task on the event dispatch thread once the changes from all the messages handled so
+   * far have been applied.
+   *
+   * @param task the task to run.
+   */
+  public void runAfterQueuedMessages(Runnable task) {
+    enqueue(task);
+  }
+
+  /**
+   * Sets the journal that the changes are recorded to as they are applied, so that the journal
+   * has them in the same order as the campaign.
+   *
+   * @param messageJournal the journal, or {@code null} to stop recording.
+   */
+  public void setMessageJournal(MessageJournal messageJournal) {
+    this.messageJournal = messageJournal;
+  }
+
+  private void scheduleDrain() {
+    if (drainScheduled.compareAndSet(false, true)) {
+      drainTimer.restart();
+    }
+  }
+
+  /** Applies the queued changes, for at most {@link #MAX_DRAIN_NANOS}. */
+  private void drainInbox() {
+    // Anything queued from here on is either applied by this drain or schedules another one.
+    drainScheduled.set(false);
+
+    long deadline = System.nanoTime() + MAX_DRAIN_NANOS;
+    QueuedTask interactive = null;
+    var eventBus = new MapToolEventBus();
+    eventBus.beginCoalescing();
+    try {
+      QueuedTask queued;
+      // A change is always recorded in the journal in the same drain as it is applied, so that
+      // nothing that runs between drains sees one without the other.
+      while ((queued = inbox.peek()) != null
+          && (queued.journal() || System.nanoTime() < deadline)) {
+        inbox.poll();
+        if (queued.interactive()) {
+          interactive = queued;
+          break;
+        }
+        try {
+          queued.task().run();
+        } catch (RuntimeException e) {
+          log.error("Unable to apply message", e);
+        }
+      }
+    } finally {
+      eventBus.endCoalescing();
+    }
+
+    if (!inbox.isEmpty()) {
+      scheduleDrain();
+    }
+    if (interactive != null) {
+      interactive.task().run();
+    }
+  }
 
   @Override
   public void handleMessage(String id, byte[] message) {
@@ -143,6 +265,7 @@ public void handleMessage(String id, byte[] message) {
         case REMOVE_DATA_NAMESPACE_MSG -> handle(msg.getRemoveDataNamespaceMsg());
         case REMOVE_DATA_MSG -> handle(msg.getRemoveDataMsg());
         case UPDATE_TOKEN_PROPERTY_MSG -> handle(msg.getUpdateTokenPropertyMsg());
+        case BATCH_TOKEN_UPDATE_MSG -> handle(msg.getBatchTokenUpdateMsg());
         case UPDATE_DRAWING_MSG -> handle(msg.getUpdateDrawingMsg());
         case UNDO_DRAW_MSG -> handle(msg.getUndoDrawMsg());
         case SET_ZONE_VISIBILITY_MSG -> handle(msg.getSetZoneVisibilityMsg());
@@ -160,6 +283,12 @@ public void handleMessage(String id, byte[] message) {
         case UPDATE_TOKEN_MOVE_MSG -> handle(msg.getUpdateTokenMoveMsg());
         default -> log.warn(msgType + "not handled.");
       }
+
+      var journal = messageJournal;
+      if (journal != null && MessageJournal.isJournaled(msgType)) {
+        inbox.add(new QueuedTask(() -> journal.record(msg), false, true));
+        scheduleDrain();
+      }
       log.info(id + " handled: " + msgType);
     } catch (Exception e) {
       log.error(e);
@@ -167,7 +296,7 @@ public void handleMessage(String id, byte[] message) {
   }
 
   private void handle(UpdateTokenMoveMsg msg) {
-    EventQueue.invokeLater(
+    enqueue(
         () -> {
           var zoneGUID = GUID.valueOf(msg.getZoneGuid());
           var keyToken = GUID.valueOf(msg.getKeyTokenId());
@@ -179,7 +308,7 @@ private void handle(UpdateTokenMoveMsg msg) {
   }
 
   private void handle(UpdateExposedAreaMetaMsg msg) {
-    EventQueue.invokeLater(
+    enqueue(
         () -> {
           var zoneGUID = GUID.valueOf(msg.getZoneGuid());
           var tokenGUID = msg.hasTokenGuid() ? GUID.valueOf(msg.getTokenGuid().getValue()) : null;
@@ -190,7 +319,7 @@ private void handle(UpdateExposedAreaMetaMsg msg) {
   }
 
   private void handle(UpdateGmMacrosMsg msg) {
-    EventQueue.invokeLater(
+    enqueue(
         () -> {
           var macros =
               msg.getMacrosList().stream()
@@ -202,7 +331,7 @@ private void handle(UpdateGmMacrosMsg msg) {
   }
 
   private void handle(UpdateCampaignMacrosMsg msg) {
-    EventQueue.invokeLater(
+    enqueue(
         () -> {
           var macros =
               msg.getMacrosList().stream()
@@ -214,7 +343,7 @@ private void handle(UpdateCampaignMacrosMsg msg) {
   }
 
   private void handle(UpdateTokenInitiativeMsg msg) {
-    EventQueue.invokeLater(
+    enqueue(
         () -> {
           var zoneGUID = GUID.valueOf(msg.getZoneGuid());
           var tokenGUID = GUID.valueOf(msg.getTokenGuid());
@@ -235,7 +364,7 @@ private void handle(UpdateTokenInitiativeMsg msg) {
   }
 
   private void handle(UpdateInitiativeMsg msg) {
-    EventQueue.invokeLater(
+    enqueue(
         () -> {
           if (msg.hasList()) {
             InitiativeList list = InitiativeList.fromDto(msg.getList());
@@ -251,7 +380,7 @@ private void handle(UpdateInitiativeMsg msg) {
   }
 
   private void handle(UpdateCampaignMsg msg) {
-    EventQueue.invokeLater(
+    enqueue(
         () -> {
           CampaignProperties properties = CampaignProperties.fromDto(msg.getProperties());
 
@@ -275,7 +404,7 @@ private void handle(UpdateCampaignMsg msg) {
   }
 
   private void handle(SetServerPolicyMsg msg) {
-    EventQueue.invokeLater(
+    enqueue(
         () -> {
           ServerPolicy policy = ServerPolicy.fromDto(msg.getPolicy());
           MapTool.setServerPolicy(policy);
@@ -284,7 +413,7 @@ private void handle(SetServerPolicyMsg msg) {
   }
 
   private void handle(ToggleTokenMoveWaypointMsg msg) {
-    EventQueue.invokeLater(
+    enqueue(
         () -> {
           var zoneGUID = GUID.valueOf(msg.getZoneGuid());
           var keyToken = GUID.valueOf(msg.getKeyTokenId());
@@ -296,7 +425,7 @@ private void handle(ToggleTokenMoveWaypointMsg msg) {
   }
 
   private void handle(StopTokenMoveMsg msg) {
-    EventQueue.invokeLater(
+    enqueue(
         () -> {
           var zoneGUID = GUID.valueOf(msg.getZoneGuid());
           var keyToken = GUID.valueOf(msg.getKeyTokenId());
@@ -307,7 +436,7 @@ private void handle(StopTokenMoveMsg msg) {
   }
 
   private void handle(StartTokenMoveMsg msg) {
-    EventQueue.invokeLater(
+    enqueue(
         () -> {
           var playerId = msg.getPlayerId();
           var zoneGUID = GUID.valueOf(msg.getZoneGuid());
@@ -321,7 +450,7 @@ private void handle(StartTokenMoveMsg msg) {
   }
 
   private void handle(ShowPointerMsg msg) {
-    EventQueue.invokeLater(
+    enqueue(
         () -> {
           MapTool.getFrame()
               .getPointerOverlay()
@@ -331,7 +460,7 @@ private void handle(ShowPointerMsg msg) {
   }
 
   private void handle(SetZoneVisibilityMsg msg) {
-    EventQueue.invokeLater(
+    enqueue(
         () -> {
           var zoneGUID = GUID.valueOf(msg.getZoneGuid());
           boolean visible = msg.getIsVisible();
@@ -356,7 +485,7 @@ private void handle(SetZoneVisibilityMsg msg) {
   }
 
   private void handle(UndoDrawMsg msg) {
-    EventQueue.invokeLater(
+    enqueue(
         () -> {
           var zoneGUID = GUID.valueOf(msg.getZoneGuid());
           GUID drawableId = GUID.valueOf(msg.getDrawableGuid());
@@ -372,7 +501,7 @@ private void handle(UndoDrawMsg msg) {
   }
 
   private void handle(UpdateDrawingMsg msg) {
-    EventQueue.invokeLater(
+    enqueue(
         () -> {
           var zoneGUID = GUID.valueOf(msg.getZoneGuid());
           Pen p = Pen.fromDto(msg.getPen());
@@ -385,7 +514,7 @@ private void handle(UpdateDrawingMsg msg) {
   }
 
   private void handle(UpdateTokenPropertyMsg msg) {
-    EventQueue.invokeLater(
+    enqueue(
         () -> {
           var zoneGUID = GUID.valueOf(msg.getZoneGuid());
           var zone = MapTool.getCampaign().getZone(zoneGUID);
@@ -398,96 +527,137 @@ private void handle(UpdateTokenPropertyMsg msg) {
         });
   }
 
+  private void handle(BatchTokenUpdateMsg msg) {
+    // Apply the whole batch at once so the changes are never seen partly applied.
+    enqueue(
+        () -> {
+          for (var update : msg.getUpdatesList()) {
+            var zone = MapTool.getCampaign().getZone(GUID.valueOf(update.getZoneGuid()));
+            var token = zone == null ? null : zone.getToken(GUID.valueOf(update.getTokenGuid()));
+            if (token != null) {
+              token.updateProperty(
+                  zone, Token.Update.valueOf(update.getProperty().name()), update.getValuesList());
+            }
+          }
+        });
+  }
+
   private void handle(RemoveDataMsg msg) {
-    String removeDType = msg.getType();
-    String removeDNamespace = msg.getNamespace();
-    String removeDName = msg.getName();
-    try {
-      new DataStoreManager()
-          .getDefaultDataStoreForRemoteUpdate()
-          .removeProperty(removeDType, removeDNamespace, removeDName)
-          .get();
-    } catch (InterruptedException | ExecutionException e) {
-      log.error(
-          I18N.getText("data.error.removingData", removeDType, removeDNamespace, removeDName), e);
-    }
+    enqueue(
+        () -> {
+          String removeDType = msg.getType();
+          String removeDNamespace = msg.getNamespace();
+          String removeDName = msg.getName();
+          try {
+            new DataStoreManager()
+                .getDefaultDataStoreForRemoteUpdate()
+                .removeProperty(removeDType, removeDNamespace, removeDName)
+                .get();
+          } catch (InterruptedException | ExecutionException e) {
+            log.error(
+                I18N.getText(
+                    "data.error.removingData", removeDType, removeDNamespace, removeDName),
+                e);
+          }
+        });
   }
 
   private void handle(RemoveDataNamespaceMsg msg) {
-    try {
-      new DataStoreManager()
-          .getDefaultDataStoreForRemoteUpdate()
-          .clearNamespace(msg.getType(), msg.getNamespace())
-          .get();
-    } catch (InterruptedException | ExecutionException e) {
-      log.error(I18N.getText("data.error.clearingNamespace", msg.getType(), msg.getNamespace()), e);
-    }
+    enqueue(
+        () -> {
+          try {
+            new DataStoreManager()
+                .getDefaultDataStoreForRemoteUpdate()
+                .clearNamespace(msg.getType(), msg.getNamespace())
+                .get();
+          } catch (InterruptedException | ExecutionException e) {
+            log.error(
+                I18N.getText("data.error.clearingNamespace", msg.getType(), msg.getNamespace()),
+                e);
+          }
+        });
   }
 
   private void handle(RemoveDataStoreMsg msg) {
-    new DataStoreManager().getDefaultDataStoreForRemoteUpdate().clear();
+    enqueue(() -> new DataStoreManager().getDefaultDataStoreForRemoteUpdate().clear());
   }
 
   private void handle(UpdateDataMsg msg) {
-    try {
-      var dataStore = new DataStoreManager().getDefaultDataStoreForRemoteUpdate();
-      new GameDataImporter(dataStore).importData(msg.getType(), msg.getNamespace(), msg.getValue());
-    } catch (ExecutionException | InterruptedException e) {
-      MapTool.showError("data.error.receivingUpdate", e);
-    }
+    enqueue(
+        () -> {
+          try {
+            var dataStore = new DataStoreManager().getDefaultDataStoreForRemoteUpdate();
+            new GameDataImporter(dataStore)
+                .importData(msg.getType(), msg.getNamespace(), msg.getValue());
+          } catch (ExecutionException | InterruptedException e) {
+            MapTool.showError("data.error.receivingUpdate", e);
+          }
+        });
   }
 
   private void handle(UpdateDataNamespaceMsg msg) {
-    try {
-      var dataStore = new DataStoreManager().getDefaultDataStoreForRemoteUpdate();
-      new GameDataImporter(dataStore).importData(msg.getData());
-    } catch (ExecutionException | InterruptedException e) {
-      MapTool.showError("data.error.receivingUpdate", e);
-    }
+    enqueue(
+        () -> {
+          try {
+            var dataStore = new DataStoreManager().getDefaultDataStoreForRemoteUpdate();
+            new GameDataImporter(dataStore).importData(msg.getData());
+          } catch (ExecutionException | InterruptedException e) {
+            MapTool.showError("data.error.receivingUpdate", e);
+          }
+        });
   }
 
   private void handle(UpdateDataStoreMsg msg) {
-    try {
-      var dataStore = new DataStoreManager().getDefaultDataStoreForRemoteUpdate();
-      new GameDataImporter(dataStore).importData(msg.getStore());
-    } catch (ExecutionException | InterruptedException e) {
-      MapTool.showError("data.error.receivingUpdate", e);
-    }
+    enqueue(
+        () -> {
+          try {
+            var dataStore = new DataStoreManager().getDefaultDataStoreForRemoteUpdate();
+            new GameDataImporter(dataStore).importData(msg.getStore());
+          } catch (ExecutionException | InterruptedException e) {
+            MapTool.showError("data.error.receivingUpdate", e);
+          }
+        });
   }
 
   private void handle(RemoveAllAddOnLibrariesMsg msg) {
-    new LibraryManager().deregisterAddOnLibraries();
+    enqueue(() -> new LibraryManager().deregisterAddOnLibraries());
   }
 
   private void handle(RemoveAddOnLibraryMsg msg) {
-    var remLibraryManager = new LibraryManager();
-    var removedNamespaces = msg.getNamespacesList();
-    for (String namespace : removedNamespaces) {
-      remLibraryManager.deregisterAddOnLibrary(namespace);
-    }
+    enqueue(
+        () -> {
+          var remLibraryManager = new LibraryManager();
+          var removedNamespaces = msg.getNamespacesList();
+          for (String namespace : removedNamespaces) {
+            remLibraryManager.deregisterAddOnLibrary(namespace);
+          }
+        });
   }
 
   private void handle(AddAddOnLibraryMsg msg) {
-    var addedLibs =
-        msg.getAddOnsList().stream()
-            .map(TransferableAddOnLibrary::fromDto)
-            .collect(Collectors.toList());
-    for (var lib : addedLibs) {
-      AssetManager.getAssetAsynchronously(
-          lib.getAssetKey(),
-          a -> {
-            Asset asset = AssetManager.getAsset(a);
-            try {
-              var addOnLibrary = new AddOnLibraryImporter().importFromAsset(asset);
-              new LibraryManager().reregisterAddOnLibrary(addOnLibrary);
-            } catch (IOException e) {
-              SwingUtilities.invokeLater(
-                  () ->
-                      MapTool.showError(
-                          I18N.getText("library.import.error", lib.getNamespace()), e));
-            }
-          });
-    }
+    enqueue(
+        () -> {
+          var addedLibs =
+              msg.getAddOnsList().stream()
+                  .map(TransferableAddOnLibrary::fromDto)
+                  .collect(Collectors.toList());
+          for (var lib : addedLibs) {
+            AssetManager.getAssetAsynchronously(
+                lib.getAssetKey(),
+                a -> {
+                  Asset asset = AssetManager.getAsset(a);
+                  try {
+                    var addOnLibrary = new AddOnLibraryImporter().importFromAsset(asset);
+                    new LibraryManager().reregisterAddOnLibrary(addOnLibrary);
+                  } catch (IOException e) {
+                    SwingUtilities.invokeLater(
+                        () ->
+                            MapTool.showError(
+                                I18N.getText("library.import.error", lib.getNamespace()), e));
+                  }
+                });
+          }
+        });
   }
 
   private void handle(UpdateAssetTransferMsg msg) {
@@ -504,7 +674,7 @@ private void handle(StartAssetTransferMsg msg) {
   }
 
   private void handle(SetZoneHasFowMsg msg) {
-    EventQueue.invokeLater(
+    enqueue(
         () -> {
           var zoneGUID = GUID.valueOf(msg.getZoneGuid());
           boolean hasFog = msg.getHasFow();
@@ -518,7 +688,7 @@ private void handle(SetZoneHasFowMsg msg) {
   }
 
   private void handle(SetZoneGridSizeMsg msg) {
-    EventQueue.invokeLater(
+    enqueue(
         () -> {
           var zoneGUID = GUID.valueOf(msg.getZoneGuid());
           int xOffset = msg.getXOffset();
@@ -536,7 +706,7 @@ private void handle(SetZoneGridSizeMsg msg) {
   }
 
   private void handle(SetVisionTypeMsg msg) {
-    EventQueue.invokeLater(
+    enqueue(
         () -> {
           var zoneGUID = GUID.valueOf(msg.getZoneGuid());
           VisionType visionType = VisionType.valueOf(msg.getVision().name());
@@ -553,7 +723,7 @@ private void handle(SetVisionTypeMsg msg) {
   }
 
   private void handle(SetTokenLocationMsg msg) {
-    EventQueue.invokeLater(
+    enqueue(
         () -> {
           // Only the table should process this
           if (MapTool.getPlayer().getName().equalsIgnoreCase("Table")) {
@@ -586,7 +756,7 @@ private void handle(SetTokenLocationMsg msg) {
   }
 
   private void handle(SetLiveTypingLabelMsg msg) {
-    EventQueue.invokeLater(
+    enqueue(
         () -> {
           if (msg.getTyping()) {
             // add a typer
@@ -599,7 +769,7 @@ private void handle(SetLiveTypingLabelMsg msg) {
   }
 
   private void handle(SetFowMsg msg) {
-    EventQueue.invokeLater(
+    enqueue(
         () -> {
           var zoneGUID = GUID.valueOf(msg.getZoneGuid());
           var area = Mapper.map(msg.getArea());
@@ -613,7 +783,7 @@ private void handle(SetFowMsg msg) {
   }
 
   private void handle(SetCampaignNameMsg msg) {
-    EventQueue.invokeLater(
+    enqueue(
         () -> {
           MapTool.getCampaign().setName(msg.getName());
           MapTool.getFrame().setTitle();
@@ -621,7 +791,7 @@ private void handle(SetCampaignNameMsg msg) {
   }
 
   private void handle(SetCampaignMsg msg) {
-    EventQueue.invokeLater(
+    enqueue(
         () -> {
           Campaign campaign = Campaign.fromDto(msg.getCampaign());
           MapTool.setCampaign(campaign);
@@ -632,7 +802,7 @@ private void handle(SetCampaignMsg msg) {
   }
 
   private void handle(SetBoardMsg msg) {
-    EventQueue.invokeLater(
+    enqueue(
         () -> {
           var zoneGUID = GUID.valueOf(msg.getZoneGuid());
           var zone = MapTool.getCampaign().getZone(zoneGUID);
@@ -644,7 +814,7 @@ private void handle(SetBoardMsg msg) {
   }
 
   private void handle(RestoreZoneViewMsg msg) {
-    EventQueue.invokeLater(
+    enqueue(
         () -> {
           var zoneGUID = GUID.valueOf(msg.getZoneGuid());
           MapTool.getFrame().getZoneRenderer(zoneGUID).restoreView();
@@ -652,7 +822,7 @@ private void handle(RestoreZoneViewMsg msg) {
   }
 
   private void handle(RenameZoneMsg msg) {
-    EventQueue.invokeLater(
+    enqueue(
         () -> {
           var zoneGUID = GUID.valueOf(msg.getZoneGuid());
           String name = msg.getName();
@@ -666,7 +836,7 @@ private void handle(RenameZoneMsg msg) {
   }
 
   private void handle(RemoveZoneMsg msg) {
-    EventQueue.invokeLater(
+    enqueue(
         () -> {
           var zoneGUID = GUID.valueOf(msg.getZoneGuid());
           final var renderer = MapTool.getFrame().getZoneRenderer(zoneGUID);
@@ -681,7 +851,7 @@ private void handle(RemoveZoneMsg msg) {
   }
 
   private void handle(RemoveTopologyMsg msg) {
-    EventQueue.invokeLater(
+    enqueue(
         () -> {
           var zoneGUID = GUID.valueOf(msg.getZoneGuid());
           var area = Mapper.map(msg.getArea());
@@ -695,7 +865,7 @@ private void handle(RemoveTopologyMsg msg) {
   }
 
   private void handle(RemoveTokensMsg msg) {
-    EventQueue.invokeLater(
+    enqueue(
         () -> {
           var zoneGUID = GUID.valueOf(msg.getZoneGuid());
           var zone = MapTool.getCampaign().getZone(zoneGUID);
@@ -707,7 +877,7 @@ private void handle(RemoveTokensMsg msg) {
   }
 
   private void handle(RemoveTokenMsg msg) {
-    EventQueue.invokeLater(
+    enqueue(
         () -> {
           var zoneGUID = GUID.valueOf(msg.getZoneGuid());
           var zone = MapTool.getCampaign().getZone(zoneGUID);
@@ -718,7 +888,7 @@ private void handle(RemoveTokenMsg msg) {
   }
 
   private void handle(RemoveLabelMsg msg) {
-    EventQueue.invokeLater(
+    enqueue(
         () -> {
           var zoneGUID = GUID.valueOf(msg.getZoneGuid());
           var zone = MapTool.getCampaign().getZone(zoneGUID);
@@ -729,7 +899,7 @@ private void handle(RemoveLabelMsg msg) {
   }
 
   private void handle(PutZoneMsg msg) {
-    EventQueue.invokeLater(
+    enqueue(
         () -> {
           Zone zone = Zone.fromDto(msg.getZone());
           MapTool.getCampaign().putZone(zone);
@@ -737,7 +907,9 @@ private void handle(PutZoneMsg msg) {
           // TODO: combine this with MapTool.addZone()
           var renderer = ZoneRendererFactory.newRenderer(zone);
           MapTool.getFrame().addZoneRenderer(renderer);
-          if (MapTool.getFrame().getCurrentZoneRenderer() == null && zone.isVisible()) {
+          // Zones also arrive this way after the campaign when joining a server
+          if (MapTool.getFrame().getCurrentZoneRenderer() == null
+              && (MapTool.getPlayer().isGM() || zone.isVisible())) {
             MapTool.getFrame().setCurrentZoneRenderer(renderer);
           }
 
@@ -748,7 +920,7 @@ private void handle(PutZoneMsg msg) {
   }
 
   private void handle(PutLabelMsg msg) {
-    EventQueue.invokeLater(
+    enqueue(
         () -> {
           var zoneGUID = GUID.valueOf(msg.getZoneGuid());
           var zone = MapTool.getCampaign().getZone(zoneGUID);
@@ -760,12 +932,15 @@ private void handle(PutLabelMsg msg) {
 
   private void handle(PutAssetMsg msg) {
     AssetManager.putAsset(Asset.fromDto(msg.getAsset()));
-    MapTool.getFrame().getCurrentZoneRenderer().flushDrawableRenderer();
-    MapTool.getFrame().refresh();
+    enqueue(
+        () -> {
+          MapTool.getFrame().getCurrentZoneRenderer().flushDrawableRenderer();
+          MapTool.getFrame().refresh();
+        });
   }
 
   private void handle(PlayerDisconnectedMsg msg) {
-    EventQueue.invokeLater(
+    enqueue(
         () -> {
           MapTool.removePlayer(Player.fromDto(msg.getPlayer()));
           MapTool.getFrame().refresh();
@@ -773,7 +948,7 @@ private void handle(PlayerDisconnectedMsg msg) {
   }
 
   private void handle(PlayerConnectedMsg msg) {
-    EventQueue.invokeLater(
+    enqueue(
         () -> {
           MapTool.addPlayer(Player.fromDto(msg.getPlayer()));
           MapTool.getFrame().refresh();
@@ -781,7 +956,7 @@ private void handle(PlayerConnectedMsg msg) {
   }
 
   private void handle(MovePointerMsg msg) {
-    EventQueue.invokeLater(
+    enqueue(
         () -> {
           Pointer pointer = MapTool.getFrame().getPointerOverlay().getPointer(msg.getPlayer());
           if (pointer == null) {
@@ -795,7 +970,7 @@ private void handle(MovePointerMsg msg) {
   }
 
   private void handle(MessageMsg msg) {
-    EventQueue.invokeLater(
+    enqueue(
         () -> {
           TextMessage message = TextMessage.fromDto(msg.getMessage());
           MapTool.addServerMessage(message);
@@ -803,7 +978,7 @@ private void handle(MessageMsg msg) {
   }
 
   private void handle(HidePointerMsg msg) {
-    EventQueue.invokeLater(
+    enqueue(
         () -> {
           MapTool.getFrame().getPointerOverlay().removePointer(msg.getPlayer());
           MapTool.getFrame().refresh();
@@ -811,7 +986,7 @@ private void handle(HidePointerMsg msg) {
   }
 
   private void handle(HideFowMsg msg) {
-    EventQueue.invokeLater(
+    enqueue(
         () -> {
           var zoneGUID = GUID.valueOf(msg.getZoneGuid());
           var area = Mapper.map(msg.getArea());
@@ -825,7 +1000,7 @@ private void handle(HideFowMsg msg) {
   }
 
   private void handle(ExposePcAreaMsg msg) {
-    EventQueue.invokeLater(
+    enqueue(
         () -> {
           var zoneGuid = GUID.valueOf(msg.getZoneGuid());
           var renderer = MapTool.getFrame().getZoneRenderer(zoneGuid);
@@ -834,7 +1009,7 @@ private void handle(ExposePcAreaMsg msg) {
   }
 
   private void handle(ExposeFowMsg msg) {
-    EventQueue.invokeLater(
+    enqueue(
         () -> {
           var zoneGUID = GUID.valueOf(msg.getZoneGuid());
           Area area = Mapper.map(msg.getArea());
@@ -847,12 +1022,12 @@ private void handle(ExposeFowMsg msg) {
   }
 
   private void handle(ExecLinkMsg msg) {
-    EventQueue.invokeLater(
+    enqueueInteractive(
         () -> MacroLinkFunction.receiveExecLink(msg.getLink(), msg.getTarget(), msg.getSource()));
   }
 
   private void handle(ExecFunctionMsg msg) {
-    EventQueue.invokeLater(
+    enqueueInteractive(
         () ->
             ExecFunction.receiveExecFunction(
                 msg.getTarget(),
@@ -862,7 +1037,7 @@ private void handle(ExecFunctionMsg msg) {
   }
 
   private void handle(EnforceZoneViewMsg msg) {
-    EventQueue.invokeLater(
+    enqueue(
         () -> {
           var zoneGUID = GUID.valueOf(msg.getZoneGuid());
           int x = msg.getX();
@@ -885,7 +1060,7 @@ private void handle(EnforceZoneViewMsg msg) {
   }
 
   private void handle(EnforceZoneMsg msg) {
-    EventQueue.invokeLater(
+    enqueue(
         () -> {
           var zoneGUID = GUID.valueOf(msg.getZoneGuid());
           ZoneRenderer renderer = MapTool.getFrame().getZoneRenderer(zoneGUID);
@@ -899,12 +1074,12 @@ private void handle(EnforceZoneMsg msg) {
   }
 
   private void handle(EnforceNotificationMsg msg) {
-    EventQueue.invokeLater(
+    enqueue(
         () -> MapTool.getFrame().getCommandPanel().disableNotifyButton(msg.getEnforce()));
   }
 
   private void handle(PutTokenMsg putTokenMsg) {
-    EventQueue.invokeLater(
+    enqueue(
         () -> {
           var zoneGUID = GUID.valueOf(putTokenMsg.getZoneGuid());
           var zone = MapTool.getCampaign().getZone(zoneGUID);
@@ -915,7 +1090,7 @@ private void handle(PutTokenMsg putTokenMsg) {
   }
 
   private void handle(EditTokenMsg editTokenMsg) {
-    EventQueue.invokeLater(
+    enqueue(
         () -> {
           var zoneGUID = GUID.valueOf(editTokenMsg.getZoneGuid());
           var zone = MapTool.getCampaign().getZone(zoneGUID);
@@ -926,7 +1101,7 @@ private void handle(EditTokenMsg editTokenMsg) {
   }
 
   private void handle(DrawMsg drawMsg) {
-    EventQueue.invokeLater(
+    enqueue(
         () -> {
           var zoneGuid = GUID.valueOf(drawMsg.getZoneGuid());
           Pen pen = Pen.fromDto(drawMsg.getPen());
@@ -939,7 +1114,7 @@ private void handle(DrawMsg drawMsg) {
   }
 
   private void handle(ClearExposedAreaMsg clearExposedAreaMsg) {
-    EventQueue.invokeLater(
+    enqueue(
         () -> {
           var zoneGUID = GUID.valueOf(clearExposedAreaMsg.getZoneGuid());
           var zone = MapTool.getCampaign().getZone(zoneGUID);
@@ -948,7 +1123,7 @@ private void handle(ClearExposedAreaMsg clearExposedAreaMsg) {
   }
 
   private void handle(ClearAllDrawingsMsg clearAllDrawingsMsg) {
-    EventQueue.invokeLater(
+    enqueue(
         () -> {
           var zoneGUID = GUID.valueOf(clearAllDrawingsMsg.getZoneGuid());
           var layer = Zone.Layer.valueOf(clearAllDrawingsMsg.getLayer());
@@ -960,7 +1135,7 @@ private void handle(ClearAllDrawingsMsg clearAllDrawingsMsg) {
   }
 
   private void handle(ChangeZoneDisplayNameMsg changeZoneDisplayNameMsg) {
-    EventQueue.invokeLater(
+    enqueue(
         () -> {
           var zoneGUID = GUID.valueOf(changeZoneDisplayNameMsg.getZoneGuid());
           String displayName = changeZoneDisplayNameMsg.getName();
@@ -978,20 +1153,23 @@ private void handle(ChangeZoneDisplayNameMsg changeZoneDisplayNameMsg) {
   }
 
   private void handle(AddTopologyMsg addTopologyMsg) {
-    var zoneGUID = GUID.valueOf(addTopologyMsg.getZoneGuid());
-    var area = Mapper.map(addTopologyMsg.getArea());
-    var topologyType = Zone.TopologyType.valueOf(addTopologyMsg.getType().name());
+    enqueue(
+        () -> {
+          var zoneGUID = GUID.valueOf(addTopologyMsg.getZoneGuid());
+          var area = Mapper.map(addTopologyMsg.getArea());
+          var topologyType = Zone.TopologyType.valueOf(addTopologyMsg.getType().name());
 
-    var zone = MapTool.getCampaign().getZone(zoneGUID);
-    zone.addTopology(area, topologyType);
+          var zone = MapTool.getCampaign().getZone(zoneGUID);
+          zone.addTopology(area, topologyType);
 
-    MapTool.getFrame().getZoneRenderer(zoneGUID).repaint();
+          MapTool.getFrame().getZoneRenderer(zoneGUID).repaint();
+        });
   }
 
   private void handle(BootPlayerMsg bootPlayerMsg) {
     String playerName = bootPlayerMsg.getPlayerName();
     if (MapTool.getPlayer().getName().equals(playerName))
-      EventQueue.invokeLater(
+      enqueueInteractive(
           () -> {
             ServerDisconnectHandler.disconnectExpected = true;
             AppActions.disconnectFromServer();
@@ -1043,6 +1043,15 @@ public static void startServer(
       }
     }
 
+    ZoneRenderer currentRenderer = getFrame().getCurrentZoneRenderer();
+    if (currentRenderer != null) {
+      server.setHostZoneId(currentRenderer.getZone().getId());
+    }
+
+    // The campaign changes are journaled as they are applied to our copy of the campaign, which
+    // is the one autosaved.
+    handler.setMessageJournal(getAutoSaveManager().getJournal());
+
     if (MapTool.isHostingServer()) {
       getFrame().getConnectionPanel().startHosting();
     }
@@ -1063,6 +1072,7 @@ public static void stopServer() {
     }
 
     disconnect();
+    handler.setMessageJournal(null);
     server.stop();
     server = null;
     getFrame().getConnectionPanel().stopHosting();
@@ -250,6 +250,7 @@ public String parseLine(
     boolean resolverInitialized = false;
     String opts = null;
     String roll = null;
+    beginTokenUpdateBatch();
     try {
       // Keep the same variable context for this line
       resolver = (res == null) ? new MapToolVariableResolver(tokenInContext) : res;
@@ -988,10 +989,15 @@ public String parseLine(
       throw doError(
           "lineParser.errorBodyRoll", opts == null ? "" : opts, roll == null ? line : roll);
     } finally {
-      exitContext();
-      if (resolverInitialized) {
-        // This is the top level call, time to clean up
-        resolver.flush();
+      try {
+        exitContext();
+        if (resolverInitialized) {
+          // This is the top level call, time to clean up
+          resolver.flush();
+        }
+      } finally {
+        // Always close the batch, or every later token update on this thread stays batched.
+        endTokenUpdateBatch();
       }
       if (MapTool.getFrame() != null) {
         // Repaint in case macros changed anything.
@@ -1260,6 +1266,8 @@ public String runMacro(
       macroRecurseDepth = 0;
       throw new ParserException(I18N.getText("lineParser.maxRecursion"));
     }
+    // Token updates made by the macro are sent together when the outermost macro finishes.
+    beginTokenUpdateBatch();
     try {
       String macroOutput = null;
 
@@ -1285,6 +1293,7 @@ public String runMacro(
     } finally {
       // exitContext();
       macroRecurseDepth--;
+      endTokenUpdateBatch();
     }
   }
 
@@ -1516,6 +1525,20 @@ public MapToolMacroContext enterContext(MapToolMacroContext context) {
     return context;
   }
 
+  /** Starts batching token updates, if there is a server to send them to. */
+  private static void beginTokenUpdateBatch() {
+    if (MapTool.serverCommand() != null) {
+      MapTool.serverCommand().beginTokenUpdateBatch();
+    }
+  }
+
+  /** Ends batching token updates, sending them if this is the outermost batch. */
+  private static void endTokenUpdateBatch() {
+    if (MapTool.serverCommand() != null) {
+      MapTool.serverCommand().endTokenUpdateBatch();
+    }
+  }
+
   /**
    * Leaves the current context reverting to the previous context.
    *
@@ -54,6 +54,10 @@ public class ServerCommandClientImpl implements ServerCommand {
   private final LinkedBlockingQueue<MD5Key> assetRetrieveQueue = new LinkedBlockingQueue<MD5Key>();
   private static final Logger log = Logger.getLogger(ServerCommandClientImpl.class);
 
+  /** The token updates waiting to be sent for the macro running on each thread. */
+  private static final ThreadLocal<TokenUpdateBatch> tokenUpdateBatch =
+      ThreadLocal.withInitial(TokenUpdateBatch::new);
+
   public ServerCommandClientImpl() {
     movementUpdateQueue.start();
     // new AssetRetrievalThread().start();
@@ -215,7 +219,41 @@ public void updateTokenProperty(
             .setZoneGuid(zoneGUID.toString())
             .setProperty(TokenUpdateDto.valueOf(update.name()))
             .addAllValues(parameters);
-    makeServerCall(Message.newBuilder().setUpdateTokenPropertyMsg(msg).build());
+    var batch = tokenUpdateBatch.get();
+    if (batch.isOpen()) {
+      batch.add(msg.build());
+    } else {
+      makeServerCall(Message.newBuilder().setUpdateTokenPropertyMsg(msg).build());
+    }
+  }
+
+  @Override
+  public void beginTokenUpdateBatch() {
+    tokenUpdateBatch.get().begin();
+  }
+
+  @Override
+  public void endTokenUpdateBatch() {
+    if (tokenUpdateBatch.get().end()) {
+      sendTokenUpdateBatch();
+    }
+  }
+
+  /** Sends any token updates batched on this thread as a single message. */
+  private static void sendTokenUpdateBatch() {
+    var batch = tokenUpdateBatch.get();
+    if (batch.isEmpty() || MapTool.getConnection() == null) {
+      return;
+    }
+    var updates = batch.drain();
+    Message msg;
+    if (updates.size() == 1) {
+      msg = Message.newBuilder().setUpdateTokenPropertyMsg(updates.get(0)).build();
+    } else {
+      var batchMsg = BatchTokenUpdateMsg.newBuilder().addAllUpdates(updates);
+      msg = Message.newBuilder().setBatchTokenUpdateMsg(batchMsg).build();
+    }
+    send(msg);
   }
 
   /**
@@ -517,9 +555,19 @@ public void clearExposedArea(GUID zoneGUID, boolean globalOnly) {
   }
 
   private static void makeServerCall(Message msg) {
+    // Anything sent during a macro has to arrive after the token updates made before it.
+    sendTokenUpdateBatch();
     if (MapTool.getConnection() != null) {
-      MapTool.getConnection().sendMessage(msg);
+      send(msg);
+    }
+  }
+
+  private static void send(Message msg) {
+    if (MapTool.isHostingServer() || MapTool.isPersonalServer()) {
+      // The change has already been made to our campaign, which is the one that is autosaved.
+      MapTool.getAutoSaveManager().getJournal().recordSent(msg);
     }
+    MapTool.getConnection().sendMessage(msg);
   }
 
   public void setBoard(GUID zoneGUID, MD5Key mapAssetId, int x, int y) {
@@ -0,0 +1,146 @@
+/*
+ * This software Copyright by the RPTools.net development team, and
+ * licensed under the Affero GPL Version 3 or, at your option, any later
+ * version.
+ *
+ * MapTool Source Code is distributed in the hope that it will be
+ * useful, but WITHOUT ANY WARRANTY; without even the implied warranty
+ * of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ *
+ * You should have received a copy of the GNU Affero General Public
+ * License * along with this source code.  If not, please visit
+ * <http://www.gnu.org/licenses/> and specifically the Affero license
+ * text at <http://www.gnu.org/licenses/agpl.html>.
+ */
+package net.rptools.maptool.client;
+
+import static net.rptools.maptool.model.Token.Update.*;
+
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import net.rptools.maptool.model.Token;
+import net.rptools.maptool.server.proto.UpdateTokenPropertyMsg;
+
+/**
+ * Collects the token property updates made while a macro runs so that they can be sent to the
+ * server together when the outermost macro finishes.
+ *
+ * <p>An update that completely replaces a value written by an earlier update in the batch replaces
+ * that update, so repeatedly setting the same property only sends the last value. The replacing
+ * update is moved to the end of the batch so it is still applied after anything that came between
+ * them. All other updates are kept in the order they were made.
+ */
+class TokenUpdateBatch {
+
+  /** Updates that replace the whole of a single value of the token. */
+  private static final Set<Token.Update> REPLACING_UPDATES =
+      EnumSet.of(
+          setPropertyType,
+          setLayer,
+          setShape,
+          setSnapToScale,
+          setSnapToGrid,
+          setZOrder,
+          setFacing,
+          setScaleX,
+          setScaleY,
+          setNotes,
+          setGMNotes,
+          setHaloColor,
+          setLabel,
+          setName,
+          setGMName,
+          setSpeechName,
+          setVisible,
+          setVisibleOnlyToOwner,
+          setIsAlwaysVisible,
+          setTokenOpacity,
+          setTerrainModifier,
+          setTerrainModifierOperation,
+          setHasSight,
+          setSightType,
+          setPortraitImage,
+          setCharsheetImage);
+
+  /** Updates that replace the value named by their first parameter. */
+  private static final Set<Token.Update> NAMED_REPLACING_UPDATES =
+      EnumSet.of(setState, setProperty);
+
+  /** Identifies the value an update replaces. */
+  private record UpdateKey(String zoneId, String tokenId, Token.Update update, String name) {}
+
+  private final Map<Object, UpdateTokenPropertyMsg> updates = new LinkedHashMap<>();
+  private int depth;
+
+  /** Opens the batch, or a nested scope within it. */
+  void begin() {
+    depth++;
+  }
+
+  /**
+   * Closes the innermost scope of the batch.
+   *
+   * @return {@code true} if the outermost scope was closed and the batch should be sent.
+   */
+  boolean end() {
+    if (depth > 0) {
+      depth--;
+    }
+    return depth == 0;
+  }
+
+  /**
+   * Returns if updates are currently being batched.
+   *
+   * @return {@code true} if there is an open scope.
+   */
+  boolean isOpen() {
+    return depth > 0;
+  }
+
+  /**
+   * Adds an update to the batch.
+   *
+   * @param msg the update.
+   */
+  void add(UpdateTokenPropertyMsg msg) {
+    var update = Token.Update.valueOf(msg.getProperty().name());
+    Object key;
+    if (REPLACING_UPDATES.contains(update)) {
+      key = new UpdateKey(msg.getZoneGuid(), msg.getTokenGuid(), update, null);
+    } else if (NAMED_REPLACING_UPDATES.contains(update) && msg.getValuesCount() > 0) {
+      key =
+          new UpdateKey(
+              msg.getZoneGuid(), msg.getTokenGuid(), update, msg.getValues(0).getStringValue());
+    } else {
+      // Can't be merged with anything, so give it a key of its own.
+      key = new Object();
+    }
+    updates.remove(key);
+    updates.put(key, msg);
+  }
+
+  /**
+   * Removes all the updates from the batch.
+   *
+   * @return the updates, in the order they should be applied.
+   */
+  List<UpdateTokenPropertyMsg> drain() {
+    var result = new ArrayList<>(updates.values());
+    updates.clear();
+    return result;
+  }
+
+  /**
+   * Returns if there are no updates in the batch.
+   *
+   * @return {@code true} if there is nothing to send.
+   */
+  boolean isEmpty() {
+    return updates.isEmpty();
+  }
+}
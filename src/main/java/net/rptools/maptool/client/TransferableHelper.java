@@ -27,11 +27,14 @@
 import java.util.Collections;
 import java.util.List;
 import java.util.StringTokenizer;
+import java.util.concurrent.ExecutionException;
+import java.util.function.BiConsumer;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 import javax.imageio.ImageIO;
 import javax.swing.JComponent;
 import javax.swing.SwingUtilities;
+import javax.swing.SwingWorker;
 import javax.swing.TransferHandler;
 import net.rptools.lib.MD5Key;
 import net.rptools.lib.image.ImageUtil;
@@ -283,6 +286,17 @@ public static List<Object> getAsset(Transferable transferable) {
       MapTool.showError("TransferableHelper.error.unrecognizedAsset", e); // $NON-NLS-1$
       return null;
     }
+    return registerAssets(assets);
+  }
+
+  /**
+   * Adds the assets that were transferred to the asset manager and sends them to the server if the
+   * campaign doesn't have them yet.
+   *
+   * @param assets the transferred assets and tokens.
+   * @return the list passed in, or {@code null} if it is empty.
+   */
+  private static List<Object> registerAssets(List<Object> assets) {
     if (assets == null || assets.isEmpty()) {
       return null;
     }
@@ -398,7 +412,58 @@ private static Asset handleImage(URL url, String type, Transferable transferable
   // }
 
   private static List<Object> handleURLList(List<URL> list) throws Exception {
+    URLListImport urlImport = prepareURLList(list);
+    if (urlImport.assetUrls().isEmpty()) {
+      return urlImport.assets();
+    }
+    List<Asset> created =
+        AssetManager.createAssets(
+            urlImport.assetUrls(),
+            (done, total) -> SwingUtilities.invokeLater(() -> showImportProgress(done, total)));
+    SwingUtilities.invokeLater(() -> showImportProgress(0, 0));
+    return urlImport.fill(created);
+  }
+
+  /**
+   * The assets and tokens from a list of dropped URLs. The plain assets are created together
+   * afterwards, so they can be imported in parallel. Their places in the list are held with nulls
+   * until then.
+   *
+   * @param assets the assets and tokens, with nulls for the plain assets.
+   * @param assetUrls the URLs of the plain assets.
+   * @param assetIndexes the place in {@code assets} of each of the plain assets.
+   */
+  private record URLListImport(
+      List<Object> assets, List<URL> assetUrls, List<Integer> assetIndexes) {
+
+    /**
+     * Puts the created plain assets in their places.
+     *
+     * @param created the plain assets, in the same order as their URLs.
+     * @return the assets and tokens, without the plain assets that had no data.
+     */
+    List<Object> fill(List<Asset> created) {
+      // Work backwards so removing an asset doesn't move the ones still to be placed.
+      for (int i = created.size() - 1; i >= 0; i--) {
+        Asset temp = created.get(i);
+        int index = assetIndexes.get(i);
+        if (temp != null) { // `null' means no image available
+          assets.set(index, temp);
+        } else {
+          assets.remove(index);
+          if (log.isInfoEnabled()) {
+            log.info("No image available for " + assetUrls.get(i));
+          }
+        }
+      }
+      return assets;
+    }
+  }
+
+  private static URLListImport prepareURLList(List<URL> list) throws Exception {
     List<Object> assets = new ArrayList<Object>();
+    List<URL> assetUrls = new ArrayList<>();
+    List<Integer> assetIndexes = new ArrayList<>();
     for (URL url : list) {
       // A JFileChooser (at least under Linux) sends a couple empty filenames that need to be
       // ignored.
@@ -425,17 +490,111 @@ private static List<Object> handleURLList(List<URL> list) throws Exception {
             log.info("Unsupported file type: " + mediaType.toString() + " (" + url + ")");
             assets.add(AssetManager.getAsset(AssetManager.BAD_ASSET_LOCATION_KEY));
           } else {
-            Asset temp = AssetManager.createAsset(url);
-            if (temp != null) { // `null' means no image available
-              assets.add(temp);
-            } else if (log.isInfoEnabled()) {
-              log.info("No image available for " + url);
-            }
+            assetIndexes.add(assets.size());
+            assetUrls.add(url);
+            assets.add(null);
           }
         }
       }
     }
-    return assets;
+    return new URLListImport(assets, assetUrls, assetIndexes);
+  }
+
+  /**
+   * Shows the progress of importing dropped assets in the status bar.
+   *
+   * @param done the number of assets imported so far.
+   * @param total the number of assets being imported, or 0 to clear the status.
+   */
+  private static void showImportProgress(int done, int total) {
+    if (MapTool.getFrame() != null) {
+      MapTool.getFrame()
+          .setStatusMessage(
+              total == 0 ? "" : I18N.getText("dragdrop.importProgress", done, total));
+    }
+  }
+
+  /**
+   * Returns the URLs of the files in a drop of local files. Drops that also hold assets from the
+   * asset panel are not file drops, as the assets are used instead.
+   *
+   * @param transferable the {@link Transferable} from the drop event.
+   * @return the URLs, or an empty list if it is not a drop of local files.
+   * @throws Exception if the transfer data can't be read.
+   */
+  private static List<URL> getDroppedFileURLs(Transferable transferable) throws Exception {
+    if (transferable.isDataFlavorSupported(TransferableAsset.dataFlavor)
+        || transferable.isDataFlavorSupported(TransferableAssetReference.dataFlavor)) {
+      return List.of();
+    }
+    // The same checks as in getAsset().
+    if (transferable.isDataFlavorSupported(URI_LIST_FLAVOR)) {
+      String data = (String) transferable.getTransferData(URI_LIST_FLAVOR);
+      List<URL> list = textURIListToFileList(data);
+      if (!list.isEmpty()) {
+        return list;
+      }
+    }
+    if (transferable.isDataFlavorSupported(DataFlavor.javaFileListFlavor)) {
+      return new FileTransferableHandler().getTransferObject(transferable);
+    }
+    return List.of();
+  }
+
+  /**
+   * Imports the plain assets of a drop of local files in the background, showing the progress in
+   * the status bar. When the import is done, the tokens for the drop are made on the EDT and the
+   * actions waiting for them are run.
+   */
+  private class DropImportWorker extends SwingWorker<List<Asset>, Integer> {
+    private final URLListImport urlImport;
+    private final List<BiConsumer<List<Token>, List<Boolean>>> actions = new ArrayList<>();
+
+    private DropImportWorker(URLListImport urlImport) {
+      this.urlImport = urlImport;
+    }
+
+    @Override
+    protected List<Asset> doInBackground() throws IOException {
+      return AssetManager.createAssets(urlImport.assetUrls(), (done, total) -> publish(done));
+    }
+
+    @Override
+    protected void process(List<Integer> chunks) {
+      if (!isDone()) {
+        showImportProgress(chunks.get(chunks.size() - 1), urlImport.assetUrls().size());
+      }
+    }
+
+    @Override
+    protected void done() {
+      showImportProgress(0, 0);
+      // A later drop replaces the tokens of this one, but this drop still finishes.
+      boolean current = pendingImport == this;
+      if (current) {
+        pendingImport = null;
+      }
+      List<Object> assets;
+      try {
+        assets = registerAssets(urlImport.fill(get()));
+      } catch (InterruptedException | ExecutionException e) {
+        MapTool.showError("TransferableHelper.error.unrecognizedAsset", e); // $NON-NLS-1$
+        return;
+      }
+      if (assets == null) {
+        return;
+      }
+      List<Token> dropped = new ArrayList<>(assets.size());
+      List<Boolean> configure = new ArrayList<>(assets.size());
+      makeTokens(assets, dropped, configure);
+      if (current) {
+        tokens = dropped;
+        configureTokens = configure;
+      }
+      for (var action : actions) {
+        action.accept(dropped, configure);
+      }
+    }
   }
 
   private static boolean checkValidType(MediaType mediaType) {
@@ -538,6 +697,9 @@ public boolean canImport(JComponent comp, DataFlavor[] transferFlavors) {
   /** Whether or not each token needs additional configuration (set footprint, guess shape). */
   List<Boolean> configureTokens;
 
+  /** The import of dropped files still running for the last drop, if any. */
+  private DropImportWorker pendingImport;
+
   /**
    * Retrieves a list of DataFlavors from the passed in Transferable, then tries to actually
    * retrieve an object from the drop event using each one.
@@ -611,48 +773,29 @@ public boolean importData(JComponent comp, Transferable t) {
       configureTokens = null;
     }
     if (log.isInfoEnabled()) whichOnesWork(t);
+    pendingImport = null;
+
+    // Dropped files are imported in the background, and the drop is finished when they are ready.
+    try {
+      List<URL> urls = getDroppedFileURLs(t);
+      if (!urls.isEmpty()) {
+        URLListImport urlImport = prepareURLList(urls);
+        if (!urlImport.assetUrls().isEmpty()) {
+          pendingImport = new DropImportWorker(urlImport);
+          pendingImport.execute();
+          return true;
+        }
+      }
+    } catch (Exception e) {
+      MapTool.showError("TransferableHelper.error.unrecognizedAsset", e); // $NON-NLS-1$
+      return false;
+    }
 
     List<Object> assets = getAsset(t);
     if (assets != null) {
       tokens = new ArrayList<Token>(assets.size());
       configureTokens = new ArrayList<Boolean>(assets.size());
-      // Zone zone = MapTool.getFrame().getCurrentZoneRenderer().getZone();
-      for (Object working : assets) {
-        if (working instanceof Asset asset) {
-          if (asset.getType() == Type.MTLIB) {
-            if (MapTool.getPlayer().isGM()) {
-              try {
-                var addOnLibrary = new AddOnLibraryImporter().importFromAsset(asset);
-                new LibraryManager().reregisterAddOnLibrary(addOnLibrary);
-                SwingUtilities.invokeLater(
-                    () -> {
-                      MapTool.showInformation(
-                          I18N.getText("library.imported", addOnLibrary.getNamespace().join()));
-                    });
-              } catch (IOException e) {
-                SwingUtilities.invokeLater(
-                    () -> {
-                      MapTool.showError(I18N.getText("library.import.error", asset.getName()), e);
-                    });
-              }
-            } else {
-              MapTool.showError(I18N.getText("library.import.error.notGM"));
-            }
-          } else {
-            Token token = new Token(asset.getName(), asset.getMD5Key());
-            // token.setName(MapToolUtil.nextTokenId(zone, token));
-            tokens.add(token);
-            // A token from an image asset needs additional configuration.
-            configureTokens.add(true);
-          }
-        } else if (working instanceof Token) {
-          Token token = new Token((Token) working);
-          // token.setName(MapToolUtil.nextTokenId(zone, token));
-          tokens.add(token);
-          // A token from an .rptok file is already fully configured.
-          configureTokens.add(false);
-        }
-      }
+      makeTokens(assets, tokens, configureTokens);
     } else {
       if (t.isDataFlavorSupported(TransferableToken.dataFlavor)) {
         try {
@@ -679,6 +822,69 @@ public boolean importData(JComponent comp, Transferable t) {
     return tokens != null;
   }
 
+  /**
+   * Makes the tokens for the transferred assets and tokens. Add-on libraries are imported instead.
+   *
+   * @param assets the transferred assets and tokens.
+   * @param tokens the list to add the tokens to.
+   * @param configureTokens the list to add whether each token needs additional configuration to.
+   */
+  private static void makeTokens(
+      List<Object> assets, List<Token> tokens, List<Boolean> configureTokens) {
+    // Zone zone = MapTool.getFrame().getCurrentZoneRenderer().getZone();
+    for (Object working : assets) {
+      if (working instanceof Asset asset) {
+        if (asset.getType() == Type.MTLIB) {
+          if (MapTool.getPlayer().isGM()) {
+            try {
+              var addOnLibrary = new AddOnLibraryImporter().importFromAsset(asset);
+              new LibraryManager().reregisterAddOnLibrary(addOnLibrary);
+              SwingUtilities.invokeLater(
+                  () -> {
+                    MapTool.showInformation(
+                        I18N.getText("library.imported", addOnLibrary.getNamespace().join()));
+                  });
+            } catch (IOException e) {
+              SwingUtilities.invokeLater(
+                  () -> {
+                    MapTool.showError(I18N.getText("library.import.error", asset.getName()), e);
+                  });
+            }
+          } else {
+            MapTool.showError(I18N.getText("library.import.error.notGM"));
+          }
+        } else {
+          Token token = new Token(asset.getName(), asset.getMD5Key());
+          // token.setName(MapToolUtil.nextTokenId(zone, token));
+          tokens.add(token);
+          // A token from an image asset needs additional configuration.
+          configureTokens.add(true);
+        }
+      } else if (working instanceof Token) {
+        Token token = new Token((Token) working);
+        // token.setName(MapToolUtil.nextTokenId(zone, token));
+        tokens.add(token);
+        // A token from an .rptok file is already fully configured.
+        configureTokens.add(false);
+      }
+    }
+  }
+
+  /**
+   * Runs an action with the tokens of the last drop once they are ready. The assets of dropped
+   * files are imported in the background, so the action runs on the EDT after the import is done.
+   * For other drops the action runs straight away.
+   *
+   * @param action the action, given the tokens and whether each needs additional configuration.
+   */
+  public void whenImported(BiConsumer<List<Token>, List<Boolean>> action) {
+    if (pendingImport != null) {
+      pendingImport.actions.add(action);
+    } else if (tokens != null) {
+      action.accept(tokens, configureTokens);
+    }
+  }
+
   /** @see javax.swing.TransferHandler#getSourceActions(javax.swing.JComponent) */
   @Override
   public int getSourceActions(JComponent c) {
@@ -31,6 +31,7 @@
 import net.rptools.maptool.client.ui.htmlframe.HTMLFrameFactory;
 import net.rptools.maptool.client.ui.htmlframe.HTMLFrameFactory.FrameType;
 import net.rptools.maptool.client.ui.htmlframe.HTMLOverlayManager;
+import net.rptools.maptool.client.ui.htmlframe.HTMLWebViewManager;
 import net.rptools.maptool.language.I18N;
 import net.rptools.maptool.model.library.Library;
 import net.rptools.maptool.model.library.LibraryManager;
@@ -63,6 +64,7 @@ private MacroDialogFunctions() {
         "getDialogProperties",
         "getOverlayProperties",
         "runJsFunction",
+        "updateElement",
         "html.frame",
         "html.dialog",
         "html.frame5",
@@ -160,6 +162,15 @@ public Object childEvaluate(
       runJsFunction(name, type, func, thisArg, argsArray);
       return "";
     }
+    if (functionName.equalsIgnoreCase("updateElement")) {
+      FunctionUtil.checkNumberParam(functionName, parameters, 4, 4);
+      String name = parameters.get(0).toString();
+      String type = parameters.get(1).toString().trim().toLowerCase();
+      String id = parameters.get(2).toString();
+      String html = parameters.get(3).toString();
+      runScript(functionName, name, type, HTMLWebViewManager.getPatchElementScript(id, html));
+      return "";
+    }
     if (functionName.toLowerCase().startsWith("html.")) {
       FunctionUtil.checkNumberParam(functionName, parameters, 1, 3);
       String name = parameters.get(0).toString();
@@ -314,7 +325,20 @@ private void runJsFunction(
     // Create the script
     String script = func + ".apply(" + thisArg + "," + argsArray.toString() + ");";
 
-    // Execute the script
+    runScript(fName, name, type, script);
+  }
+
+  /**
+   * Run a script in a frame, dialog or overlay.
+   *
+   * @param fName the name of the macro function
+   * @param name the name of the frame, dialog or overlay
+   * @param type the type of the element - either frame, dialog or overlay
+   * @param script the script to run
+   * @throws ParserException if the name or type are incorrect
+   */
+  private void runScript(String fName, String name, String type, String script)
+      throws ParserException {
     boolean executed;
     if (type.equals("frame") || type.equals("frame5")) {
       executed = HTMLFrame.runScript(name, script);
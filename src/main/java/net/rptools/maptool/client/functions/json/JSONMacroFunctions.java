@@ -14,6 +14,7 @@
  */
 package net.rptools.maptool.client.functions.json;
 
+import com.google.common.cache.CacheStats;
 import com.google.gson.*;
 import com.jayway.jsonpath.Configuration;
 import com.jayway.jsonpath.JsonPath;
@@ -841,23 +842,6 @@ private Object handleJsonPathFunctions(String functionName, List<Object> paramet
     }
   }
 
-  /**
-   * Returns a shallow copy of the passed in {@link JsonElement}. If the value is immutable then
-   * this method may just return the value itself without making a copy.
-   *
-   * @param jsonElement The {@link JsonElement} to copy.
-   * @return The resulting json data.
-   */
-  private JsonElement shallowCopy(JsonElement jsonElement) {
-    if (jsonElement.isJsonObject()) {
-      return jsonObjectFunctions.shallowCopy(jsonElement.getAsJsonObject());
-    } else if (jsonElement.isJsonArray()) {
-      return jsonArrayFunctions.shallowCopy(jsonElement.getAsJsonArray());
-    } else {
-      return jsonElement; // Is immutable so no need to return copy,
-    }
-  }
-
   /**
    * Returns a copy of the passed in json with the specified path removed.
    *
@@ -866,7 +850,10 @@ private JsonElement shallowCopy(JsonElement jsonElement) {
    * @return The resulting json data.
    */
   private JsonElement jsonPathDelete(JsonElement json, String path) {
-    return JsonPath.using(jaywayConfig).parse(shallowCopy(json)).delete(path).json();
+    return JsonPath.using(jaywayConfig)
+        .parse(typeConversion.asClonedJsonElement(json))
+        .delete(path)
+        .json();
   }
 
   /**
@@ -881,7 +868,10 @@ private JsonElement jsonPathDelete(JsonElement json, String path) {
   private JsonElement jsonPathPut(JsonElement json, String path, String key, Object info) {
     Object value = asJsonElement(info);
 
-    return JsonPath.using(jaywayConfig).parse(shallowCopy(json)).put(path, key, value).json();
+    return JsonPath.using(jaywayConfig)
+        .parse(typeConversion.asClonedJsonElement(json))
+        .put(path, key, value)
+        .json();
   }
 
   /**
@@ -895,7 +885,10 @@ private JsonElement jsonPathPut(JsonElement json, String path, String key, Objec
   private JsonElement jsonPathSet(JsonElement json, String path, Object info) {
     Object value = asJsonElement(info);
 
-    return JsonPath.using(jaywayConfig).parse(shallowCopy(json)).set(path, value).json();
+    return JsonPath.using(jaywayConfig)
+        .parse(typeConversion.asClonedJsonElement(json))
+        .set(path, value)
+        .json();
   }
 
   /**
@@ -953,6 +946,36 @@ public JsonElement asJsonElement(Object o) {
     return typeConversion.asJsonElement(o);
   }
 
+  /**
+   * This method returns the string as a {@link JsonObject} if it is an object in strict json
+   * syntax.
+   *
+   * @param s the string to convert.
+   * @return the json object, or <code>null</code> if the string is not a strict json object.
+   */
+  public JsonObject asStrictJsonObject(String s) {
+    return typeConversion.asStrictJsonObject(s);
+  }
+
+  /**
+   * Returns the statistics of the cache of parsed json strings.
+   *
+   * @return the statistics of the parsed json cache.
+   */
+  public CacheStats getParsedJsonCacheStats() {
+    return typeConversion.getParsedJsonCacheStats();
+  }
+
+  /**
+   * Returns the total time that would have been spent parsing json strings that were found in the
+   * parsed json cache.
+   *
+   * @return the parse time avoided, in nanoseconds.
+   */
+  public long getParseNanosAvoided() {
+    return typeConversion.getParseNanosAvoided();
+  }
+
   /**
    * Converts a <code>String</code> to a {@link JsonPrimitive}.
    *
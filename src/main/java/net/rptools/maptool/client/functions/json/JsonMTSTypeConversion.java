@@ -14,18 +14,67 @@
  */
 package net.rptools.maptool.client.functions.json;
 
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheStats;
+import com.google.gson.Gson;
 import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParseException;
 import com.google.gson.JsonParser;
 import com.google.gson.JsonPrimitive;
 import com.google.gson.JsonSyntaxException;
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonReader;
+import java.io.IOException;
+import java.io.StringReader;
 import java.math.BigDecimal;
+import java.util.concurrent.atomic.LongAdder;
 
-/** Class used to convert between json and MT Script types. */
+/**
+ * Class used to convert between json and MT Script types.
+ *
+ * <p>Json strings are parsed once and the resulting {@link JsonElement} is cached by string
+ * content, as macros frequently convert the same token property over and over. The cached element
+ * is shared by every caller, so callers that change json must change a copy of it, as the json
+ * functions already do with {@link #asClonedJsonElement(Object)}.
+ */
 class JsonMTSTypeConversion {
 
+  /** Strings shorter than this are cheap enough to parse that they are not cached. */
+  private static final int MIN_CACHED_LENGTH = 64;
+
+  /** The maximum total length of the strings with cached parse results. */
+  private static final long MAX_CACHED_CHARACTERS = 8 * 1024 * 1024;
+
+  /** the only way to make Gson apply strict evaluation to JsonObjects, apparently. see #2396 */
+  private static final TypeAdapter<JsonObject> strictObjectAdapter =
+      new Gson().getAdapter(JsonObject.class);
+
+  /**
+   * The result of parsing a json string.
+   *
+   * @param json the parsed json, or <code>null</code> if the string is not valid json.
+   * @param strictObject <code>true</code> if the string is a json object in strict json syntax.
+   * @param parseNanos the time taken to parse the string.
+   */
+  private record ParsedJson(JsonElement json, boolean strictObject, long parseNanos) {}
+
   /** parser used to parse strings into {@link JsonElement} */
   private final JsonParser parser;
 
+  /** Cache of parsed json strings. */
+  private final Cache<String, ParsedJson> parsedJsonCache =
+      CacheBuilder.newBuilder()
+          .maximumWeight(MAX_CACHED_CHARACTERS)
+          .weigher((String key, ParsedJson value) -> key.length())
+          .softValues()
+          .recordStats()
+          .build();
+
+  /** The total time spent parsing json strings that was avoided by the cache. */
+  private final LongAdder parseNanosAvoided = new LongAdder();
+
   /** An empty <code>String</code> as a {@link JsonPrimitive}. */
   public static final JsonPrimitive EMPTY_STRING_ELEMENT = new JsonPrimitive("");
 
@@ -103,10 +152,9 @@ JsonElement asJsonElement(Object o) {
       if (s.startsWith("[") || s.startsWith("{")) {
         // if it could be a json object try parse it, if we want to try convert strings to numbers
         // parsing it will do this
-        try {
-          return JsonParser.parseString(o.toString());
-        } catch (JsonSyntaxException e) {
-          // Do nothing as we will return a JsonPrimitive of the string
+        JsonElement json = parse(s).json();
+        if (json != null) {
+          return json;
         }
       }
       return new JsonPrimitive(s);
@@ -118,6 +166,96 @@ JsonElement asJsonElement(Object o) {
     }
   }
 
+  /**
+   * Returns the {@link JsonObject} represented by the string if it is a json object in strict json
+   * syntax.
+   *
+   * @param s the string to parse.
+   * @return the parsed {@link JsonObject}, or <code>null</code> if the string is not a strict json
+   *     object.
+   */
+  JsonObject asStrictJsonObject(String s) {
+    if (!s.trim().startsWith("{")) {
+      return null;
+    }
+    ParsedJson parsed = parse(s);
+    return parsed.strictObject() ? parsed.json().getAsJsonObject() : null;
+  }
+
+  /**
+   * Returns the statistics of the parsed json cache.
+   *
+   * @return the statistics of the parsed json cache.
+   */
+  CacheStats getParsedJsonCacheStats() {
+    return parsedJsonCache.stats();
+  }
+
+  /**
+   * Returns the total time that would have been spent parsing json strings that were found in the
+   * cache.
+   *
+   * @return the parse time avoided, in nanoseconds.
+   */
+  long getParseNanosAvoided() {
+    return parseNanosAvoided.sum();
+  }
+
+  /**
+   * Returns the result of parsing a json string, from the cache if it has been parsed before. The
+   * cached element is returned as is and must not be modified.
+   *
+   * @param s the string to parse.
+   * @return the result of parsing the string.
+   */
+  private ParsedJson parse(String s) {
+    if (s.length() < MIN_CACHED_LENGTH) {
+      return parseUncached(s);
+    }
+
+    ParsedJson parsed = parsedJsonCache.getIfPresent(s);
+    if (parsed != null) {
+      parseNanosAvoided.add(parsed.parseNanos());
+    } else {
+      parsed = parseUncached(s);
+      parsedJsonCache.put(s, parsed);
+    }
+    return parsed;
+  }
+
+  /**
+   * Parses a json string. Json objects are first parsed strictly, falling back to the lenient
+   * parser if that fails.
+   *
+   * @param s the string to parse.
+   * @return the result of parsing the string.
+   */
+  private ParsedJson parseUncached(String s) {
+    long start = System.nanoTime();
+    if (s.trim().startsWith("{")) {
+      try (JsonReader reader = new JsonReader(new StringReader(s))) {
+        JsonObject result = strictObjectAdapter.read(reader);
+        // in case of a situation like {"a": 1}{"b": 2}, the above would have stopped at the first
+        // complete object.  This next line will throw an exception on finding another top-level
+        // object, allowing us to fall back to the lenient parser.
+        reader.hasNext();
+        if (result != null) {
+          return new ParsedJson(result, true, System.nanoTime() - start);
+        }
+      } catch (IOException | JsonParseException e) {
+        // deliberately ignored - try the lenient parser
+      }
+    }
+
+    JsonElement json;
+    try {
+      json = JsonParser.parseString(s);
+    } catch (JsonSyntaxException e) {
+      json = null;
+    }
+    return new ParsedJson(json, false, System.nanoTime() - start);
+  }
+
   /**
    * Returns a {@link JsonElement} version of the passed in object. If the object is already a
    * {@link JsonElement} then it will return a cloned copy. As {@link JsonPrimitive}s are immutable
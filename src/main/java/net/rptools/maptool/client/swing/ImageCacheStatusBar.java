@@ -25,6 +25,8 @@
 import net.rptools.maptool.client.AppUtil;
 import net.rptools.maptool.client.MapTool;
 import net.rptools.maptool.language.I18N;
+import net.rptools.maptool.util.FileUtil;
+import net.rptools.maptool.util.ImageManager;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
@@ -75,4 +77,24 @@ public void update() {
     setText(AppUtil.getDiskSpaceUsed(CACHE_DIR));
     LOGGER.debug("ImageCacheStatusBar updated...");
   }
+
+  /**
+   * Returns the tool tip, which includes the current state of the in memory image cache.
+   *
+   * @return the tool tip.
+   */
+  @Override
+  public String getToolTipText() {
+    var stats = ImageManager.getCacheStatistics();
+    return I18N.getText(
+        "ImageCacheStatusBar.toolTip.memory",
+        I18N.getString("ImageCacheStatusBar.toolTip"),
+        stats.imageCount(),
+        FileUtil.byteCountToDisplaySize(stats.bytes()),
+        FileUtil.byteCountToDisplaySize(stats.maxBytes()),
+        Math.round(stats.hitRate() * 100),
+        stats.evictionCount(),
+        stats.decodeCount(),
+        TimeUnit.NANOSECONDS.toMillis(stats.decodeNanos()));
+  }
 }
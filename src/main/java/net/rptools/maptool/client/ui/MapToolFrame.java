@@ -1544,6 +1544,9 @@ public void setCurrentZoneRenderer(ZoneRenderer renderer) {
       zoneRendererPanel.doLayout();
     }
     currentRenderer = renderer;
+    if (MapTool.getServer() != null) {
+      MapTool.getServer().setHostZoneId(renderer == null ? null : renderer.getZone().getId());
+    }
     initiativePanel.update();
     toolbox.setTargetRenderer(renderer);
 
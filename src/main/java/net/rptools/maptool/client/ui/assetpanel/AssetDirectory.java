@@ -27,6 +27,9 @@
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.FutureTask;
+import java.util.concurrent.LinkedBlockingDeque;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
 import javax.swing.ImageIcon;
 import net.rptools.maptool.client.MapTool;
@@ -53,7 +56,22 @@ public class AssetDirectory extends Directory {
 
   private static final Image INVALID_IMAGE = new BufferedImage(1, 1, Transparency.OPAQUE);
 
-  private static ExecutorService largeImageLoaderService = Executors.newFixedThreadPool(1);
+  /**
+   * Loads the thumbnails of large images, one per processor. The most recently requested images are
+   * loaded first, as after scrolling they are the ones in view.
+   */
+  private static ExecutorService largeImageLoaderService =
+      new ThreadPoolExecutor(
+          Runtime.getRuntime().availableProcessors(),
+          Runtime.getRuntime().availableProcessors(),
+          0L,
+          TimeUnit.MILLISECONDS,
+          new LinkedBlockingDeque<Runnable>() {
+            @Override
+            public boolean offer(Runnable runnable) {
+              return offerFirst(runnable);
+            }
+          });
   private static ExecutorService smallImageLoaderService = Executors.newFixedThreadPool(2);
 
   private AtomicBoolean continueProcessing = new AtomicBoolean(true);
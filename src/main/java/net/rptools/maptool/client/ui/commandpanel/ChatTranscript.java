@@ -0,0 +1,149 @@
+/*
+ * This software Copyright by the RPTools.net development team, and
+ * licensed under the Affero GPL Version 3 or, at your option, any later
+ * version.
+ *
+ * MapTool Source Code is distributed in the hope that it will be
+ * useful, but WITHOUT ANY WARRANTY; without even the implied warranty
+ * of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ *
+ * You should have received a copy of the GNU Affero General Public
+ * License * along with this source Code.  If not, please visit
+ * <http://www.gnu.org/licenses/> and specifically the Affero license
+ * text at <http://www.gnu.org/licenses/agpl.html>.
+ */
+package net.rptools.maptool.client.ui.commandpanel;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import net.rptools.maptool.client.AppUtil;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+/**
+ * The full history of rendered chat messages, kept in a temporary file so that the chat panel only
+ * has to hold a window of recent messages in its document. Messages are stored as the HTML that was
+ * inserted into the document and can be read back by index.
+ *
+ * <p>Messages that can not be written to the file, because it could not be created or a write
+ * failed, are kept in memory instead.
+ */
+class ChatTranscript {
+  private static final Logger log = LogManager.getLogger(ChatTranscript.class);
+
+  private RandomAccessFile file;
+  private long[] offsets = new long[1024];
+  private int size;
+  private long length;
+
+  /** The messages that could not be written to the file, by index. */
+  private final Map<Integer, String> inMemory = new HashMap<>();
+
+  ChatTranscript() {
+    try {
+      File tmp = File.createTempFile("chat", ".log", AppUtil.getTmpDir());
+      tmp.deleteOnExit();
+      file = new RandomAccessFile(tmp, "rw");
+    } catch (IOException e) {
+      log.error("Unable to create chat transcript, message history will not be kept", e);
+    }
+  }
+
+  /**
+   * Appends a message to the transcript.
+   *
+   * @param html the HTML of the message as inserted into the document.
+   * @return the index of the message.
+   */
+  synchronized int append(String html) {
+    if (size == offsets.length) {
+      offsets = Arrays.copyOf(offsets, size * 2);
+    }
+    offsets[size] = -1;
+    if (file != null) {
+      try {
+        file.seek(length);
+        byte[] bytes = html.getBytes(StandardCharsets.UTF_8);
+        file.writeInt(bytes.length);
+        file.write(bytes);
+        offsets[size] = length;
+        length += Integer.BYTES + bytes.length;
+      } catch (IOException e) {
+        log.error("Unable to write to chat transcript, keeping the message in memory", e);
+      }
+    }
+    if (offsets[size] < 0) {
+      inMemory.put(size, html);
+    }
+    return size++;
+  }
+
+  /**
+   * Reads back a range of messages.
+   *
+   * @param from the index of the first message.
+   * @param to the index after the last message.
+   * @return the HTML of the messages, concatenated.
+   */
+  synchronized String get(int from, int to) {
+    StringBuilder sb = new StringBuilder();
+    for (int i = Math.max(0, from); i < Math.min(to, size); i++) {
+      if (offsets[i] < 0) {
+        sb.append(inMemory.getOrDefault(i, ""));
+        continue;
+      }
+      try {
+        file.seek(offsets[i]);
+        byte[] bytes = new byte[file.readInt()];
+        file.readFully(bytes);
+        sb.append(new String(bytes, StandardCharsets.UTF_8));
+      } catch (IOException e) {
+        log.error("Unable to read from chat transcript", e);
+      }
+    }
+    return sb.toString();
+  }
+
+  /**
+   * Returns the number of messages in the transcript.
+   *
+   * @return the number of messages.
+   */
+  synchronized int size() {
+    return size;
+  }
+
+  /** Removes all the messages from the transcript. */
+  synchronized void clear() {
+    size = 0;
+    length = 0;
+    inMemory.clear();
+    if (file != null) {
+      try {
+        file.setLength(0);
+      } catch (IOException e) {
+        log.error("Unable to clear chat transcript", e);
+      }
+    }
+  }
+
+  /**
+   * Writes a range of messages, one at a time so the whole history is never held in memory.
+   *
+   * @param writer the writer to write the messages to.
+   * @param from the index of the first message.
+   * @param to the index after the last message.
+   * @throws IOException if the messages can not be written.
+   */
+  synchronized void writeTo(Writer writer, int from, int to) throws IOException {
+    for (int i = from; i < Math.min(to, size); i++) {
+      writer.write(get(i, i + 1));
+    }
+  }
+}
@@ -19,6 +19,7 @@
 import java.awt.event.*;
 import java.awt.image.BufferedImage;
 import java.io.IOException;
+import java.io.Writer;
 import java.util.*;
 import java.util.List;
 import java.util.regex.Pattern;
@@ -548,6 +549,10 @@ public String getMessageHistory() {
     return messagePanel.getMessagesText();
   }
 
+  public void writeMessageHistory(Writer writer) throws IOException {
+    messagePanel.writeMessagesText(writer);
+  }
+
   public void setCharacterLabel(String label) {
     characterLabel.setText(label);
   }
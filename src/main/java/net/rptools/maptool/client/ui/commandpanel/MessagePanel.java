@@ -15,6 +15,7 @@
 package net.rptools.maptool.client.ui.commandpanel;
 
 import com.google.common.eventbus.Subscribe;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
 import java.awt.Color;
 import java.awt.EventQueue;
 import java.awt.GridLayout;
@@ -24,12 +25,23 @@
 import java.awt.event.MouseEvent;
 import java.awt.event.MouseMotionAdapter;
 import java.io.IOException;
+import java.io.StringWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.lang.reflect.InvocationTargetException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Deque;
 import java.util.HashSet;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 import javax.swing.JEditorPane;
 import javax.swing.JPanel;
+import javax.swing.JScrollBar;
 import javax.swing.JScrollPane;
 import javax.swing.SwingUtilities;
 import javax.swing.ToolTipManager;
@@ -48,13 +60,44 @@
 import net.rptools.maptool.events.MapToolEventBus;
 import net.rptools.maptool.model.TextMessage;
 import net.rptools.maptool.util.MessageUtil;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
 
 public class MessagePanel extends JPanel {
+  private static final Logger log = LogManager.getLogger(MessagePanel.class);
+
+  /** The number of messages kept in the document before the oldest are removed. */
+  private static final int MAX_RENDERED_MESSAGES = 500;
+
+  /** The number of older messages brought back into the document when scrolled to the top. */
+  private static final int PAGE_SIZE = 100;
 
   private final JScrollPane scrollPane;
   private final HTMLDocument document;
   private final JEditorPane textPane;
 
+  /** Formats messages off the event dispatch thread, in the order they arrive. */
+  private final ExecutorService messageProcessor =
+      Executors.newSingleThreadExecutor(
+          new ThreadFactoryBuilder().setNameFormat("chat-formatter-%d").setDaemon(true).build());
+
+  /** Every message displayed since the panel was last cleared. */
+  private final ChatTranscript transcript = new ChatTranscript();
+
+  // The following are only used on the event dispatch thread.
+  private final Deque<Chunk> renderedChunks = new ArrayDeque<>();
+  private int renderedMessages;
+  private int firstRenderedMessage;
+  private int leadingElements;
+  private boolean pagingIn;
+
+  /**
+   * Whether older messages have been paged in and the user hasn't scrolled back to the bottom.
+   * While set, the document is not trimmed and doesn't jump to new messages, without turning on the
+   * user's scroll lock.
+   */
+  private boolean pinned;
+
   private static final String SND_MESSAGE_RECEIVED = "messageReceived";
 
   /** From ImageView */
@@ -80,7 +123,7 @@ public void componentMoved(ComponentEvent e) {}
 
           public void componentResized(ComponentEvent e) {
             // Jump to the bottom on new text
-            if (!MapTool.getFrame().getCommandPanel().getScrollLockButton().isSelected()) {
+            if (!isScrollLocked()) {
               Rectangle rowBounds = new Rectangle(0, textPane.getSize().height, 1, 1);
               textPane.scrollRectToVisible(rowBounds);
             }
@@ -133,6 +176,21 @@ public void mouseDragged(MouseEvent e) {
                 MapTool.getFrame().getCommandPanel().getScrollLockButton().setSelected(lock);
               }
             });
+    scrollPane
+        .getVerticalScrollBar()
+        .addAdjustmentListener(
+            e -> {
+              JScrollBar scrollBar = scrollPane.getVerticalScrollBar();
+              if (!e.getValueIsAdjusting()
+                  && e.getValue() == scrollBar.getMinimum()
+                  && scrollBar.getVisibleAmount() < scrollBar.getMaximum()) {
+                pageInMessages();
+              } else if (!pagingIn
+                  && e.getValue() + scrollBar.getVisibleAmount() >= scrollBar.getMaximum()) {
+                // Back at the bottom, so the paged in messages can be trimmed again.
+                pinned = false;
+              }
+            });
 
     add(scrollPane);
     clearMessages();
@@ -185,16 +243,70 @@ public void setTrustedMacroPrefixColors(Color foreground, Color background) {
     repaint();
   }
 
+  /**
+   * Returns the whole message history as HTML, including the messages that are no longer rendered
+   * in the panel.
+   *
+   * @return the message history.
+   */
   public String getMessagesText() {
+    StringWriter writer = new StringWriter();
+    try {
+      writeMessagesText(writer);
+    } catch (IOException e) {
+      // StringWriter doesn't throw
+      throw new UncheckedIOException(e);
+    }
+    return writer.toString();
+  }
 
-    return textPane.getText();
+  /**
+   * Writes the whole message history as HTML, including the messages that are no longer rendered
+   * in the panel. Older messages are streamed from the transcript rather than built up in memory.
+   *
+   * @param writer the writer to write the history to.
+   * @throws IOException if the history can not be written.
+   */
+  public void writeMessagesText(Writer writer) throws IOException {
+    // The rendered text and the number of messages trimmed from it have to agree.
+    String[] text = new String[1];
+    int[] trimmed = new int[1];
+    Runnable snapshot =
+        () -> {
+          text[0] = textPane.getText();
+          trimmed[0] = firstRenderedMessage;
+        };
+    if (EventQueue.isDispatchThread()) {
+      snapshot.run();
+    } else {
+      try {
+        EventQueue.invokeAndWait(snapshot);
+      } catch (InterruptedException | InvocationTargetException e) {
+        throw new IOException(e);
+      }
+    }
+
+    int body = text[0].indexOf("<body");
+    int bodyStart = body < 0 ? 0 : text[0].indexOf('>', body) + 1;
+    writer.write(text[0], 0, bodyStart);
+    transcript.writeTo(writer, 0, trimmed[0]);
+    writer.write(text[0], bodyStart, text[0].length() - bodyStart);
   }
 
   public void clearMessages() {
-    EventQueue.invokeLater(
+    messageProcessor.execute(
         () -> {
-          textPane.setText("<html><body id=\"body\"></body></html>");
-          ((MessagePanelEditorKit) textPane.getEditorKit()).flush();
+          transcript.clear();
+          EventQueue.invokeLater(
+              () -> {
+                textPane.setText("<html><body id=\"body\"></body></html>");
+                ((MessagePanelEditorKit) textPane.getEditorKit()).flush();
+                renderedChunks.clear();
+                renderedMessages = 0;
+                firstRenderedMessage = 0;
+                pinned = false;
+                leadingElements = document.getElement("body").getElementCount();
+              });
         });
   }
 
@@ -205,89 +317,201 @@ public void clearMessages() {
   private static Pattern roll_pattern =
       Pattern.compile("\036(?:\001([^\002]*)\002)?([^\036\037]*)(?:\037([^\036]*))?\036");
 
+  /** Auto inline expansion for {HTTP|HTTPS} URLs. */
+  private static final Pattern HTTP_URL_PATTERN =
+      Pattern.compile("(^|\\s|>|\002)(https?://[^<>\002\003\\s]+)");
+
+  // TODO change this so 'macro' is case-insensitive
+  private static final Pattern MACRO_LINK_PATTERN =
+      Pattern.compile(
+          "href=([\"'])\\s*(macro://(?:[^/]*)/(?:[^?]*)(?:\\?(?:.*?))?)\\1\\s*",
+          Pattern.CASE_INSENSITIVE);
+
+  // TODO The leading and trailing '.*' are probably not needed -- test this before removing them
+  private static final Pattern EMPTY_ROLL_PATTERN = Pattern.compile(".*\002\\s*\003.*");
+
+  private static final Pattern ROLL_MARKER_PATTERN = Pattern.compile("\002|\003");
+
   public void addMessage(final TextMessage message) {
-    EventQueue.invokeLater(
+    messageProcessor.execute(
         () -> {
-          String output;
-
-          {
-            StringBuffer text = new StringBuffer();
-            Matcher m = roll_pattern.matcher(message.getMessage());
-            while (m.find()) {
-              HashSet<String> options = new HashSet<String>();
-              if (m.group(1) != null) {
-                options.addAll(Arrays.asList(m.group(1).split(",")));
-
-                if (!options.contains("w") && !options.contains("g") && !options.contains("s"))
-                  ; // visible for everyone
-                else if (options.contains("w:" + MapTool.getPlayer().getName().toLowerCase()))
-                  ; // visible for this player
-                else if (options.contains("g") && MapTool.getPlayer().isGM())
-                  ; // visible for GMs
-                else if (options.contains("s")
-                    && message.getSource().equals(MapTool.getPlayer().getName()))
-                  ; // visible to the player who sent it
-                else {
-                  m.appendReplacement(text, ""); // not visible for this player
-                  continue;
-                }
+          try {
+            String output = formatMessage(message);
+            boolean fromOthers = !message.getSource().equals(MapTool.getPlayer().getName());
+            List<String> macroLinks = new ArrayList<>();
+            if (fromOthers) {
+              Matcher m = MACRO_LINK_PATTERN.matcher(output);
+              while (m.find()) {
+                macroLinks.add(m.group(2));
               }
-              String replacement = null;
-              if (m.group(3) != null) {
-                if (!options.contains("st") && !options.contains("gt")
-                    || options.contains("st")
-                        && message.getSource().equals(MapTool.getPlayer().getName())
-                    || options.contains("gt") && MapTool.getPlayer().isGM())
-                  replacement = "<span class='roll' title='&#171; $2 &#187;'>$3</span>";
-                else replacement = "$3";
-              } else if (options.contains("u")) replacement = "&#171; $2 &#187;";
-              else if (options.contains("r")) replacement = "$2";
-              else
-                replacement =
-                    "&#171;<span class='roll' style='color:blue'>&nbsp;$2&nbsp;</span>&#187;";
-              m.appendReplacement(text, replacement);
             }
-            m.appendTail(text);
-            output = text.toString();
-          }
-          // Auto inline expansion for {HTTP|HTTPS} URLs
-          // output = output.replaceAll("(^|\\s|>|\002)(https?://[\\w.%-/~?&+#=]+)", "$1<a
-          // href='$2'>$2</a>");
-          output =
-              output.replaceAll(
-                  "(^|\\s|>|\002)(https?://[^<>\002\003\\s]+)", "$1<a href='$2'>$2</a>");
-
-          if (!message.getSource().equals(MapTool.getPlayer().getName())) {
-            // TODO change this so 'macro' is case-insensitive
-            Matcher m =
-                Pattern.compile(
-                        "href=([\"'])\\s*(macro://(?:[^/]*)/(?:[^?]*)(?:\\?(?:.*?))?)\\1\\s*",
-                        Pattern.CASE_INSENSITIVE)
-                    .matcher(output);
-            while (m.find()) {
-              MacroLinkFunction.getInstance().processMacroLink(m.group(2));
+            // if rolls not being visible to this user result in an empty message, display nothing,
+            // but the macro links in it are still processed.
+            final String html =
+                EMPTY_ROLL_PATTERN.matcher(output).matches() ? null : wrapMessage(output);
+            if (html != null) {
+              transcript.append(html);
             }
+
+            EventQueue.invokeLater(
+                () -> {
+                  for (String link : macroLinks) {
+                    MacroLinkFunction.getInstance().processMacroLink(link);
+                  }
+                  if (html == null) {
+                    return;
+                  }
+                  try {
+                    Element body = document.getElement("body");
+                    int elements = body.getElementCount();
+                    document.insertBeforeEnd(body, html);
+                    renderedChunks.addLast(new Chunk(1, body.getElementCount() - elements));
+                    renderedMessages++;
+                    trimRenderedMessages();
+                    if (fromOthers) {
+                      MapTool.playSound(SND_MESSAGE_RECEIVED);
+                    }
+                  } catch (IOException | BadLocationException ioe) {
+                    ioe.printStackTrace();
+                  }
+                });
+          } catch (RuntimeException e) {
+            log.error("Unable to add message to chat", e);
           }
-          // if rolls not being visible to this user result in an empty message, display nothing
-          // TODO The leading and trailing '.*' are probably not needed -- test this before
-          // removing them
-          if (!output.matches(".*\002\\s*\003.*")) {
-            output = output.replaceAll("\002|\003", "");
-
-            try {
-              Element element = document.getElement("body");
-              if (!output.toLowerCase().startsWith("<div") || !output.endsWith("</div>")) {
-                document.insertBeforeEnd(element, "<div>" + output + "</div>");
-              } else {
-                document.insertBeforeEnd(element, output);
-              }
-              if (!message.getSource().equals(MapTool.getPlayer().getName())) {
-                MapTool.playSound(SND_MESSAGE_RECEIVED);
-              }
-            } catch (IOException | BadLocationException ioe) {
-              ioe.printStackTrace();
-            }
+        });
+  }
+
+  /**
+   * Formats the rolls and links of a message for display to this player. This does not touch the
+   * document so is run off the event dispatch thread.
+   *
+   * @param message the message to format.
+   * @return the HTML for the message, still holding the markers around the rolls.
+   * @see #wrapMessage(String)
+   */
+  private static String formatMessage(TextMessage message) {
+    String output;
+
+    {
+      StringBuffer text = new StringBuffer();
+      Matcher m = roll_pattern.matcher(message.getMessage());
+      while (m.find()) {
+        HashSet<String> options = new HashSet<String>();
+        if (m.group(1) != null) {
+          options.addAll(Arrays.asList(m.group(1).split(",")));
+
+          if (!options.contains("w") && !options.contains("g") && !options.contains("s"))
+            ; // visible for everyone
+          else if (options.contains("w:" + MapTool.getPlayer().getName().toLowerCase()))
+            ; // visible for this player
+          else if (options.contains("g") && MapTool.getPlayer().isGM())
+            ; // visible for GMs
+          else if (options.contains("s")
+              && message.getSource().equals(MapTool.getPlayer().getName()))
+            ; // visible to the player who sent it
+          else {
+            m.appendReplacement(text, ""); // not visible for this player
+            continue;
           }
+        }
+        String replacement = null;
+        if (m.group(3) != null) {
+          if (!options.contains("st") && !options.contains("gt")
+              || options.contains("st")
+                  && message.getSource().equals(MapTool.getPlayer().getName())
+              || options.contains("gt") && MapTool.getPlayer().isGM())
+            replacement = "<span class='roll' title='&#171; $2 &#187;'>$3</span>";
+          else replacement = "$3";
+        } else if (options.contains("u")) replacement = "&#171; $2 &#187;";
+        else if (options.contains("r")) replacement = "$2";
+        else
+          replacement = "&#171;<span class='roll' style='color:blue'>&nbsp;$2&nbsp;</span>&#187;";
+        m.appendReplacement(text, replacement);
+      }
+      m.appendTail(text);
+      output = text.toString();
+    }
+    return HTTP_URL_PATTERN.matcher(output).replaceAll("$1<a href='$2'>$2</a>");
+  }
+
+  /**
+   * Removes the roll markers from a formatted message and wraps it in a {@code div}.
+   *
+   * @param output the message from {@link #formatMessage(TextMessage)}.
+   * @return the HTML to insert into the document.
+   */
+  private static String wrapMessage(String output) {
+    output = ROLL_MARKER_PATTERN.matcher(output).replaceAll("");
+    if (!output.toLowerCase().startsWith("<div") || !output.endsWith("</div>")) {
+      output = "<div>" + output + "</div>";
+    }
+    return output;
+  }
+
+  /**
+   * Removes the oldest messages from the document once there are more than {@link
+   * #MAX_RENDERED_MESSAGES}. The removed messages stay in the transcript and are paged back in when
+   * the user scrolls to the top. Nothing is removed while scroll lock is on or older messages are
+   * paged in, as the user may be reading them.
+   */
+  private void trimRenderedMessages() {
+    if (isScrollLocked()) {
+      return;
+    }
+    Element body = document.getElement("body");
+    while (renderedMessages > MAX_RENDERED_MESSAGES
+        && renderedMessages - renderedChunks.getFirst().messages() >= MAX_RENDERED_MESSAGES) {
+      Chunk chunk = renderedChunks.removeFirst();
+      for (int i = 0; i < chunk.elements(); i++) {
+        document.removeElement(body.getElement(leadingElements));
+      }
+      renderedMessages -= chunk.messages();
+      firstRenderedMessage += chunk.messages();
+    }
+  }
+
+  /**
+   * Inserts the page of messages before the first rendered message back into the document, keeping
+   * the currently visible messages where they are on screen.
+   */
+  private void pageInMessages() {
+    if (pagingIn || firstRenderedMessage == 0 || renderedChunks.isEmpty()) {
+      return;
+    }
+    int from = Math.max(0, firstRenderedMessage - PAGE_SIZE);
+    String html = transcript.get(from, firstRenderedMessage);
+
+    pagingIn = true;
+    // Keep the paged in messages in the document until the user is done reading them.
+    pinned = true;
+    JScrollBar scrollBar = scrollPane.getVerticalScrollBar();
+    int oldMaximum = scrollBar.getMaximum();
+    try {
+      Element body = document.getElement("body");
+      int elements = body.getElementCount();
+      document.insertBeforeStart(body.getElement(leadingElements), html);
+      renderedChunks.addFirst(
+          new Chunk(firstRenderedMessage - from, body.getElementCount() - elements));
+      renderedMessages += firstRenderedMessage - from;
+      firstRenderedMessage = from;
+    } catch (IOException | BadLocationException e) {
+      log.error("Unable to page in chat messages", e);
+    }
+    SwingUtilities.invokeLater(
+        () -> {
+          scrollBar.setValue(scrollBar.getValue() + scrollBar.getMaximum() - oldMaximum);
+          pagingIn = false;
         });
   }
+
+  /**
+   * Returns whether the view should stay where it is, either because the user turned on scroll
+   * lock or because older messages are paged in.
+   */
+  private boolean isScrollLocked() {
+    return pinned || MapTool.getFrame().getCommandPanel().getScrollLockButton().isSelected();
+  }
+
+  /** A run of messages inserted into the document together. */
+  private record Chunk(int messages, int elements) {}
 }
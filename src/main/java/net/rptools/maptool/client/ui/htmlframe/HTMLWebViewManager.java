@@ -17,6 +17,7 @@
 import com.google.gson.JsonArray;
 import com.google.gson.JsonElement;
 import com.google.gson.JsonObject;
+import com.google.gson.JsonPrimitive;
 import com.sun.webkit.dom.HTMLSelectElementImpl;
 import java.awt.*;
 import java.awt.event.ActionListener;
@@ -27,6 +28,7 @@
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ExecutionException;
 import java.util.regex.Matcher;
+import java.util.regex.Pattern;
 import javafx.beans.value.ObservableValue;
 import javafx.concurrent.Worker;
 import javafx.scene.Scene;
@@ -48,6 +50,7 @@
 import netscape.javascript.JSObject;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
+import org.jsoup.Jsoup;
 import org.w3c.dom.*;
 import org.w3c.dom.events.EventListener;
 import org.w3c.dom.events.EventTarget;
@@ -76,6 +79,9 @@ public class HTMLWebViewManager {
   /** Whether the WebView has been flushed out. */
   private boolean isFlushed = true;
 
+  /** The head of the loaded page if its updates can be patched in, otherwise null. */
+  private String patchableHead;
+
   /** The bridge from Javascript to Java. */
   private final JavaBridge bridge;
 
@@ -225,6 +231,13 @@ public void handleAddedNode(Object object) {
   /** The default rule for the span tag. */
   static final String CSS_SPAN = "span.roll {background:#efefef}";
 
+  /** Matches the meta tag a page uses to ask for its updates to be patched in. */
+  private static final Pattern PATCH_META_PATTERN =
+      Pattern.compile(
+          "<meta\\b(?=[^>]*\\bname\\s*=\\s*[\"']?update\\b)"
+              + "(?=[^>]*\\bcontent\\s*=\\s*[\"']?patch\\b)",
+          Pattern.CASE_INSENSITIVE);
+
   /** JS that scroll the view to an element from its Id. */
   private static final String SCRIPT_ANCHOR =
       "element = document.getElementById('%s'); if(element != null) {element.scrollIntoView();}";
@@ -238,6 +251,7 @@ public void handleAddedNode(Object object) {
     "net/rptools/maptool/client/html5/javascript/Console.js",
     "net/rptools/maptool/client/html5/javascript/Replace_Submit.js",
     "net/rptools/maptool/client/html5/javascript/Mutation_Observer.js",
+    "net/rptools/maptool/client/html5/javascript/Patch_Content.js",
     "net/rptools/maptool/client/html5/javascript/XMLHttpRequest.js"
   };
 
@@ -296,12 +310,45 @@ public void flush() {
     java.net.CookieHandler.setDefault(new java.net.CookieManager());
 
     isFlushed = true;
+    patchableHead = null;
   }
 
+  /**
+   * Updates the contents of the WebView. Pages with a {@code <meta name="update"
+   * content="patch">} tag are updated in place when only their body changes: the differences are
+   * applied to the current document instead of loading the page again, so scripts, styles, scroll
+   * position and the state of controls are kept. The page is loaded again if its head changes or
+   * its body has scripts, as those only run when a page is loaded.
+   *
+   * @param html the HTML of the page.
+   * @param scrollReset whether the scrolling should be reset.
+   */
   public void updateContents(final String html, boolean scrollReset) {
     if (log.isDebugEnabled()) {
       log.debug("setting text in WebView: " + html);
     }
+    String fixedHtml = HTMLPanelInterface.fixHTML(html);
+    // Only pages that ask to be patched are parsed.
+    org.jsoup.nodes.Document page = null;
+    String head = null;
+    if (PATCH_META_PATTERN.matcher(fixedHtml).find()) {
+      page = Jsoup.parse(fixedHtml);
+      page.outputSettings().prettyPrint(false);
+      head = isPatchable(page) ? page.head().outerHtml() : null;
+    }
+    if (head != null
+        && head.equals(patchableHead)
+        && !isFlushed
+        && webEngine.getLoadWorker().getState() == Worker.State.SUCCEEDED) {
+      JSObject patch = (JSObject) webEngine.executeScript("maptool_patch");
+      patch.call("patchBody", page.body().outerHtml());
+      if (scrollReset) {
+        scrollTo(0, 0);
+      }
+      return;
+    }
+    patchableHead = head;
+
     this.scrollReset = scrollReset;
     // If the WebView has been flushed, the scrolling has already been stored
     if (!scrollReset && !isFlushed) {
@@ -309,7 +356,34 @@ public void updateContents(final String html, boolean scrollReset) {
       scrollY = getVScrollValue();
     }
     isFlushed = false;
-    webEngine.loadContent(SCRIPT_BLOCK_EXT + SCRIPT_BRIDGE + HTMLPanelInterface.fixHTML(html));
+    webEngine.loadContent(SCRIPT_BLOCK_EXT + SCRIPT_BRIDGE + fixedHtml);
+  }
+
+  /**
+   * Returns if updates to a page can be patched into the document.
+   *
+   * @param page the parsed page.
+   * @return {@code true} if the page asks to be patched and has no scripts in its body.
+   */
+  private static boolean isPatchable(org.jsoup.nodes.Document page) {
+    return !page.head().select("meta[name=update][content=patch]").isEmpty()
+        && page.body().getElementsByTag("script").isEmpty();
+  }
+
+  /**
+   * Returns the script that replaces the contents of the element with an id, changing only what
+   * differs from the current contents.
+   *
+   * @param id the id of the element.
+   * @param html the new contents of the element.
+   * @return the script.
+   */
+  public static String getPatchElementScript(String id, String html) {
+    return "maptool_patch.patchElement("
+        + new JsonPrimitive(id)
+        + ","
+        + new JsonPrimitive(HTMLPanelInterface.fixHTML(html))
+        + ");";
   }
 
   /**
@@ -43,14 +43,15 @@ public abstract class AbstractMacroPanel extends JPanel implements Scrollable, M
   private GUID tokenId = null;
 
   public void addArea(List<MacroButtonProperties> propertiesList, String label) {
-    add(new AreaGroup(propertiesList, label, this));
-    setLayout(new FlowLayout(FlowLayout.LEFT));
-    revalidate();
-    repaint();
+    addArea(new AreaGroup(propertiesList, label, this));
   }
 
   public void addArea(GUID tokenId) {
-    add(new AreaGroup(tokenId, this));
+    addArea(new AreaGroup(tokenId, this));
+  }
+
+  protected void addArea(AreaGroup area) {
+    add(area);
     setLayout(new FlowLayout(FlowLayout.LEFT));
     revalidate();
     repaint();
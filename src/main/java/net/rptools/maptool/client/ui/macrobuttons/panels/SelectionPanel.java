@@ -25,9 +25,13 @@
 import net.rptools.maptool.client.MapTool;
 import net.rptools.maptool.client.ui.MapToolFrame;
 import net.rptools.maptool.client.ui.MapToolFrame.MTFrame;
+import net.rptools.maptool.client.ui.macrobuttons.buttongroups.AreaGroup;
+import net.rptools.maptool.client.ui.macrobuttons.buttongroups.ButtonGroup;
+import net.rptools.maptool.client.ui.macrobuttons.buttons.MacroButton;
 import net.rptools.maptool.client.ui.zone.ZoneRenderer;
 import net.rptools.maptool.events.MapToolEventBus;
 import net.rptools.maptool.language.I18N;
+import net.rptools.maptool.model.GUID;
 import net.rptools.maptool.model.MacroButtonProperties;
 import net.rptools.maptool.model.Token;
 import net.rptools.maptool.model.tokens.TokenMacroChanged;
@@ -43,6 +47,50 @@ public class SelectionPanel extends AbstractMacroPanel {
   private List<MacroButtonProperties> commonMacros = new ArrayList<MacroButtonProperties>();
   private CodeTimer timer;
 
+  /**
+   * The macros of a selected token, kept until the token is deselected or its macros change so
+   * that changing a large selection doesn't have to look at the macros of every token again.
+   */
+  private static class TokenMacros {
+    private final Token token;
+    private final boolean owned;
+    /** The comparison hash of each macro, including duplicates. */
+    private final int[] keys;
+    /** The first macro for each comparison hash. */
+    private final Map<Integer, MacroButtonProperties> macros = new HashMap<>();
+    private boolean allowPlayerEdits = true;
+    /** The area showing the token's macros, reused while the token is selected. */
+    private AreaGroup area;
+
+    private TokenMacros(Token token) {
+      this.token = token;
+      owned = AppUtil.playerOwns(token);
+      List<MacroButtonProperties> macroList =
+          owned ? token.getMacroList(true) : Collections.emptyList();
+      keys = new int[macroList.size()];
+      for (int i = 0; i < keys.length; i++) {
+        MacroButtonProperties macro = macroList.get(i);
+        keys[i] = macro.hashCodeForComparison();
+        macros.putIfAbsent(keys[i], macro);
+        if (!macro.getAllowPlayerEdits()) {
+          allowPlayerEdits = false;
+        }
+      }
+    }
+  }
+
+  /** The macros of the selected tokens. */
+  private final Map<GUID, TokenMacros> selectedMacros = new HashMap<>();
+
+  /** The number of macros with each comparison hash among the selected tokens. */
+  private final Map<Integer, Integer> macroCounts = new HashMap<>();
+
+  /** The common macros area and the token macros it was made from, reused until they change. */
+  private AreaGroup commonArea;
+
+  private Map<Integer, MacroButtonProperties> commonSources = Map.of();
+  private boolean commonAllowPlayerEdits;
+
   public SelectionPanel() {
     // TODO: refactoring reminder
     setPanelClass("SelectionPanel");
@@ -84,18 +132,32 @@ public void init(List<Token> selectedTokenList) {
 
     // paint panel only when it's visible or active
     if (panelVisible) {
+      updateSelectedMacros(selectedTokenList);
 
       // draw common group only when there is more than one token selected
       if (selectedTokenList.size() > 1) {
         populateCommonButtons(selectedTokenList);
-        addArea(commonMacros, I18N.getText("component.areaGroup.macro.commonMacros"));
+        if (commonArea == null) {
+          commonArea =
+              new AreaGroup(
+                  commonMacros, I18N.getText("component.areaGroup.macro.commonMacros"), this);
+        } else {
+          reassignHotkeys(commonArea);
+        }
+        addArea(commonArea);
         // add(new ButtonGroup(selectedTokenList, commonMacros, this));
       }
       for (Token token : selectedTokenList) {
-        if (!AppUtil.playerOwns(token)) {
+        TokenMacros macros = selectedMacros.get(token.getId());
+        if (!macros.owned) {
           continue;
         }
-        addArea(token.getId());
+        if (macros.area == null) {
+          macros.area = new AreaGroup(token.getId(), this);
+        } else {
+          reassignHotkeys(macros.area);
+        }
+        addArea(macros.area);
       }
       if (selectedTokenList.size() == 1 && AppUtil.playerOwns(selectedTokenList.get(0))) {
         // if only one token selected, show its image as tab icon
@@ -103,6 +165,11 @@ public void init(List<Token> selectedTokenList) {
             .getFrame(MTFrame.SELECTION)
             .setFrameIcon(selectedTokenList.get(0).getIcon(16, 16));
       }
+    } else {
+      selectedMacros.clear();
+      macroCounts.clear();
+      commonArea = null;
+      commonSources = Map.of();
     }
     timer.stop("painting");
 
@@ -135,6 +202,13 @@ private void onTokenEdited(TokenEdited event) {
   }
 
   private void resetIfSelected(List<Token> tokenList) {
+    for (Token token : tokenList) {
+      TokenMacros macros = selectedMacros.remove(token.getId());
+      if (macros != null) {
+        count(macros, -1);
+        commonArea = null;
+      }
+    }
     // Only resets if one of the selected tokens is among those changed/deleted.
     ZoneRenderer zr = MapTool.getFrame().getCurrentZoneRenderer();
     if (zr != null && !zr.getSelectedTokenSet().isEmpty()) {
@@ -147,43 +221,86 @@ private void resetIfSelected(List<Token> tokenList) {
     }
   }
 
-  private void populateCommonButtons(List<Token> tokenList) {
-    Map<Integer, MacroButtonProperties> uniqueMacros =
-        new HashMap<Integer, MacroButtonProperties>();
-    Map<Integer, MacroButtonProperties> commonMacros =
-        new HashMap<Integer, MacroButtonProperties>();
-    for (Token nextToken : tokenList) {
-      if (!AppUtil.playerOwns(nextToken)) {
+  /**
+   * Brings the macros of the selected tokens up to date, only looking at the macros of tokens that
+   * were added to the selection or replaced since the last time.
+   *
+   * @param tokenList the selected tokens.
+   */
+  private void updateSelectedMacros(List<Token> tokenList) {
+    Set<GUID> selectedIds = new HashSet<>();
+    for (Token token : tokenList) {
+      selectedIds.add(token.getId());
+    }
+    for (Iterator<TokenMacros> it = selectedMacros.values().iterator(); it.hasNext(); ) {
+      TokenMacros macros = it.next();
+      if (!selectedIds.contains(macros.token.getId())) {
+        count(macros, -1);
+        it.remove();
+      }
+    }
+    for (Token token : tokenList) {
+      TokenMacros macros = selectedMacros.get(token.getId());
+      if (macros != null && macros.token == token && macros.owned == AppUtil.playerOwns(token)) {
         continue;
       }
-      for (MacroButtonProperties nextMacro : nextToken.getMacroList(true)) {
-        MacroButtonProperties copiedMacro =
-            new MacroButtonProperties(nextMacro.getIndex(), nextMacro);
-        int macroKey = copiedMacro.hashCodeForComparison();
-        Boolean macroIsInUnique = uniqueMacros.containsKey(copiedMacro.hashCodeForComparison());
-        Boolean macroIsInCommon = commonMacros.containsKey(copiedMacro.hashCodeForComparison());
-        if (!macroIsInUnique && !macroIsInCommon) {
-          uniqueMacros.put(macroKey, copiedMacro);
-        } else if (macroIsInUnique && !macroIsInCommon) {
-          uniqueMacros.remove(macroKey);
-          commonMacros.put(macroKey, copiedMacro);
-        } else if (macroIsInUnique && macroIsInCommon) {
-          uniqueMacros.remove(macroKey);
-        }
+      if (macros != null) {
+        count(macros, -1);
       }
+      macros = new TokenMacros(token);
+      selectedMacros.put(token.getId(), macros);
+      count(macros, 1);
     }
-    for (MacroButtonProperties nextMacro : commonMacros.values()) {
-      nextMacro.setAllowPlayerEdits(true);
-      for (Token nextToken : tokenList) {
-        if (!AppUtil.playerOwns(nextToken)) {
-          continue;
-        }
-        for (MacroButtonProperties nextTokenMacro : nextToken.getMacroList(true)) {
-          if (!nextTokenMacro.getAllowPlayerEdits()) {
-            nextMacro.setAllowPlayerEdits(false);
-          }
+  }
+
+  private void count(TokenMacros macros, int delta) {
+    for (int key : macros.keys) {
+      macroCounts.merge(key, delta, (a, b) -> a + b == 0 ? null : a + b);
+    }
+  }
+
+  /**
+   * Finds the macros that more than one of the selected tokens has. The common macros area is kept
+   * if they are the same as last time.
+   *
+   * @param tokenList the selected tokens.
+   */
+  private void populateCommonButtons(List<Token> tokenList) {
+    boolean allowPlayerEdits = true;
+    for (Token token : tokenList) {
+      TokenMacros macros = selectedMacros.get(token.getId());
+      if (macros.owned && !macros.allowPlayerEdits) {
+        allowPlayerEdits = false;
+      }
+    }
+
+    Map<Integer, MacroButtonProperties> sources = new HashMap<>();
+    for (Map.Entry<Integer, Integer> entry : macroCounts.entrySet()) {
+      if (entry.getValue() < 2) {
+        continue;
+      }
+      for (Token token : tokenList) {
+        MacroButtonProperties macro = selectedMacros.get(token.getId()).macros.get(entry.getKey());
+        if (macro != null) {
+          sources.put(entry.getKey(), macro);
+          break;
         }
       }
+    }
+
+    if (commonArea != null
+        && allowPlayerEdits == commonAllowPlayerEdits
+        && sameMacros(sources, commonSources)) {
+      return;
+    }
+    commonArea = null;
+    commonSources = sources;
+    commonAllowPlayerEdits = allowPlayerEdits;
+
+    List<MacroButtonProperties> commonMacros = new ArrayList<MacroButtonProperties>();
+    for (MacroButtonProperties source : sources.values()) {
+      MacroButtonProperties nextMacro = new MacroButtonProperties(source.getIndex(), source);
+      nextMacro.setAllowPlayerEdits(allowPlayerEdits);
       if (!nextMacro.getCompareApplyToSelectedTokens()) {
         nextMacro.setCompareApplyToSelectedTokens(false);
       }
@@ -202,8 +319,9 @@ private void populateCommonButtons(List<Token> tokenList) {
       if (!nextMacro.getCompareSortPrefix()) {
         nextMacro.setSortby("");
       }
+      commonMacros.add(nextMacro);
     }
-    this.commonMacros = new ArrayList<MacroButtonProperties>(commonMacros.values());
+    this.commonMacros = commonMacros;
     int indexCount = 0;
     for (MacroButtonProperties nextMacro : this.commonMacros) {
       nextMacro.setIndex(indexCount);
@@ -212,6 +330,33 @@ private void populateCommonButtons(List<Token> tokenList) {
     Collections.sort(this.commonMacros);
   }
 
+  private static boolean sameMacros(
+      Map<Integer, MacroButtonProperties> a, Map<Integer, MacroButtonProperties> b) {
+    if (a.size() != b.size()) {
+      return false;
+    }
+    for (Map.Entry<Integer, MacroButtonProperties> entry : a.entrySet()) {
+      if (b.get(entry.getKey()) != entry.getValue()) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /**
+   * Registers the hotkeys of the buttons in a reused area again, as a newer button may have taken
+   * them over since the area was created.
+   *
+   * @param area the area.
+   */
+  private static void reassignHotkeys(AreaGroup area) {
+    for (ButtonGroup group : area.getButtonGroups()) {
+      for (MacroButton button : group.getButtons()) {
+        button.getHotKeyManager().assignKeyStroke(button.getProperties().getHotKey());
+      }
+    }
+  }
+
   @Override
   protected void clear() {
     // reset the tab icon
@@ -331,6 +331,7 @@ public static void exposeVisibleArea(final ZoneRenderer renderer, Set<GUID> toke
   public static void exposeVisibleArea(
       final ZoneRenderer renderer, Set<GUID> tokenSet, boolean exposeCurrentOnly) {
     final Zone zone = renderer.getZone();
+    renderer.getZoneView().ensureTopologyCurrent();
 
     for (GUID tokenGUID : tokenSet) {
       Token token = zone.getToken(tokenGUID);
@@ -387,6 +388,7 @@ public static void exposeVisibleArea(
   public static void exposeVisibleAreaAtWaypoint(
       final ZoneRenderer renderer, Set<GUID> tokenSet, ZonePoint zp) {
     final Zone zone = renderer.getZone();
+    renderer.getZoneView().ensureTopologyCurrent();
 
     for (GUID tokenGUID : tokenSet) {
       Token token = zone.getToken(tokenGUID);
@@ -521,6 +523,7 @@ public static void exposeLastPath(final ZoneRenderer renderer, final Set<GUID> t
     if (!caps.isPathingSupported() || !caps.isSnapToGridSupported()) {
       return;
     }
+    renderer.getZoneView().ensureTopologyCurrent();
 
     final Set<GUID> filteredToks = new HashSet<GUID>(2);
 
@@ -0,0 +1,259 @@
+/*
+ * This software Copyright by the RPTools.net development team, and
+ * licensed under the Affero GPL Version 3 or, at your option, any later
+ * version.
+ *
+ * MapTool Source Code is distributed in the hope that it will be
+ * useful, but WITHOUT ANY WARRANTY; without even the implied warranty
+ * of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ *
+ * You should have received a copy of the GNU Affero General Public
+ * License * along with this source code.  If not, please visit
+ * <http://www.gnu.org/licenses/> and specifically the Affero license
+ * text at <http://www.gnu.org/licenses/agpl.html>.
+ */
+package net.rptools.maptool.client.ui.zone;
+
+import java.awt.AlphaComposite;
+import java.awt.Composite;
+import java.awt.Graphics2D;
+import java.awt.GraphicsConfiguration;
+import java.awt.Paint;
+import java.awt.Point;
+import java.awt.Rectangle;
+import java.awt.Shape;
+import java.awt.Transparency;
+import java.awt.geom.AffineTransform;
+import java.awt.geom.Rectangle2D;
+import java.awt.image.BufferedImage;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import javax.annotation.Nullable;
+import net.rptools.maptool.client.swing.SwingUtil;
+
+/**
+ * A tiled raster cache for a single light overlay (lights, darkness or auras).
+ *
+ * <p>Lights are rasterized into fixed-size tiles laid out in scaled zone space, i.e. zone
+ * coordinates multiplied by the current zoom. Because tile positions do not depend on the view
+ * offset, panning the map only blits already rendered tiles at new screen positions. When the set
+ * of lights changes only the tiles touched by added or removed lights are re-rendered, and a zoom
+ * change or style change discards all tiles.
+ *
+ * <p>Any clipping that depends on the view (e.g. the visible screen area) is applied when the tiles
+ * are blitted, so the tiles themselves remain valid while the view moves.
+ */
+public class LightOverlayCache {
+  /** The width and height of each tile, in pixels. */
+  private static final int TILE_SIZE = 256;
+
+  /** The number of tiles that are kept beyond those needed to cover the current view. */
+  private static final int SPARE_TILES = 32;
+
+  private final Map<Point, BufferedImage> tiles = new LinkedHashMap<>(64, 0.75f, true);
+
+  /** Zone-space bounds of each light currently in the cache. */
+  private final Map<DrawableLight, Rectangle2D> lightBounds = new IdentityHashMap<>();
+
+  private List<DrawableLight> lights = Collections.emptyList();
+  private double scale = Double.NaN;
+  private @Nullable Composite composite;
+  private @Nullable Paint defaultPaint;
+  private @Nullable GraphicsConfiguration configuration;
+
+  /** Discards all tiles and lights. */
+  public void clear() {
+    tiles.clear();
+    lightBounds.clear();
+    lights = Collections.emptyList();
+  }
+
+  /**
+   * Renders the overlay onto {@code g}, re-rendering only the tiles that are missing or whose
+   * lights changed since the last call.
+   *
+   * @param g The graphics object used to render the zone. Its clip is honoured.
+   * @param clip Additional screen-space clip for the overlay, or null for none.
+   * @param lights The lights to blend into the overlay.
+   * @param composite The composite used to blend lights together.
+   * @param defaultPaint A default paint for lights without a paint.
+   * @param overlayOpacity The opacity used when rendering the overlay on top of the zone.
+   * @param scale The zoom of the view.
+   * @param offsetX The horizontal view offset, in screen pixels.
+   * @param offsetY The vertical view offset, in screen pixels.
+   * @param width The width of the view, in screen pixels.
+   * @param height The height of the view, in screen pixels.
+   */
+  public void render(
+      Graphics2D g,
+      @Nullable Shape clip,
+      List<DrawableLight> lights,
+      Composite composite,
+      Paint defaultPaint,
+      float overlayOpacity,
+      double scale,
+      int offsetX,
+      int offsetY,
+      int width,
+      int height) {
+    validate(g.getDeviceConfiguration(), composite, defaultPaint, scale);
+    update(lights);
+
+    if (lights.isEmpty() || width <= 0 || height <= 0) {
+      return;
+    }
+
+    // Tiles covering the view, in scaled zone space.
+    int minTileX = Math.floorDiv(-offsetX, TILE_SIZE);
+    int minTileY = Math.floorDiv(-offsetY, TILE_SIZE);
+    int maxTileX = Math.floorDiv(-offsetX + width - 1, TILE_SIZE);
+    int maxTileY = Math.floorDiv(-offsetY + height - 1, TILE_SIZE);
+
+    Graphics2D g2 = (Graphics2D) g.create();
+    try {
+      if (clip != null) {
+        g2.clip(clip);
+      }
+      g2.setComposite(AlphaComposite.getInstance(AlphaComposite.SRC_OVER, overlayOpacity));
+      for (int ty = minTileY; ty <= maxTileY; ty++) {
+        for (int tx = minTileX; tx <= maxTileX; tx++) {
+          BufferedImage tile = getTile(tx, ty);
+          if (tile != null) {
+            g2.drawImage(tile, offsetX + tx * TILE_SIZE, offsetY + ty * TILE_SIZE, null);
+          }
+        }
+      }
+    } finally {
+      g2.dispose();
+    }
+
+    int maxTiles = (maxTileX - minTileX + 1) * (maxTileY - minTileY + 1) + SPARE_TILES;
+    Iterator<Point> it = tiles.keySet().iterator();
+    while (tiles.size() > maxTiles && it.hasNext()) {
+      it.next();
+      it.remove();
+    }
+  }
+
+  /** Discards all tiles if anything that affects every tile has changed. */
+  private void validate(
+      GraphicsConfiguration configuration, Composite composite, Paint defaultPaint, double scale) {
+    if (scale != this.scale
+        || !Objects.equals(composite, this.composite)
+        || !Objects.equals(defaultPaint, this.defaultPaint)
+        || !Objects.equals(configuration, this.configuration)) {
+      tiles.clear();
+      this.scale = scale;
+      this.composite = composite;
+      this.defaultPaint = defaultPaint;
+      this.configuration = configuration;
+    }
+  }
+
+  /** Discards the tiles touched by any light that was added or removed since the last render. */
+  private void update(List<DrawableLight> newLights) {
+    if (newLights == lights) {
+      return;
+    }
+
+    Set<DrawableLight> newSet = Collections.newSetFromMap(new IdentityHashMap<>());
+    newSet.addAll(newLights);
+
+    List<Rectangle2D> dirty = new ArrayList<>();
+    for (var it = lightBounds.entrySet().iterator(); it.hasNext(); ) {
+      var entry = it.next();
+      if (!newSet.contains(entry.getKey())) {
+        dirty.add(entry.getValue());
+        it.remove();
+      }
+    }
+    for (DrawableLight light : newLights) {
+      if (!lightBounds.containsKey(light)) {
+        Rectangle2D bounds = light.getArea().getBounds2D();
+        lightBounds.put(light, bounds);
+        dirty.add(bounds);
+      }
+    }
+    lights = newLights;
+
+    if (dirty.isEmpty() || tiles.isEmpty()) {
+      return;
+    }
+    for (Rectangle2D bounds : dirty) {
+      Rectangle tileRange = toTileRange(bounds);
+      tiles
+          .keySet()
+          .removeIf(
+              p ->
+                  p.x >= tileRange.x
+                      && p.y >= tileRange.y
+                      && p.x < tileRange.x + tileRange.width
+                      && p.y < tileRange.y + tileRange.height);
+    }
+  }
+
+  /**
+   * @param bounds Zone-space bounds.
+   * @return The range of tile indices overlapped by {@code bounds}.
+   */
+  private Rectangle toTileRange(Rectangle2D bounds) {
+    int minX = (int) Math.floor(bounds.getMinX() * scale / TILE_SIZE);
+    int minY = (int) Math.floor(bounds.getMinY() * scale / TILE_SIZE);
+    int maxX = (int) Math.floor(bounds.getMaxX() * scale / TILE_SIZE);
+    int maxY = (int) Math.floor(bounds.getMaxY() * scale / TILE_SIZE);
+    return new Rectangle(minX, minY, maxX - minX + 1, maxY - minY + 1);
+  }
+
+  /**
+   * Gets the tile at the given index, rendering it if needed.
+   *
+   * @return The tile, or null if no light touches it.
+   */
+  private @Nullable BufferedImage getTile(int tx, int ty) {
+    Point key = new Point(tx, ty);
+    if (tiles.containsKey(key)) {
+      return tiles.get(key);
+    }
+
+    Rectangle2D tileBounds =
+        new Rectangle2D.Double(
+            tx * TILE_SIZE / scale,
+            ty * TILE_SIZE / scale,
+            TILE_SIZE / scale,
+            TILE_SIZE / scale);
+
+    BufferedImage tile = null;
+    Graphics2D g = null;
+    for (DrawableLight light : lights) {
+      if (!lightBounds.get(light).intersects(tileBounds)) {
+        continue;
+      }
+      if (tile == null) {
+        tile = configuration.createCompatibleImage(TILE_SIZE, TILE_SIZE, Transparency.TRANSLUCENT);
+        g = tile.createGraphics();
+        SwingUtil.useAntiAliasing(g);
+        AffineTransform af = new AffineTransform();
+        af.translate(-tx * TILE_SIZE, -ty * TILE_SIZE);
+        af.scale(scale, scale);
+        g.setTransform(af);
+        g.setComposite(composite);
+      }
+      g.setPaint(light.getPaint() != null ? light.getPaint().getPaint() : defaultPaint);
+      g.fill(light.getArea());
+    }
+    if (g != null) {
+      g.dispose();
+    }
+
+    // Empty tiles are cached as null so they aren't checked again.
+    tiles.put(key, tile);
+    return tile;
+  }
+}
@@ -0,0 +1,214 @@
+/*
+ * This software Copyright by the RPTools.net development team, and
+ * licensed under the Affero GPL Version 3 or, at your option, any later
+ * version.
+ *
+ * MapTool Source Code is distributed in the hope that it will be
+ * useful, but WITHOUT ANY WARRANTY; without even the implied warranty
+ * of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ *
+ * You should have received a copy of the GNU Affero General Public
+ * License * along with this source code.  If not, please visit
+ * <http://www.gnu.org/licenses/> and specifically the Affero license
+ * text at <http://www.gnu.org/licenses/agpl.html>.
+ */
+package net.rptools.maptool.client.ui.zone;
+
+import java.awt.Graphics2D;
+import java.awt.geom.AffineTransform;
+import java.awt.image.BufferedImage;
+import java.lang.ref.WeakReference;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Predicate;
+import javax.annotation.Nullable;
+import net.rptools.lib.MD5Key;
+import net.rptools.lib.image.ImageUtil;
+import net.rptools.maptool.model.IsometricGrid;
+
+/**
+ * A cache of the flipped and downscaled versions of images used to render tokens.
+ *
+ * <p>Each image has a pyramid of levels, where each level is half the width and height of the one
+ * before it. Drawing a large image at a small size from the level nearest above the size on screen
+ * means the cost of drawing depends on the number of pixels on screen rather than in the image.
+ *
+ * <p>Entries are keyed by asset, variant (flips and isometric projection) and level, and evicted
+ * in least recently used order once the cache holds more than its budget of pixels. Each entry
+ * remembers the image it was made from, so an entry made from a placeholder image that has since
+ * been replaced by the real one is rebuilt.
+ */
+public class MipmapImageCache {
+  /** Variant flag for images flipped horizontally. */
+  public static final int FLIP_X = 1;
+
+  /** Variant flag for images flipped vertically. */
+  public static final int FLIP_Y = 2;
+
+  /** Variant flag for images projected onto the isometric plane. */
+  public static final int ISO = 4;
+
+  /** Levels smaller than this, in pixels along either side, are not created. */
+  private static final int MIN_LEVEL_SIZE = 8;
+
+  private record Key(MD5Key assetId, int variant, int level) {}
+
+  private record Entry(WeakReference<BufferedImage> source, BufferedImage image) {}
+
+  private final Map<Key, Entry> entries = new LinkedHashMap<>(64, 0.75f, true);
+  private final long maxBytes;
+  private long bytes;
+
+  /**
+   * Creates a new cache.
+   *
+   * @param maxBytes the number of bytes of image data the cache can hold.
+   */
+  public MipmapImageCache(long maxBytes) {
+    this.maxBytes = maxBytes;
+  }
+
+  /**
+   * Returns the variant flags for a token.
+   *
+   * @param flipX if the image is flipped horizontally.
+   * @param flipY if the image is flipped vertically.
+   * @param iso if the image is projected onto the isometric plane.
+   * @return the variant flags.
+   */
+  public static int variant(boolean flipX, boolean flipY, boolean iso) {
+    return (flipX ? FLIP_X : 0) | (flipY ? FLIP_Y : 0) | (iso ? ISO : 0);
+  }
+
+  /**
+   * Returns the level to draw an image from when it is drawn with the given transform. This is the
+   * smallest level that is still at least as large as the image on screen.
+   *
+   * @param transform the transform from image space to screen space.
+   * @param image the full size image.
+   * @return the level, where 0 is the full size image.
+   */
+  public static int levelFor(AffineTransform transform, BufferedImage image) {
+    double scaleX = Math.hypot(transform.getScaleX(), transform.getShearY());
+    double scaleY = Math.hypot(transform.getShearX(), transform.getScaleY());
+    double scale = Math.max(scaleX, scaleY);
+    if (!(scale > 0) || scale >= 0.5) {
+      return 0;
+    }
+    int level = (int) Math.floor(Math.log(1 / scale) / Math.log(2));
+    int size = Math.min(image.getWidth(), image.getHeight());
+    while (level > 0 && (size >> level) < MIN_LEVEL_SIZE) {
+      level--;
+    }
+    return level;
+  }
+
+  /**
+   * Returns a level of a variant of an image, creating it if needed.
+   *
+   * @param assetId the asset of the image, or null if the image isn't an asset and shouldn't be
+   *     cached.
+   * @param source the full size, unflipped image.
+   * @param variant the variant flags.
+   * @param level the level, where 0 is the full size image.
+   * @return the image.
+   */
+  public synchronized BufferedImage get(
+      @Nullable MD5Key assetId, BufferedImage source, int variant, int level) {
+    if (variant == 0 && level == 0) {
+      return source;
+    }
+    if (assetId == null) {
+      return create(null, source, variant, level);
+    }
+
+    var key = new Key(assetId, variant, level);
+    var entry = entries.get(key);
+    if (entry != null && entry.source().get() == source) {
+      return entry.image();
+    }
+
+    BufferedImage image = create(assetId, source, variant, level);
+    put(key, new Entry(new WeakReference<>(source), image));
+    return image;
+  }
+
+  /** Removes all images from the cache. */
+  public synchronized void clear() {
+    entries.clear();
+    bytes = 0;
+  }
+
+  /**
+   * Removes the images of the assets that don't pass a test from the cache.
+   *
+   * @param keep returns {@code true} for the assets whose images should be kept.
+   */
+  public synchronized void retainIf(Predicate<MD5Key> keep) {
+    Iterator<Map.Entry<Key, Entry>> it = entries.entrySet().iterator();
+    while (it.hasNext()) {
+      var entry = it.next();
+      if (!keep.test(entry.getKey().assetId())) {
+        bytes -= sizeOf(entry.getValue().image());
+        it.remove();
+      }
+    }
+  }
+
+  private BufferedImage create(
+      @Nullable MD5Key assetId, BufferedImage source, int variant, int level) {
+    if (level > 0) {
+      // Each level is made from the one above it, which gives a better result than scaling the
+      // full size image down in one step.
+      BufferedImage larger = get(assetId, source, variant, level - 1);
+      int width = Math.max(1, larger.getWidth() / 2);
+      int height = Math.max(1, larger.getHeight() / 2);
+      return ImageUtil.createCompatibleImage(
+          larger, width, height, Map.of(ImageUtil.HINT_TRANSPARENCY, larger.getTransparency()));
+    }
+
+    BufferedImage image = source;
+    if ((variant & (FLIP_X | FLIP_Y)) != 0) {
+      boolean flipX = (variant & FLIP_X) != 0;
+      boolean flipY = (variant & FLIP_Y) != 0;
+      image = new BufferedImage(source.getWidth(), source.getHeight(), source.getTransparency());
+
+      int workW = source.getWidth() * (flipX ? -1 : 1);
+      int workH = source.getHeight() * (flipY ? -1 : 1);
+      int workX = flipX ? source.getWidth() : 0;
+      int workY = flipY ? source.getHeight() : 0;
+
+      Graphics2D wig = image.createGraphics();
+      wig.drawImage(source, workX, workY, workW, workH, null);
+      wig.dispose();
+    }
+    if ((variant & ISO) != 0) {
+      image = IsometricGrid.isoImage(image);
+    }
+    return image;
+  }
+
+  private void put(Key key, Entry entry) {
+    var old = entries.put(key, entry);
+    if (old != null) {
+      bytes -= sizeOf(old.image());
+    }
+    bytes += sizeOf(entry.image());
+
+    Iterator<Map.Entry<Key, Entry>> it = entries.entrySet().iterator();
+    while (bytes > maxBytes && it.hasNext()) {
+      var eldest = it.next();
+      if (eldest.getKey().equals(key)) {
+        // Always keep the image that was just asked for.
+        continue;
+      }
+      bytes -= sizeOf(eldest.getValue().image());
+      it.remove();
+    }
+  }
+
+  private static long sizeOf(BufferedImage image) {
+    return (long) image.getWidth() * image.getHeight() * 4;
+  }
+}
@@ -36,6 +36,16 @@ public CompositeContext createContext(
     return new BlackCompositeContext();
   }
 
+  @Override
+  public boolean equals(Object obj) {
+    return obj instanceof SolidColorComposite other && other.colour == colour;
+  }
+
+  @Override
+  public int hashCode() {
+    return Integer.hashCode(colour);
+  }
+
   public final class BlackCompositeContext implements CompositeContext {
     @Override
     public void dispose() {}
@@ -134,8 +134,14 @@ public class ZoneRenderer extends JComponent
   private boolean showAllPaths = true; // Jamz: new option to show path
   // Optimizations
   private final Map<GUID, BufferedImage> labelRenderingCache = new HashMap<GUID, BufferedImage>();
-  private final Map<Token, BufferedImage> flipImageMap = new HashMap<Token, BufferedImage>();
-  private final Map<Token, BufferedImage> flipIsoImageMap = new HashMap<Token, BufferedImage>();
+  // Flipped and downscaled token images, shared by all the zone renderers and flushed along with
+  // the images in the ImageManager
+  private static final MipmapImageCache tokenImageCache = new MipmapImageCache(128L << 20);
+
+  static {
+    ImageManager.addFlushListener(flushed -> tokenImageCache.retainIf(flushed.negate()));
+  }
+
   private Token tokenUnderMouse;
 
   private ScreenPoint pointUnderMouse;
@@ -654,7 +660,7 @@ public void centerOn(CellPoint point) {
   }
 
   /**
-   * Remove the token from: tokenLocationCache, flipImageMap, opacityImageMap, replacementImageMap,
+   * Remove the token from: tokenLocationCache, opacityImageMap, replacementImageMap,
    * labelRenderingCache. Set the visibleScreenArea, tokenStackMap, drawableLights, drawableAuras to
    * null. Flush the token from the zoneView.
    *
@@ -666,8 +672,6 @@ public void flush(Token token) {
     synchronized (tokenLocationCache) {
       tokenLocationCache.remove(token);
     }
-    flipImageMap.remove(token);
-    flipIsoImageMap.remove(token);
     labelRenderingCache.remove(token.getId());
 
     // This should be smarter, but whatever
@@ -699,10 +703,11 @@ public void flush() {
     // tokenLocationCache.clear();
 
     flushDrawableRenderer();
-    flipImageMap.clear();
-    flipIsoImageMap.clear();
     drawableLights = null;
     drawableAuras = null;
+    lightOverlayCache.clear();
+    darknessOverlayCache.clear();
+    auraOverlayCache.clear();
     zoneView.flushFog();
 
     isLoaded = false;
@@ -1454,6 +1459,27 @@ private enum LightOverlayClipStyle {
    */
   private List<DrawableLight> drawableLights = null;
 
+  /** The lights from {@link #drawableLights} with non-negative lumens. */
+  private List<DrawableLight> nonDarknessLights = null;
+
+  /** The lights from {@link #drawableLights} with negative lumens. */
+  private List<DrawableLight> darknessLights = null;
+
+  /** Tile caches for the light, darkness and aura overlays, reused while the view pans. */
+  private final LightOverlayCache lightOverlayCache = new LightOverlayCache();
+
+  private final LightOverlayCache darknessOverlayCache = new LightOverlayCache();
+  private final LightOverlayCache auraOverlayCache = new LightOverlayCache();
+
+  /** The complement of {@link #visibleScreenArea} within the component bounds. */
+  private Area notVisibleScreenArea;
+
+  /** The visible screen area that {@link #notVisibleScreenArea} was computed from. */
+  private Area notVisibleScreenAreaSource;
+
+  /** The component bounds that {@link #notVisibleScreenArea} was computed from. */
+  private Rectangle notVisibleScreenAreaBounds;
+
   /**
    * Render the lights. Get the lights from drawableLightCache, combine them, put them in
    * drawableLights, and draw them.
@@ -1469,18 +1495,18 @@ private void renderLights(Graphics2D g, PlayerView view) {
       drawableLights = new ArrayList<>(zoneView.getDrawableLights(view));
       drawableLights.removeIf(light -> light.getType() != LightSource.Type.NORMAL);
       timer.stop("renderLights:populateCache");
+
+      timer.start("renderLights:filterLights");
+      darknessLights = drawableLights.stream().filter(light -> light.getLumens() < 0).toList();
+      nonDarknessLights = drawableLights.stream().filter(light -> light.getLumens() >= 0).toList();
+      timer.stop("renderLights:filterLights");
     }
-    timer.start("renderLights:filterLights");
-    final var darknessLights =
-        drawableLights.stream().filter(light -> light.getLumens() < 0).toList();
-    final var nonDarknessLights =
-        drawableLights.stream().filter(light -> light.getLumens() >= 0).toList();
-    timer.stop("renderLights:filterLights");
     timer.stop("renderLights:getLights");
 
     timer.start("renderLights:renderLightOverlay");
     renderLightOverlay(
         g,
+        lightOverlayCache,
         AlphaComposite.SrcOver.derive(AppPreferences.getLightOverlayOpacity() / 255.0f),
         view.isGMView() ? null : LightOverlayClipStyle.CLIP_TO_VISIBLE_AREA,
         nonDarknessLights,
@@ -1493,6 +1519,7 @@ private void renderLights(Graphics2D g, PlayerView view) {
     timer.start("renderLights:renderDarknessOverlay");
     renderLightOverlay(
         g,
+        darknessOverlayCache,
         view.isGMView()
             ? AlphaComposite.SrcOver.derive(AppPreferences.getDarknessOverlayOpacity() / 255.0f)
             : new SolidColorComposite(0xff000000),
@@ -1524,6 +1551,7 @@ private void renderAuras(Graphics2D g, PlayerView view) {
     timer.start("renderAuras:renderAuraOverlay");
     renderLightOverlay(
         g,
+        auraOverlayCache,
         AlphaComposite.SrcOver.derive(AppPreferences.getAuraOverlayOpacity() / 255.0f),
         view.isGMView() ? null : LightOverlayClipStyle.CLIP_TO_VISIBLE_AREA,
         drawableAuras,
@@ -1535,7 +1563,11 @@ private void renderAuras(Graphics2D g, PlayerView view) {
   /**
    * Combines a set of lights into an image that is then rendered into the zone.
    *
+   * <p>The combined lights are kept in {@code cache} as zone-aligned tiles, so only tiles touched
+   * by changed lights are redrawn and panning just blits the existing tiles.
+   *
    * @param g The graphics object used to render the zone.
+   * @param cache The tile cache holding the rasterized lights.
    * @param composite The composite used to blend lights together.
    * @param clipStyle How to clip the overlay relative to the visible area. Set to null for no extra
    *     clipping.
@@ -1545,63 +1577,54 @@ private void renderAuras(Graphics2D g, PlayerView view) {
    */
   private void renderLightOverlay(
       Graphics2D g,
+      LightOverlayCache cache,
       Composite composite,
       @Nullable LightOverlayClipStyle clipStyle,
       List<DrawableLight> lights,
       Paint defaultPaint,
       float overlayOpacity) {
-    if (lights.isEmpty()) {
-      // No points spending resources accomplishing nothing.
-      return;
-    }
-
-    // Set up a buffer image for lights to be drawn onto before the map
-    timer.start("renderLightOverlay:allocateBuffer");
-    try (final var bufferHandle = tempBufferPool.acquire()) {
-      BufferedImage lightOverlay = bufferHandle.get();
-      timer.stop("renderLightOverlay:allocateBuffer");
-
-      Graphics2D newG = lightOverlay.createGraphics();
-      SwingUtil.useAntiAliasing(newG);
-
-      if (clipStyle != null && visibleScreenArea != null) {
-        timer.start("renderLightOverlay:setClip");
-        Area clip = new Area(g.getClip());
-        switch (clipStyle) {
-          case CLIP_TO_VISIBLE_AREA -> clip.intersect(visibleScreenArea);
-          case CLIP_TO_NOT_VISIBLE_AREA -> clip.subtract(visibleScreenArea);
-        }
-        newG.setClip(clip);
-        timer.stop("renderLightOverlay:setClip");
-      }
-
-      timer.start("renderLightOverlay:setTransform");
-      AffineTransform af = new AffineTransform();
-      af.translate(getViewOffsetX(), getViewOffsetY());
-      af.scale(getScale(), getScale());
-      newG.setTransform(af);
-      timer.stop("renderLightOverlay:setTransform");
-
-      newG.setComposite(composite);
-
-      // Draw lights onto the buffer image so the map doesn't affect how they blend
-      timer.start("renderLightOverlay:drawLights");
-      for (var light : lights) {
-        var paint = light.getPaint() != null ? light.getPaint().getPaint() : defaultPaint;
-        newG.setPaint(paint);
-        newG.fill(light.getArea());
-      }
-      timer.stop("renderLightOverlay:drawLights");
-      newG.dispose();
+    Area clip = null;
+    if (clipStyle != null && visibleScreenArea != null) {
+      timer.start("renderLightOverlay:setClip");
+      clip =
+          switch (clipStyle) {
+            case CLIP_TO_VISIBLE_AREA -> visibleScreenArea;
+            case CLIP_TO_NOT_VISIBLE_AREA -> getNotVisibleScreenArea();
+          };
+      timer.stop("renderLightOverlay:setClip");
+    }
+
+    timer.start("renderLightOverlay:drawTiles");
+    cache.render(
+        g,
+        clip,
+        lights,
+        composite,
+        defaultPaint,
+        overlayOpacity,
+        getScale(),
+        getViewOffsetX(),
+        getViewOffsetY(),
+        getSize().width,
+        getSize().height);
+    timer.stop("renderLightOverlay:drawTiles");
+  }
 
-      // Draw the buffer image with all the lights onto the map
-      timer.start("renderLightOverlay:drawBuffer");
-      Composite previousComposite = g.getComposite();
-      g.setComposite(AlphaComposite.getInstance(AlphaComposite.SRC_OVER, overlayOpacity));
-      g.drawImage(lightOverlay, null, 0, 0);
-      g.setComposite(previousComposite);
-      timer.stop("renderLightOverlay:drawBuffer");
+  /**
+   * @return the part of the component bounds outside {@link #visibleScreenArea}, reusing the last
+   *     result until the visible area or the component size changes.
+   */
+  private Area getNotVisibleScreenArea() {
+    Rectangle bounds = new Rectangle(getSize().width, getSize().height);
+    if (notVisibleScreenArea == null
+        || notVisibleScreenAreaSource != visibleScreenArea
+        || !bounds.equals(notVisibleScreenAreaBounds)) {
+      notVisibleScreenArea = new Area(bounds);
+      notVisibleScreenArea.subtract(visibleScreenArea);
+      notVisibleScreenAreaSource = visibleScreenArea;
+      notVisibleScreenAreaBounds = bounds;
     }
+    return notVisibleScreenArea;
   }
 
   /**
@@ -2110,28 +2133,13 @@ protected void showBlockedMoves(Graphics2D g, PlayerView view, Set<SelectionSet>
             }
           }
         }
-        // handle flipping
-        BufferedImage workImage = image;
-        if (token.isFlippedX() || token.isFlippedY()) {
-          workImage =
-              new BufferedImage(image.getWidth(), image.getHeight(), image.getTransparency());
-
-          int workW = image.getWidth() * (token.isFlippedX() ? -1 : 1);
-          int workH = image.getHeight() * (token.isFlippedY() ? -1 : 1);
-          int workX = token.isFlippedX() ? image.getWidth() : 0;
-          int workY = token.isFlippedY() ? image.getHeight() : 0;
-
-          Graphics2D wig = workImage.createGraphics();
-          wig.drawImage(image, workX, workY, workW, workH, null);
-          wig.dispose();
-        }
-        // on the iso plane
+        // handle flipping, and the iso plane
+        MD5Key imageKey = getTokenImageKey(token);
+        int variant =
+            MipmapImageCache.variant(
+                token.isFlippedX(), token.isFlippedY(), token.isFlippedIso());
+        BufferedImage workImage = tokenImageCache.get(imageKey, image, variant, 0);
         if (token.isFlippedIso()) {
-          if (flipIsoImageMap.get(token) == null) {
-            workImage = IsometricGrid.isoImage(workImage);
-          } else {
-            workImage = flipIsoImageMap.get(token);
-          }
           token.setHeight(workImage.getHeight());
           token.setWidth(workImage.getWidth());
           footprintBounds = token.getBounds(zone);
@@ -2197,7 +2205,16 @@ protected void showBlockedMoves(Graphics2D g, PlayerView view, Set<SelectionSet>
           }
         }
 
-        g.drawImage(workImage, at, this);
+        int level = MipmapImageCache.levelFor(at, workImage);
+        if (level > 0) {
+          BufferedImage levelImage = tokenImageCache.get(imageKey, image, variant, level);
+          at.scale(
+              (double) workImage.getWidth() / levelImage.getWidth(),
+              (double) workImage.getHeight() / levelImage.getHeight());
+          g.drawImage(levelImage, at, this);
+        } else {
+          g.drawImage(workImage, at, this);
+        }
 
         // Other details
         if (token == keyToken) {
@@ -3036,41 +3053,17 @@ protected void renderTokens(
       timer.stop("renderTokens:ShowPath");
 
       timer.start("tokenlist-5");
-      // handle flipping
-      BufferedImage workImage = image;
-      if (token.isFlippedX() || token.isFlippedY()) {
-        workImage = flipImageMap.get(token);
-        if (workImage == null) {
-          workImage =
-              new BufferedImage(image.getWidth(), image.getHeight(), image.getTransparency());
-
-          int workW = image.getWidth() * (token.isFlippedX() ? -1 : 1);
-          int workH = image.getHeight() * (token.isFlippedY() ? -1 : 1);
-          int workX = token.isFlippedX() ? image.getWidth() : 0;
-          int workY = token.isFlippedY() ? image.getHeight() : 0;
-
-          Graphics2D wig = workImage.createGraphics();
-          wig.drawImage(image, workX, workY, workW, workH, null);
-          wig.dispose();
-
-          flipImageMap.put(token, workImage);
-        }
-      }
-      timer.stop("tokenlist-5");
-
-      timer.start("tokenlist-5a");
+      // handle flipping, and the iso plane
+      MD5Key imageKey = getTokenImageKey(token);
+      int variant =
+          MipmapImageCache.variant(token.isFlippedX(), token.isFlippedY(), token.isFlippedIso());
+      BufferedImage workImage = tokenImageCache.get(imageKey, image, variant, 0);
       if (token.isFlippedIso()) {
-        if (flipIsoImageMap.get(token) == null) {
-          workImage = IsometricGrid.isoImage(workImage);
-          flipIsoImageMap.put(token, workImage);
-        } else {
-          workImage = flipIsoImageMap.get(token);
-        }
         token.setHeight(workImage.getHeight());
         token.setWidth(workImage.getWidth());
         footprintBounds = token.getBounds(zone);
       }
-      timer.stop("tokenlist-5a");
+      timer.stop("tokenlist-5");
 
       timer.start("tokenlist-6");
       // Position
@@ -3137,6 +3130,17 @@ protected void renderTokens(
           at.scale(scaledWidth / workImage.getWidth(), scaledHeight / workImage.getHeight());
         }
       }
+
+      // Draw large images shown at a small size from a smaller level of the image, rather than
+      // resampling the full size image on every frame.
+      int level = MipmapImageCache.levelFor(at, workImage);
+      if (level > 0) {
+        BufferedImage levelImage = tokenImageCache.get(imageKey, image, variant, level);
+        at.scale(
+            (double) workImage.getWidth() / levelImage.getWidth(),
+            (double) workImage.getHeight() / levelImage.getHeight());
+        workImage = levelImage;
+      }
       timer.stop("tokenlist-6");
 
       // Render Halo
@@ -4615,8 +4619,17 @@ public void addTokens(
    * @return BufferedImage
    */
   private BufferedImage getTokenImage(Token token) {
-    BufferedImage image = null;
-    // Get the basic image
+    // Adds this as observer so we can repaint once the image is ready. Fixes #1700.
+    return ImageManager.getImage(getTokenImageKey(token), this);
+  }
+
+  /**
+   * Returns the asset id of the image used to render the token, using the image table if present.
+   *
+   * @param token the token.
+   * @return the asset id of the image.
+   */
+  private MD5Key getTokenImageKey(Token token) {
     if (token.getHasImageTable() && token.hasFacing() && token.getImageTableName() != null) {
       LookupTable lookupTable =
           MapTool.getCampaign().getLookupTableMap().get(token.getImageTableName());
@@ -4624,19 +4637,14 @@ private BufferedImage getTokenImage(Token token) {
         try {
           LookupEntry result = lookupTable.getLookup(token.getFacing().toString());
           if (result != null) {
-            image = ImageManager.getImage(result.getImageId(), this);
+            return result.getImageId();
           }
         } catch (ParserException p) {
           // do nothing
         }
       }
     }
-
-    if (image == null) {
-      // Adds this as observer so we can repaint once the image is ready. Fixes #1700.
-      image = ImageManager.getImage(token.getImageAssetId(), this);
-    }
-    return image;
+    return token.getImageAssetId();
   }
 
   /*
@@ -4651,10 +4659,13 @@ public void drop(DropTargetDropEvent dtde) {
           new ScreenPoint((int) dtde.getLocation().getX(), (int) dtde.getLocation().getY())
               .convertToZone(this);
       TransferableHelper th = (TransferableHelper) getTransferHandler();
-      List<Token> tokens = th.getTokens();
-      if (tokens != null && !tokens.isEmpty()) {
-        addTokens(tokens, zp, th.getConfigureTokens(), false);
-      }
+      // Dropped files may still be importing, so the tokens are added once they are ready.
+      th.whenImported(
+          (tokens, configureTokens) -> {
+            if (!tokens.isEmpty()) {
+              addTokens(tokens, zp, configureTokens, false);
+            }
+          });
     }
   }
 
@@ -4734,8 +4745,7 @@ private void onTopologyChanged(TopologyChanged event) {
       return;
     }
 
-    flushFog();
-    flushLight();
+    // The fog and lights are flushed by the ZoneView once the new topology has been built.
     MapTool.getFrame().updateTokenTree(); // for any event
     repaintDebouncer.dispatch();
   }
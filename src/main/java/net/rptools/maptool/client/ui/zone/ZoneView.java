@@ -14,7 +14,10 @@
  */
 package net.rptools.maptool.client.ui.zone;
 
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.collect.MapMaker;
 import com.google.common.eventbus.Subscribe;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
 import java.awt.*;
 import java.awt.geom.AffineTransform;
 import java.awt.geom.Area;
@@ -23,6 +26,12 @@
 import java.util.*;
 import java.util.List;
 import java.util.Map.Entry;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import javax.swing.SwingUtilities;
 import net.rptools.maptool.client.AppUtil;
 import net.rptools.maptool.client.MapTool;
 import net.rptools.maptool.client.ui.zone.vbl.AreaTree;
@@ -47,8 +56,29 @@ public class ZoneView {
   private final Map<GUID, Area> tokenVisibleAreaCache = new HashMap<>();
   /** Map each token to their current vision, depending on other lights. */
   private final Map<GUID, Area> tokenVisionCache = new HashMap<>();
-  /** Map lightSourceToken to the areaBySightMap. */
-  private final Map<GUID, Map<String, Map<Integer, Area>>> lightSourceCache = new HashMap<>();
+  /**
+   * Map the inputs of a light source calculation to the lit area, least recently used first. The
+   * keys hold everything the area depends on, so entries don't need to be flushed. Entries for old
+   * topology are dropped when a new snapshot is published.
+   */
+  private final Map<LightAreaKey, LightArea> lightAreaCache =
+      new LinkedHashMap<>(64, .75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Entry<LightAreaKey, LightArea> eldest) {
+          return size() > MAX_CACHED_LIGHT_AREAS;
+        }
+      };
+
+  /** Stands in lightAreaCache for a light source from which nothing is visible. */
+  private static final LightArea NO_LIGHT_AREA = new LightArea(0, new Area(), Set.of());
+
+  /**
+   * The hash of the definition of each light source. The campaign replaces its light sources when
+   * they are edited, so the keys are weak and compared by identity, and a new definition gets a new
+   * hash.
+   */
+  private static final Map<LightSource, Integer> lightSourceHashes =
+      new MapMaker().weakKeys().makeMap();
   /** Map light source type to all tokens with that type. */
   private final Map<LightSource.Type, Set<GUID>> lightSourceMap = new HashMap<>();
   /** Map each token to their map between sightType and set of lights. */
@@ -60,9 +90,30 @@ public class ZoneView {
   /** Map each token to their personal drawable lights. */
   private final Map<GUID, Set<DrawableLight>> personalDrawableLightCache = new HashMap<>();
 
-  private final Map<Zone.TopologyType, Area> topologyAreas = new EnumMap<>(Zone.TopologyType.class);
-  private final Map<Zone.TopologyType, AreaTree> topologyTrees =
-      new EnumMap<>(Zone.TopologyType.class);
+  /** The topology types that vision is blocked by, which have an {@link AreaTree} built. */
+  private static final Set<Zone.TopologyType> VISION_TOPOLOGY_TYPES =
+      EnumSet.of(
+          Zone.TopologyType.WALL_VBL, Zone.TopologyType.HILL_VBL, Zone.TopologyType.PIT_VBL);
+
+  /** Builds topology snapshots for all zones, so that no one waits for an {@link AreaTree}. */
+  private static final ExecutorService topologyBuilder =
+      Executors.newSingleThreadExecutor(
+          new ThreadFactoryBuilder().setNameFormat("topology-builder-%d").setDaemon(true).build());
+
+  /** The version of the topology that was last requested. */
+  private final AtomicLong topologyVersion = new AtomicLong();
+
+  /** Whether a topology capture has been queued on the EDT and not run yet. */
+  private final AtomicBoolean capturePending = new AtomicBoolean();
+
+  /** The number of times the topology has been captured. */
+  private final AtomicInteger topologyCaptures = new AtomicInteger();
+
+  /** The latest topology snapshot that has been built, or null if none has been built yet. */
+  private volatile TopologySnapshot topology;
+
+  /** The number of light areas kept in lightAreaCache. */
+  private static final int MAX_CACHED_LIGHT_AREAS = 512;
 
   /** Lumen for personal vision (darkvision). */
   private static final int LUMEN_VISION = 100;
@@ -137,158 +188,313 @@ public boolean isUsingVision() {
   /**
    * Get the map and token topology of the requested type.
    *
-   * <p>The topology is cached and should only regenerate when not yet present, which should happen
-   * on flush calls.
+   * <p>The topology comes from the latest snapshot that has been built. When the topology changes a
+   * new snapshot is built in the background, and until it is ready the previous one is returned.
+   * Only if no snapshot has been built yet is one built on the calling thread. The area must not be
+   * modified.
    *
    * @param topologyType The type of topology tree to get.
    * @return the area of the topology.
    */
-  public synchronized Area getTopology(Zone.TopologyType topologyType) {
-    var topology = topologyAreas.get(topologyType);
+  public Area getTopology(Zone.TopologyType topologyType) {
+    return getTopologySnapshot().areas().get(topologyType);
+  }
 
-    if (topology == null) {
-      log.debug("ZoneView topology area for {} is null, generating...", topologyType.name());
+  /**
+   * Get the topology tree of the requested type.
+   *
+   * <p>This is equivalent to building an AreaTree from the results of getTopology(), but the tree
+   * is built with the rest of the snapshot.
+   *
+   * @param topologyType The type of topology tree to get. Must be one of the vision blocking types.
+   * @return the AreaTree (topology tree).
+   */
+  private AreaTree getTopologyTree(Zone.TopologyType topologyType) {
+    return getTopologySnapshot().trees().get(topologyType);
+  }
 
-      topology = new Area(zone.getTopology(topologyType));
-      List<Token> topologyTokens =
-          MapTool.getFrame().getCurrentZoneRenderer().getZone().getTokensWithTopology(topologyType);
-      for (Token topologyToken : topologyTokens) {
-        topology.add(topologyToken.getTransformedTopology(topologyType));
+  private TopologySnapshot getTopologySnapshot() {
+    var snapshot = topology;
+    if (snapshot != null) {
+      return snapshot;
+    }
+    synchronized (this) {
+      if (topology == null) {
+        log.debug("ZoneView topology for {} is not built yet, building it now", zone.getName());
+        long version = topologyVersion.get();
+        topology = buildTopology(version, captureTopology());
       }
-
-      topologyAreas.put(topologyType, topology);
+      return topology;
     }
-
-    return topology;
   }
 
   /**
-   * Get the topology tree of the requested type.
+   * Copy the map and token topology of each type. Token topology has to be transformed on the
+   * calling thread, but combining it and building the trees can be left to the builder.
    *
-   * <p>The topology tree is cached and should only regenerate when the tree is not present, which
-   * should happen on flush calls.
-   *
-   * <p>This method is equivalent to building an AreaTree from the results of getTopology(), but the
-   * results are cached.
-   *
-   * @param topologyType The type of topology tree to get.
-   * @return the AreaTree (topology tree).
+   * @return the pieces of the topology of each type.
    */
-  private synchronized AreaTree getTopologyTree(Zone.TopologyType topologyType) {
-    var topologyTree = topologyTrees.get(topologyType);
+  private Map<Zone.TopologyType, List<Area>> captureTopology() {
+    topologyCaptures.incrementAndGet();
+    Map<Zone.TopologyType, List<Area>> parts = new EnumMap<>(Zone.TopologyType.class);
+    for (Zone.TopologyType topologyType : Zone.TopologyType.values()) {
+      List<Area> areas = new ArrayList<>();
+      areas.add(new Area(zone.getTopology(topologyType)));
+      for (Token topologyToken : zone.getTokensWithTopology(topologyType)) {
+        areas.add(topologyToken.getTransformedTopology(topologyType));
+      }
+      parts.put(topologyType, areas);
+    }
+    return parts;
+  }
+
+  private static TopologySnapshot buildTopology(
+      long version, Map<Zone.TopologyType, List<Area>> parts) {
+    Map<Zone.TopologyType, Area> areas = new EnumMap<>(Zone.TopologyType.class);
+    Map<Zone.TopologyType, AreaTree> trees = new EnumMap<>(Zone.TopologyType.class);
+    for (var entry : parts.entrySet()) {
+      var topology = new Area();
+      for (Area part : entry.getValue()) {
+        topology.add(part);
+      }
+      areas.put(entry.getKey(), topology);
+      if (VISION_TOPOLOGY_TYPES.contains(entry.getKey())) {
+        trees.put(entry.getKey(), new AreaTree(topology));
+      }
+    }
+    return new TopologySnapshot(
+        version, Collections.unmodifiableMap(areas), Collections.unmodifiableMap(trees));
+  }
 
-    if (topologyTree == null) {
-      log.debug("ZoneView topology tree for {} is null, generating...", topologyType.name());
+  /**
+   * Start building a new topology snapshot. The topology is captured on the EDT once all the
+   * changes queued before it have been made, so a burst of changes is only captured once. Builds
+   * that are overtaken by a later change before they start are skipped.
+   */
+  private void invalidateTopology() {
+    topologyVersion.incrementAndGet();
+    if (capturePending.compareAndSet(false, true)) {
+      SwingUtilities.invokeLater(this::startTopologyBuild);
+    }
+  }
 
-      var topology = getTopology(topologyType);
+  /** Capture the topology and build a snapshot of it in the background. Runs on the EDT. */
+  private void startTopologyBuild() {
+    if (!capturePending.getAndSet(false)) {
+      return; // Already built by ensureTopologyCurrent().
+    }
+    long version = topologyVersion.get();
+    var parts = captureTopology();
+    topologyBuilder.execute(
+        () -> {
+          var current = topology;
+          if (version != topologyVersion.get()
+              || (current != null && current.version() >= version)) {
+            return;
+          }
+          TopologySnapshot snapshot;
+          try {
+            snapshot = buildTopology(version, parts);
+          } catch (RuntimeException e) {
+            log.error("Unable to build topology for {}", zone.getName(), e);
+            return;
+          }
+          SwingUtilities.invokeLater(() -> publishTopology(snapshot));
+        });
+  }
 
-      topologyTree = new AreaTree(topology);
-      topologyTrees.put(topologyType, topologyTree);
+  /**
+   * Build the topology on the calling thread if the latest snapshot is older than the last change.
+   * Anything that is kept, like exposed fog, must be calculated from the current topology rather
+   * than the one shown while a new snapshot is built. Must be called on the EDT.
+   */
+  public void ensureTopologyCurrent() {
+    long version = topologyVersion.get();
+    var current = topology;
+    if (current != null && current.version() >= version) {
+      return;
     }
+    capturePending.set(false);
+    log.debug("ZoneView topology for {} is out of date, building it now", zone.getName());
+    publishTopology(buildTopology(version, captureTopology()));
+  }
 
-    return topologyTree;
+  /**
+   * Returns the number of times the topology has been captured, so tests can check that changes
+   * are coalesced.
+   *
+   * @return the number of captures.
+   */
+  @VisibleForTesting
+  int getTopologyCaptureCount() {
+    return topologyCaptures.get();
   }
 
   /**
-   * Return the lightSourceArea of a lightSourceToken for a given sight type. Fill the
-   * lightSourceCache entry if null.
+   * Replace the topology with a newer snapshot and flush everything that was calculated from the
+   * old one. Runs on the EDT so the vision caches are not flushed while they are being filled.
    *
-   * @param sightName the name of the sight type for which to get the light source area
-   * @param lightSourceToken the token holding the light sources.
-   * @return the lightSourceArea.
+   * @param snapshot the snapshot that has been built.
    */
-  private Map<Integer, Area> getLightSourceArea(String sightName, Token lightSourceToken) {
-    GUID tokenId = lightSourceToken.getId();
-    Map<String, Map<Integer, Area>> areaBySightMap = lightSourceCache.get(tokenId);
-    if (areaBySightMap != null) {
-      Map<Integer, Area> lightSourceArea = areaBySightMap.get(sightName);
-      if (lightSourceArea != null) {
-        return lightSourceArea;
+  private void publishTopology(TopologySnapshot snapshot) {
+    synchronized (this) {
+      if (topology != null && topology.version() >= snapshot.version()) {
+        return;
       }
+      topology = snapshot;
+    }
+    // Light areas blocked by older topology can't be used again.
+    lightAreaCache.keySet().removeIf(key -> key.topologyVersion() < snapshot.version());
+
+    var frame = MapTool.getFrame();
+    var renderer = frame != null ? frame.getZoneRenderer(zone) : null;
+    if (renderer != null) {
+      renderer.flushFog();
+      renderer.flushLight();
     } else {
-      areaBySightMap = new HashMap<>();
-      lightSourceCache.put(lightSourceToken.getId(), areaBySightMap);
+      flush();
     }
+  }
 
-    Map<Integer, Area> lightSourceAreaMap = new HashMap<>();
+  /**
+   * Return the areas lit by the light sources of a lightSourceToken for a given sight type, and put
+   * their drawable lights in drawableLightCache. The areas come from lightAreaCache when the light
+   * has been calculated before with the same inputs.
+   *
+   * @param sightName the name of the sight type for which to get the light source area
+   * @param lightSourceToken the token holding the light sources.
+   * @return the area of each normal light source. The areas must not be modified.
+   */
+  private List<LightArea> getLightSourceArea(String sightName, Token lightSourceToken) {
+    SightType sight = MapTool.getCampaign().getSightType(sightName);
+    if (sight == null) {
+      return List.of();
+    }
 
+    List<LightArea> lightAreas = new ArrayList<>();
+    Set<DrawableLight> drawableLights = new HashSet<>();
     for (AttachedLightSource attachedLightSource : lightSourceToken.getLightSources()) {
       LightSource lightSource =
           MapTool.getCampaign().getLightSource(attachedLightSource.getLightSourceId());
-      if (lightSource == null) {
+      if (lightSource == null || lightSource.getType() != LightSource.Type.NORMAL) {
         continue;
       }
-      SightType sight = MapTool.getCampaign().getSightType(sightName);
-      Area visibleArea =
-          calculateLightSourceArea(
-              lightSource, lightSourceToken, sight, attachedLightSource.getDirection());
-
-      if (visibleArea != null && lightSource.getType() == LightSource.Type.NORMAL) {
-        var lumens = lightSource.getLumens();
-        // Group all the light area's by lumens so there is only one area per lumen value
-        if (lightSourceAreaMap.containsKey(lumens)) {
-          visibleArea.add(lightSourceAreaMap.get(lumens));
-        }
-        lightSourceAreaMap.put(lumens, visibleArea);
+      LightArea lightArea =
+          getLightArea(lightSource, lightSourceToken, sight, attachedLightSource.getDirection());
+      if (lightArea != null) {
+        lightAreas.add(lightArea);
+        drawableLights.addAll(lightArea.drawableLights());
       }
     }
 
-    // Cache
-    areaBySightMap.put(sightName, lightSourceAreaMap);
-    return lightSourceAreaMap;
+    // FIXME There was a bug report of a ConcurrentModificationException regarding
+    // drawableLightCache.
+    // I don't see how, but perhaps this code -- and the ones in flush() and flush(Token) -- should
+    // be
+    // wrapped in a synchronization block? This method is probably called only on the same thread as
+    // getDrawableLights() but the two flush() methods may be called from different threads. How to
+    // verify this with Eclipse? Maybe the flush() methods should defer modifications to the
+    // EventDispatchingThread?
+    drawableLightCache
+        .computeIfAbsent(lightSourceToken.getId(), k -> new HashMap<>())
+        .put(sight.getName(), drawableLights);
+    return lightAreas;
   }
 
   /**
-   * Calculate the area visible by a sight type for a given light, and put the lights in
-   * drawableLightCache.
+   * Return the area lit by a light source as seen by a sight type, from lightAreaCache if it has
+   * been calculated before with the same inputs.
    *
-   * @param lightSource the personal light source.
+   * @param lightSource the light source. Not a personal light.
    * @param lightSourceToken the token holding the light source.
    * @param sight the sight type.
    * @param direction the direction of the light source.
-   * @return the area visible.
+   * @return the lit area, or null if nothing is visible from the light source.
    */
-  private Area calculatePersonalLightSourceArea(
+  private LightArea getLightArea(
       LightSource lightSource, Token lightSourceToken, SightType sight, Direction direction) {
-    return calculateLightSourceArea(lightSource, lightSourceToken, sight, direction, true);
+    Point p = FogUtil.calculateVisionCenter(lightSourceToken, zone);
+    Grid grid = zone.getGrid();
+    var key =
+        new LightAreaKey(
+            lightSource.getId(),
+            lightSourceHashes.computeIfAbsent(lightSource, ls -> ls.toDto().hashCode()),
+            direction,
+            sight.getMultiplier(),
+            p,
+            lightSourceToken
+                .getFootprint(grid)
+                .getBounds(
+                    grid,
+                    grid.convert(new ZonePoint(lightSourceToken.getX(), lightSourceToken.getY()))),
+            lightSourceToken.getBounds(zone),
+            lightSourceToken.getFacing(),
+            grid,
+            grid.getSize(),
+            zone.getUnitsPerCell(),
+            zone.getTokenVisionInPixels(),
+            getTopologySnapshot().version());
+
+    LightArea lightArea = lightAreaCache.get(key);
+    if (lightArea != null) {
+      return lightArea == NO_LIGHT_AREA ? null : lightArea;
+    }
+
+    Area visibleArea = calculateLightSourceArea(lightSource, lightSourceToken, p, sight, direction);
+    if (visibleArea != null) {
+      lightArea =
+          new LightArea(
+              lightSource.getLumens(),
+              visibleArea,
+              createDrawableLights(
+                  visibleArea, p, lightSource, lightSourceToken, sight, direction));
+    }
+
+    lightAreaCache.put(key, lightArea != null ? lightArea : NO_LIGHT_AREA);
+    return lightArea;
   }
 
   /**
    * Calculate the area visible by a sight type for a given light, and put the lights in
-   * drawableLightCache.
+   * personalDrawableLightCache.
    *
-   * @param lightSource the light source. Not a personal light.
+   * @param lightSource the personal light source.
    * @param lightSourceToken the token holding the light source.
    * @param sight the sight type.
    * @param direction the direction of the light source.
    * @return the area visible.
    */
-  private Area calculateLightSourceArea(
+  private Area calculatePersonalLightSourceArea(
       LightSource lightSource, Token lightSourceToken, SightType sight, Direction direction) {
-    return calculateLightSourceArea(lightSource, lightSourceToken, sight, direction, false);
+    Point p = FogUtil.calculateVisionCenter(lightSourceToken, zone);
+    Area visibleArea = calculateLightSourceArea(lightSource, lightSourceToken, p, sight, direction);
+    if (visibleArea != null && lightSource.getType() == LightSource.Type.NORMAL) {
+      personalDrawableLightCache.put(
+          lightSourceToken.getId(),
+          createDrawableLights(visibleArea, p, lightSource, lightSourceToken, sight, direction));
+    }
+    return visibleArea;
   }
 
   /**
-   * Calculate the area visible by a sight type for a given lightSource, and put the lights in
-   * drawableLightCache.
+   * Calculate the area visible by a sight type for a given lightSource.
    *
-   * @param lightSource the light source. Not a personal light.
+   * @param lightSource the light source.
    * @param lightSourceToken the token holding the light source.
+   * @param p the vision center of the light source token.
    * @param sight the sight type.
    * @param direction the direction of the light source.
-   * @param isPersonalLight is the light a personal light?
    * @return the area visible.
    */
   private Area calculateLightSourceArea(
       LightSource lightSource,
       Token lightSourceToken,
+      Point p,
       SightType sight,
-      Direction direction,
-      boolean isPersonalLight) {
+      Direction direction) {
     if (sight == null) {
       return null;
     }
-    Point p = FogUtil.calculateVisionCenter(lightSourceToken, zone);
     Area lightSourceArea = lightSource.getArea(lightSourceToken, zone, direction);
 
     // Calculate exposed area
@@ -297,25 +503,18 @@ private Area calculateLightSourceArea(
       lightSourceArea.transform(
           AffineTransform.getScaleInstance(sight.getMultiplier(), sight.getMultiplier()));
     }
-    Area visibleArea =
-        FogUtil.calculateVisibility(
-            p.x,
-            p.y,
-            lightSourceArea,
-            getTopologyTree(Zone.TopologyType.WALL_VBL),
-            getTopologyTree(Zone.TopologyType.HILL_VBL),
-            getTopologyTree(Zone.TopologyType.PIT_VBL));
-
-    if (visibleArea != null && lightSource.getType() == LightSource.Type.NORMAL) {
-      addLightSourceToCache(
-          visibleArea, p, lightSource, lightSourceToken, sight, direction, isPersonalLight);
-    }
-    return visibleArea;
+    return FogUtil.calculateVisibility(
+        p.x,
+        p.y,
+        lightSourceArea,
+        getTopologyTree(Zone.TopologyType.WALL_VBL),
+        getTopologyTree(Zone.TopologyType.HILL_VBL),
+        getTopologyTree(Zone.TopologyType.PIT_VBL));
   }
 
   /**
-   * Adds the light source as seen by a given sight to the corresponding cache. Lights (but not
-   * darkness) with a color CSS value are stored in the drawableLightCache.
+   * Creates the drawable lights of a light source as seen by a given sight. Lights (but not
+   * darkness) without a color CSS value are not drawn, so are left out.
    *
    * @param visibleArea the area visible from the light source token
    * @param p the vision center of the light source token
@@ -323,15 +522,15 @@ private Area calculateLightSourceArea(
    * @param lightSourceToken the light source token
    * @param sight the sight
    * @param direction the direction of the light source
+   * @return the drawable lights.
    */
-  private void addLightSourceToCache(
+  private Set<DrawableLight> createDrawableLights(
       Area visibleArea,
       Point p,
       LightSource lightSource,
       Token lightSourceToken,
       SightType sight,
-      Direction direction,
-      boolean isPersonalLight) {
+      Direction direction) {
     // Keep track of colored light
     Set<DrawableLight> lightSet = new HashSet<DrawableLight>();
     for (Light light : lightSource.getLightList()) {
@@ -351,25 +550,7 @@ private void addLightSourceToCache(
                 lightSource.getType(), light.getPaint(), lightArea, lightSource.getLumens()));
       }
     }
-    // FIXME There was a bug report of a ConcurrentModificationException regarding
-    // drawableLightCache.
-    // I don't see how, but perhaps this code -- and the ones in flush() and flush(Token) -- should
-    // be
-    // wrapped in a synchronization block? This method is probably called only on the same thread as
-    // getDrawableLights() but the two flush() methods may be called from different threads. How to
-    // verify this with Eclipse? Maybe the flush() methods should defer modifications to the
-    // EventDispatchingThread?
-    if (isPersonalLight) {
-      personalDrawableLightCache.put(lightSourceToken.getId(), lightSet);
-    } else {
-      Map<String, Set<DrawableLight>> lightMap =
-          drawableLightCache.computeIfAbsent(lightSourceToken.getId(), k -> new HashMap<>());
-      if (lightMap.get(sight.getName()) != null) {
-        lightMap.get(sight.getName()).addAll(lightSet);
-      } else {
-        lightMap.put(sight.getName(), lightSet);
-      }
-    }
+    return lightSet;
   }
 
   /**
@@ -524,11 +705,9 @@ private static void addLightAreaByLumens(
   private void getLightAreasByLumens(
       Map<Integer, Path2D> allLightPathMap, String sightName, List<Token> lightSourceTokens) {
     for (Token lightSourceToken : lightSourceTokens) {
-      Map<Integer, Area> lightArea = getLightSourceArea(sightName, lightSourceToken);
-
-      for (Entry<Integer, Area> light : lightArea.entrySet()) {
+      for (LightArea light : getLightSourceArea(sightName, lightSourceToken)) {
         // Add the token's light area to the global area in `allLightPathMap`.
-        addLightAreaByLumens(allLightPathMap, light.getKey(), light.getValue());
+        addLightAreaByLumens(allLightPathMap, light.lumens(), light.area());
       }
     }
   }
@@ -643,13 +822,12 @@ public Set<DrawableLight> getDrawableLights(PlayerView view) {
   }
 
   /**
-   * Clear the tokenVisibleAreaCache, tokenVisionCache, lightSourceCache, visibleAreaMap,
-   * drawableLightCache, and personal drawable light caches.
+   * Clear the tokenVisibleAreaCache, tokenVisionCache, visibleAreaMap, drawableLightCache, and
+   * personal drawable light caches. The lightAreaCache is kept, as its entries can't go stale.
    */
   public void flush() {
     tokenVisibleAreaCache.clear();
     tokenVisionCache.clear();
-    lightSourceCache.clear();
     exposedAreaMap.clear();
     visibleAreaMap.clear();
     drawableLightCache.clear();
@@ -662,17 +840,16 @@ public void flushFog() {
 
   /**
    * Flush the ZoneView cache of the token. Remove token from tokenVisibleAreaCache,
-   * tokenVisionCache, lightSourceCache, drawableLightCache, and personal light caches. Can clear
-   * tokenVisionCache and visibleAreaMap depending on the token.
+   * tokenVisionCache, drawableLightCache, and personal light caches. Can clear tokenVisionCache and
+   * visibleAreaMap depending on the token.
    *
    * @param token the token to flush.
    */
   public void flush(Token token) {
-    boolean hadLightSource = lightSourceCache.get(token.getId()) != null;
+    boolean hadLightSource = drawableLightCache.get(token.getId()) != null;
 
     tokenVisionCache.remove(token.getId());
     tokenVisibleAreaCache.remove(token.getId());
-    lightSourceCache.remove(token.getId());
     drawableLightCache.remove(token.getId());
     personalDrawableLightCache.remove(token.getId());
 
@@ -746,9 +923,7 @@ private void onTopologyChanged(TopologyChanged event) {
       return;
     }
 
-    flush();
-    topologyAreas.clear();
-    topologyTrees.clear();
+    invalidateTopology();
   }
 
   private boolean flushExistingTokens(List<Token> tokens) {
@@ -775,9 +950,7 @@ private void onTokensAdded(TokensAdded event) {
     // since if a token that has topology is added/removed/edited (rotated/moved/etc)
     // it should also trip a Topology change
     if (tokenChangedTopology) {
-      flush();
-      topologyAreas.clear();
-      topologyTrees.clear();
+      invalidateTopology();
     }
   }
 
@@ -807,9 +980,7 @@ private void onTokensRemoved(TokensRemoved event) {
     // since if a token that has topology is added/removed/edited (rotated/moved/etc)
     // it should also trip a Topology change
     if (tokenChangedTopology) {
-      flush();
-      topologyAreas.clear();
-      topologyTrees.clear();
+      invalidateTopology();
     }
   }
 
@@ -827,9 +998,7 @@ private void onTokensChanged(TokensChanged event) {
     // since if a token that has topology is added/removed/edited (rotated/moved/etc)
     // it should also trip a Topology change
     if (tokenChangedTopology) {
-      flush();
-      topologyAreas.clear();
-      topologyTrees.clear();
+      invalidateTopology();
     }
   }
 
@@ -873,6 +1042,58 @@ private boolean processTokenAddChangeEvent(List<Token> tokens) {
     return hasTopology;
   }
 
+  /**
+   * The combined map and token topology of each type at one point in time, with the trees used for
+   * vision. Snapshots are never modified once they are built.
+   *
+   * @param version the version of the topology, which increases each time it changes.
+   * @param areas the topology of each type.
+   * @param trees the topology tree of each vision blocking type.
+   */
+  private record TopologySnapshot(
+      long version, Map<Zone.TopologyType, Area> areas, Map<Zone.TopologyType, AreaTree> trees) {}
+
+  /**
+   * Everything the area lit by a light source depends on.
+   *
+   * @param lightSourceId the id of the light source.
+   * @param definitionHash the hash of the definition of the light source.
+   * @param direction the direction of the light source.
+   * @param multiplier the multiplier of the sight type.
+   * @param center the vision center of the token.
+   * @param footprint the footprint bounds of the token.
+   * @param bounds the bounds of the token.
+   * @param facing the facing of the token.
+   * @param grid the grid of the zone.
+   * @param gridSize the size of the grid.
+   * @param unitsPerCell the units per cell of the zone.
+   * @param visionDistance the default vision distance of the zone, in pixels.
+   * @param topologyVersion the version of the topology the area is blocked by.
+   */
+  private record LightAreaKey(
+      GUID lightSourceId,
+      int definitionHash,
+      Direction direction,
+      double multiplier,
+      Point center,
+      Rectangle footprint,
+      Rectangle bounds,
+      Integer facing,
+      Grid grid,
+      int gridSize,
+      double unitsPerCell,
+      int visionDistance,
+      long topologyVersion) {}
+
+  /**
+   * The area lit by a light source, with the lights to draw for it.
+   *
+   * @param lumens the lumens of the light source.
+   * @param area the area lit by the light source.
+   * @param drawableLights the lights to draw.
+   */
+  private record LightArea(int lumens, Area area, Set<DrawableLight> drawableLights) {}
+
   /** Has a single field: the visibleArea area */
   private static class VisibleAreaMeta {
     Area visibleArea;
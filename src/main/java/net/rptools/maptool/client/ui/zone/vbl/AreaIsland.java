@@ -21,6 +21,7 @@
 import java.util.Set;
 import javax.annotation.Nullable;
 import org.locationtech.jts.geom.Coordinate;
+import org.locationtech.jts.geom.Envelope;
 import org.locationtech.jts.geom.GeometryFactory;
 import org.locationtech.jts.geom.LineString;
 import org.locationtech.jts.geom.prep.PreparedGeometry;
@@ -86,6 +87,11 @@ public Area getBounds() {
     return meta.getBounds();
   }
 
+  /** @return the bounding box of the island. */
+  public Envelope getEnvelope() {
+    return meta.getEnvelope();
+  }
+
   @Override
   public List<LineString> getVisionBlockingBoundarySegments(
       GeometryFactory geometryFactory,
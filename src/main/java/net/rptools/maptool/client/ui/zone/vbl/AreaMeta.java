@@ -18,20 +18,32 @@
 import java.awt.geom.GeneralPath;
 import java.awt.geom.Point2D;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
+import javax.annotation.Nullable;
 import net.rptools.lib.GeometryUtil;
 import org.locationtech.jts.algorithm.Orientation;
 import org.locationtech.jts.geom.Coordinate;
+import org.locationtech.jts.geom.Envelope;
 import org.locationtech.jts.geom.GeometryFactory;
-import org.locationtech.jts.geom.LineSegment;
 import org.locationtech.jts.geom.LineString;
 import org.locationtech.jts.geom.prep.PreparedGeometry;
+import org.locationtech.jts.index.strtree.STRtree;
 
 /** Represents the boundary of a piece of topology. */
 public class AreaMeta {
+  /** Boundaries with at least this many faces get an index of their faces. */
+  private static final int FACE_INDEX_THRESHOLD = 64;
+
   private Area area;
   private List<Coordinate> vertices = new ArrayList<>();
 
+  // Set by close()
+  private Coordinate[] vertexArray;
+  private Envelope envelope;
+  private @Nullable STRtree faceIndex;
+
   // Only used during construction
   private boolean isHole;
   private GeneralPath path;
@@ -46,6 +58,11 @@ public Area getBounds() {
     return new Area(area);
   }
 
+  /** @return the bounding box of the boundary. */
+  public Envelope getEnvelope() {
+    return envelope;
+  }
+
   /** @return true if this object does not have any edges. */
   public boolean isEmpty() {
     // Note: vertices is a closed loop, so we can only have edges if we have at least 3 points with
@@ -63,33 +80,45 @@ public List<LineString> getFacingSegments(
       Coordinate origin,
       boolean faceAway,
       PreparedGeometry vision) {
+    final var visionEnvelope = vision.getGeometry().getEnvelopeInternal();
+    if (!envelope.intersects(visionEnvelope)) {
+      return Collections.emptyList();
+    }
+
     final var requiredOrientation = faceAway ? Orientation.CLOCKWISE : Orientation.COUNTERCLOCKWISE;
     List<LineString> segments = new ArrayList<>();
     List<Coordinate> currentSegmentPoints = new ArrayList<>();
 
-    Coordinate current = null;
-    for (Coordinate coordinate : vertices) {
+    // Only the faces that can be inside the vision need to be checked.
+    final int[] faces = faceIndex == null ? null : queryFaces(visionEnvelope);
+    final int faceCount = faces == null ? vertexArray.length - 1 : faces.length;
+    int previousFace = -1;
+    for (int i = 0; i < faceCount; i++) {
       assert currentSegmentPoints.size() == 0 || currentSegmentPoints.size() >= 2;
 
-      final var previous = current;
-      current = coordinate;
-      if (previous == null) {
-        continue;
+      final int face = faces == null ? i : faces[i];
+      if (!currentSegmentPoints.isEmpty() && face != previousFace + 1) {
+        // The faces in between were skipped, so the segment is broken.
+        segments.add(
+            geometryFactory.createLineString(currentSegmentPoints.toArray(Coordinate[]::new)));
+        currentSegmentPoints.clear();
       }
+      previousFace = face;
 
-      final var faceLineSegment = new LineSegment(previous, coordinate);
-      final var orientation = faceLineSegment.orientationIndex(origin);
+      final var p0 = vertexArray[face];
+      final var p1 = vertexArray[face + 1];
       final var shouldIncludeFace =
-          (orientation == requiredOrientation)
-              && vision.intersects(faceLineSegment.toGeometry(geometryFactory));
+          Orientation.index(p0, p1, origin) == requiredOrientation
+              && intersects(visionEnvelope, p0, p1)
+              && vision.intersects(geometryFactory.createLineString(new Coordinate[] {p0, p1}));
 
       if (shouldIncludeFace) {
         // Since we're including this face, the existing segment can be extended.
         if (currentSegmentPoints.isEmpty()) {
           // Also need the first point.
-          currentSegmentPoints.add(faceLineSegment.p0);
+          currentSegmentPoints.add(p0);
         }
-        currentSegmentPoints.add(faceLineSegment.p1);
+        currentSegmentPoints.add(p1);
       } else if (!currentSegmentPoints.isEmpty()) {
         // Since we're skipping this face, the segment is broken and we must start a new one.
         segments.add(
@@ -107,6 +136,25 @@ public List<LineString> getFacingSegments(
     return segments;
   }
 
+  /** @return the indices of the faces whose bounds intersect the envelope, in order. */
+  private int[] queryFaces(Envelope visionEnvelope) {
+    @SuppressWarnings("unchecked")
+    final List<Integer> found = faceIndex.query(visionEnvelope);
+    final int[] faces = new int[found.size()];
+    for (int i = 0; i < faces.length; i++) {
+      faces[i] = found.get(i);
+    }
+    Arrays.sort(faces);
+    return faces;
+  }
+
+  private static boolean intersects(Envelope envelope, Coordinate p0, Coordinate p1) {
+    return Math.max(p0.x, p1.x) >= envelope.getMinX()
+        && Math.min(p0.x, p1.x) <= envelope.getMaxX()
+        && Math.max(p0.y, p1.y) >= envelope.getMinY()
+        && Math.min(p0.y, p1.y) <= envelope.getMaxY();
+  }
+
   public boolean isHole() {
     return isHole;
   }
@@ -144,7 +192,21 @@ public void close() {
       vertices.add(first);
     }
 
-    isHole = vertices.size() >= 4 && Orientation.isCCW(vertices.toArray(Coordinate[]::new));
+    vertexArray = vertices.toArray(Coordinate[]::new);
+    isHole = vertexArray.length >= 4 && Orientation.isCCW(vertexArray);
+
+    envelope = new Envelope();
+    for (Coordinate vertex : vertexArray) {
+      envelope.expandToInclude(vertex);
+    }
+    // The index is built now, while only one thread can see it, as building it isn't thread safe.
+    if (vertexArray.length > FACE_INDEX_THRESHOLD) {
+      faceIndex = new STRtree();
+      for (int face = 0; face < vertexArray.length - 1; face++) {
+        faceIndex.insert(new Envelope(vertexArray[face], vertexArray[face + 1]), face);
+      }
+      faceIndex.build();
+    }
 
     // Don't need this anymore
     path = null;
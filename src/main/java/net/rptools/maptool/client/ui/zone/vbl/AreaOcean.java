@@ -16,15 +16,18 @@
 
 import java.awt.geom.Area;
 import java.awt.geom.Point2D;
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
 import javax.annotation.Nullable;
 import org.locationtech.jts.geom.Coordinate;
+import org.locationtech.jts.geom.Envelope;
 import org.locationtech.jts.geom.GeometryFactory;
 import org.locationtech.jts.geom.LineString;
 import org.locationtech.jts.geom.prep.PreparedGeometry;
+import org.locationtech.jts.index.strtree.STRtree;
 
 /**
  * Represents a hole in the topology.
@@ -37,6 +40,7 @@ public class AreaOcean implements AreaContainer {
   private AreaMeta meta;
   private AreaIsland parentIsland = null;
   private Set<AreaIsland> islandSet = new HashSet<AreaIsland>();
+  private @Nullable STRtree islandIndex;
 
   /**
    * Creates a new ocean with a given boundary.
@@ -91,8 +95,43 @@ public Set<AreaIsland> getIslands() {
     return new HashSet<AreaIsland>(islandSet);
   }
 
+  /**
+   * Gets the islands in this ocean whose bounds intersect an envelope.
+   *
+   * @param envelope The envelope to find islands in.
+   * @return The islands that may be inside `envelope`.
+   */
+  public List<AreaIsland> getIslands(Envelope envelope) {
+    if (islandIndex != null) {
+      @SuppressWarnings("unchecked")
+      final List<AreaIsland> islands = islandIndex.query(envelope);
+      return islands;
+    }
+
+    final List<AreaIsland> islands = new ArrayList<>();
+    for (AreaIsland island : islandSet) {
+      if (island.getEnvelope().intersects(envelope)) {
+        islands.add(island);
+      }
+    }
+    return islands;
+  }
+
   public void addIsland(AreaIsland island) {
     islandSet.add(island);
+    islandIndex = null;
+  }
+
+  /**
+   * Indexes the islands of this ocean by their bounds. Must be called once all islands have been
+   * added, before the ocean is shared between threads.
+   */
+  public void buildIndex() {
+    islandIndex = new STRtree();
+    for (AreaIsland island : islandSet) {
+      islandIndex.insert(island.getEnvelope(), island);
+    }
+    islandIndex.build();
   }
 
   @Override
@@ -122,6 +122,12 @@ private void digest(Area area) {
       theOcean.addIsland(island);
       island.setParentOcean(theOcean);
     }
+
+    // Index the islands of each ocean so vision only needs to look at those near it.
+    theOcean.buildIndex();
+    for (AreaOcean ocean : oceanList) {
+      ocean.buildIndex();
+    }
   }
 
   private <T extends AreaContainer> T findSmallestContainer(AreaContainer item, List<T> list) {
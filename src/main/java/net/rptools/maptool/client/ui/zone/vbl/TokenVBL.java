@@ -20,11 +20,13 @@
 import java.awt.Rectangle;
 import java.awt.geom.AffineTransform;
 import java.awt.geom.Area;
+import java.awt.geom.Path2D;
 import java.awt.image.BufferedImage;
-import java.util.ArrayList;
-import java.util.Collections;
-import java.util.List;
+import java.awt.image.DataBufferInt;
+import java.awt.image.SinglePixelPackedSampleModel;
+import java.awt.image.WritableRaster;
 import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
 import java.util.stream.Stream;
 import net.rptools.lib.swing.SwingUtil;
 import net.rptools.maptool.client.MapTool;
@@ -37,14 +39,11 @@
 import org.apache.logging.log4j.Logger;
 import org.locationtech.jts.awt.ShapeReader;
 import org.locationtech.jts.awt.ShapeWriter;
-import org.locationtech.jts.geom.Coordinate;
 import org.locationtech.jts.geom.Geometry;
-import org.locationtech.jts.geom.GeometryCollection;
 import org.locationtech.jts.geom.GeometryFactory;
 import org.locationtech.jts.simplify.DouglasPeuckerSimplifier;
 import org.locationtech.jts.simplify.TopologyPreservingSimplifier;
 import org.locationtech.jts.simplify.VWSimplifier;
-import org.locationtech.jts.util.GeometricShapeFactory;
 
 /**
  * A utility class that creates and returns an Area based on image pixels. A few convenience methods
@@ -55,7 +54,19 @@
 public class TokenVBL {
 
   private static final Logger log = LogManager.getLogger();
-  private static int sliceSize = 100;
+
+  /** The number of rows of pixels checked together when finding the topology pixels. */
+  private static final int MASK_BAND_HEIGHT = 64;
+
+  /** Directions of the edges between pixels, clockwise from east. */
+  private static final int EAST = 0;
+
+  private static final int SOUTH = 1;
+  private static final int WEST = 2;
+  private static final int NORTH = 3;
+
+  /** Turns to try, in order, when following an outline: right, straight on, then left. */
+  private static final int[] TURNS = {1, 0, 3};
 
   /**
    * A passed token will have it's image asset rendered into an Area based on pixels that have an
@@ -90,32 +101,13 @@ public static Area createTopologyAreaFromToken(
     Stopwatch stopwatch = Stopwatch.createStarted();
     BufferedImage image = ImageManager.getImageAndWait(token.getImageAssetId());
 
-    List<Geometry> geometryList =
-        createTopologyGeometry(image, alphaSensitivity, inverseTopology, ignoredColor);
-    log.debug(
-        "Time to complete createTopologyGeometry(): {}", stopwatch.elapsed(TimeUnit.MILLISECONDS));
-
-    final Area area = createAreaFromGeometries(geometryList);
+    final Area area = createTopologyArea(image, alphaSensitivity, inverseTopology, ignoredColor);
     log.debug(
         "Total time for createTopologyAreaFromToken(): {}",
         stopwatch.elapsed(TimeUnit.MILLISECONDS));
     return area;
   }
 
-  private static Area createAreaFromGeometries(List<Geometry> geometryList) {
-    if (geometryList.isEmpty()) {
-      return new Area();
-    } else {
-      Stopwatch stopwatch = Stopwatch.createStarted();
-      GeometryCollection geometryCollection =
-          (GeometryCollection) new GeometryFactory().buildGeometry(geometryList);
-
-      final Area area = new Area(new ShapeWriter().toShape(geometryCollection));
-      log.debug("Time to complete convert to Area: {}", stopwatch.elapsed(TimeUnit.MILLISECONDS));
-      return area;
-    }
-  }
-
   public static Area simplifyArea(
       Area topologyArea, double distanceTolerance, JTS_SimplifyMethodType simplifyMethod) {
 
@@ -320,10 +312,9 @@ public static Area getTopology_underToken(
   }
 
   /**
-   * Create a topology area from a bufferedImage and alphaSensitity. The area is created by
-   * combining topology rectangle where the alpha of the image is greater or equal to the
-   * sensitivity. Assumes all colors form the topology area, everything except transparent pixels
-   * with alpha >= alphaSensitivity
+   * Create a topology area from a bufferedImage and alphaSensitity. The area is made of the pixels
+   * whose color is within the tolerance of the pick color, or those that are not if {@code
+   * inversePickColor} is set.
    *
    * @param image the buffered image.
    * @param colorTolerance the alphaSensitivity.
@@ -331,87 +322,175 @@ public static Area getTopology_underToken(
    * @param pickColor color to compare against pixel color
    * @return the area.
    */
-  private static List<Geometry> createTopologyGeometry(
+  static Area createTopologyArea(
       BufferedImage image, int colorTolerance, boolean inversePickColor, Color pickColor) {
-
     if (image == null) {
-      return Collections.emptyList();
+      return new Area();
     }
 
-    ArrayList<Geometry> geometryList = new ArrayList<>();
-    GeometricShapeFactory gsf = new GeometricShapeFactory();
-    gsf.setNumPoints(4);
-    gsf.setWidth(1);
-
-    int y1, y2;
-    boolean addArea = false;
-
-    for (int x = 0; x < image.getWidth(); x++) {
-      y1 = 99;
-      y2 = -1;
-      for (int y = 0; y < image.getHeight(); y++) {
-        if (Thread.interrupted()) {
-          log.info("Thread interrupted!");
-          return geometryList;
-        }
-
-        Color pixelColor = new Color(image.getRGB(x, y), true);
-
-        if (colorWithinTolerance(pickColor, pixelColor, colorTolerance, inversePickColor)) {
-          if (y1 == 99) {
-            y1 = y;
-            y2 = y;
-          }
-          if (y > (y2 + 1)) {
-            gsf.setHeight(y2 - y1);
-            gsf.setBase(new Coordinate(x, y1));
-            geometryList.add(gsf.createRectangle());
-            y1 = y;
-            y2 = y;
-          }
-          y2 = y;
-        }
-      }
+    boolean[] mask = createTopologyMask(image, colorTolerance, inversePickColor, pickColor);
+    return traceTopologyMask(mask, image.getWidth(), image.getHeight());
+  }
 
-      if ((y2 - y1) >= 0) {
-        gsf.setHeight(y2 - y1 + 1);
-        gsf.setBase(new Coordinate(x, y1));
-        geometryList.add(gsf.createRectangle());
-      }
+  /**
+   * Works out which pixels of an image are topology. The image is split into bands of rows that are
+   * checked in parallel, reading the pixels straight from the raster where the image type allows.
+   *
+   * @return whether each pixel is topology, in row major order.
+   */
+  private static boolean[] createTopologyMask(
+      BufferedImage image, int colorTolerance, boolean inversePickColor, Color pickColor) {
+    final int width = image.getWidth();
+    final int height = image.getHeight();
+    final boolean[] mask = new boolean[width * height];
+    final int pick = pickColor.getRGB();
+
+    final int[] data;
+    final int offset;
+    final int stride;
+    final boolean opaque = image.getType() == BufferedImage.TYPE_INT_RGB;
+    WritableRaster raster = image.getRaster();
+    if ((image.getType() == BufferedImage.TYPE_INT_ARGB || opaque)
+        && raster.getDataBuffer() instanceof DataBufferInt dataBuffer
+        && raster.getSampleModel() instanceof SinglePixelPackedSampleModel sampleModel) {
+      data = dataBuffer.getData();
+      stride = sampleModel.getScanlineStride();
+      offset =
+          dataBuffer.getOffset()
+              - raster.getSampleModelTranslateY() * stride
+              - raster.getSampleModelTranslateX();
+    } else {
+      data = null;
+      stride = width;
+      offset = 0;
     }
 
-    return geometryList;
+    int bands = (height + MASK_BAND_HEIGHT - 1) / MASK_BAND_HEIGHT;
+    IntStream.range(0, bands)
+        .parallel()
+        .forEach(
+            band -> {
+              int startY = band * MASK_BAND_HEIGHT;
+              int endY = Math.min(height, startY + MASK_BAND_HEIGHT);
+              int[] rgb = data;
+              int rgbOffset = offset;
+              if (rgb == null) {
+                rgb = image.getRGB(0, startY, width, endY - startY, null, 0, width);
+                rgbOffset = -startY * width;
+              }
+              for (int y = startY; y < endY; y++) {
+                int row = rgbOffset + y * stride;
+                for (int x = 0; x < width; x++) {
+                  int pixel = opaque ? rgb[row + x] | 0xff000000 : rgb[row + x];
+                  mask[y * width + x] =
+                      colorWithinTolerance(pick, pixel, colorTolerance) != inversePickColor;
+                }
+              }
+            });
+    return mask;
   }
 
-  private static boolean colorWithinTolerance(
-      Color pick, Color pixel, int tolerance, boolean inversePick) {
+  /**
+   * Traces the outlines of the topology pixels into an area.
+   *
+   * <p>Every edge between a topology pixel and a non topology pixel (or the edge of the image) is
+   * recorded at its start corner, pointing so that the topology is on its right. Following these
+   * edges from corner to corner gives closed rings, clockwise around topology and anticlockwise
+   * around holes. Where two topology pixels only touch at a corner the right hand edge is followed,
+   * so they end up in separate rings. Only the corners where a ring changes direction are kept, so
+   * straight runs of pixels become a single line.
+   *
+   * @param mask whether each pixel is topology, in row major order.
+   * @param width the width of the image.
+   * @param height the height of the image.
+   * @return the area covered by the topology pixels.
+   */
+  static Area traceTopologyMask(boolean[] mask, int width, int height) {
+    final int corners = width + 1;
+    // The directions of the edges leaving each corner, as bits of 1 << direction.
+    final byte[] edges = new byte[corners * (height + 1)];
+    boolean any = false;
+    for (int y = 0; y < height; y++) {
+      if (Thread.interrupted()) {
+        log.info("Thread interrupted!");
+        return new Area();
+      }
+      for (int x = 0; x < width; x++) {
+        if (!mask[y * width + x]) {
+          continue;
+        }
+        any = true;
+        if (y == 0 || !mask[(y - 1) * width + x]) {
+          edges[y * corners + x] |= 1 << EAST;
+        }
+        if (x == width - 1 || !mask[y * width + x + 1]) {
+          edges[y * corners + x + 1] |= 1 << SOUTH;
+        }
+        if (y == height - 1 || !mask[(y + 1) * width + x]) {
+          edges[(y + 1) * corners + x + 1] |= 1 << WEST;
+        }
+        if (x == 0 || !mask[y * width + x - 1]) {
+          edges[(y + 1) * corners + x] |= 1 << NORTH;
+        }
+      }
+    }
+    if (!any) {
+      return new Area();
+    }
 
-    double distance = distanceSquared(pick, pixel);
+    final int[] step = {1, corners, -1, -corners};
+    Path2D path = new Path2D.Double(Path2D.WIND_NON_ZERO);
+    for (int start = 0; start < edges.length; start++) {
+      if (edges[start] == 0) {
+        continue;
+      }
 
-    if (distance > tolerance) {
-      log.trace("Color Distance: {}", distance);
+      path.moveTo(start % corners, start / corners);
+      int corner = start;
+      int direction = Integer.numberOfTrailingZeros(edges[start]);
+      do {
+        edges[corner] &= (byte) ~(1 << direction);
+        corner += step[direction];
+
+        // Prefer turning right, then going straight, then turning left.
+        int next = -1;
+        for (int turn : TURNS) {
+          int candidate = (direction + turn) & 3;
+          if ((edges[corner] & (1 << candidate)) != 0) {
+            next = candidate;
+            break;
+          }
+        }
+        if (next != direction && corner != start) {
+          path.lineTo(corner % corners, corner / corners);
+        }
+        direction = next;
+      } while (corner != start && direction >= 0);
+      path.closePath();
     }
 
-    if (distance <= tolerance) {
-      return !inversePick;
-    } else {
-      return inversePick;
-    }
+    return new Area(path);
   }
 
-  private static double distanceSquared(Color a, Color b) {
-    int deltaR = a.getRed() - b.getRed();
-    int deltaG = a.getGreen() - b.getGreen();
-    int deltaB = a.getBlue() - b.getBlue();
-    int deltaAlpha = a.getAlpha() - b.getAlpha();
+  /**
+   * Returns if a pixel is close enough to the pick color. The distance takes the alpha of both
+   * colors into account, so fully transparent pixels are close to each other whatever their color.
+   */
+  private static boolean colorWithinTolerance(int pick, int pixel, int tolerance) {
+    int pickAlpha = pick >>> 24;
+    int pixelAlpha = pixel >>> 24;
+    int deltaR = ((pick >> 16) & 0xff) - ((pixel >> 16) & 0xff);
+    int deltaG = ((pick >> 8) & 0xff) - ((pixel >> 8) & 0xff);
+    int deltaB = (pick & 0xff) - (pixel & 0xff);
+    int deltaAlpha = pickAlpha - pixelAlpha;
 
     double rgbDistanceSquared = (deltaR * deltaR + deltaG * deltaG + deltaB * deltaB) / 3;
 
     double result =
         deltaAlpha * deltaAlpha / 2.0
-            + rgbDistanceSquared * a.getAlpha() * b.getAlpha() / 65025; // 255^2 = 65025
+            + rgbDistanceSquared * pickAlpha * pixelAlpha / 65025; // 255^2 = 65025
 
-    return Math.sqrt(result);
+    return Math.sqrt(result) <= tolerance;
   }
 
   public enum JTS_SimplifyMethodType {
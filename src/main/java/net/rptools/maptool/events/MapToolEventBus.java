@@ -15,12 +15,20 @@
 package net.rptools.maptool.events;
 
 import com.google.common.eventbus.EventBus;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import net.rptools.maptool.model.GUID;
+import net.rptools.maptool.model.Token;
+import net.rptools.maptool.model.Zone;
+import net.rptools.maptool.model.zones.FogChanged;
+import net.rptools.maptool.model.zones.TokensChanged;
 
 /** Class to handle the MapTool event bus. */
 public class MapToolEventBus {
 
   /** The main MapTool event bus. */
-  private static final EventBus mainEventBus = new EventBus();
+  private static final CoalescingEventBus mainEventBus = new CoalescingEventBus();
 
   /**
    * Returns the main MapTool {@link EventBus}.
@@ -30,4 +38,83 @@ public class MapToolEventBus {
   public EventBus getMainEventBus() {
     return mainEventBus;
   }
+
+  /**
+   * Starts coalescing the {@link TokensChanged} and {@link FogChanged} events posted on the main
+   * event bus by the current thread. Consecutive events of these types are merged into one event
+   * per zone and type, which is posted when any other event is posted or coalescing ends. The
+   * merged events are posted in the order the first event of each was posted, and a merged {@link
+   * TokensChanged} holds the latest instance of each token. Calls may be nested.
+   */
+  public void beginCoalescing() {
+    mainEventBus.beginCoalescing();
+  }
+
+  /** Ends coalescing started by {@link #beginCoalescing()}, posting any merged events. */
+  public void endCoalescing() {
+    mainEventBus.endCoalescing();
+  }
+
+  private static class CoalescingEventBus extends EventBus {
+    private volatile Thread coalescingThread;
+    private int depth;
+    /** Identifies the merged event for a zone, either its tokens or its fog. */
+    private record Pending(Zone zone, boolean fog) {}
+
+    /** The changed tokens of each merged event by id, in the order the events were first posted. */
+    private final Map<Pending, Map<GUID, Token>> pending = new LinkedHashMap<>();
+
+    @Override
+    public void post(Object event) {
+      if (Thread.currentThread() != coalescingThread) {
+        super.post(event);
+      } else if (event instanceof TokensChanged tokensChanged) {
+        var tokens =
+            pending.computeIfAbsent(
+                new Pending(tokensChanged.zone(), false), p -> new LinkedHashMap<>());
+        for (Token token : tokensChanged.tokens()) {
+          // Token equality is by id, so replace rather than keep the first instance.
+          tokens.put(token.getId(), token);
+        }
+      } else if (event instanceof FogChanged fogChanged) {
+        pending.putIfAbsent(new Pending(fogChanged.zone(), true), Map.of());
+      } else {
+        // Keep the merged events in order with everything else.
+        postCoalesced();
+        super.post(event);
+      }
+    }
+
+    private void beginCoalescing() {
+      if (depth > 0 && coalescingThread != Thread.currentThread()) {
+        throw new IllegalStateException("Events are already being coalesced on another thread");
+      }
+      depth++;
+      coalescingThread = Thread.currentThread();
+    }
+
+    private void endCoalescing() {
+      if (depth == 0 || --depth > 0) {
+        return;
+      }
+      coalescingThread = null;
+      postCoalesced();
+    }
+
+    private void postCoalesced() {
+      if (pending.isEmpty()) {
+        return;
+      }
+      var events = new ArrayList<>();
+      pending.forEach(
+          (key, tokens) ->
+              events.add(
+                  key.fog()
+                      ? new FogChanged(key.zone())
+                      : new TokensChanged(key.zone(), new ArrayList<>(tokens.values()))));
+      pending.clear();
+
+      events.forEach(super::post);
+    }
+  }
 }
@@ -437,6 +437,23 @@ public static Asset createAsset(String name, byte[] data, Type type) {
     return assetType.getFactory().apply(name, data);
   }
 
+  /**
+   * Creates a new {@code Asset} of the specified type for data whose md5 sum is already known, so
+   * that it doesn't have to be calculated again.
+   *
+   * @param key The md5 sum of the data.
+   * @param name The name of the {@code Asset}.
+   * @param data The data for the {@code Asset}.
+   * @param type The {@link Type} of the {@code Asset}.
+   * @return the new {@code Asset}.
+   */
+  static Asset createAsset(MD5Key key, String name, byte[] data, Type type) {
+    if (type == Type.INVALID) {
+      return createBrokenImageAsset(name, key);
+    }
+    return new Asset(key, name, data, type, type.getDefaultExtension(), false);
+  }
+
   /**
    * Creates a new {@code Asset}.
    *
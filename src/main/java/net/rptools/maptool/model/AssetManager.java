@@ -14,22 +14,27 @@
  */
 package net.rptools.maptool.model;
 
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
 import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.FileOutputStream;
 import java.io.FilenameFilter;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.InterruptedIOException;
 import java.io.OutputStream;
 import java.net.URL;
 import java.nio.file.AtomicMoveNotSupportedException;
 import java.nio.file.Files;
+import java.nio.file.Path;
 import java.nio.file.StandardCopyOption;
 import java.util.ArrayList;
-import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.Iterator;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
@@ -37,14 +42,23 @@
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BiConsumer;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReader;
+import javax.imageio.stream.ImageInputStream;
 import net.rptools.lib.FileUtil;
 import net.rptools.lib.MD5Key;
+import net.rptools.maptool.client.AppPreferences;
 import net.rptools.maptool.client.AppUtil;
 import net.rptools.maptool.client.MapTool;
 import net.rptools.maptool.language.I18N;
 import org.apache.commons.io.FileUtils;
+import org.apache.commons.io.input.TeeInputStream;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
@@ -52,6 +66,12 @@
  * This class handles the caching, loading, and downloading of assets. All assets are loaded through
  * this class.
  *
+ * <p>Only the most recently used assets are held in memory, up to {@link
+ * AppPreferences#getAssetCacheSize()} megabytes of data. Assets that are evicted are read back from
+ * the persistent cache the next time they are asked for. Assets that have not been written to the
+ * persistent cache yet are never evicted. The name, type and size of every asset are always kept in
+ * memory so they can be looked up without loading the data.
+ *
  * @author RPTools Team
  */
 public class AssetManager {
@@ -65,8 +85,30 @@ public class AssetManager {
   private static final Logger log = LogManager.getLogger(AssetManager.class);
 
   /** Assets are associated with the MD5 sum of their raw data */
-  private static final Map<MD5Key, Asset> assetMap =
-      Collections.synchronizedMap(new HashMap<MD5Key, Asset>());
+  private static final Cache<MD5Key, Asset> assetCache =
+      CacheBuilder.newBuilder()
+          .maximumWeight(AppPreferences.getAssetCacheSize() * 1024L * 1024L)
+          .<MD5Key, Asset>weigher((key, asset) -> asset.getData().length)
+          .build();
+
+  /** Assets that can't be evicted as their data is not in the persistent cache yet. */
+  private static final Map<MD5Key, Asset> unpersistedAssets = new ConcurrentHashMap<>();
+
+  /** Summary of every asset that has been in memory, whether or not its data still is. */
+  private static final Map<MD5Key, AssetSummary> assetSummaries = new ConcurrentHashMap<>();
+
+  /**
+   * The details of an asset that are kept in memory when its data is not.
+   *
+   * @param id the MD5 sum of the asset.
+   * @param name the name of the asset.
+   * @param type the type of the asset.
+   * @param size the size of the asset's data in bytes.
+   * @param width the width of the image, or -1 if the asset is not an image that can be read.
+   * @param height the height of the image, or -1 if the asset is not an image that can be read.
+   */
+  public record AssetSummary(
+      MD5Key id, String name, Asset.Type type, long size, int width, int height) {}
 
   /** Location of the cache on the filesystem */
   private static File cacheDir;
@@ -92,6 +134,8 @@ public class AssetManager {
 
   private static ExecutorService assetLoaderThreadPool = Executors.newFixedThreadPool(1);
   private static ExecutorService assetWriterThreadPool = Executors.newFixedThreadPool(1);
+  private static ExecutorService assetImportThreadPool =
+      Executors.newFixedThreadPool(Math.min(4, Runtime.getRuntime().availableProcessors()));
 
   static {
     cacheDir = AppUtil.getAppHome("assetcache");
@@ -212,7 +256,7 @@ public static boolean hasAsset(Asset asset) {
    * @return true if the asset manager has the key
    */
   public static boolean hasAsset(MD5Key key) {
-    return assetMap.containsKey(key)
+    return hasAssetInMemory(key)
         || assetIsInPersistentCache(key)
         || assetHasLocalReference(key);
   }
@@ -224,7 +268,91 @@ public static boolean hasAsset(MD5Key key) {
    * @return True if the asset is loaded, false otherwise
    */
   public static boolean hasAssetInMemory(MD5Key key) {
-    return assetMap.containsKey(key);
+    return getFromMemory(key) != null;
+  }
+
+  /**
+   * Returns the name, type, size and image dimensions of an asset without loading its data.
+   *
+   * @param key MD5 sum associated with asset
+   * @return the summary of the asset, or null if the asset has not been loaded.
+   */
+  public static AssetSummary getAssetSummary(MD5Key key) {
+    return key == null ? null : assetSummaries.get(key);
+  }
+
+  /**
+   * Returns the asset if its data is in memory.
+   *
+   * @param key MD5 sum associated with asset
+   * @return the asset, or null if it has to be loaded.
+   */
+  private static Asset getFromMemory(MD5Key key) {
+    if (key == null) {
+      return null;
+    }
+    Asset asset = assetCache.getIfPresent(key);
+    return asset != null ? asset : unpersistedAssets.get(key);
+  }
+
+  /**
+   * Puts the asset in memory, unless an asset with data is already there.
+   *
+   * @param asset the asset.
+   * @return true if the asset was put in memory.
+   */
+  private static boolean putInMemory(Asset asset) {
+    // The summary is kept when the asset is read back, so the image is only measured once.
+    var summary = assetSummaries.get(asset.getMD5Key());
+    if (summary == null) {
+      summary = summarize(asset);
+    }
+    synchronized (assetCache) {
+      var oldAsset = getFromMemory(asset.getMD5Key());
+      if (oldAsset != null && oldAsset.getData() != null && oldAsset.getData().length > 0) {
+        return false;
+      }
+      assetCache.put(asset.getMD5Key(), asset);
+      assetSummaries.put(asset.getMD5Key(), summary);
+      return true;
+    }
+  }
+
+  /**
+   * Makes the summary of an asset. The size of an image is read from its header, so it is not
+   * decoded.
+   *
+   * @param asset the asset.
+   * @return the summary of the asset.
+   */
+  private static AssetSummary summarize(Asset asset) {
+    int width = -1;
+    int height = -1;
+    if (asset.getType() == Asset.Type.IMAGE && asset.getData().length > 0) {
+      try (ImageInputStream iis =
+          ImageIO.createImageInputStream(new ByteArrayInputStream(asset.getData()))) {
+        Iterator<ImageReader> readers = ImageIO.getImageReaders(iis);
+        if (readers.hasNext()) {
+          ImageReader reader = readers.next();
+          try {
+            reader.setInput(iis, true, true);
+            width = reader.getWidth(0);
+            height = reader.getHeight(0);
+          } finally {
+            reader.dispose();
+          }
+        }
+      } catch (IOException e) {
+        log.debug("Could not read the size of image " + asset.getMD5Key(), e);
+      }
+    }
+    return new AssetSummary(
+        asset.getMD5Key(),
+        asset.getName(),
+        asset.getType(),
+        asset.getData().length,
+        width,
+        height);
   }
 
   /**
@@ -249,15 +377,12 @@ public static void putAsset(Asset asset) {
       }
     }
 
-    synchronized (assetMap) {
-      var oldAsset = assetMap.get(asset.getMD5Key());
-      if (oldAsset == null || oldAsset.getData() == null || oldAsset.getData().length == 0) {
-        assetMap.put(asset.getMD5Key(), asset);
-      }
-    }
-
     // Invalid images are represented by empty assets.
     // Don't persist those
+    if (putInMemory(asset) && asset.getData().length > 0) {
+      // Keep hold of the data until it has been written to the persistent cache.
+      unpersistedAssets.put(asset.getMD5Key(), asset);
+    }
     if (asset.getData().length > 0) {
       putInPersistentCache(asset);
     }
@@ -327,7 +452,7 @@ public static Asset getAsset(MD5Key id) {
       log.error(I18N.getText("msg.error.errorResolvingCacheDir", id, e));
     }
 
-    Asset asset = assetMap.get(assetId);
+    Asset asset = getFromMemory(assetId);
 
     if (asset == null && usePersistentCache && assetIsInPersistentCache(assetId)) {
       // Guaranteed that asset is in the cache.
@@ -392,8 +517,10 @@ private static MD5Key sanitizeAssetId(MD5Key md5Key) throws IOException {
    * @param id MD5 of the asset to remove
    */
   public static void removeAsset(MD5Key id) {
-    if (!REQUIRED_ASSETS.contains(id)) {
-      assetMap.remove(id);
+    if (id != null && !REQUIRED_ASSETS.contains(id)) {
+      assetCache.invalidate(id);
+      unpersistedAssets.remove(id);
+      assetSummaries.remove(id);
     }
   }
 
@@ -460,18 +587,26 @@ private static Asset getFromPersistentCache(MD5Key id) {
     File assetFile = getAssetCacheFile(id);
 
     try {
-      byte[] data = FileUtils.readFileToByteArray(assetFile);
-      Properties props = getAssetInfo(id);
-
-      String name = props.getProperty(NAME);
-      String type = props.getProperty(TYPE);
+      byte[] data = readPersistentCacheFile(assetFile);
+
+      String name;
+      String type;
+      var summary = assetSummaries.get(id);
+      if (summary != null) {
+        name = summary.name();
+        type = summary.type().name();
+      } else {
+        Properties props = getAssetInfo(id);
+        name = props.getProperty(NAME);
+        type = props.getProperty(TYPE);
+      }
 
       Asset asset;
 
       if (type != null) {
         asset = Asset.Type.valueOf(type).getFactory().apply(name, data);
       } else {
-        asset = Asset.createAssetDetectType(props.getProperty(NAME), data);
+        asset = Asset.createAssetDetectType(name, data);
       }
 
       if (!asset.getMD5Key().equals(id)) {
@@ -480,12 +615,7 @@ private static Asset getFromPersistentCache(MD5Key id) {
         return null;
       }
 
-      synchronized (assetMap) {
-        var oldAsset = assetMap.get(id);
-        if (oldAsset == null || oldAsset.getData() == null || oldAsset.getData().length == 0) {
-          assetMap.put(id, asset);
-        }
-      }
+      putInMemory(asset);
 
       return asset;
     } catch (IOException ioe) {
@@ -495,15 +625,26 @@ private static Asset getFromPersistentCache(MD5Key id) {
   }
 
   /**
-   * Create an asset from a file.
+   * Reads the data of an asset from the persistent cache.
+   *
+   * @param assetFile the file in the persistent cache.
+   * @return the data of the asset.
+   * @throws IOException if the file can't be read.
+   */
+  private static byte[] readPersistentCacheFile(File assetFile) throws IOException {
+    return Files.readAllBytes(assetFile.toPath());
+  }
+
+  /**
+   * Create an asset from a file. The file is copied straight into the persistent cache, so its data
+   * is only read into memory once.
    *
    * @param file File to use for asset
    * @return Asset associated with the file
    * @throws IOException in case of an I/O error
    */
   public static Asset createAsset(File file) throws IOException {
-    return Asset.createAssetDetectType(
-        FileUtil.getNameWithoutExtension(file), FileUtils.readFileToByteArray(file));
+    return createAsset(file.toURI().toURL(), FileUtil.getNameWithoutExtension(file), null, 0);
   }
 
   /**
@@ -518,22 +659,120 @@ public static Asset createAsset(URL url) throws IOException {
   }
 
   public static Asset createAsset(URL url, Asset.Type assetType) throws IOException {
-    // Create a temporary file from the downloaded URL
-    File newFile = File.createTempFile("remote", null, null);
+    return createAsset(url, FileUtil.getNameWithoutExtension(url), assetType, 20);
+  }
+
+  /**
+   * Creates assets from a number of URLs. The assets are created in parallel on a bounded pool of
+   * threads.
+   *
+   * @param urls the URLs of the data for the assets.
+   * @param progress called with the number of assets created so far and the total number of assets
+   *     each time an asset is created. It is called from the threads creating the assets.
+   * @return the assets in the same order as the URLs, with null for those that had no data.
+   * @throws IOException if any of the assets could not be read.
+   */
+  public static List<Asset> createAssets(List<URL> urls, BiConsumer<Integer, Integer> progress)
+      throws IOException {
+    var done = new AtomicInteger();
+    var futures = new ArrayList<Future<Asset>>(urls.size());
+    for (URL url : urls) {
+      futures.add(
+          assetImportThreadPool.submit(
+              () -> {
+                Asset asset = createAsset(url);
+                progress.accept(done.incrementAndGet(), urls.size());
+                return asset;
+              }));
+    }
+
+    var assets = new ArrayList<Asset>(urls.size());
     try {
-      FileUtils.copyURLToFile(url, newFile);
-      if (!newFile.exists() || newFile.length() < 20) return null;
-      if (assetType != null) {
-        return Asset.createAsset(
-            FileUtil.getNameWithoutExtension(url),
-            FileUtils.readFileToByteArray(newFile),
-            assetType);
-      } else {
-        return Asset.createAssetDetectType(
-            FileUtil.getNameWithoutExtension(url), FileUtils.readFileToByteArray(newFile));
+      for (var future : futures) {
+        assets.add(future.get());
       }
-    } finally {
-      newFile.delete();
+    } catch (InterruptedException e) {
+      futures.forEach(f -> f.cancel(true));
+      throw new InterruptedIOException("Interrupted while creating assets");
+    } catch (ExecutionException e) {
+      futures.forEach(f -> f.cancel(true));
+      if (e.getCause() instanceof IOException ioe) {
+        throw ioe;
+      }
+      throw new IOException(e.getCause());
+    }
+    return assets;
+  }
+
+  /**
+   * Creates an asset from the data at a URL. The data is copied to a temporary file in the
+   * persistent cache, which is kept as the asset's file once the data turns out to be a valid
+   * asset.
+   *
+   * @param url the URL of the data.
+   * @param name the name of the asset.
+   * @param assetType the type of the asset, or null to detect it from the data.
+   * @param minimumSize the number of bytes below which the data is not considered to be an asset.
+   * @return the asset, or null if there is less data than {@code minimumSize}.
+   * @throws IOException in case of an I/O error
+   */
+  private static Asset createAsset(URL url, String name, Asset.Type assetType, int minimumSize)
+      throws IOException {
+    if (!usePersistentCache) {
+      byte[] data;
+      try (InputStream is = url.openStream()) {
+        data = is.readAllBytes();
+      }
+      if (data.length < minimumSize) {
+        return null;
+      }
+      return assetType != null
+          ? Asset.createAsset(name, data, assetType)
+          : Asset.createAssetDetectType(name, data);
+    }
+
+    cacheDir.mkdirs();
+    try (var operation = new AssetWriteRenameOperation(cacheDir.toPath())) {
+      MD5Key key = copyToFile(url, operation.temporaryFile);
+      if (operation.temporaryFile.length() < minimumSize) {
+        return null;
+      }
+
+      Asset.Type type = assetType;
+      if (type == null) {
+        try (InputStream is =
+            new BufferedInputStream(new FileInputStream(operation.temporaryFile))) {
+          type = Asset.Type.fromMediaType(Asset.getMediaType(name, is));
+        }
+      }
+      Asset asset =
+          Asset.createAsset(key, name, readPersistentCacheFile(operation.temporaryFile), type);
+
+      // Only data that makes a valid asset is kept in the persistent cache.
+      if (type != Asset.Type.INVALID && !assetIsInPersistentCache(key)) {
+        operation.commit(getAssetCacheFile(key));
+      }
+      return asset;
+    }
+  }
+
+  /**
+   * Copies the data at a URL to a file without reading all of it into memory. The md5 sum is
+   * calculated while the data is copied.
+   *
+   * @param url the URL of the data.
+   * @param target the file to copy the data to.
+   * @return the md5 sum of the data.
+   * @throws IOException in case of an I/O error
+   */
+  private static MD5Key copyToFile(URL url, File target) throws IOException {
+    File file = FileUtils.toFile(url);
+    try (InputStream is =
+        new TeeInputStream(
+            file != null ? new FileInputStream(file) : url.openStream(),
+            new FileOutputStream(target),
+            true)) {
+      return new MD5Key(is);
     }
   }
 
@@ -566,7 +805,9 @@ private static void putInPersistentCache(final Asset asset) {
       return;
     }
 
-    if (!assetIsInPersistentCache(asset)) {
+    if (assetIsInPersistentCache(asset)) {
+      unpersistedAssets.remove(asset.getMD5Key());
+    } else {
       final File assetFile = getAssetCacheFile(asset);
 
       assetWriterThreadPool.submit(
@@ -580,6 +821,8 @@ private static void putInPersistentCache(final Asset asset) {
 
               // Now that the data is in a file, we move it to its final resting place.
               operation.commit();
+              // The data can be read back from the file, so it no longer has to stay in memory.
+              unpersistedAssets.remove(asset.getMD5Key());
             } catch (IOException ioe) {
               log.error("Could not persist asset while writing image data", ioe);
             } catch (NullPointerException npe) {
@@ -704,7 +947,7 @@ private static boolean assetInfoIsInPersistentCache(Asset asset) {
    * @return True if asset is in the persistent cache, false otherwise
    * @see this#assetIsInPersistentCache(Asset)
    */
-  private static boolean assetIsInPersistentCache(MD5Key id) {
+  public static boolean assetIsInPersistentCache(MD5Key id) {
 
     return getAssetCacheFile(id).exists() && getAssetCacheFile(id).length() > 0;
   }
@@ -857,7 +1100,8 @@ public static byte[] updateRepositoryMap(String repo, Map<String, String> add) {
 
   /**
    * Constructs a set of all assets in the given list of repositories, then builds a map of <code>
-   * MD5Key</code> and <code>Asset</code> for all assets that do not appear in that set.
+   * MD5Key</code> and <code>AssetSummary</code> for all assets that do not appear in that set. The
+   * data of the assets is not loaded, so the caller can read it one asset at a time.
    *
    * <p>This provides the calling function with a list of all assets currently in use by the
    * campaign that do not appear in one of the listed repositories. It's entirely possible that the
@@ -866,7 +1110,7 @@ public static byte[] updateRepositoryMap(String repo, Map<String, String> add) {
    * @param repos list of repositories to exclude
    * @return Map of all known assets that are NOT in the specified repositories
    */
-  public static Map<MD5Key, Asset> findAllAssetsNotInRepositories(List<String> repos) {
+  public static Map<MD5Key, AssetSummary> findAllAssetsNotInRepositories(List<String> repos) {
     // For performance reasons, we calculate the size of the Set in advance...
     int size = 0;
     for (String repo : repos) {
@@ -882,18 +1126,19 @@ public static Map<MD5Key, Asset> findAllAssetsNotInRepositories(List<String> rep
     }
 
     /*
-     * The 'aggregate' now holds the sum total of all asset keys that are in repositories. Now we go through the 'assetMap' and copy over <K,V> pairs that are NOT in 'aggregate' to our 'missing'
+     * The 'aggregate' now holds the sum total of all asset keys that are in repositories. Now we go through the known assets and copy over those that are NOT in 'aggregate' to our 'missing'
      * Map.
      *
-     * Unfortunately, the repository is a Map<String, String> while the return value is going to be a Map<MD5Key, Asset>, which means each individual entry needs to be checked and references
+     * Unfortunately, the repository is a Map<String, String> while the return value is going to be a Map<MD5Key, AssetSummary>, which means each individual entry needs to be checked and references
      * copied. If both were the same data type, converting both to Set<String> would allow for an addAll() and removeAll() and be done with it!
      */
-    Map<MD5Key, Asset> missing =
-        new HashMap<MD5Key, Asset>(Math.min(assetMap.size(), aggregate.size()));
+    Map<MD5Key, AssetSummary> missing =
+        new HashMap<MD5Key, AssetSummary>(Math.min(assetSummaries.size(), aggregate.size()));
 
-    for (var entry : assetMap.entrySet()) {
-      if (aggregate.contains(entry.getKey()) == false) // Not in any repository so add it.
-      missing.put(entry.getKey(), entry.getValue());
+    for (var entry : assetSummaries.entrySet()) {
+      if (aggregate.contains(entry.getKey()) == false) { // Not in any repository so add it.
+        missing.put(entry.getKey(), entry.getValue());
+      }
     }
     return missing;
   }
@@ -903,6 +1148,17 @@ private static class AssetWriteRenameOperation implements AutoCloseable {
     private final File assetFile;
     private final File temporaryFile;
 
+    /**
+     * Creates an operation for writing data whose location is not known until it is committed.
+     *
+     * @param directory the directory to create the temporary file in.
+     * @throws IOException If the temporary file can't be created.
+     */
+    public AssetWriteRenameOperation(Path directory) throws IOException {
+      this.assetFile = null;
+      this.temporaryFile = Files.createTempFile(directory, "tmp.", "").toFile();
+    }
+
     public AssetWriteRenameOperation(File assetFile) throws IOException {
       this.assetFile = assetFile;
       // Placing the temp file in the cache dir means it will be on the same filesystem in typical
@@ -920,6 +1176,17 @@ public AssetWriteRenameOperation(File assetFile) throws IOException {
      * @throws IOException If the move fails.
      */
     public void commit() throws IOException {
+      commit(assetFile);
+    }
+
+    /**
+     * Move the temporary file to the given location.
+     *
+     * @param assetFile the final location of the file.
+     * @throws IOException If the move fails.
+     * @see #commit()
+     */
+    public void commit(File assetFile) throws IOException {
       try {
         Files.move(temporaryFile.toPath(), assetFile.toPath(), StandardCopyOption.ATOMIC_MOVE);
       } catch (AtomicMoveNotSupportedException e) {
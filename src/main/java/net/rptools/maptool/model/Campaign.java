@@ -167,6 +167,17 @@ public List<String> getRemoteRepositoryList() {
    * @param campaign The campaign to copy from.
    */
   public Campaign(Campaign campaign) {
+    this(campaign, true);
+  }
+
+  /**
+   * Create a new campaign with an old campaign's properties, optionally leaving out the zones. This
+   * allows callers to copy the zones themselves one at a time with {@link #putZone(Zone)}.
+   *
+   * @param campaign The campaign to copy from.
+   * @param copyZones {@code true} to copy the zones of the campaign as well.
+   */
+  public Campaign(Campaign campaign, boolean copyZones) {
     name = campaign.getName();
 
     /*
@@ -175,13 +186,15 @@ public Campaign(Campaign campaign) {
      * as is done below for the campaign properties and macro buttons. Iteration over a synchronized
      *  map must lock the map.
      */
-    Map<GUID, Zone> zonesToCopy;
-    synchronized (zones) {
-      zonesToCopy = new LinkedHashMap<>(campaign.zones);
-    }
-    for (Entry<GUID, Zone> entry : zonesToCopy.entrySet()) {
-      Zone copy = new Zone(entry.getValue(), true);
-      zones.put(copy.getId(), copy);
+    if (copyZones) {
+      Map<GUID, Zone> zonesToCopy;
+      synchronized (zones) {
+        zonesToCopy = new LinkedHashMap<>(campaign.zones);
+      }
+      for (Entry<GUID, Zone> entry : zonesToCopy.entrySet()) {
+        Zone copy = new Zone(entry.getValue(), true);
+        zones.put(copy.getId(), copy);
+      }
     }
     campaignProperties = new CampaignProperties(campaign.campaignProperties);
     macroButtonProperties =
@@ -755,6 +768,17 @@ public static Campaign fromDto(CampaignDto dto) {
   }
 
   public CampaignDto toDto() {
+    return toDto(getZones());
+  }
+
+  /**
+   * Returns the campaign as a DTO that only holds some of its zones. This lets the campaign be sent
+   * in parts, with the zones that were left out sent afterwards one at a time.
+   *
+   * @param zonesToInclude the zones to put in the DTO.
+   * @return the DTO.
+   */
+  public CampaignDto toDto(Collection<Zone> zonesToInclude) {
     var dto = CampaignDto.newBuilder();
     dto.setId(id.toString());
     dto.setName(name);
@@ -772,7 +796,7 @@ public CampaignDto toDto() {
         macroButtonProperties.stream()
             .map(MacroButtonProperties::toDto)
             .collect(Collectors.toList()));
-    dto.addAllZones(zones.values().stream().map(Zone::toDto).collect(Collectors.toList()));
+    dto.addAllZones(zonesToInclude.stream().map(Zone::toDto).collect(Collectors.toList()));
     // gmMacroButtonProperties is null if you are loading an old campaign file < 1.5.6
     if (gmMacroButtonProperties != null) {
       dto.addAllGmMacroButtonProperties(
@@ -14,11 +14,8 @@
  */
 package net.rptools.maptool.model;
 
-import com.google.gson.Gson;
 import com.google.gson.JsonElement;
 import com.google.gson.JsonObject;
-import com.google.gson.TypeAdapter;
-import com.google.gson.stream.JsonReader;
 import com.google.protobuf.Int32Value;
 import com.google.protobuf.StringValue;
 import java.awt.Color;
@@ -34,7 +31,6 @@
 import java.awt.image.BufferedImage;
 import java.io.IOException;
 import java.io.Serializable;
-import java.io.StringReader;
 import java.math.BigDecimal;
 import java.util.*;
 import java.util.stream.Collectors;
@@ -95,10 +91,6 @@ public class Token implements Cloneable {
   private boolean beingImpersonated = false;
   private GUID exposedAreaGUID = new GUID();
 
-  /** the only way to make Gson apply strict evaluation to JsonObjects, apparently. see #2396 */
-  private static final TypeAdapter<JsonObject> strictGsonObjectAdapter =
-      new Gson().getAdapter(JsonObject.class);
-
   public boolean getAllowURIAccess() {
     if (allowURIAccess && !isLibToken()) {
       allowURIAccess = false;
@@ -1802,21 +1794,12 @@ public Object getEvaluatedProperty(MapToolVariableResolver resolver, String key)
        * The normal Gson evaluator was too lenient in identifying JSON objects, so we had to move
        * that lower (see #1560). But we would really like to avoid the performance cost of
        * attempting to parse anything that actually is a proper JSON, so let's try a stricter
-       * evaluation process here first (see #2396).
+       * evaluation process here first (see #2396). The parse result is cached, so the lenient
+       * conversion below does not parse the same string again.
        */
-      try {
-        try (JsonReader reader = new JsonReader(new StringReader(val.toString()))) {
-          JsonObject result = strictGsonObjectAdapter.read(reader);
-          // in case of a situation like {"a": 1}{"b": 2}, the above would have stopped at the first
-          // complete object.  This next line will throw an exception on finding another top-level
-          // object, allowing us to move on with other evaluation.
-          reader.hasNext();
-          if (result.isJsonObject()) {
-            return result;
-          }
-        }
-      } catch (IOException e) {
-        // deliberately ignored - continue parsing
+      JsonObject result = JSONMacroFunctions.getInstance().asStrictJsonObject(val.toString());
+      if (result != null) {
+        return result;
       }
     }
     // try to convert it to a JSON array. Fixes #2057.
@@ -2815,7 +2798,7 @@ public static Token fromDto(TokenDto dto) {
     var assetMap = dto.getImageAssetMapMap();
     for (var key : assetMap.keySet()) {
       var nullKey = key.equals("") ? null : key;
-      token.imageAssetMap.put(nullKey, new MD5Key(assetMap.get(key)));
+      token.imageAssetMap.put(nullKey, MD5Key.intern(new MD5Key(assetMap.get(key))));
     }
     token.currentImageAsset =
         dto.hasCurrentImageAsset() ? dto.getCurrentImageAsset().getValue() : null;
@@ -22,6 +22,7 @@
 import java.util.*;
 import java.util.stream.Collectors;
 import javax.annotation.Nonnull;
+import javax.swing.SwingUtilities;
 import net.rptools.lib.MD5Key;
 import net.rptools.maptool.client.AppPreferences;
 import net.rptools.maptool.client.AppUtil;
@@ -1977,7 +1978,9 @@ public void setInitiativeList(InitiativeList initiativeList) {
 
   public void optimize() {
     log.debug("Optimizing Map " + getName());
-    MapTool.getFrame().setStatusMessage(I18N.getText("Zone.status.optimizing", getName()));
+    // Zones are optimized in parallel while a campaign loads, so the status is set on the EDT.
+    String status = I18N.getText("Zone.status.optimizing", getName());
+    SwingUtilities.invokeLater(() -> MapTool.getFrame().setStatusMessage(status));
     collapseDrawables();
   }
 
@@ -2256,6 +2259,17 @@ public static Zone fromDto(ZoneDto dto) {
   }
 
   public ZoneDto toDto() {
+    var dto = toDtoWithoutTokens();
+    dto.addAllTokens(tokenMap.values().stream().map(t -> t.toDto()).collect(Collectors.toList()));
+    return dto.build();
+  }
+
+  /**
+   * Returns the zone as a dto without its tokens, so that the tokens can be added a few at a time.
+   *
+   * @return the builder of the dto.
+   */
+  public ZoneDto.Builder toDtoWithoutTokens() {
     var dto = ZoneDto.newBuilder();
     dto.setCreationTime(creationTime);
     dto.setId(id.toString());
@@ -2279,7 +2293,6 @@ public ZoneDto toDto() {
     dto.addAllBackgroundDrawables(
         backgroundDrawables.stream().map(d -> d.toDto()).collect(Collectors.toList()));
     dto.addAllLabels(labels.values().stream().map(l -> l.toDto()).collect(Collectors.toList()));
-    dto.addAllTokens(tokenMap.values().stream().map(t -> t.toDto()).collect(Collectors.toList()));
     exposedAreaMeta.forEach(
         (id, area) -> {
           if (id == null) {
@@ -2315,6 +2328,6 @@ public ZoneDto toDto() {
     dto.setTokenSelection(ZoneDto.TokenSelectionDto.valueOf(tokenSelection.name()));
     dto.setHeight(height);
     dto.setWidth(width);
-    return dto.build();
+    return dto;
   }
 }
@@ -18,8 +18,11 @@
 import java.awt.Composite;
 import java.awt.Graphics2D;
 import java.awt.Rectangle;
+import java.awt.geom.Area;
 import java.awt.geom.Line2D;
-import net.rptools.maptool.client.MapTool;
+import java.awt.geom.Path2D;
+import java.util.ArrayList;
+import java.util.List;
 import net.rptools.maptool.model.GUID;
 import net.rptools.maptool.model.Zone;
 import net.rptools.maptool.model.ZonePoint;
@@ -45,6 +48,9 @@ public abstract class AbstractTemplate extends AbstractDrawing {
   /** The id of the zone where this drawable is painted. */
   private GUID zoneId;
 
+  /** The cached paths of the border and area, rebuilt when the key they were built for changes. */
+  private transient Geometry geometry;
+
   protected AbstractTemplate() {}
 
   protected AbstractTemplate(GUID id) {
@@ -188,16 +194,25 @@ public void setZoneId(GUID zoneId) {
    * @param area Paint the area?
    */
   protected void paint(Graphics2D g, boolean border, boolean area) {
-    if (radius == 0) {
-      return;
-    }
-    Zone zone = MapTool.getCampaign().getZone(zoneId);
-    if (zone == null) {
+    Geometry current = getGeometry();
+    if (current == null) {
       return;
     }
+    if (area) g.fill(current.area);
+    if (border) g.draw(current.border);
+  }
 
-    // Find the proper distance
-    int gridSize = zone.getGrid().getSize();
+  /**
+   * Add the border and area of every cell of the template to the paths that are painted. This is
+   * only called when the geometry of the template changes, the paths are kept and painted as a
+   * whole after that.
+   *
+   * @param border The path the border lines are added to.
+   * @param area The path the cells of the area are added to.
+   * @param gridSize The size of one side of the grid in screen coordinates.
+   */
+  protected void paintCells(Path2D border, Path2D area, int gridSize) {
+    int radius = getRadius();
     for (int y = 0; y < radius; y++) {
       for (int x = 0; x < radius; x++) {
 
@@ -206,93 +221,137 @@ protected void paint(Graphics2D g, boolean border, boolean area) {
         int yOff = y * gridSize;
 
         // Template specific painting
-        if (border) paintBorder(g, x, y, xOff, yOff, gridSize, getDistance(x, y));
-        if (area) paintArea(g, x, y, xOff, yOff, gridSize, getDistance(x, y));
+        paintBorder(border, x, y, xOff, yOff, gridSize, getDistance(x, y));
+        paintArea(area, x, y, xOff, yOff, gridSize, getDistance(x, y));
       } // endfor
     } // endfor
   }
 
+  /**
+   * Get the values that the painted cells depend on. The paths built by {@link #paintCells} are
+   * rebuilt whenever this changes, so subclasses with more state that changes which cells are
+   * painted must add it to the key. The key must hold copies of the values, not the mutable objects
+   * they come from.
+   *
+   * @param gridSize The size of one side of the grid in screen coordinates.
+   * @return The key for the current geometry.
+   */
+  protected List<Object> getGeometryKey(int gridSize) {
+    List<Object> key = new ArrayList<>();
+    key.add(getRadius());
+    key.add(vertex.x);
+    key.add(vertex.y);
+    key.add(gridSize);
+    return key;
+  }
+
+  /**
+   * Get the geometry of the template, building it if anything it depends on has changed.
+   *
+   * @return The geometry or <code>null</code> if the zone of the template can't be found.
+   */
+  private Geometry getGeometry() {
+    if (zoneId == null) {
+      return null;
+    }
+    Zone zone = getCampaign().getZone(zoneId);
+    if (zone == null) {
+      return null;
+    }
+    int gridSize = zone.getGrid().getSize();
+    List<Object> key = getGeometryKey(gridSize);
+    Geometry current = geometry;
+    if (current == null || !current.key.equals(key)) {
+      Path2D border = new Path2D.Double();
+      Path2D area = new Path2D.Double();
+      paintCells(border, area, gridSize);
+      // Building can fill in derived state, such as the quadrant of a line, so take the key again.
+      current = new Geometry(getGeometryKey(gridSize), border, area);
+      geometry = current;
+    }
+    return current;
+  }
+
   /**
    * Paint the close horizontal line of a cell's border. All directions are relevant to the vertex.
    *
-   * @param g The painter.
+   * @param path The path the line is added to.
    * @param xOff X Offset to cell from vertex in screen coordinates.
    * @param yOff Y Offset to cell from vertex in screen coordinates.
    * @param gridSize Size of a cell in screen coordinates.
    * @param q The quadrant the cell is in relative to the vertex.
    */
   protected void paintCloseHorizontalBorder(
-      Graphics2D g, int xOff, int yOff, int gridSize, Quadrant q) {
+      Path2D path, int xOff, int yOff, int gridSize, Quadrant q) {
     int x = vertex.x + getXMult(q) * xOff;
     int y = vertex.y + getYMult(q) * yOff;
     Line2D l = new Line2D.Double(x, y, x + getXMult(q) * gridSize, y);
-    g.draw(l);
+    path.append(l, false);
   }
 
   /**
    * Paint the close vertical line of a cell's border. All directions are relevant to the vertex.
    *
-   * @param g The painter.
+   * @param path The path the line is added to.
    * @param xOff X Offset to cell from vertex in screen coordinates.
    * @param yOff Y Offset to cell from vertex in screen coordinates.
    * @param gridSize Size of a cell in screen coordinates.
    * @param q The quadrant the cell is in relative to the vertex.
    */
   protected void paintCloseVerticalBorder(
-      Graphics2D g, int xOff, int yOff, int gridSize, Quadrant q) {
+      Path2D path, int xOff, int yOff, int gridSize, Quadrant q) {
     int x = vertex.x + getXMult(q) * xOff;
     int y = vertex.y + getYMult(q) * yOff;
     Line2D l = new Line2D.Double(x, y, x, y + getYMult(q) * gridSize);
-    g.draw(l);
+    path.append(l, false);
   }
 
   /**
    * Fill the area of a cell.
    *
-   * @param g The painter.
+   * @param path The path the cell is added to.
    * @param xOff X Offset to cell from vertex in screen coordinates.
    * @param yOff Y Offset to cell from vertex in screen coordinates.
    * @param gridSize Size of a cell in screen coordinates.
    * @param q The quadrant the cell is in relative to the vertex.
    */
-  protected void paintArea(Graphics2D g, int xOff, int yOff, int gridSize, Quadrant q) {
+  protected void paintArea(Path2D path, int xOff, int yOff, int gridSize, Quadrant q) {
     int x = vertex.x + getXMult(q) * xOff + ((getXMult(q) - 1) / 2) * gridSize;
     int y = vertex.y + getYMult(q) * yOff + ((getYMult(q) - 1) / 2) * gridSize;
-    g.fill(new Rectangle(x, y, gridSize, gridSize));
+    path.append(new Rectangle(x, y, gridSize, gridSize), false);
   }
 
   /**
    * Paint the far horizontal line of a cell's border. All directions are relevant to the vertex.
    *
-   * @param g The painter.
+   * @param path The path the line is added to.
    * @param xOff X Offset to cell from vertex in screen coordinates.
    * @param yOff Y Offset to cell from vertex in screen coordinates.
    * @param gridSize Size of a cell in screen coordinates.
    * @param q The quadrant the cell is in relative to the vertex.
    */
   protected void paintFarHorizontalBorder(
-      Graphics2D g, int xOff, int yOff, int gridSize, Quadrant q) {
+      Path2D path, int xOff, int yOff, int gridSize, Quadrant q) {
     int x = vertex.x + getXMult(q) * xOff;
     int y = vertex.y + getYMult(q) * yOff + getYMult(q) * gridSize;
     Line2D l = new Line2D.Double(x, y, x + getXMult(q) * gridSize, y);
-    g.draw(l);
+    path.append(l, false);
   }
 
   /**
    * Paint the far vertical line of a cell's border. All directions are relevant to the vertex.
    *
-   * @param g The painter.
+   * @param path The path the line is added to.
    * @param xOff X Offset to cell from vertex in screen coordinates.
    * @param yOff Y Offset to cell from vertex in screen coordinates.
    * @param gridSize Size of a cell in screen coordinates.
    * @param q The quadrant the cell is in relative to the vertex.
    */
-  protected void paintFarVerticalBorder(
-      Graphics2D g, int xOff, int yOff, int gridSize, Quadrant q) {
+  protected void paintFarVerticalBorder(Path2D path, int xOff, int yOff, int gridSize, Quadrant q) {
     int x = vertex.x + getXMult(q) * xOff + getXMult(q) * gridSize;
     int y = vertex.y + getYMult(q) * yOff;
     Line2D l = new Line2D.Double(x, y, x, y + getYMult(q) * gridSize);
-    g.draw(l);
+    path.append(l, false);
   }
 
   /**
@@ -349,6 +408,16 @@ protected void drawBackground(Graphics2D g) {
     g.setComposite(old);
   }
 
+  /** @see net.rptools.maptool.model.drawing.Drawable#getArea() */
+  @Override
+  public Area getArea() {
+    Geometry current = getGeometry();
+    if (current == null) {
+      return new Area();
+    }
+    return current.getArea();
+  }
+
   /*---------------------------------------------------------------------------------------------
    * Abstract Methods
    *-------------------------------------------------------------------------------------------*/
@@ -357,7 +426,7 @@ protected void drawBackground(Graphics2D g) {
    * Paint the border of the template. Note that all coordinates are for the south east quadrant,
    * just change the signs of the x/y and xOff/yOff offsets to get to the other quadrants.
    *
-   * @param g Where to paint
+   * @param path Where to paint
    * @param x Distance from vertex along X axis in cell coordinates.
    * @param y Distance from vertex along Y axis in cell coordinates.
    * @param xOff Distance from vertex along X axis in screen coordinates.
@@ -367,13 +436,13 @@ protected void drawBackground(Graphics2D g) {
    *     vertex by <code>x</code> &amp; <code>y</code>.
    */
   protected abstract void paintBorder(
-      Graphics2D g, int x, int y, int xOff, int yOff, int gridSize, int distance);
+      Path2D path, int x, int y, int xOff, int yOff, int gridSize, int distance);
 
   /**
    * Paint the border of the template. Note that all coordinates are for the south east quadrant,
    * just change the signs of the x/y and xOff/yOff offsets to get to the other quadrants.
    *
-   * @param g Where to paint
+   * @param path Where to paint
    * @param x Distance from vertex along X axis in cell coordinates.
    * @param y Distance from vertex along Y axis in cell coordinates.
    * @param xOff Distance from vertex along X axis in screen coordinates.
@@ -383,5 +452,31 @@ protected abstract void paintBorder(
    *     vertex by <code>x</code> &amp; <code>y</code>.
    */
   protected abstract void paintArea(
-      Graphics2D g, int x, int y, int xOff, int yOff, int gridSize, int distance);
+      Path2D path, int x, int y, int xOff, int yOff, int gridSize, int distance);
+
+  /** The paths painted for a template and the area they cover, built once per change. */
+  private static final class Geometry {
+    private final List<Object> key;
+    private final Path2D border;
+    private final Path2D area;
+    private Area coveredArea;
+
+    private Geometry(List<Object> key, Path2D border, Path2D area) {
+      this.key = key;
+      this.border = border;
+      this.area = area;
+    }
+
+    /**
+     * Get the area covered by the cells of the template.
+     *
+     * @return A copy of the area, which the caller is free to change.
+     */
+    private synchronized Area getArea() {
+      if (coveredArea == null) {
+        coveredArea = new Area(area);
+      }
+      return new Area(coveredArea);
+    }
+  }
 }
@@ -15,12 +15,11 @@
 package net.rptools.maptool.model.drawing;
 
 import com.google.protobuf.StringValue;
-import java.awt.Graphics2D;
 import java.awt.Rectangle;
-import java.awt.geom.Area;
+import java.awt.geom.Path2D;
+import java.util.List;
 import net.rptools.maptool.client.MapTool;
 import net.rptools.maptool.model.GUID;
-import net.rptools.maptool.model.Zone;
 import net.rptools.maptool.model.ZonePoint;
 import net.rptools.maptool.server.proto.drawing.ConeTemplateDto;
 import net.rptools.maptool.server.proto.drawing.DrawableDto;
@@ -75,10 +74,18 @@ public void setDirection(Direction direction) {
     if (direction != null) this.direction = direction.name();
   }
 
+  /** @see net.rptools.maptool.model.drawing.AbstractTemplate#getGeometryKey(int) */
+  @Override
+  protected List<Object> getGeometryKey(int gridSize) {
+    List<Object> key = super.getGeometryKey(gridSize);
+    key.add(direction);
+    return key;
+  }
+
   /**
    * Paint the border at a specific radius.
    *
-   * @param g Where to paint
+   * @param path Where to paint
    * @param x Distance from vertex along X axis in cell coordinates.
    * @param y Distance from vertex along Y axis in cell coordinates.
    * @param xOff Distance from vertex along X axis in screen coordinates.
@@ -87,11 +94,11 @@ public void setDirection(Direction direction) {
    * @param distance The distance in cells from the vertex to the cell which is offset from the
    *     vertex by {@code x & y}.
    * @param radius The radius where the border is painted.
-   * @see net.rptools.maptool.model.drawing.AbstractTemplate#paintBorder(java.awt.Graphics2D, int,
+   * @see net.rptools.maptool.model.drawing.AbstractTemplate#paintBorder(java.awt.geom.Path2D, int,
    *     int, int, int, int, int)
    */
   protected void paintBorderAtRadius(
-      Graphics2D g, int x, int y, int xOff, int yOff, int gridSize, int distance, int radius) {
+      Path2D path, int x, int y, int xOff, int yOff, int gridSize, int distance, int radius) {
     // At the border?
     if (distance == radius) {
 
@@ -100,19 +107,19 @@ protected void paintBorderAtRadius(
         if (getDirection() == Direction.SOUTH_EAST
             || (getDirection() == Direction.SOUTH && y >= x)
             || (getDirection() == Direction.EAST && x >= y))
-          paintFarVerticalBorder(g, xOff, yOff, gridSize, Quadrant.SOUTH_EAST);
+          paintFarVerticalBorder(path, xOff, yOff, gridSize, Quadrant.SOUTH_EAST);
         if (getDirection() == Direction.NORTH_EAST
             || (getDirection() == Direction.NORTH && y >= x)
             || (getDirection() == Direction.EAST && x >= y))
-          paintFarVerticalBorder(g, xOff, yOff, gridSize, Quadrant.NORTH_EAST);
+          paintFarVerticalBorder(path, xOff, yOff, gridSize, Quadrant.NORTH_EAST);
         if (getDirection() == Direction.SOUTH_WEST
             || (getDirection() == Direction.SOUTH && y >= x)
             || (getDirection() == Direction.WEST && x >= y))
-          paintFarVerticalBorder(g, xOff, yOff, gridSize, Quadrant.SOUTH_WEST);
+          paintFarVerticalBorder(path, xOff, yOff, gridSize, Quadrant.SOUTH_WEST);
         if (getDirection() == Direction.NORTH_WEST
             || (getDirection() == Direction.NORTH && y >= x)
             || (getDirection() == Direction.WEST && x >= y))
-          paintFarVerticalBorder(g, xOff, yOff, gridSize, Quadrant.NORTH_WEST);
+          paintFarVerticalBorder(path, xOff, yOff, gridSize, Quadrant.NORTH_WEST);
       } // endif
 
       // Paint lines between horizontal boundaries if needed
@@ -120,19 +127,19 @@ protected void paintBorderAtRadius(
         if (getDirection() == Direction.SOUTH_EAST
             || (getDirection() == Direction.SOUTH && y >= x)
             || (getDirection() == Direction.EAST && x >= y))
-          paintFarHorizontalBorder(g, xOff, yOff, gridSize, Quadrant.SOUTH_EAST);
+          paintFarHorizontalBorder(path, xOff, yOff, gridSize, Quadrant.SOUTH_EAST);
         if (getDirection() == Direction.SOUTH_WEST
             || (getDirection() == Direction.SOUTH && y >= x)
             || (getDirection() == Direction.WEST && x >= y))
-          paintFarHorizontalBorder(g, xOff, yOff, gridSize, Quadrant.SOUTH_WEST);
+          paintFarHorizontalBorder(path, xOff, yOff, gridSize, Quadrant.SOUTH_WEST);
         if (getDirection() == Direction.NORTH_EAST
             || (getDirection() == Direction.NORTH && y >= x)
             || (getDirection() == Direction.EAST && x >= y))
-          paintFarHorizontalBorder(g, xOff, yOff, gridSize, Quadrant.NORTH_EAST);
+          paintFarHorizontalBorder(path, xOff, yOff, gridSize, Quadrant.NORTH_EAST);
         if (getDirection() == Direction.NORTH_WEST
             || (getDirection() == Direction.NORTH && y >= x)
             || (getDirection() == Direction.WEST && x >= y))
-          paintFarHorizontalBorder(g, xOff, yOff, gridSize, Quadrant.NORTH_WEST);
+          paintFarHorizontalBorder(path, xOff, yOff, gridSize, Quadrant.NORTH_WEST);
       } // endif
     } // endif
   }
@@ -140,7 +147,7 @@ protected void paintBorderAtRadius(
   /**
    * Paint the border at a specific radius.
    *
-   * @param g Where to paint
+   * @param path Where to paint
    * @param x Distance from vertex along X axis in cell coordinates.
    * @param y Distance from vertex along Y axis in cell coordinates.
    * @param xOff Distance from vertex along X axis in screen coordinates.
@@ -148,51 +155,51 @@ protected void paintBorderAtRadius(
    * @param gridSize The size of one side of the grid in screen coordinates.
    * @param distance The distance in cells from the vertex to the cell which is offset from the
    *     vertex by {@code x & y}.
-   * @see net.rptools.maptool.model.drawing.AbstractTemplate#paintBorder(java.awt.Graphics2D, int,
+   * @see net.rptools.maptool.model.drawing.AbstractTemplate#paintBorder(java.awt.geom.Path2D, int,
    *     int, int, int, int, int)
    */
   protected void paintEdges(
-      Graphics2D g, int x, int y, int xOff, int yOff, int gridSize, int distance) {
+      Path2D path, int x, int y, int xOff, int yOff, int gridSize, int distance) {
 
     // Handle the edges
     int radius = getRadius();
     if (getDirection().ordinal() % 2 == 0) {
       if (x == 0) {
         if (getDirection() == Direction.SOUTH_EAST || getDirection() == Direction.SOUTH_WEST)
-          paintCloseVerticalBorder(g, xOff, yOff, gridSize, Quadrant.SOUTH_EAST);
+          paintCloseVerticalBorder(path, xOff, yOff, gridSize, Quadrant.SOUTH_EAST);
         if (getDirection() == Direction.NORTH_EAST || getDirection() == Direction.NORTH_WEST)
-          paintCloseVerticalBorder(g, xOff, yOff, gridSize, Quadrant.NORTH_EAST);
+          paintCloseVerticalBorder(path, xOff, yOff, gridSize, Quadrant.NORTH_EAST);
       } // endif
       if (y == 0) {
         if (getDirection() == Direction.SOUTH_EAST || getDirection() == Direction.NORTH_EAST)
-          paintCloseHorizontalBorder(g, xOff, yOff, gridSize, Quadrant.NORTH_EAST);
+          paintCloseHorizontalBorder(path, xOff, yOff, gridSize, Quadrant.NORTH_EAST);
         if (getDirection() == Direction.SOUTH_WEST || getDirection() == Direction.NORTH_WEST)
-          paintCloseHorizontalBorder(g, xOff, yOff, gridSize, Quadrant.NORTH_WEST);
+          paintCloseHorizontalBorder(path, xOff, yOff, gridSize, Quadrant.NORTH_WEST);
       } // endif
     } else if (getDirection().ordinal() % 2 == 1 && x == y && distance <= radius) {
       if (getDirection() == Direction.SOUTH) {
-        paintFarVerticalBorder(g, xOff, yOff, gridSize, Quadrant.SOUTH_EAST);
-        paintFarVerticalBorder(g, xOff, yOff, gridSize, Quadrant.SOUTH_WEST);
-        paintCloseHorizontalBorder(g, xOff, yOff, gridSize, Quadrant.SOUTH_EAST);
-        paintCloseHorizontalBorder(g, xOff, yOff, gridSize, Quadrant.SOUTH_WEST);
+        paintFarVerticalBorder(path, xOff, yOff, gridSize, Quadrant.SOUTH_EAST);
+        paintFarVerticalBorder(path, xOff, yOff, gridSize, Quadrant.SOUTH_WEST);
+        paintCloseHorizontalBorder(path, xOff, yOff, gridSize, Quadrant.SOUTH_EAST);
+        paintCloseHorizontalBorder(path, xOff, yOff, gridSize, Quadrant.SOUTH_WEST);
       } // endif
       if (getDirection() == Direction.NORTH) {
-        paintFarVerticalBorder(g, xOff, yOff, gridSize, Quadrant.NORTH_EAST);
-        paintFarVerticalBorder(g, xOff, yOff, gridSize, Quadrant.NORTH_WEST);
-        paintCloseHorizontalBorder(g, xOff, yOff, gridSize, Quadrant.NORTH_EAST);
-        paintCloseHorizontalBorder(g, xOff, yOff, gridSize, Quadrant.NORTH_WEST);
+        paintFarVerticalBorder(path, xOff, yOff, gridSize, Quadrant.NORTH_EAST);
+        paintFarVerticalBorder(path, xOff, yOff, gridSize, Quadrant.NORTH_WEST);
+        paintCloseHorizontalBorder(path, xOff, yOff, gridSize, Quadrant.NORTH_EAST);
+        paintCloseHorizontalBorder(path, xOff, yOff, gridSize, Quadrant.NORTH_WEST);
       } // endif
       if (getDirection() == Direction.EAST) {
-        paintCloseVerticalBorder(g, xOff, yOff, gridSize, Quadrant.SOUTH_EAST);
-        paintCloseVerticalBorder(g, xOff, yOff, gridSize, Quadrant.NORTH_EAST);
-        paintFarHorizontalBorder(g, xOff, yOff, gridSize, Quadrant.SOUTH_EAST);
-        paintFarHorizontalBorder(g, xOff, yOff, gridSize, Quadrant.NORTH_EAST);
+        paintCloseVerticalBorder(path, xOff, yOff, gridSize, Quadrant.SOUTH_EAST);
+        paintCloseVerticalBorder(path, xOff, yOff, gridSize, Quadrant.NORTH_EAST);
+        paintFarHorizontalBorder(path, xOff, yOff, gridSize, Quadrant.SOUTH_EAST);
+        paintFarHorizontalBorder(path, xOff, yOff, gridSize, Quadrant.NORTH_EAST);
       } // endif
       if (getDirection() == Direction.WEST) {
-        paintCloseVerticalBorder(g, xOff, yOff, gridSize, Quadrant.SOUTH_WEST);
-        paintCloseVerticalBorder(g, xOff, yOff, gridSize, Quadrant.NORTH_WEST);
-        paintFarHorizontalBorder(g, xOff, yOff, gridSize, Quadrant.SOUTH_WEST);
-        paintFarHorizontalBorder(g, xOff, yOff, gridSize, Quadrant.NORTH_WEST);
+        paintCloseVerticalBorder(path, xOff, yOff, gridSize, Quadrant.SOUTH_WEST);
+        paintCloseVerticalBorder(path, xOff, yOff, gridSize, Quadrant.NORTH_WEST);
+        paintFarHorizontalBorder(path, xOff, yOff, gridSize, Quadrant.SOUTH_WEST);
+        paintFarHorizontalBorder(path, xOff, yOff, gridSize, Quadrant.NORTH_WEST);
       } // endif
     } // endif
   }
@@ -202,23 +209,23 @@ protected void paintEdges(
    *-------------------------------------------------------------------------------------------*/
 
   /**
-   * @see net.rptools.maptool.model.drawing.AbstractTemplate#paintBorder(java.awt.Graphics2D, int,
+   * @see net.rptools.maptool.model.drawing.AbstractTemplate#paintBorder(java.awt.geom.Path2D, int,
    *     int, int, int, int, int)
    */
   @Override
   protected void paintBorder(
-      Graphics2D g, int x, int y, int xOff, int yOff, int gridSize, int distance) {
-    paintBorderAtRadius(g, x, y, xOff, yOff, gridSize, distance, getRadius());
-    paintEdges(g, x, y, xOff, yOff, gridSize, distance);
+      Path2D path, int x, int y, int xOff, int yOff, int gridSize, int distance) {
+    paintBorderAtRadius(path, x, y, xOff, yOff, gridSize, distance, getRadius());
+    paintEdges(path, x, y, xOff, yOff, gridSize, distance);
   }
 
   /**
-   * @see net.rptools.maptool.model.drawing.AbstractTemplate#paintArea(java.awt.Graphics2D, int,
+   * @see net.rptools.maptool.model.drawing.AbstractTemplate#paintArea(java.awt.geom.Path2D, int,
    *     int, int, int, int, int)
    */
   @Override
   protected void paintArea(
-      Graphics2D g, int x, int y, int xOff, int yOff, int gridSize, int distance) {
+      Path2D path, int x, int y, int xOff, int yOff, int gridSize, int distance) {
 
     // Drawing along the spines only?
     if ((getDirection() == Direction.EAST || getDirection() == Direction.WEST) && y > x) return;
@@ -230,7 +237,7 @@ protected void paintArea(
     }
     for (Quadrant q : Quadrant.values()) {
       if (withinQuadrant(q)) {
-        paintArea(g, xOff, yOff, gridSize, q);
+        paintArea(path, xOff, yOff, gridSize, q);
       }
     }
   }
@@ -304,47 +311,6 @@ public Rectangle getBounds() {
     return new Rectangle(x, y, width, height);
   }
 
-  @Override
-  public Area getArea() {
-    if (getZoneId() == null) {
-      return new Area();
-    }
-    Zone zone = getCampaign().getZone(getZoneId());
-    if (zone == null) {
-      return new Area();
-    }
-    int gridSize = zone.getGrid().getSize();
-    int r = getRadius();
-    ZonePoint vertex = getVertex();
-    Area result = new Area();
-    for (int x = 0; x < r; x++) {
-      for (int y = 0; y < r; y++) {
-        // spine templates
-        if ((getDirection() == Direction.EAST || getDirection() == Direction.WEST) && y > x) {
-          continue;
-        }
-        if ((getDirection() == Direction.NORTH || getDirection() == Direction.SOUTH) && x > y) {
-          continue;
-        }
-        if (getDistance(x, y) > r) {
-          continue;
-        }
-
-        int xOff = x * gridSize;
-        int yOff = y * gridSize;
-        for (Quadrant q : Quadrant.values()) {
-          if (!withinQuadrant(q)) {
-            continue;
-          }
-          int rx = vertex.x + getXMult(q) * xOff + ((getXMult(q) - 1) / 2) * gridSize;
-          int ry = vertex.y + getYMult(q) * yOff + ((getYMult(q) - 1) / 2) * gridSize;
-          result.add(new Area(new Rectangle(rx, ry, gridSize, gridSize)));
-        }
-      }
-    }
-    return result;
-  }
-
   @Override
   public DrawableDto toDto() {
     var dto = ConeTemplateDto.newBuilder();
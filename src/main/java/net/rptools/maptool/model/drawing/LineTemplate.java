@@ -15,9 +15,8 @@
 package net.rptools.maptool.model.drawing;
 
 import com.google.protobuf.StringValue;
-import java.awt.Graphics2D;
 import java.awt.Rectangle;
-import java.awt.geom.Area;
+import java.awt.geom.Path2D;
 import java.math.BigDecimal;
 import java.math.MathContext;
 import java.math.RoundingMode;
@@ -28,7 +27,6 @@
 import net.rptools.maptool.client.MapTool;
 import net.rptools.maptool.model.CellPoint;
 import net.rptools.maptool.model.GUID;
-import net.rptools.maptool.model.Zone;
 import net.rptools.maptool.model.ZonePoint;
 import net.rptools.maptool.server.proto.drawing.DrawableDto;
 import net.rptools.maptool.server.proto.drawing.LineTemplateDto;
@@ -77,24 +75,24 @@ public LineTemplate(GUID id) {
    *-------------------------------------------------------------------------------------------*/
 
   /**
-   * @see net.rptools.maptool.model.drawing.AbstractTemplate#paintArea(java.awt.Graphics2D, int,
+   * @see net.rptools.maptool.model.drawing.AbstractTemplate#paintArea(java.awt.geom.Path2D, int,
    *     int, int, int, int, int)
    */
   @Override
   protected void paintArea(
-      Graphics2D g, int x, int y, int xOff, int yOff, int gridSize, int distance) {
-    paintArea(g, xOff, yOff, gridSize, getQuadrant());
+      Path2D path, int x, int y, int xOff, int yOff, int gridSize, int distance) {
+    paintArea(path, xOff, yOff, gridSize, getQuadrant());
   }
 
   /**
    * This method is cheating, the distance parameter was replaced with the offset into the path.
    *
-   * @see net.rptools.maptool.model.drawing.AbstractTemplate#paintBorder(java.awt.Graphics2D, int,
+   * @see net.rptools.maptool.model.drawing.AbstractTemplate#paintBorder(java.awt.geom.Path2D, int,
    *     int, int, int, int, int)
    */
   @Override
   protected void paintBorder(
-      Graphics2D g, int x, int y, int xOff, int yOff, int gridSize, int pElement) {
+      Path2D path, int x, int y, int xOff, int yOff, int gridSize, int pElement) {
     // Have to scan 3 points behind and ahead, since that is the maximum number of points
     // that can be added to the path from any single intersection.
     boolean[] noPaint = new boolean[4];
@@ -112,28 +110,24 @@ protected void paintBorder(
     } // endif
 
     // Paint the borders as needed
-    if (!noPaint[0]) paintCloseVerticalBorder(g, xOff, yOff, gridSize, getQuadrant());
-    if (!noPaint[1]) paintFarHorizontalBorder(g, xOff, yOff, gridSize, getQuadrant());
-    if (!noPaint[2]) paintFarVerticalBorder(g, xOff, yOff, gridSize, getQuadrant());
-    if (!noPaint[3]) paintCloseHorizontalBorder(g, xOff, yOff, gridSize, getQuadrant());
+    if (!noPaint[0]) paintCloseVerticalBorder(path, xOff, yOff, gridSize, getQuadrant());
+    if (!noPaint[1]) paintFarHorizontalBorder(path, xOff, yOff, gridSize, getQuadrant());
+    if (!noPaint[2]) paintFarVerticalBorder(path, xOff, yOff, gridSize, getQuadrant());
+    if (!noPaint[3]) paintCloseHorizontalBorder(path, xOff, yOff, gridSize, getQuadrant());
   }
 
   /**
-   * @see net.rptools.maptool.model.drawing.AbstractTemplate#paint(java.awt.Graphics2D, boolean,
-   *     boolean)
+   * @see net.rptools.maptool.model.drawing.AbstractTemplate#paintCells(java.awt.geom.Path2D,
+   *     java.awt.geom.Path2D, int)
    */
   @Override
-  protected void paint(Graphics2D g, boolean border, boolean area) {
-    if (MapTool.getCampaign().getZone(getZoneId()) == null) {
-      return;
-    }
+  protected void paintCells(Path2D border, Path2D area, int gridSize) {
     // Need to paint? We need a line and to translate the painting
     if (pathVertex == null) return;
     if (getRadius() == 0) return;
     if (calcPath() == null) return;
 
     // Paint each element in the path
-    int gridSize = MapTool.getCampaign().getZone(getZoneId()).getGrid().getSize();
     ListIterator<CellPoint> i = path.listIterator();
     while (i.hasNext()) {
       CellPoint p = i.next();
@@ -142,15 +136,22 @@ protected void paint(Graphics2D g, boolean border, boolean area) {
       int distance = getDistance(p.x, p.y);
 
       // Paint what is needed.
-      if (area) {
-        paintArea(g, p.x, p.y, xOff, yOff, gridSize, distance);
-      } // endif
-      if (border) {
-        paintBorder(g, p.x, p.y, xOff, yOff, gridSize, i.previousIndex());
-      } // endif
+      paintArea(area, p.x, p.y, xOff, yOff, gridSize, distance);
+      paintBorder(border, p.x, p.y, xOff, yOff, gridSize, i.previousIndex());
     } // endfor
   }
 
+  /** @see net.rptools.maptool.model.drawing.AbstractTemplate#getGeometryKey(int) */
+  @Override
+  protected List<Object> getGeometryKey(int gridSize) {
+    List<Object> key = super.getGeometryKey(gridSize);
+    key.add(pathVertex == null ? null : new ZonePoint(pathVertex.x, pathVertex.y));
+    key.add(quadrant);
+    key.add(mouseSlopeGreater);
+    key.add(doubleWide);
+    return key;
+  }
+
   /** @see net.rptools.maptool.model.drawing.AbstractTemplate#setVertex(ZonePoint) */
   @Override
   public void setVertex(ZonePoint vertex) {
@@ -441,33 +442,6 @@ public Rectangle getBounds() {
     return new Rectangle(minp.x, minp.y, width, height);
   }
 
-  @Override
-  public Area getArea() {
-    if (path == null) {
-      calcPath();
-    }
-    Zone zone = MapTool.getCampaign().getZone(getZoneId());
-    if (path == null || zone == null || getRadius() == 0 || pathVertex == null) {
-      return new Area();
-    }
-    // Create an area by merging all the squares along the path
-    Area result = new Area();
-    int gridSize = zone.getGrid().getSize();
-    Quadrant q = getQuadrant();
-
-    // Mimic paintArea to get the correct area
-    ListIterator<CellPoint> i = path.listIterator();
-    while (i.hasNext()) {
-      CellPoint p = i.next();
-      int xOff = p.x * gridSize;
-      int yOff = p.y * gridSize;
-      int rx = getVertex().x + getXMult(q) * xOff + ((getXMult(q) - 1) / 2) * gridSize;
-      int ry = getVertex().y + getYMult(q) * yOff + ((getYMult(q) - 1) / 2) * gridSize;
-      result.add(new Area(new Rectangle(rx, ry, gridSize, gridSize)));
-    }
-    return result;
-  }
-
   @Override
   public DrawableDto toDto() {
     var dto = LineTemplateDto.newBuilder();
@@ -15,10 +15,9 @@
 package net.rptools.maptool.model.drawing;
 
 import com.google.protobuf.StringValue;
-import java.awt.Graphics2D;
 import java.awt.Rectangle;
 import java.awt.Shape;
-import java.awt.geom.Area;
+import java.awt.geom.Path2D;
 import net.rptools.maptool.client.MapTool;
 import net.rptools.maptool.model.GUID;
 import net.rptools.maptool.model.Zone;
@@ -49,7 +48,7 @@ public RadiusCellTemplate(GUID id) {
   /**
    * Paint the border at a specific radius.
    *
-   * @param g Where to paint
+   * @param path Where to paint
    * @param x Distance from vertex along X axis in cell coordinates.
    * @param y Distance from vertex along Y axis in cell coordinates.
    * @param xOff Distance from vertex along X axis in screen coordinates.
@@ -58,51 +57,51 @@ public RadiusCellTemplate(GUID id) {
    * @param distance The distance in cells from the vertex to the cell which is offset from the
    *     vertex by {@code x & y}.
    * @param radius The radius where the border is painted.
-   * @see net.rptools.maptool.model.drawing.AbstractTemplate#paintBorder(java.awt.Graphics2D, int,
+   * @see net.rptools.maptool.model.drawing.AbstractTemplate#paintBorder(java.awt.geom.Path2D, int,
    *     int, int, int, int, int)
    */
   protected void paintBorderAtRadius(
-      Graphics2D g, int x, int y, int xOff, int yOff, int gridSize, int distance, int radius) {
+      Path2D path, int x, int y, int xOff, int yOff, int gridSize, int distance, int radius) {
     // At the border?
     // Paint lines between vertical boundaries if needed
 
     if (getDistance(x, y + 1) == radius && getDistance(x + 1, y + 1) > radius) {
-      paintFarVerticalBorder(g, xOff, yOff, gridSize, Quadrant.NORTH_EAST);
+      paintFarVerticalBorder(path, xOff, yOff, gridSize, Quadrant.NORTH_EAST);
     }
     if (distance == radius && getDistance(x + 1, y) > radius) {
-      paintFarVerticalBorder(g, xOff, yOff, gridSize, Quadrant.SOUTH_EAST);
+      paintFarVerticalBorder(path, xOff, yOff, gridSize, Quadrant.SOUTH_EAST);
     }
     if (getDistance(x + 1, y + 1) == radius && getDistance(x + 2, y + 1) > radius) {
-      paintFarVerticalBorder(g, xOff, yOff, gridSize, Quadrant.NORTH_WEST);
+      paintFarVerticalBorder(path, xOff, yOff, gridSize, Quadrant.NORTH_WEST);
     }
     if (getDistance(x + 1, y) == radius && getDistance(x + 2, y) > radius) {
-      paintFarVerticalBorder(g, xOff, yOff, gridSize, Quadrant.SOUTH_WEST);
+      paintFarVerticalBorder(path, xOff, yOff, gridSize, Quadrant.SOUTH_WEST);
     } // endif
     if (x == 0 && y + 1 == radius) {
-      paintFarVerticalBorder(g, xOff - gridSize, yOff, gridSize, Quadrant.SOUTH_EAST);
+      paintFarVerticalBorder(path, xOff - gridSize, yOff, gridSize, Quadrant.SOUTH_EAST);
     }
     if (x == 0 && y + 2 == radius) {
-      paintFarVerticalBorder(g, xOff - gridSize, yOff, gridSize, Quadrant.NORTH_WEST);
+      paintFarVerticalBorder(path, xOff - gridSize, yOff, gridSize, Quadrant.NORTH_WEST);
     }
 
     // Paint lines between horizontal boundaries if needed
     if (getDistance(x, y + 1) == radius && getDistance(x, y + 2) > radius) {
-      paintFarHorizontalBorder(g, xOff, yOff, gridSize, Quadrant.NORTH_EAST);
+      paintFarHorizontalBorder(path, xOff, yOff, gridSize, Quadrant.NORTH_EAST);
     }
     if (getDistance(x, y) == radius && getDistance(x, y + 1) > radius) {
-      paintFarHorizontalBorder(g, xOff, yOff, gridSize, Quadrant.SOUTH_EAST);
+      paintFarHorizontalBorder(path, xOff, yOff, gridSize, Quadrant.SOUTH_EAST);
     }
     if (y == 0 && x + 1 == radius) {
-      paintFarHorizontalBorder(g, xOff, yOff - gridSize, gridSize, Quadrant.SOUTH_EAST);
+      paintFarHorizontalBorder(path, xOff, yOff - gridSize, gridSize, Quadrant.SOUTH_EAST);
     }
     if (y == 0 && x + 2 == radius) {
-      paintFarHorizontalBorder(g, xOff, yOff - gridSize, gridSize, Quadrant.NORTH_WEST);
+      paintFarHorizontalBorder(path, xOff, yOff - gridSize, gridSize, Quadrant.NORTH_WEST);
     }
     if (getDistance(x + 1, y + 1) == radius && getDistance(x + 1, y + 2) > radius) {
-      paintFarHorizontalBorder(g, xOff, yOff, gridSize, Quadrant.NORTH_WEST);
+      paintFarHorizontalBorder(path, xOff, yOff, gridSize, Quadrant.NORTH_WEST);
     }
     if (getDistance(x + 1, y) == radius && getDistance(x + 1, y + 1) > radius) {
-      paintFarHorizontalBorder(g, xOff, yOff, gridSize, Quadrant.SOUTH_WEST);
+      paintFarHorizontalBorder(path, xOff, yOff, gridSize, Quadrant.SOUTH_WEST);
     } // endif
   }
 
@@ -111,13 +110,13 @@ protected void paintBorderAtRadius(
    *-------------------------------------------------------------------------------------------*/
 
   /**
-   * @see net.rptools.maptool.model.drawing.AbstractTemplate#paintBorder(java.awt.Graphics2D, int,
+   * @see net.rptools.maptool.model.drawing.AbstractTemplate#paintBorder(java.awt.geom.Path2D, int,
    *     int, int, int, int, int)
    */
   @Override
   protected void paintBorder(
-      Graphics2D g, int x, int y, int xOff, int yOff, int gridSize, int distance) {
-    paintBorderAtRadius(g, x, y, xOff, yOff, gridSize, distance, getRadius());
+      Path2D path, int x, int y, int xOff, int yOff, int gridSize, int distance) {
+    paintBorderAtRadius(path, x, y, xOff, yOff, gridSize, distance, getRadius());
 
     // At the center?
     // FIXME This is wrong because it draws the filled rectangle at CellPoint(0,0) and it should be
@@ -129,72 +128,41 @@ protected void paintBorder(
 
   @Override
   protected void paintArea(
-      Graphics2D g, int x, int y, int xOff, int yOff, int gridSize, int distance) {
+      Path2D path, int x, int y, int xOff, int yOff, int gridSize, int distance) {
 
     // Only squares w/in the radius
     int radius = getRadius();
     if (distance <= radius) {
-      paintArea(g, xOff, yOff, gridSize, Quadrant.SOUTH_EAST);
+      paintArea(path, xOff, yOff, gridSize, Quadrant.SOUTH_EAST);
     }
 
     if (getDistance(x, y + 1) <= radius) {
-      paintArea(g, xOff, yOff, gridSize, Quadrant.NORTH_EAST);
+      paintArea(path, xOff, yOff, gridSize, Quadrant.NORTH_EAST);
     }
 
     if (getDistance(x + 1, y) <= radius) {
-      paintArea(g, xOff, yOff, gridSize, Quadrant.SOUTH_WEST);
+      paintArea(path, xOff, yOff, gridSize, Quadrant.SOUTH_WEST);
     }
 
     if (getDistance(x + 1, y + 1) <= radius) {
-      paintArea(g, xOff, yOff, gridSize, Quadrant.NORTH_WEST);
+      paintArea(path, xOff, yOff, gridSize, Quadrant.NORTH_WEST);
     }
   }
 
-  /**
-   * Paint the border or area of the template
-   *
-   * @param g Where to paint
-   * @param border Paint the border?
-   * @param area Paint the area?
-   */
-  protected void paint(Graphics2D g, boolean border, boolean area) {
-    int radius = getRadius();
-    GUID zoneId = getZoneId();
-
-    if (radius == 0) return;
-    Zone zone = MapTool.getCampaign().getZone(zoneId);
-    if (zone == null) return;
-
-    // Find the proper distance
-    int gridSize = zone.getGrid().getSize();
-    for (int y = 0; y < radius; y++) {
-      for (int x = 0; x < radius; x++) {
-
-        // Get the offset to the corner of the square
-        int xOff = x * gridSize;
-        int yOff = y * gridSize;
-
-        // Template specific painting
-        if (border) paintBorder(g, x, y, xOff, yOff, gridSize, getDistance(x, y));
-        if (area) paintArea(g, x, y, xOff, yOff, gridSize, getDistance(x, y));
-      } // endfor
-    } // endfor
-  }
-
   /**
    * Fill the area of a cell.
    *
-   * @param g The painter.
+   * @param path The path the cell is added to.
    * @param xOff X Offset to cell from vertex in screen coordinates.
    * @param yOff Y Offset to cell from vertex in screen coordinates.
    * @param gridSize Size of a cell in screen coordinates.
    * @param q The quadrant the cell is in relative to the vertex.
    */
-  protected void paintArea(Graphics2D g, int xOff, int yOff, int gridSize, Quadrant q) {
+  protected void paintArea(Path2D path, int xOff, int yOff, int gridSize, Quadrant q) {
     ZonePoint vertex = getVertex();
     int x = vertex.x + getXMult(q) * xOff + ((getXMult(q) - 1) / 2) * gridSize;
     int y = vertex.y + getYMult(q) * yOff + ((getYMult(q) - 1) / 2) * gridSize;
-    g.fill(new Rectangle(x, y, gridSize, gridSize));
+    path.append(new Rectangle(x, y, gridSize, gridSize), false);
   }
 
   /**
@@ -300,41 +268,6 @@ public void setVertex(ZonePoint vertex) {
     adjustShape();
   }
 
-  @Override
-  public Area getArea() {
-    if (getZoneId() == null) {
-      return new Area();
-    }
-    Zone zone = getCampaign().getZone(getZoneId());
-    if (zone == null) {
-      return new Area();
-    }
-    int gridSize = zone.getGrid().getSize();
-    int r = getRadius();
-    ZonePoint vertex = getVertex();
-    Area result = new Area();
-    for (int x = 0; x < r; x++) {
-      for (int y = 0; y < r; y++) {
-        for (Quadrant q : Quadrant.values()) {
-          int xShift = (getXMult(q) - 1) / 2;
-          int yShift = (getYMult(q) - 1) / 2;
-          int distance = getDistance(x - xShift, y - yShift);
-          if (distance > r) {
-            continue;
-          }
-          int xOff = x * gridSize;
-          int yOff = y * gridSize;
-          // Add all four quadrants
-
-          int rx = vertex.x + getXMult(q) * xOff + xShift * gridSize;
-          int ry = vertex.y + getYMult(q) * yOff + yShift * gridSize;
-          result.add(new Area(new Rectangle(rx, ry, gridSize, gridSize)));
-        }
-      }
-    }
-    return result;
-  }
-
   @Override
   public DrawableDto toDto() {
     var dto = RadiusCellTemplateDto.newBuilder();
@@ -18,7 +18,7 @@
 import java.awt.*;
 import java.awt.Rectangle;
 import java.awt.geom.AffineTransform;
-import java.awt.geom.Area;
+import java.awt.geom.Path2D;
 import java.awt.geom.PathIterator;
 import net.rptools.maptool.client.MapTool;
 import net.rptools.maptool.model.GUID;
@@ -45,7 +45,7 @@ public RadiusTemplate(GUID id) {
   /**
    * Paint the border at a specific radius.
    *
-   * @param g Where to paint
+   * @param path Where to paint
    * @param x Distance from vertex along X axis in cell coordinates.
    * @param y Distance from vertex along Y axis in cell coordinates.
    * @param xOff Distance from vertex along X axis in screen coordinates.
@@ -54,24 +54,24 @@ public RadiusTemplate(GUID id) {
    * @param distance The distance in cells from the vertex to the cell which is offset from the
    *     vertex by {@code x & y}.
    * @param radius The radius where the border is painted.
-   * @see net.rptools.maptool.model.drawing.AbstractTemplate#paintBorder(java.awt.Graphics2D, int,
+   * @see net.rptools.maptool.model.drawing.AbstractTemplate#paintBorder(java.awt.geom.Path2D, int,
    *     int, int, int, int, int)
    */
   protected void paintBorderAtRadius(
-      Graphics2D g, int x, int y, int xOff, int yOff, int gridSize, int distance, int radius) {
+      Path2D path, int x, int y, int xOff, int yOff, int gridSize, int distance, int radius) {
     // At the border?
     if (distance == radius) {
       // Paint lines between vertical boundaries if needed
       if (getDistance(x + 1, y) > radius) {
         for (Quadrant q : Quadrant.values()) {
-          paintFarVerticalBorder(g, xOff, yOff, gridSize, q);
+          paintFarVerticalBorder(path, xOff, yOff, gridSize, q);
         }
       }
 
       // Paint lines between horizontal boundaries if needed
       if (getDistance(x, y + 1) > radius) {
         for (Quadrant q : Quadrant.values()) {
-          paintFarHorizontalBorder(g, xOff, yOff, gridSize, q);
+          paintFarHorizontalBorder(path, xOff, yOff, gridSize, q);
         }
       }
     }
@@ -82,13 +82,13 @@ protected void paintBorderAtRadius(
    *-------------------------------------------------------------------------------------------*/
 
   /**
-   * @see net.rptools.maptool.model.drawing.AbstractTemplate#paintBorder(java.awt.Graphics2D, int,
+   * @see net.rptools.maptool.model.drawing.AbstractTemplate#paintBorder(java.awt.geom.Path2D, int,
    *     int, int, int, int, int)
    */
   @Override
   protected void paintBorder(
-      Graphics2D g, int x, int y, int xOff, int yOff, int gridSize, int distance) {
-    paintBorderAtRadius(g, x, y, xOff, yOff, gridSize, distance, getRadius());
+      Path2D path, int x, int y, int xOff, int yOff, int gridSize, int distance) {
+    paintBorderAtRadius(path, x, y, xOff, yOff, gridSize, distance, getRadius());
 
     // At the center?
     // FIXME This is wrong because it draws the filled rectangle at CellPoint(0,0) and it should be
@@ -99,17 +99,17 @@ protected void paintBorder(
   }
 
   /**
-   * @see net.rptools.maptool.model.drawing.AbstractTemplate#paintArea(java.awt.Graphics2D, int,
+   * @see net.rptools.maptool.model.drawing.AbstractTemplate#paintArea(java.awt.geom.Path2D, int,
    *     int, int, int, int, int)
    */
   @Override
   protected void paintArea(
-      Graphics2D g, int x, int y, int xOff, int yOff, int gridSize, int distance) {
+      Path2D path, int x, int y, int xOff, int yOff, int gridSize, int distance) {
     // Only squares w/in the radius
     if (distance <= getRadius()) {
       // Paint the squares
       for (Quadrant q : Quadrant.values()) {
-        paintArea(g, xOff, yOff, gridSize, q);
+        paintArea(path, xOff, yOff, gridSize, q);
       }
     }
   }
@@ -139,35 +139,6 @@ public PathIterator getPathIterator() {
     return getArea().getPathIterator(new AffineTransform());
   }
 
-  public Area getArea() {
-    if (getZoneId() == null) {
-      return new Area();
-    }
-    Zone zone = getCampaign().getZone(getZoneId());
-    if (zone == null) {
-      return new Area();
-    }
-    int gridSize = zone.getGrid().getSize();
-    int r = getRadius();
-    ZonePoint vertex = getVertex();
-    Area result = new Area();
-    for (int x = 0; x < r; x++) {
-      for (int y = 0; y < r; y++) {
-        if (getDistance(x, y) <= r) {
-          int xOff = x * gridSize;
-          int yOff = y * gridSize;
-          // Add all four quadrants
-          for (Quadrant q : Quadrant.values()) {
-            int rx = vertex.x + getXMult(q) * xOff + ((getXMult(q) - 1) / 2) * gridSize;
-            int ry = vertex.y + getYMult(q) * yOff + ((getYMult(q) - 1) / 2) * gridSize;
-            result.add(new Area(new Rectangle(rx, ry, gridSize, gridSize)));
-          }
-        }
-      }
-    }
-    return result;
-  }
-
   @Override
   public DrawableDto toDto() {
     var dto = RadiusTemplateDto.newBuilder();
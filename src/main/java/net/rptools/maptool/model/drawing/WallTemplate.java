@@ -69,6 +69,23 @@ protected List<CellPoint> calcPath() {
     return getPath(); // Do nothing, path is set by tool.
   }
 
+  /**
+   * The path is changed in place by the tool as the wall is drawn, so the key holds a copy of each
+   * point.
+   *
+   * @see net.rptools.maptool.model.drawing.LineTemplate#getGeometryKey(int)
+   */
+  @Override
+  protected List<Object> getGeometryKey(int gridSize) {
+    List<Object> key = super.getGeometryKey(gridSize);
+    if (getPath() != null) {
+      for (CellPoint p : getPath()) {
+        key.add(new CellPoint(p.x, p.y));
+      }
+    }
+    return key;
+  }
+
   @Override
   public DrawableDto toDto() {
     var dto = WallTemplateDto.newBuilder();
@@ -0,0 +1,29 @@
+/*
+ * This software Copyright by the RPTools.net development team, and
+ * licensed under the Affero GPL Version 3 or, at your option, any later
+ * version.
+ *
+ * MapTool Source Code is distributed in the hope that it will be
+ * useful, but WITHOUT ANY WARRANTY; without even the implied warranty
+ * of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ *
+ * You should have received a copy of the GNU Affero General Public
+ * License * along with this source Code.  If not, please visit
+ * <http://www.gnu.org/licenses/> and specifically the Affero license
+ * text at <http://www.gnu.org/licenses/agpl.html>.
+ */
+package net.rptools.maptool.model.transform.campaign;
+
+import net.rptools.lib.ModelVersionTransformation;
+
+/**
+ * Marks campaign version 1.12.0, the first version to save its content as {@code content.pb}
+ * instead of {@code content.xml}. The XML itself doesn't change, so this transform leaves it as it
+ * is. Registering it means files of older versions need a transformation, so they are always read
+ * from their XML, even if they hold a {@code content.pb} entry left behind by a newer version.
+ */
+public class BinaryContentTransform implements ModelVersionTransformation {
+  public String transform(String xml) {
+    return xml;
+  }
+}
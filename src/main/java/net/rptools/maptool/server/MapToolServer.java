@@ -31,6 +31,7 @@
 import net.rptools.maptool.common.MapToolConstants;
 import net.rptools.maptool.language.I18N;
 import net.rptools.maptool.model.Campaign;
+import net.rptools.maptool.model.GUID;
 import net.rptools.maptool.model.TextMessage;
 import net.rptools.maptool.model.player.PlayerDatabase;
 import net.rptools.maptool.model.player.PlayerDatabaseFactory;
@@ -61,6 +62,9 @@ public class MapToolServer {
   private ServerPolicy policy;
   private HeartbeatThread heartbeatThread;
 
+  /** The id of the zone the GM hosting the server is on. Read by the connection threads. */
+  private volatile GUID hostZoneId;
+
   public MapToolServer(ServerConfig config, ServerPolicy policy, PlayerDatabase playerDb)
       throws IOException {
     this.config = config;
@@ -149,6 +153,21 @@ public Campaign getCampaign() {
     return campaign;
   }
 
+  /**
+   * Sets the id of the zone the GM hosting the server is on. Clients that join are shown this zone
+   * first if players can see it.
+   *
+   * @param zoneId the id of the zone, or {@code null} if the GM isn't on a zone.
+   */
+  public void setHostZoneId(GUID zoneId) {
+    hostZoneId = zoneId;
+  }
+
+  /** @return the id of the zone the GM hosting the server is on, or {@code null}. */
+  public GUID getHostZoneId() {
+    return hostZoneId;
+  }
+
   public ServerPolicy getPolicy() {
     return policy;
   }
@@ -15,6 +15,8 @@
 package net.rptools.maptool.server;
 
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
 import net.rptools.clientserver.ConnectionFactory;
@@ -22,11 +24,16 @@
 import net.rptools.clientserver.simple.server.HandshakeProvider;
 import net.rptools.clientserver.simple.server.ServerConnection;
 import net.rptools.clientserver.simple.server.ServerObserver;
+import net.rptools.maptool.model.Campaign;
+import net.rptools.maptool.model.GUID;
+import net.rptools.maptool.model.Token;
+import net.rptools.maptool.model.Zone;
 import net.rptools.maptool.model.player.Player;
 import net.rptools.maptool.model.player.PlayerDatabase;
 import net.rptools.maptool.server.proto.Message;
 import net.rptools.maptool.server.proto.PlayerConnectedMsg;
 import net.rptools.maptool.server.proto.PlayerDisconnectedMsg;
+import net.rptools.maptool.server.proto.PutZoneMsg;
 import net.rptools.maptool.server.proto.SetCampaignMsg;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
@@ -110,10 +117,70 @@ public void connectionAdded(ClientConnection conn) {
         .getConnection()
         .broadcastMessage(Message.newBuilder().setPlayerConnectedMsg(msg).build());
 
-    var msg2 = SetCampaignMsg.newBuilder().setCampaign(server.getCampaign().toDto());
+    sendCampaign(conn.getId());
+  }
+
+  /**
+   * Sends the campaign to a client that has just joined. Building and decoding the whole campaign
+   * as one message keeps the player waiting for every map, so the campaign is first sent with only
+   * the map the GM is on, which the client shows as soon as it arrives. The other maps follow in
+   * campaign order as a {@link PutZoneMsg} each. The messages are all queued on the connection
+   * before anything else is sent to the client, so no later message can refer to a map the client
+   * doesn't have yet.
+   *
+   * <p>Maps holding lib:tokens are also sent in the first message, since the client runs their
+   * {@code onCampaignLoad} macros when it receives the campaign.
+   *
+   * @param clientId the id of the connection of the client.
+   */
+  private void sendCampaign(String clientId) {
+    Campaign campaign = server.getCampaign();
+    List<Zone> zones = campaign.getZones();
+    Zone first = getJoinZone(zones, server.getHostZoneId());
+
+    // The join zone goes first so it is the one the client shows.
+    List<Zone> initial = new ArrayList<>();
+    if (first != null) {
+      initial.add(first);
+    }
+    for (Zone zone : zones) {
+      if (zone != first && !zone.getTokensFiltered(Token::isLibToken).isEmpty()) {
+        initial.add(zone);
+      }
+    }
+
+    var campaignMsg = SetCampaignMsg.newBuilder().setCampaign(campaign.toDto(initial));
     server
         .getConnection()
-        .sendMessage(conn.getId(), Message.newBuilder().setSetCampaignMsg(msg2).build());
+        .sendMessage(clientId, Message.newBuilder().setSetCampaignMsg(campaignMsg).build());
+
+    for (Zone zone : zones) {
+      if (!initial.contains(zone)) {
+        var zoneMsg = PutZoneMsg.newBuilder().setZone(zone.toDto());
+        server
+            .getConnection()
+            .sendMessage(clientId, Message.newBuilder().setPutZoneMsg(zoneMsg).build());
+      }
+    }
+  }
+
+  /**
+   * Returns the zone a joining client should be sent first. This is the zone the GM hosting the
+   * server is on if players can see it, otherwise the first zone players can see.
+   *
+   * @param zones the zones of the campaign.
+   * @param hostZoneId the id of the zone the GM hosting the server is on, or {@code null}.
+   * @return the zone, or {@code null} if players can't see any of the zones.
+   */
+  private static Zone getJoinZone(List<Zone> zones, GUID hostZoneId) {
+    if (hostZoneId != null) {
+      for (Zone zone : zones) {
+        if (zone.getId().equals(hostZoneId) && zone.isVisible()) {
+          return zone;
+        }
+      }
+    }
+    return zones.stream().filter(Zone::isVisible).findFirst().orElse(null);
   }
 
   public void connectionRemoved(ClientConnection conn) {
@@ -36,6 +36,12 @@ public class Mapper {
   private static final Logger log = LogManager.getLogger(Mapper.class);
 
   public static Area map(AreaDto areaDto) {
+    if (!areaDto.getPackedSegments().isEmpty()) {
+      var path = new Path2D.Float(areaDto.getWindingValue());
+      PackedSegments.unpack(areaDto.getPackedSegments(), path);
+      return new Area(path);
+    }
+
     var segmentIterator = areaDto.getSegmentsList().iterator();
     if (!segmentIterator.hasNext()) return new Area();
 
@@ -154,48 +160,11 @@ public int currentSegment(double[] coords) {
   public static AreaDto map(Area area) {
     if (area == null) return null;
 
-    var builder = AreaDto.newBuilder();
-
     var it = area.getPathIterator(null);
-    float[] floats = new float[6];
-    builder.setWinding(AreaDto.WindingRule.forNumber(it.getWindingRule()));
-
-    for (; !it.isDone(); it.next()) {
-      var segmentBuilder = SegmentDto.newBuilder();
-      switch (it.currentSegment(floats)) {
-        case PathIterator.SEG_MOVETO -> {
-          var point0Builder = DoublePointDto.newBuilder().setX(floats[0]).setY(floats[1]);
-          var moveTo = MoveToSegment.newBuilder().setPoint0(point0Builder);
-          segmentBuilder.setMoveTo(moveTo);
-        }
-        case PathIterator.SEG_LINETO -> {
-          var point0Builder = DoublePointDto.newBuilder().setX(floats[0]).setY(floats[1]);
-          var lineTo = LineToSegment.newBuilder().setPoint0(point0Builder);
-          segmentBuilder.setLineTo(lineTo);
-        }
-        case PathIterator.SEG_QUADTO -> {
-          var point0Builder = DoublePointDto.newBuilder().setX(floats[0]).setY(floats[1]);
-          var point1Builder = DoublePointDto.newBuilder().setX(floats[2]).setY(floats[3]);
-          var quadTo = QuadToSegment.newBuilder().setPoint0(point0Builder).setPoint1(point1Builder);
-          segmentBuilder.setQuadTo(quadTo);
-        }
-        case PathIterator.SEG_CUBICTO -> {
-          var point0Builder = DoublePointDto.newBuilder().setX(floats[0]).setY(floats[1]);
-          var point1Builder = DoublePointDto.newBuilder().setX(floats[2]).setY(floats[3]);
-          var point2Builder = DoublePointDto.newBuilder().setX(floats[4]).setY(floats[5]);
-          var cubicTo =
-              CubicToSegment.newBuilder()
-                  .setPoint0(point0Builder)
-                  .setPoint1(point1Builder)
-                  .setPoint2(point2Builder);
-          segmentBuilder.setCubicTo(cubicTo);
-        }
-        case PathIterator.SEG_CLOSE -> segmentBuilder.setClose(CloseSegment.newBuilder());
-      }
-      builder.addSegments(segmentBuilder);
-    }
-
-    return builder.build();
+    return AreaDto.newBuilder()
+        .setWinding(AreaDto.WindingRule.forNumber(it.getWindingRule()))
+        .setPackedSegments(PackedSegments.pack(it))
+        .build();
   }
 
   public static Point map(IntPointDto dto) {
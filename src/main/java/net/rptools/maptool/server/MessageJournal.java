@@ -0,0 +1,586 @@
+/*
+ * This software Copyright by the RPTools.net development team, and
+ * licensed under the Affero GPL Version 3 or, at your option, any later
+ * version.
+ *
+ * MapTool Source Code is distributed in the hope that it will be
+ * useful, but WITHOUT ANY WARRANTY; without even the implied warranty
+ * of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ *
+ * You should have received a copy of the GNU Affero General Public
+ * License * along with this source code.  If not, please visit
+ * <http://www.gnu.org/licenses/> and specifically the Affero license
+ * text at <http://www.gnu.org/licenses/agpl.html>.
+ */
+package net.rptools.maptool.server;
+
+import static net.rptools.maptool.server.proto.Message.MessageTypeCase.*;
+
+import com.google.protobuf.CodedOutputStream;
+import com.google.protobuf.InvalidProtocolBufferException;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.FileDescriptor;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import net.rptools.maptool.server.proto.BatchTokenUpdateMsg;
+import net.rptools.maptool.server.proto.Message;
+import net.rptools.maptool.server.proto.RemoveTokensMsg;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+/**
+ * An append-only log of the model change messages applied to the campaign of the client hosting
+ * the server. Together with a snapshot of the campaign taken when the journal was last rotated,
+ * replaying the journal restores the campaign without having to rewrite the whole campaign for
+ * every change.
+ *
+ * <p>Messages are written length delimited, in the order they are applied to the campaign.
+ *
+ * <p>A snapshot is copied a zone at a time, and the tokens of each zone a few at a time after the
+ * rest of the zone, so the messages recorded while it is being copied are also kept in memory. When
+ * the journal is rotated, the messages for a zone or token that were recorded before it was copied
+ * are already part of the snapshot and are left out of the new part. All the other messages,
+ * including those for zones and tokens added during the copy, are carried over to it.
+ *
+ * <p>Until the new snapshot has been saved the journal is kept in three files: the messages from
+ * before the copy started, the messages recorded while it was copied, and the messages recorded
+ * since. Together they hold every change since the last snapshot that was saved, so a failed save
+ * does not lose any changes. Once it is saved, the messages carried over and the ones recorded
+ * since take their place.
+ */
+public class MessageJournal {
+  private static final Logger log = LogManager.getLogger(MessageJournal.class);
+
+  /** The messages which change the campaign and so need to be journaled. */
+  private static final Set<Message.MessageTypeCase> JOURNALED_TYPES =
+      EnumSet.of(
+          ADD_TOPOLOGY_MSG,
+          CHANGE_ZONE_DISPLAY_NAME_MSG,
+          CLEAR_ALL_DRAWINGS_MSG,
+          CLEAR_EXPOSED_AREA_MSG,
+          DRAW_MSG,
+          EDIT_TOKEN_MSG,
+          EXPOSE_FOW_MSG,
+          EXPOSE_PC_AREA_MSG,
+          HIDE_FOW_MSG,
+          PUT_ASSET_MSG,
+          PUT_LABEL_MSG,
+          PUT_TOKEN_MSG,
+          PUT_ZONE_MSG,
+          REMOVE_LABEL_MSG,
+          REMOVE_TOKEN_MSG,
+          REMOVE_TOKENS_MSG,
+          REMOVE_TOPOLOGY_MSG,
+          REMOVE_ZONE_MSG,
+          RENAME_ZONE_MSG,
+          SET_BOARD_MSG,
+          SET_CAMPAIGN_MSG,
+          SET_CAMPAIGN_NAME_MSG,
+          SET_FOW_MSG,
+          SET_TOKEN_LOCATION_MSG,
+          SET_VISION_TYPE_MSG,
+          SET_ZONE_GRID_SIZE_MSG,
+          SET_ZONE_HAS_FOW_MSG,
+          SET_ZONE_VISIBILITY_MSG,
+          ADD_ADD_ON_LIBRARY_MSG,
+          REMOVE_ADD_ON_LIBRARY_MSG,
+          REMOVE_ALL_ADD_ON_LIBRARIES_MSG,
+          UPDATE_DATA_STORE_MSG,
+          UPDATE_DATA_NAMESPACE_MSG,
+          UPDATE_DATA_MSG,
+          REMOVE_DATA_STORE_MSG,
+          REMOVE_DATA_NAMESPACE_MSG,
+          REMOVE_DATA_MSG,
+          UPDATE_TOKEN_PROPERTY_MSG,
+          BATCH_TOKEN_UPDATE_MSG,
+          UPDATE_DRAWING_MSG,
+          UNDO_DRAW_MSG,
+          UPDATE_CAMPAIGN_MSG,
+          UPDATE_INITIATIVE_MSG,
+          UPDATE_TOKEN_INITIATIVE_MSG,
+          UPDATE_CAMPAIGN_MACROS_MSG,
+          UPDATE_GM_MACROS_MSG,
+          UPDATE_EXPOSED_AREA_META_MSG);
+
+  private final File file;
+  private final File previousFile;
+  private final File copyingFile;
+  private final File carriedFile;
+
+  private FileOutputStream fileOut;
+  private OutputStream out;
+  private long size;
+  private boolean enabled = true;
+  private boolean failed;
+  private boolean compactionRequested;
+
+  /** The messages recorded since the snapshot was started, or null if no snapshot is started. */
+  private List<Message> snapshotMessages;
+
+  /** The number of snapshotMessages that had been recorded when each zone was copied. */
+  private final Map<String, Integer> zoneCopyPoints = new HashMap<>();
+
+  /** The number of snapshotMessages that had been recorded when each token was copied. */
+  private final Map<TokenKey, Integer> tokenCopyPoints = new HashMap<>();
+
+  private record TokenKey(String zoneId, String tokenId) {}
+
+  /**
+   * Creates a new journal.
+   *
+   * @param file the file the journal is written to. The other parts of the journal are written
+   *     next to it.
+   */
+  public MessageJournal(File file) {
+    this.file = file;
+    this.previousFile = new File(file.getParentFile(), file.getName() + ".prev");
+    this.copyingFile = new File(file.getParentFile(), file.getName() + ".copying");
+    this.carriedFile = new File(file.getParentFile(), file.getName() + ".carried");
+    this.size = carriedFile.length() + file.length();
+  }
+
+  /**
+   * Returns if messages of a type change the campaign and so are recorded.
+   *
+   * @param msgType the type of the message.
+   * @return {@code true} if messages of the type are recorded.
+   */
+  public static boolean isJournaled(Message.MessageTypeCase msgType) {
+    return JOURNALED_TYPES.contains(msgType);
+  }
+
+  /**
+   * Enables or disables recording of messages.
+   *
+   * @param enabled {@code true} to record messages.
+   */
+  public synchronized void setEnabled(boolean enabled) {
+    this.enabled = enabled;
+  }
+
+  /**
+   * Appends the message to the journal if it changes the campaign. This must be called right after
+   * the change has been applied to the campaign.
+   *
+   * @param message the message that has been applied.
+   */
+  public synchronized void record(Message message) {
+    var msgType = message.getMessageTypeCase();
+    if (!enabled || !isJournaled(msgType)) {
+      return;
+    }
+    if (msgType == SET_CAMPAIGN_MSG) {
+      // The whole campaign has been replaced, the journal is best compacted straight away.
+      compactionRequested = true;
+    }
+
+    if (snapshotMessages != null) {
+      snapshotMessages.add(message);
+    }
+    if (failed) {
+      return;
+    }
+
+    try {
+      if (out == null) {
+        File part = snapshotMessages != null ? copyingFile : file;
+        part.getParentFile().mkdirs();
+        fileOut = new FileOutputStream(part, true);
+        out = new BufferedOutputStream(fileOut);
+      }
+      size += write(message, out);
+    } catch (IOException e) {
+      log.error("Unable to write to autosave journal, disabling it until the next snapshot", e);
+      // The journal is no longer complete, so stop appending to it until it is rotated.
+      closeQuietly();
+      failed = true;
+      compactionRequested = true;
+    }
+  }
+
+  /**
+   * Appends a message the client hosting the server has sent to it, once the client has applied
+   * the change itself. The messages that the server sends back to the client that sent them are
+   * only applied when they come back, so they are recorded then instead.
+   *
+   * @param message the message sent to the server.
+   */
+  public void recordSent(Message message) {
+    if (!ServerMessageHandler.SENT_BACK_TYPES.contains(message.getMessageTypeCase())) {
+      record(message);
+    }
+  }
+
+  /**
+   * Writes any buffered messages through to the disk. This waits for the disk, so it should not be
+   * called on the event dispatch thread.
+   *
+   * @throws IOException if the journal can not be written.
+   */
+  public void flush() throws IOException {
+    FileDescriptor fd;
+    synchronized (this) {
+      if (out == null) {
+        return;
+      }
+      out.flush();
+      fd = fileOut.getFD();
+    }
+    // Messages can still be recorded while waiting for the disk.
+    fd.sync();
+  }
+
+  /**
+   * Starts keeping the messages recorded while a new snapshot of the campaign is copied. The
+   * campaign apart from its zones must be copied at the same time. Everything recorded so far is
+   * moved to the previous part of the journal.
+   */
+  public synchronized void beginSnapshot() {
+    closeQuietly();
+    try {
+      if (previousFile.exists()) {
+        // The last snapshot was never saved, so keep everything since the one before that. The
+        // messages carried over to it were also recorded while it was copied.
+        appendTo(copyingFile, previousFile);
+        Files.deleteIfExists(carriedFile.toPath());
+      } else {
+        appendTo(carriedFile, previousFile);
+      }
+      appendTo(file, previousFile);
+      // The previous part marks the snapshot as not saved yet, even if there was nothing in it.
+      previousFile.getParentFile().mkdirs();
+      previousFile.createNewFile();
+    } catch (IOException e) {
+      log.error("Unable to start a new part of the autosave journal", e);
+      // Keep the messages in memory so that the journal starts again once the copy is done.
+      failed = true;
+    }
+    snapshotMessages = new ArrayList<>();
+    zoneCopyPoints.clear();
+    tokenCopyPoints.clear();
+  }
+
+  /**
+   * Records that a zone has been copied into the snapshot, so the messages for it that have been
+   * recorded so far are part of the snapshot. If its tokens are copied later, the messages for each
+   * token are counted from when it is copied instead.
+   *
+   * @param zoneId the id of the zone.
+   */
+  public synchronized void zoneCopied(String zoneId) {
+    if (snapshotMessages != null) {
+      zoneCopyPoints.put(zoneId, snapshotMessages.size());
+    }
+  }
+
+  /**
+   * Records that some tokens of a zone have been copied into the snapshot, so the messages for them
+   * that have been recorded so far are part of the snapshot. A token that had already been removed
+   * counts as copied too.
+   *
+   * @param zoneId the id of the zone.
+   * @param tokenIds the ids of the tokens.
+   */
+  public synchronized void tokensCopied(String zoneId, Collection<String> tokenIds) {
+    if (snapshotMessages != null) {
+      for (String tokenId : tokenIds) {
+        tokenCopyPoints.put(new TokenKey(zoneId, tokenId), snapshotMessages.size());
+      }
+    }
+  }
+
+  /**
+   * Stops keeping the messages for a snapshot that will not be saved. The messages recorded while
+   * it was copied stay in the journal.
+   */
+  public synchronized void cancelSnapshot() {
+    if (snapshotMessages != null) {
+      // Start recording to the current part again.
+      closeQuietly();
+    }
+    snapshotMessages = null;
+    zoneCopyPoints.clear();
+    tokenCopyPoints.clear();
+  }
+
+  /**
+   * Starts a new part of the journal. This is called once a new snapshot of the campaign started
+   * by {@link #beginSnapshot()} has been copied. The messages recorded while the snapshot was
+   * copied that are not part of it are carried over to the new part, but the older parts are kept
+   * until {@link #commitRotation()} is called after the snapshot has been saved.
+   *
+   * @throws IOException if the journal can not be rotated.
+   */
+  public synchronized void rotate() throws IOException {
+    if (snapshotMessages == null) {
+      throw new IllegalStateException("No snapshot has been started");
+    }
+    closeQuietly();
+    size = 0;
+    failed = false;
+    compactionRequested = false;
+
+    List<Message> messages = snapshotMessages;
+    var copied = new CopyPoints(new HashMap<>(zoneCopyPoints), new HashMap<>(tokenCopyPoints));
+    cancelSnapshot();
+
+    Files.deleteIfExists(carriedFile.toPath());
+    try (OutputStream carried = new BufferedOutputStream(new FileOutputStream(carriedFile))) {
+      for (int i = 0; i < messages.size(); i++) {
+        Message message = copied.notInSnapshot(messages.get(i), i);
+        if (message != null) {
+          size += write(message, carried);
+        }
+      }
+    }
+  }
+
+  /**
+   * The points at which the zones and tokens were copied into a snapshot.
+   *
+   * @param zones the number of messages recorded when each zone was copied.
+   * @param tokens the number of messages recorded when each token was copied.
+   */
+  private record CopyPoints(Map<String, Integer> zones, Map<TokenKey, Integer> tokens) {
+    /**
+     * Returns the part of a message recorded during the copy that is not in the snapshot.
+     *
+     * @param message the message.
+     * @param index the number of messages recorded before it.
+     * @return the message, or the changes of it not in the snapshot, or null if it is all in the
+     *     snapshot.
+     */
+    private Message notInSnapshot(Message message, int index) {
+      switch (message.getMessageTypeCase()) {
+        case BATCH_TOKEN_UPDATE_MSG -> {
+          // A batch can change tokens on several zones, so each update is checked on its own.
+          var batch = BatchTokenUpdateMsg.newBuilder();
+          for (var update : message.getBatchTokenUpdateMsg().getUpdatesList()) {
+            if (isAfterCopy(update.getZoneGuid(), update.getTokenGuid(), index)) {
+              batch.addUpdates(update);
+            }
+          }
+          return batch.getUpdatesCount() == 0
+              ? null
+              : Message.newBuilder().setBatchTokenUpdateMsg(batch).build();
+        }
+        case REMOVE_TOKENS_MSG -> {
+          var remove = message.getRemoveTokensMsg();
+          var removeAfterCopy = RemoveTokensMsg.newBuilder().setZoneGuid(remove.getZoneGuid());
+          for (String tokenId : remove.getTokenGuidList()) {
+            if (isAfterCopy(remove.getZoneGuid(), tokenId, index)) {
+              removeAfterCopy.addTokenGuid(tokenId);
+            }
+          }
+          return removeAfterCopy.getTokenGuidCount() == 0
+              ? null
+              : Message.newBuilder().setRemoveTokensMsg(removeAfterCopy).build();
+        }
+        default -> {
+          return isAfterCopy(zoneOf(message), tokenOf(message), index) ? message : null;
+        }
+      }
+    }
+
+    private boolean isAfterCopy(String zoneId, String tokenId, int index) {
+      Integer copyPoint = tokenId == null ? null : tokens.get(new TokenKey(zoneId, tokenId));
+      if (copyPoint == null) {
+        // The token was added after its zone was copied, or the message is for the whole zone.
+        copyPoint = zones.get(zoneId);
+      }
+      return copyPoint == null || index >= copyPoint;
+    }
+  }
+
+  /**
+   * Moves the journal to another file, combining its parts, so that nothing more is recorded to
+   * it. Any existing file is replaced.
+   *
+   * @param target the file to move the journal to.
+   * @throws IOException if the journal can not be moved.
+   */
+  public synchronized void moveTo(File target) throws IOException {
+    closeQuietly();
+    Files.deleteIfExists(target.toPath());
+    for (File part : getParts()) {
+      appendTo(part, target);
+    }
+    delete();
+  }
+
+  /** Discards the older parts of the journal once the snapshot that replaces them is saved. */
+  public synchronized void commitRotation() {
+    for (File part : new File[] {previousFile, copyingFile}) {
+      if (part.exists() && !part.delete()) {
+        log.warn("Unable to delete " + part);
+      }
+    }
+  }
+
+  /**
+   * Returns the size of the current part of the journal.
+   *
+   * @return the number of bytes in the current part of the journal.
+   */
+  public synchronized long size() {
+    return size;
+  }
+
+  /**
+   * Returns if the journal should be compacted into a snapshot at the next opportunity.
+   *
+   * @return {@code true} if a new snapshot is required.
+   */
+  public synchronized boolean isCompactionRequested() {
+    return compactionRequested;
+  }
+
+  /**
+   * Reads all the messages in the journal, oldest first. Reading stops at the first incomplete
+   * message in each part, which is expected if the application stopped while writing it.
+   *
+   * @return the messages in the journal.
+   * @throws IOException if the journal can not be read.
+   */
+  public synchronized List<Message> readAll() throws IOException {
+    List<Message> messages = new ArrayList<>();
+    for (File part : getParts()) {
+      if (!part.exists()) {
+        continue;
+      }
+      try (InputStream in = new BufferedInputStream(new FileInputStream(part))) {
+        Message message;
+        while ((message = Message.parseDelimitedFrom(in)) != null) {
+          messages.add(message);
+        }
+      } catch (InvalidProtocolBufferException e) {
+        log.warn("Ignoring incomplete message at the end of " + part, e);
+      }
+    }
+    return messages;
+  }
+
+  /** Removes the journal. */
+  public synchronized void delete() {
+    closeQuietly();
+    cancelSnapshot();
+    for (File part : new File[] {previousFile, copyingFile, carriedFile, file}) {
+      part.delete();
+    }
+    size = 0;
+    failed = false;
+    compactionRequested = false;
+  }
+
+  /**
+   * Returns the parts of the journal that hold the changes since the last snapshot that was saved,
+   * oldest first.
+   *
+   * @return the parts of the journal.
+   */
+  private File[] getParts() {
+    if (previousFile.exists()) {
+      return new File[] {previousFile, copyingFile, file};
+    }
+    return new File[] {carriedFile, file};
+  }
+
+  /**
+   * Returns the id of the zone that a message changes.
+   *
+   * @param message the message.
+   * @return the id of the zone, or null if the message doesn't change a single zone.
+   */
+  private static String zoneOf(Message message) {
+    switch (message.getMessageTypeCase()) {
+      case PUT_ZONE_MSG:
+        return message.getPutZoneMsg().getZone().getId();
+      case UPDATE_INITIATIVE_MSG:
+        return message.getUpdateInitiativeMsg().getList().getZoneId();
+      default:
+        break;
+    }
+
+    // Most messages name the zone they change in a zone_guid field.
+    var field = Message.getDescriptor().findFieldByNumber(message.getMessageTypeCase().getNumber());
+    var body = (com.google.protobuf.Message) message.getField(field);
+    var zoneField = body.getDescriptorForType().findFieldByName("zone_guid");
+    return zoneField == null ? null : (String) body.getField(zoneField);
+  }
+
+  /**
+   * Returns the id of the token that a message changes.
+   *
+   * @param message the message.
+   * @return the id of the token, or null if the message doesn't change just a single token.
+   */
+  private static String tokenOf(Message message) {
+    return switch (message.getMessageTypeCase()) {
+      case PUT_TOKEN_MSG -> message.getPutTokenMsg().getToken().getId();
+      case EDIT_TOKEN_MSG -> message.getEditTokenMsg().getToken().getId();
+      case REMOVE_TOKEN_MSG -> message.getRemoveTokenMsg().getTokenGuid();
+      case SET_TOKEN_LOCATION_MSG -> message.getSetTokenLocationMsg().getTokenGuid();
+      case UPDATE_TOKEN_PROPERTY_MSG -> message.getUpdateTokenPropertyMsg().getTokenGuid();
+      default -> null;
+    };
+  }
+
+  /**
+   * Writes a message length delimited.
+   *
+   * @param message the message.
+   * @param out the stream to write to.
+   * @return the number of bytes written.
+   * @throws IOException if the message can not be written.
+   */
+  private static int write(Message message, OutputStream out) throws IOException {
+    int length = message.getSerializedSize();
+    message.writeDelimitedTo(out);
+    return CodedOutputStream.computeUInt32SizeNoTag(length) + length;
+  }
+
+  /**
+   * Moves the contents of a part of the journal to the end of another.
+   *
+   * @param part the part to move, which may not exist.
+   * @param target the file to append it to.
+   * @throws IOException if the part can not be moved.
+   */
+  private static void appendTo(File part, File target) throws IOException {
+    if (!part.exists()) {
+      return;
+    }
+    if (target.exists()) {
+      Files.write(target.toPath(), Files.readAllBytes(part.toPath()), StandardOpenOption.APPEND);
+      Files.delete(part.toPath());
+    } else {
+      Files.move(part.toPath(), target.toPath());
+    }
+  }
+
+  private void closeQuietly() {
+    if (out != null) {
+      try {
+        out.close();
+      } catch (IOException e) {
+        log.warn("Unable to close autosave journal", e);
+      }
+    }
+    out = null;
+    fileOut = null;
+  }
+}
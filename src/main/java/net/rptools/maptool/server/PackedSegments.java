@@ -0,0 +1,126 @@
+/*
+ * This software Copyright by the RPTools.net development team, and
+ * licensed under the Affero GPL Version 3 or, at your option, any later
+ * version.
+ *
+ * MapTool Source Code is distributed in the hope that it will be
+ * useful, but WITHOUT ANY WARRANTY; without even the implied warranty
+ * of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ *
+ * You should have received a copy of the GNU Affero General Public
+ * License * along with this source Code.  If not, please visit
+ * <http://www.gnu.org/licenses/> and specifically the Affero license
+ * text at <http://www.gnu.org/licenses/agpl.html>.
+ */
+package net.rptools.maptool.server;
+
+import com.google.protobuf.ByteString;
+import com.google.protobuf.CodedInputStream;
+import com.google.protobuf.CodedOutputStream;
+import java.awt.geom.Path2D;
+import java.awt.geom.PathIterator;
+import java.io.IOException;
+
+/**
+ * Packs the segments of a path into the {@code packed_segments} field of an {@code AreaDto}.
+ *
+ * <p>Each segment is written as its {@link PathIterator} type in a single byte, followed by the
+ * points of the segment. Coordinates are rounded to a fixed point value with {@link #SCALE} steps
+ * per unit, and each is written as a zig-zag varint of the difference from the same coordinate of
+ * the point before it. Topology and fog areas are mostly made of short edges on or near the grid,
+ * so most coordinates take one or two bytes instead of the eight of a double and the tags of the
+ * message that holds it. Both directions go straight between the path and the bytes, without
+ * creating a message per segment.
+ */
+final class PackedSegments {
+
+  /** The number of fixed point steps in one unit of a coordinate. */
+  static final double SCALE = 1024;
+
+  private PackedSegments() {}
+
+  /**
+   * Packs the segments of a path.
+   *
+   * @param it the iterator over the segments of the path.
+   * @return the packed segments.
+   */
+  static ByteString pack(PathIterator it) {
+    var out = ByteString.newOutput();
+    var coded = CodedOutputStream.newInstance(out);
+    float[] coords = new float[6];
+    long lastX = 0;
+    long lastY = 0;
+    try {
+      for (; !it.isDone(); it.next()) {
+        int type = it.currentSegment(coords);
+        coded.writeRawByte(type);
+        for (int i = 0; i < pointCount(type) * 2; i += 2) {
+          long x = Math.round(coords[i] * SCALE);
+          long y = Math.round(coords[i + 1] * SCALE);
+          coded.writeSInt64NoTag(x - lastX);
+          coded.writeSInt64NoTag(y - lastY);
+          lastX = x;
+          lastY = y;
+        }
+      }
+      coded.flush();
+    } catch (IOException e) {
+      // Can't happen, the stream writes to memory.
+      throw new IllegalStateException(e);
+    }
+    return out.toByteString();
+  }
+
+  /**
+   * Unpacks segments packed by {@link #pack(PathIterator)}, appending them to a path.
+   *
+   * @param packed the packed segments.
+   * @param path the path to add the segments to.
+   * @throws IllegalArgumentException if the segments are malformed.
+   */
+  static void unpack(ByteString packed, Path2D path) {
+    CodedInputStream in = packed.newCodedInput();
+    double[] coords = new double[6];
+    long x = 0;
+    long y = 0;
+    try {
+      while (!in.isAtEnd()) {
+        int type = in.readRawByte();
+        for (int i = 0; i < pointCount(type) * 2; i += 2) {
+          x += in.readSInt64();
+          y += in.readSInt64();
+          coords[i] = x / SCALE;
+          coords[i + 1] = y / SCALE;
+        }
+        switch (type) {
+          case PathIterator.SEG_MOVETO -> path.moveTo(coords[0], coords[1]);
+          case PathIterator.SEG_LINETO -> path.lineTo(coords[0], coords[1]);
+          case PathIterator.SEG_QUADTO -> path.quadTo(coords[0], coords[1], coords[2], coords[3]);
+          case PathIterator.SEG_CUBICTO ->
+              path.curveTo(coords[0], coords[1], coords[2], coords[3], coords[4], coords[5]);
+          default -> path.closePath();
+        }
+      }
+    } catch (IOException e) {
+      throw new IllegalArgumentException("Malformed packed segments", e);
+    }
+  }
+
+  /**
+   * Returns the number of points in a segment.
+   *
+   * @param type the {@link PathIterator} type of the segment.
+   * @return the number of points.
+   * @throws IllegalArgumentException if the type is not a segment type.
+   */
+  private static int pointCount(int type) {
+    return switch (type) {
+      case PathIterator.SEG_MOVETO, PathIterator.SEG_LINETO -> 1;
+      case PathIterator.SEG_QUADTO -> 2;
+      case PathIterator.SEG_CUBICTO -> 3;
+      case PathIterator.SEG_CLOSE -> 0;
+      default -> throw new IllegalArgumentException("Unknown segment type " + type);
+    };
+  }
+}
@@ -228,4 +228,13 @@ void updateTokenProperty(
   void updateTokenProperty(Token token, Token.Update update, String value1, boolean value2);
 
   void updateTokenProperty(Token token, Token.Update update, String value, BigDecimal value2);
+
+  /**
+   * Starts batching token property updates made on the current thread. Calls may be nested, the
+   * updates are sent when the outermost batch is ended.
+   */
+  void beginTokenUpdateBatch();
+
+  /** Ends a batch started with {@link #beginTokenUpdateBatch()}. */
+  void endTokenUpdateBatch();
 }
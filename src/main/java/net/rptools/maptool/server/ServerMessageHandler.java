@@ -50,6 +50,33 @@
  * @author drice *
  */
 public class ServerMessageHandler implements MessageHandler {
+  /**
+   * The messages that are sent back to every client, including the one that sent them. Keep this
+   * in step with the messages passed to sendToAllClients by {@link #handleMessage}.
+   */
+  public static final Set<Message.MessageTypeCase> SENT_BACK_TYPES =
+      Collections.unmodifiableSet(
+          EnumSet.of(
+              Message.MessageTypeCase.CHANGE_ZONE_DISPLAY_NAME_MSG,
+              Message.MessageTypeCase.CLEAR_ALL_DRAWINGS_MSG,
+              Message.MessageTypeCase.DRAW_MSG,
+              Message.MessageTypeCase.EXPOSE_PC_AREA_MSG,
+              Message.MessageTypeCase.HIDE_FOW_MSG,
+              Message.MessageTypeCase.HIDE_POINTER_MSG,
+              Message.MessageTypeCase.MOVE_POINTER_MSG,
+              Message.MessageTypeCase.SHOW_POINTER_MSG,
+              Message.MessageTypeCase.REMOVE_LABEL_MSG,
+              Message.MessageTypeCase.RENAME_ZONE_MSG,
+              Message.MessageTypeCase.SET_FOW_MSG,
+              Message.MessageTypeCase.SET_VISION_TYPE_MSG,
+              Message.MessageTypeCase.SET_ZONE_GRID_SIZE_MSG,
+              Message.MessageTypeCase.SET_ZONE_HAS_FOW_MSG,
+              Message.MessageTypeCase.UPDATE_DRAWING_MSG,
+              Message.MessageTypeCase.SET_ZONE_VISIBILITY_MSG,
+              Message.MessageTypeCase.UNDO_DRAW_MSG,
+              Message.MessageTypeCase.UPDATE_INITIATIVE_MSG,
+              Message.MessageTypeCase.UPDATE_TOKEN_INITIATIVE_MSG));
+
   private final MapToolServer server;
   private final Object MUTEX = new Object();
   private static final Logger log = Logger.getLogger(ServerMessageHandler.class);
@@ -213,6 +240,10 @@ public void handleMessage(String id, byte[] message) {
           handle(msg.getUpdateTokenPropertyMsg());
           sendToClients(id, msg);
         }
+        case BATCH_TOKEN_UPDATE_MSG -> {
+          handle(msg.getBatchTokenUpdateMsg());
+          sendToClients(id, msg);
+        }
         case SET_ZONE_VISIBILITY_MSG -> {
           handle(msg.getSetZoneVisibilityMsg());
           sendToAllClients(msg);
@@ -354,6 +385,17 @@ private void handle(UpdateTokenPropertyMsg msg) {
         msg.getValuesList()); // update server version of token
   }
 
+  private void handle(BatchTokenUpdateMsg msg) {
+    for (var update : msg.getUpdatesList()) {
+      Zone zone = server.getCampaign().getZone(GUID.valueOf(update.getZoneGuid()));
+      Token token = zone == null ? null : zone.getToken(GUID.valueOf(update.getTokenGuid()));
+      if (token != null) {
+        token.updateProperty(
+            zone, Token.Update.valueOf(update.getProperty().name()), update.getValuesList());
+      }
+    }
+  }
+
   private void handle(UpdateDrawingMsg msg) {
     Zone zone = server.getCampaign().getZone(GUID.valueOf(msg.getZoneGuid()));
     zone.updateDrawable(DrawnElement.fromDto(msg.getDrawing()), Pen.fromDto(msg.getPen()));
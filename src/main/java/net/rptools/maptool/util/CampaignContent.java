@@ -0,0 +1,141 @@
+/*
+ * This software Copyright by the RPTools.net development team, and
+ * licensed under the Affero GPL Version 3 or, at your option, any later
+ * version.
+ *
+ * MapTool Source Code is distributed in the hope that it will be
+ * useful, but WITHOUT ANY WARRANTY; without even the implied warranty
+ * of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ *
+ * You should have received a copy of the GNU Affero General Public
+ * License * along with this source Code.  If not, please visit
+ * <http://www.gnu.org/licenses/> and specifically the Affero license
+ * text at <http://www.gnu.org/licenses/agpl.html>.
+ */
+package net.rptools.maptool.util;
+
+import com.google.protobuf.CodedInputStream;
+import com.google.protobuf.InvalidProtocolBufferException;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.List;
+import net.rptools.lib.MD5Key;
+import net.rptools.lib.io.PackedFile;
+import net.rptools.maptool.model.Campaign;
+import net.rptools.maptool.model.GUID;
+import net.rptools.maptool.model.Zone;
+import net.rptools.maptool.server.proto.CampaignContentDto;
+import net.rptools.maptool.server.proto.ZoneDto;
+import net.rptools.maptool.util.PersistenceUtil.PersistedCampaign;
+
+/**
+ * Reads and writes the {@code content.pb} entry of a campaign file, the protobuf alternative to the
+ * {@code content.xml} entry written by XStream.
+ *
+ * <p>The entry starts with a length delimited {@link CampaignContentDto} that holds the campaign
+ * without its zones, followed by a length delimited {@link ZoneDto} for each zone. The campaign is
+ * never held as one message, and the zones are decoded in parallel when the campaign is read.
+ */
+final class CampaignContent {
+
+  /** The name of the entry in the campaign file. */
+  static final String CONTENT_FILE = "content.pb";
+
+  private CampaignContent() {}
+
+  /**
+   * Writes the campaign to the packed file.
+   *
+   * @param pakFile the packed file to write to.
+   * @param persistedCampaign the campaign to write.
+   * @throws IOException if the entry can't be written.
+   */
+  static void write(PackedFile pakFile, PersistedCampaign persistedCampaign) throws IOException {
+    Campaign campaign = persistedCampaign.campaign;
+    List<Zone> zones = campaign.getZones();
+
+    var header =
+        CampaignContentDto.newBuilder()
+            .setCampaign(campaign.toDto(List.of()))
+            .setZoneCount(zones.size());
+    if (persistedCampaign.currentZoneId != null) {
+      header.setCurrentZoneId(persistedCampaign.currentZoneId.toString());
+    }
+
+    try (OutputStream out = new BufferedOutputStream(pakFile.getOutputStream(CONTENT_FILE))) {
+      header.build().writeDelimitedTo(out);
+      for (Zone zone : zones) {
+        zone.toDto().writeDelimitedTo(out);
+      }
+    }
+  }
+
+  /**
+   * Reads the campaign from the packed file.
+   *
+   * @param pakFile the packed file to read from.
+   * @return the campaign.
+   * @throws IOException if the entry can't be read or is malformed.
+   */
+  static PersistedCampaign read(PackedFile pakFile) throws IOException {
+    CampaignContentDto header;
+    List<byte[]> zoneData = new ArrayList<>();
+    try (InputStream in = new BufferedInputStream(pakFile.getFileAsInputStream(CONTENT_FILE))) {
+      header = CampaignContentDto.parseDelimitedFrom(in);
+      if (header == null) {
+        throw new EOFException(CONTENT_FILE);
+      }
+      for (int i = 0; i < header.getZoneCount(); i++) {
+        zoneData.add(readDelimited(in));
+      }
+    }
+
+    List<Zone> zones;
+    try {
+      zones = zoneData.parallelStream().map(CampaignContent::parseZone).toList();
+    } catch (UncheckedIOException e) {
+      throw e.getCause();
+    }
+
+    var persistedCampaign = new PersistedCampaign();
+    persistedCampaign.campaign = Campaign.fromDto(header.getCampaign());
+    for (Zone zone : zones) {
+      persistedCampaign.campaign.putZone(zone);
+    }
+    if (!header.getCurrentZoneId().isEmpty()) {
+      persistedCampaign.currentZoneId = GUID.valueOf(header.getCurrentZoneId());
+    }
+    for (MD5Key key : persistedCampaign.campaign.getAllAssetIds()) {
+      // Placeholders, the same as in content.xml
+      persistedCampaign.assetMap.put(key, null);
+    }
+    return persistedCampaign;
+  }
+
+  private static byte[] readDelimited(InputStream in) throws IOException {
+    int first = in.read();
+    if (first == -1) {
+      throw new EOFException(CONTENT_FILE);
+    }
+    int size = CodedInputStream.readRawVarint32(first, in);
+    byte[] data = in.readNBytes(size);
+    if (data.length != size) {
+      throw new EOFException(CONTENT_FILE);
+    }
+    return data;
+  }
+
+  private static Zone parseZone(byte[] data) {
+    try {
+      return Zone.fromDto(ZoneDto.parseFrom(data));
+    } catch (InvalidProtocolBufferException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+}
@@ -14,45 +14,68 @@
  */
 package net.rptools.maptool.util;
 
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
 import java.awt.image.BufferedImage;
 import java.awt.image.ImageObserver;
 import java.io.IOException;
 import java.net.URL;
 import java.util.*;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.CountDownLatch;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
+import java.util.concurrent.PriorityBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Predicate;
 import net.rptools.lib.MD5Key;
 import net.rptools.lib.image.ImageUtil;
+import net.rptools.maptool.client.AppPreferences;
 import net.rptools.maptool.model.Asset;
 import net.rptools.maptool.model.AssetAvailableListener;
 import net.rptools.maptool.model.AssetManager;
-import org.apache.commons.collections4.map.AbstractReferenceMap;
-import org.apache.commons.collections4.map.ReferenceMap;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
 /**
  * The ImageManager class keeps a cache of loaded images. This class can be used to load the raw
  * image data from an asset. The loading of the raw image data into a usable class is done in the
- * background by one of two threads. The ImageManager will return a "?" (UNKNOWN_IMAGE) if the asset
- * is still downloading or the asset image is still being loaded, and a "X" (BROKEN_IMAGE) if the
- * asset or image is invalid. Small images are loaded using a different thread pool from large
- * images, and allows small images to load quicker.
+ * background by a pool of threads, one per processor. The ImageManager will return a "?"
+ * (UNKNOWN_IMAGE) if the asset is still downloading or the asset image is still being loaded, and a
+ * "X" (BROKEN_IMAGE) if the asset or image is invalid. Smaller images are decoded before larger
+ * ones, which allows small images to load quicker.
+ *
+ * <p>Decoded images are kept in a cache limited to {@link AppPreferences#getImageCacheSize()}
+ * megabytes, with each image weighed at 4 bytes per pixel. The least recently used images are
+ * evicted when it is full, and loaded again the next time they are asked for.
  *
  * @author RPTools Team.
  */
 public class ImageManager {
   private static final Logger log = LogManager.getLogger(ImageManager.class);
 
+  /** The maximum size of the image cache, in bytes. */
+  private static final long maxCacheBytes = AppPreferences.getImageCacheSize() * 1024L * 1024L;
+
   /** Cache of images loaded for assets. */
-  private static final Map<MD5Key, BufferedImage> imageMap = new HashMap<MD5Key, BufferedImage>();
+  private static final Cache<MD5Key, BufferedImage> imageCache =
+      CacheBuilder.newBuilder()
+          .maximumWeight(maxCacheBytes)
+          .<MD5Key, BufferedImage>weigher((key, image) -> weigh(image))
+          .recordStats()
+          .build();
+
+  /** Listeners told which images were flushed, so caches built from the images can follow. */
+  private static final List<FlushListener> flushListeners = new CopyOnWriteArrayList<>();
+
+  /** The images currently being loaded. Used instead of a lock so loads don't block each other. */
+  private static final Map<MD5Key, Boolean> loadingImages = new ConcurrentHashMap<>();
 
-  /** Additional Soft-reference Cache of images that allows best . */
-  private static final Map<MD5Key, BufferedImage> backupImageMap =
-      new ReferenceMap(
-          AbstractReferenceMap.ReferenceStrength.HARD, AbstractReferenceMap.ReferenceStrength.SOFT);
+  /** The number of images decoded, and the time spent decoding them. */
+  private static final LongAdder decodeCount = new LongAdder();
+
+  private static final LongAdder decodeNanos = new LongAdder();
 
   /**
    * The unknown image, a "?" is used for all situations where the image will eventually appear e.g.
@@ -68,18 +91,23 @@ public class ImageManager {
 
   public static BufferedImage BROKEN_IMAGE;
 
-  /** Small and large thread pools for background processing of asset raw image data. */
-  private static ExecutorService smallImageLoader = Executors.newFixedThreadPool(1);
-
-  private static ExecutorService largeImageLoader = Executors.newFixedThreadPool(1);
-
-  private static final Object imageLoaderMutex = new Object();
+  /**
+   * Thread pool for background processing of asset raw image data. Queued images are decoded
+   * smallest first.
+   */
+  private static final ThreadPoolExecutor imageLoader =
+      new ThreadPoolExecutor(
+          Runtime.getRuntime().availableProcessors(),
+          Runtime.getRuntime().availableProcessors(),
+          0L,
+          TimeUnit.MILLISECONDS,
+          new PriorityBlockingQueue<>());
 
   /**
    * A Map containing sets of observers for each asset id. Observers are notified when the image is
    * done loading.
    */
-  private static Map<MD5Key, Set<ImageObserver>> imageObserverMap =
+  private static final Map<MD5Key, Set<ImageObserver>> imageObserverMap =
       new ConcurrentHashMap<MD5Key, Set<ImageObserver>>();
 
   static {
@@ -104,7 +132,78 @@ public class ImageManager {
    * loading.
    */
   public static void flush() {
-    imageMap.clear();
+    imageCache.invalidateAll();
+    fireFlushed(id -> true);
+  }
+
+  /** Listener for images being flushed from the cache. */
+  public interface FlushListener {
+    /**
+     * Called after images have been flushed from the cache.
+     *
+     * @param flushed tests if the image of an asset was flushed.
+     */
+    void imagesFlushed(Predicate<MD5Key> flushed);
+  }
+
+  /**
+   * Adds a listener that is told whenever images are flushed from the cache.
+   *
+   * @param listener the listener to add.
+   */
+  public static void addFlushListener(FlushListener listener) {
+    flushListeners.add(listener);
+  }
+
+  private static void fireFlushed(Predicate<MD5Key> flushed) {
+    for (FlushListener listener : flushListeners) {
+      listener.imagesFlushed(flushed);
+    }
+  }
+
+  /**
+   * Returns statistics about the image cache.
+   *
+   * @return the statistics.
+   */
+  public static CacheStatistics getCacheStatistics() {
+    long bytes = 0;
+    for (BufferedImage image : imageCache.asMap().values()) {
+      bytes += weigh(image);
+    }
+    var stats = imageCache.stats();
+    return new CacheStatistics(
+        imageCache.size(),
+        bytes,
+        maxCacheBytes,
+        stats.hitRate(),
+        stats.evictionCount(),
+        decodeCount.sum(),
+        decodeNanos.sum());
+  }
+
+  /**
+   * Statistics about the image cache.
+   *
+   * @param imageCount the number of images in the cache.
+   * @param bytes the memory used by the images in the cache, in bytes.
+   * @param maxBytes the maximum memory the cache may use, in bytes.
+   * @param hitRate the fraction of requests for an image that were already in the cache.
+   * @param evictionCount the number of images evicted to keep the cache within its size.
+   * @param decodeCount the number of images decoded.
+   * @param decodeNanos the total time spent decoding images, in nanoseconds.
+   */
+  public record CacheStatistics(
+      long imageCount,
+      long bytes,
+      long maxBytes,
+      double hitRate,
+      long evictionCount,
+      long decodeCount,
+      long decodeNanos) {}
+
+  private static int weigh(BufferedImage image) {
+    return (int) Math.min(Integer.MAX_VALUE, (long) image.getWidth() * image.getHeight() * 4);
   }
 
   /**
@@ -124,13 +223,8 @@ public static BufferedImage getImageAndWait(MD5Key assetId) {
    * @param exceptionSet a set of images not to be flushed
    */
   public static void flush(Set<MD5Key> exceptionSet) {
-    synchronized (imageLoaderMutex) {
-      for (MD5Key id : new HashSet<MD5Key>(imageMap.keySet())) {
-        if (!exceptionSet.contains(id)) {
-          imageMap.remove(id);
-        }
-      }
-    }
+    imageCache.asMap().keySet().removeIf(id -> !exceptionSet.contains(id));
+    fireFlushed(id -> !exceptionSet.contains(id));
   }
 
   /**
@@ -186,7 +280,7 @@ public static BufferedImage getImage(MD5Key assetId, ImageObserver... observers)
    * Return the image corresponding to the assetId.
    *
    * @param assetId Load image data from this asset.
-   * @param hints hints used when loading image data, if it isn't in the imageMap already.
+   * @param hints hints used when loading image data, if it isn't in the cache already.
    * @param observers the observers to be notified when the image loads, if it hasn't already.
    * @return the image, or BROKEN_IMAGE if assetId null, or TRANSFERING_IMAGE if loading.
    */
@@ -195,30 +289,29 @@ public static BufferedImage getImage(
     if (assetId == null) {
       return BROKEN_IMAGE;
     }
-    synchronized (imageLoaderMutex) {
-      BufferedImage image = imageMap.get(assetId);
-      if (image != null && image != TRANSFERING_IMAGE) {
-        return image;
-      }
-
-      // check if the soft reference still resolves image
-      image = backupImageMap.get(assetId);
-      if (image != null) {
-        imageMap.put(assetId, image);
-        return image;
-      }
+    BufferedImage image = imageCache.getIfPresent(assetId);
+    if (image != null) {
+      return image;
+    }
 
-      // Make note that we're currently processing it
-      imageMap.put(assetId, TRANSFERING_IMAGE);
+    // Make sure we are informed when it's done loading
+    addObservers(assetId, observers);
 
-      // Make sure we are informed when it's done loading
-      addObservers(assetId, observers);
+    // The image may have finished loading since it was looked for, in which case the observers
+    // would never be notified.
+    image = imageCache.asMap().get(assetId);
+    if (image != null) {
+      removeObservers(assetId, observers);
+      return image;
+    }
 
+    // Make note that we're currently processing it
+    if (loadingImages.putIfAbsent(assetId, Boolean.TRUE) == null) {
       // Force a load of the asset, this will trigger a transfer if the
       // asset is not available locally
       AssetManager.getAssetAsynchronously(assetId, new AssetListener(assetId, hints));
-      return TRANSFERING_IMAGE;
     }
+    return TRANSFERING_IMAGE;
   }
 
   /**
@@ -355,7 +448,8 @@ public static void flushImage(Asset asset) {
    */
   public static void flushImage(MD5Key assetId) {
     // LATER: investigate how this effects images that are already in progress
-    imageMap.remove(assetId);
+    imageCache.invalidate(assetId);
+    fireFlushed(assetId::equals);
   }
 
   /**
@@ -370,18 +464,32 @@ public static void addObservers(MD5Key assetId, ImageObserver... observers) {
       return;
     }
     Set<ImageObserver> observerSet =
-        imageObserverMap.computeIfAbsent(assetId, k -> new HashSet<ImageObserver>());
+        imageObserverMap.computeIfAbsent(assetId, k -> ConcurrentHashMap.newKeySet());
     observerSet.addAll(Arrays.asList(observers));
   }
 
+  private static void removeObservers(MD5Key assetId, ImageObserver... observers) {
+    if (observers == null || observers.length == 0) {
+      return;
+    }
+    imageObserverMap.computeIfPresent(
+        assetId,
+        (k, observerSet) -> {
+          observerSet.removeAll(Arrays.asList(observers));
+          return observerSet.isEmpty() ? null : observerSet;
+        });
+  }
+
   /**
    * Load the asset's raw image data into a BufferedImage.
    *
    * @author RPTools Team.
    */
-  private static class BackgroundImageLoader implements Runnable {
+  private static class BackgroundImageLoader
+      implements Runnable, Comparable<BackgroundImageLoader> {
     private final Asset asset;
     private final Map<String, Object> hints;
+    private final int size;
 
     /**
      * Create a background image loader to load the asset image using the hints provided.
@@ -392,16 +500,24 @@ private static class BackgroundImageLoader implements Runnable {
     public BackgroundImageLoader(Asset asset, Map<String, Object> hints) {
       this.asset = asset;
       this.hints = hints;
+      this.size = asset.getData().length;
+    }
+
+    @Override
+    public int compareTo(BackgroundImageLoader other) {
+      return Integer.compare(size, other.size);
     }
 
     /** Load the asset raw image data and notify observers that the image is loaded. */
     public void run() {
       log.debug("Loading asset: " + asset.getMD5Key());
-      BufferedImage image = imageMap.get(asset.getMD5Key());
+      BufferedImage image = imageCache.getIfPresent(asset.getMD5Key());
 
-      if (image != null && image != TRANSFERING_IMAGE) {
+      if (image != null) {
         // We've somehow already loaded this image
         log.debug("Image wasn't in transit: " + asset.getMD5Key());
+        loadingImages.remove(asset.getMD5Key());
+        notifyObservers(asset, image);
         return;
       }
 
@@ -419,9 +535,12 @@ public void run() {
         try {
           assert asset.getData() != null
               : "asset.getImage() for " + asset.toString() + "returns null?!";
+          long start = System.nanoTime();
           image =
               ImageUtil.createCompatibleImage(
                   ImageUtil.bytesToImage(asset.getData(), asset.getName()), hints);
+          decodeNanos.add(System.nanoTime() - start);
+          decodeCount.increment();
         } catch (Throwable t) {
           if (!AssetManager.BAD_ASSET_LOCATION_KEY.toString().equals(asset.getMD5Key())) {
             // Don't bother logging cache miss of internal bad location asset
@@ -439,12 +558,9 @@ public void run() {
         }
       }
 
-      synchronized (imageLoaderMutex) {
-        // Replace placeholder with actual image
-        imageMap.put(asset.getMD5Key(), image);
-        backupImageMap.put(asset.getMD5Key(), image);
-        notifyObservers(asset, image);
-      }
+      imageCache.put(asset.getMD5Key(), image);
+      loadingImages.remove(asset.getMD5Key());
+      notifyObservers(asset, image);
     }
   }
 
@@ -473,12 +589,7 @@ private static void notifyObservers(Asset asset, BufferedImage image) {
    * @param hints Hints used when loading image data
    */
   private static void backgroundLoadImage(Asset asset, Map<String, Object> hints) {
-    // Use large image loader if the image is larger than 128kb.
-    if (asset.getData().length > 128 * 1024) {
-      largeImageLoader.execute(new BackgroundImageLoader(asset, hints));
-    } else {
-      smallImageLoader.execute(new BackgroundImageLoader(asset, hints));
-    }
+    imageLoader.execute(new BackgroundImageLoader(asset, hints));
   }
 
   private static class AssetListener implements AssetAvailableListener {
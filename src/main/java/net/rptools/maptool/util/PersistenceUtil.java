@@ -14,6 +14,8 @@
  */
 package net.rptools.maptool.util;
 
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
 import com.google.protobuf.util.JsonFormat;
 import com.thoughtworks.xstream.converters.ConversionException;
 import java.awt.Dimension;
@@ -35,6 +37,11 @@
 import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
 import javax.imageio.ImageIO;
 import net.rptools.lib.CodeTimer;
 import net.rptools.lib.FileUtil;
@@ -70,6 +77,7 @@
 import net.rptools.maptool.model.library.addon.AddOnLibraryImporter;
 import net.rptools.maptool.model.library.proto.AddOnLibraryListDto;
 import net.rptools.maptool.model.transform.campaign.AssetNameTransform;
+import net.rptools.maptool.model.transform.campaign.BinaryContentTransform;
 import net.rptools.maptool.model.transform.campaign.ExportInfoTransform;
 import net.rptools.maptool.model.transform.campaign.PCVisionTransform;
 import net.rptools.maptool.model.transform.campaign.TokenPropertyMapTransform;
@@ -96,7 +104,7 @@ public class PersistenceUtil {
 
   private static final String GAME_DATA_FILE = GAME_DATA_DIR + "game-data.json";
 
-  private static final String CAMPAIGN_VERSION = "1.11.0";
+  private static final String CAMPAIGN_VERSION = "1.12.0";
 
   // Please add a single note regarding why the campaign version number has been updated:
   // 1.3.70 ownerOnly added to model.Light (not backward compatible)
@@ -109,6 +117,8 @@ public class PersistenceUtil {
   // compatible
   // 1.11.0 Added add-on libraries, if loaded and saved with an older version then add-on
   //        libraries will be removed.
+  // 1.12.0 Campaign content saved as protobuf in content.pb instead of content.xml. Older
+  //        versions can't load the campaign. content.xml is still read for older files.
 
   private static final ModelVersionManager campaignVersionManager = new ModelVersionManager();
   private static final ModelVersionManager assetnameVersionManager = new ModelVersionManager();
@@ -147,6 +157,7 @@ public class PersistenceUtil {
     campaignVersionManager.registerTransformation("1.3.75", new ExportInfoTransform());
     campaignVersionManager.registerTransformation(
         "1.3.78", new TokenPropertyMapTransform()); // FJE 2010-12-29
+    campaignVersionManager.registerTransformation("1.12.0", new BinaryContentTransform());
 
     // For a short time, assets were stored separately in files ending with ".dat". As of 1.3.64,
     // they are
@@ -179,6 +190,79 @@ public static class PersistedCampaign {
     public String mapToolVersion;
   }
 
+  /**
+   * Reads the campaign content from a campaign file. The binary content is used if the file has it
+   * and it was written by a version that needs no transformations, otherwise the XML content is
+   * read and transformed. Files from before binary content was added always need the {@link
+   * BinaryContentTransform}.
+   *
+   * @param pakFile the campaign file.
+   * @param campaignVersion the version of the campaign in the file.
+   * @return the campaign content.
+   * @throws IOException if the content can't be read.
+   */
+  private static PersistedCampaign readCampaignContent(PackedFile pakFile, String campaignVersion)
+      throws IOException {
+    if (pakFile.hasFile(CampaignContent.CONTENT_FILE)
+        && !campaignVersionManager.isTransformationRequired(campaignVersion)) {
+      try {
+        return CampaignContent.read(pakFile);
+      } catch (IOException | RuntimeException e) {
+        if (!pakFile.hasFile("content.xml")) {
+          throw e;
+        }
+        log.error("Unable to read binary campaign content, reading XML instead", e);
+      }
+    }
+    return (PersistedCampaign) pakFile.getContent(campaignVersion);
+  }
+
+  /**
+   * Optimizes the zones of a loaded campaign in parallel, as they don't depend on each other. The
+   * current zone is optimized on the calling thread so that it isn't queued behind the others. The
+   * other zones are optimized on a pool of their own rather than the common pool, which other work
+   * may be waiting on.
+   *
+   * @param persistedCampaign the loaded campaign.
+   * @param progress receives a status message as each zone is done. It is called from the threads
+   *     optimizing the zones.
+   */
+  private static void optimizeZones(
+      PersistedCampaign persistedCampaign, Consumer<String> progress) {
+    List<Zone> zones = persistedCampaign.campaign.getZones();
+    ExecutorService pool =
+        Executors.newFixedThreadPool(
+            Math.max(1, Math.min(zones.size() - 1, Runtime.getRuntime().availableProcessors())),
+            new ThreadFactoryBuilder().setNameFormat("zone-optimizer-%d").setDaemon(true).build());
+    try {
+      Zone current = null;
+      List<Future<?>> tasks = new ArrayList<>();
+      AtomicInteger done = new AtomicInteger();
+      for (Zone zone : zones) {
+        if (current == null && zone.getId().equals(persistedCampaign.currentZoneId)) {
+          current = zone;
+          continue;
+        }
+        tasks.add(pool.submit(() -> optimizeZone(zone, zones.size(), done, progress)));
+      }
+      if (current != null) {
+        optimizeZone(current, zones.size(), done, progress);
+      }
+      for (Future<?> task : tasks) {
+        Futures.getUnchecked(task);
+      }
+    } finally {
+      pool.shutdown();
+    }
+  }
+
+  private static void optimizeZone(
+      Zone zone, int zoneCount, AtomicInteger done, Consumer<String> progress) {
+    zone.optimize();
+    progress.accept(
+        I18N.getText("PersistenceUtil.status.mapsLoaded", done.incrementAndGet(), zoneCount));
+  }
+
   public static void saveMap(Zone z, File mapFile) throws IOException {
     PersistedMap pMap = new PersistedMap();
     pMap.zone = z;
@@ -328,7 +412,13 @@ public static void saveCampaign(Campaign campaign, File campaignFile, String cam
         if (campaignVersion != null) {
           pakFile = CampaignExport.stripContent(pakFile, persistedCampaign, campaignVersion);
         } else {
-          pakFile.setContent(persistedCampaign);
+          try {
+            CampaignContent.write(pakFile, persistedCampaign);
+          } catch (IOException | RuntimeException e) {
+            log.error("Unable to write binary campaign content, writing XML instead", e);
+            pakFile.removeFile(CampaignContent.CONTENT_FILE);
+            pakFile.setContent(persistedCampaign);
+          }
           pakFile.setProperty(PROP_CAMPAIGN_VERSION, CAMPAIGN_VERSION);
           pakFile.setProperty(PROP_VERSION, MapTool.getVersion());
         }
@@ -436,6 +526,19 @@ public static File getCampaignThumbnailFile(String fileName) {
   }
 
   public static PersistedCampaign loadCampaign(File campaignFile) throws IOException {
+    return loadCampaign(campaignFile, message -> {});
+  }
+
+  /**
+   * Loads a campaign from a file.
+   *
+   * @param campaignFile the campaign file.
+   * @param progress receives a status message as each map of the campaign is ready.
+   * @return the campaign, or null if it couldn't be loaded.
+   * @throws IOException if the file can't be read.
+   */
+  public static PersistedCampaign loadCampaign(File campaignFile, Consumer<String> progress)
+      throws IOException {
     PersistedCampaign persistedCampaign = null;
 
     // Try the new way first
@@ -453,7 +556,7 @@ public static PersistedCampaign loadCampaign(File campaignFile) throws IOExcepti
       campaignVersion = campaignVersion == null ? "1.3.50" : campaignVersion;
 
       try {
-        persistedCampaign = (PersistedCampaign) pakFile.getContent(campaignVersion);
+        persistedCampaign = readCampaignContent(pakFile, campaignVersion);
       } catch (ConversionException ce) {
         // Ignore the exception and check for "campaign == null" below...
         MapTool.showError("PersistenceUtil.error.campaignVersion", ce);
@@ -463,9 +566,7 @@ public static PersistedCampaign loadCampaign(File campaignFile) throws IOExcepti
         // Note that the values are all placeholders
         Set<MD5Key> allAssetIds = persistedCampaign.assetMap.keySet();
         loadAssets(allAssetIds, pakFile);
-        for (Zone zone : persistedCampaign.campaign.getZones()) {
-          zone.optimize();
-        }
+        optimizeZones(persistedCampaign, progress);
 
         new CampaignManager().clearCampaignData();
         loadGameData(pakFile);
@@ -78,10 +78,11 @@ void addClient(MTWebSocket wcs) {
    */
   void removeClient(MTWebSocket wcs) {
     clientSockets.remove(wcs);
+    WebEventBus.getInstance().removeClient(wcs);
   }
 
   /**
-   * Send the initiative information to the specified client.
+   * Subscribe the specified client to the initiative information.
    *
    * @param wcs the web socket of the client.
    */
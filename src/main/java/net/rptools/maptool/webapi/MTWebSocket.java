@@ -15,16 +15,38 @@
 package net.rptools.maptool.webapi;
 
 import com.google.gson.JsonObject;
-import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.Deque;
 import net.rptools.maptool.client.functions.json.JSONMacroFunctions;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
 import org.eclipse.jetty.websocket.api.Session;
+import org.eclipse.jetty.websocket.api.StatusCode;
 import org.eclipse.jetty.websocket.api.WebSocketAdapter;
+import org.eclipse.jetty.websocket.api.WriteCallback;
 
 public class MTWebSocket extends WebSocketAdapter {
 
+  private static final Logger log = LogManager.getLogger(MTWebSocket.class);
+
+  /**
+   * The most messages waiting to be sent before the droppable ones are discarded. A client that
+   * still has this many messages waiting after that is disconnected.
+   */
+  private static final int MAX_QUEUED_MESSAGES = 64;
+
+  /** A message waiting to be sent. */
+  private record Outgoing(String text, boolean droppable) {}
+
   /** The Session of this socket. */
   private Session session;
 
+  /** The messages waiting to be sent, in order. */
+  private final Deque<Outgoing> queue = new ArrayDeque<>();
+
+  /** If a message is being written, the next is sent when it completes. */
+  private boolean sending;
+
   @Override
   /**
    * Adds the session to the chatroom participants list, and sends back to the user the last three
@@ -61,6 +83,12 @@ public void onWebSocketText(String message) {
         WebTokenInfo.getInstance().processMacro(data);
       } else if ("setProperties".equals(messageType)) {
         WebTokenInfo.getInstance().processSetProperties(data);
+      } else if ("subscribe".equals(messageType)) {
+        WebEventBus.getInstance().subscribe(this, data.get("topic").getAsString());
+      } else if ("unsubscribe".equals(messageType)) {
+        WebEventBus.getInstance().unsubscribe(this, data.get("topic").getAsString());
+      } else if ("resync".equals(messageType)) {
+        WebEventBus.getInstance().resync(this, data.get("topic").getAsString());
       }
     } catch (Exception e) {
       e.printStackTrace(); // FIXME: fix this to deal with error properly.
@@ -100,16 +128,76 @@ void sendMessage(String messageType, String inResponseTo, JsonObject data) {
     if (inResponseTo != null) {
       message.addProperty("inResponseTo", inResponseTo);
     }
+    queueMessage(message.toString(), false);
+  }
 
-    try {
-      session.getRemote().sendString(message.toString());
-      System.out.println("DEBUG: Wrote: " + message.toString());
-    } catch (IOException ioe) {
-      System.out.println("DEBUG: websocket write error.");
-      System.out.println(
-          "DEBUG: number connections = "
-              + MTWebClientManager.getInstance().getClientSessions().size());
+  /**
+   * Queues a message to be sent to the client. Messages are written asynchronously, one at a time,
+   * so that a slow client doesn't hold up the calling thread. If the client falls too far behind,
+   * the droppable messages waiting to be sent are discarded. If that doesn't make enough room, the
+   * client is disconnected rather than letting its queue grow without bound.
+   *
+   * @param message The message, as JSON text.
+   * @param droppable If the message can be discarded, because the client can ask for it again.
+   */
+  void queueMessage(String message, boolean droppable) {
+    boolean overflow;
+    synchronized (queue) {
+      if (queue.size() >= MAX_QUEUED_MESSAGES) {
+        log.debug("Web client is too slow, dropping messages");
+        queue.removeIf(Outgoing::droppable);
+      }
+      overflow = queue.size() >= MAX_QUEUED_MESSAGES;
+      if (overflow) {
+        queue.clear();
+      } else {
+        queue.add(new Outgoing(message, droppable));
+        if (sending) {
+          return;
+        }
+        sending = true;
+      }
+    }
+
+    if (overflow) {
+      log.warn("Disconnecting web client, too many messages are waiting to be sent");
       MTWebClientManager.getInstance().removeClient(this);
+      session.close(StatusCode.POLICY_VIOLATION, "Too many messages waiting to be sent");
+    } else {
+      sendNext();
     }
   }
+
+  /** Writes the next queued message, if there is one. */
+  private void sendNext() {
+    Outgoing next;
+    synchronized (queue) {
+      next = queue.poll();
+      if (next == null) {
+        sending = false;
+        return;
+      }
+    }
+
+    session
+        .getRemote()
+        .sendString(
+            next.text(),
+            new WriteCallback() {
+              @Override
+              public void writeFailed(Throwable x) {
+                log.debug("Web client write failed", x);
+                synchronized (queue) {
+                  queue.clear();
+                  sending = false;
+                }
+                MTWebClientManager.getInstance().removeClient(MTWebSocket.this);
+              }
+
+              @Override
+              public void writeSuccess() {
+                sendNext();
+              }
+            });
+  }
 }
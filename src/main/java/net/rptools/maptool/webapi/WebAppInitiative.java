@@ -135,7 +135,11 @@ private JsonObject getInitiativeDetails() {
   }
 
   void sendInitiative(MTWebSocket mtws) {
-    mtws.sendMessage("initiative", getInitiativeDetails());
+    var eventBus = WebEventBus.getInstance();
+    if (!eventBus.hasState(WebEventBus.INITIATIVE)) {
+      eventBus.publish(WebEventBus.INITIATIVE, getInitiativeDetails());
+    }
+    eventBus.subscribe(mtws, WebEventBus.INITIATIVE);
   }
 
   void sendInitiative(MTWebSocket mtws, String inReponseTo) {
@@ -143,8 +147,7 @@ void sendInitiative(MTWebSocket mtws, String inReponseTo) {
   }
 
   void sendInitiative() {
-    JsonObject init = getInitiativeDetails();
-    MTWebClientManager.getInstance().sendToAllSessions("initiative", init);
+    WebEventBus.getInstance().publish(WebEventBus.INITIATIVE, getInitiativeDetails());
   }
 
   void processInitiativeMessage(JsonObject json) {
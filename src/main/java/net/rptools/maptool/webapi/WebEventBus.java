@@ -0,0 +1,196 @@
+/*
+ * This software Copyright by the RPTools.net development team, and
+ * licensed under the Affero GPL Version 3 or, at your option, any later
+ * version.
+ *
+ * MapTool Source Code is distributed in the hope that it will be
+ * useful, but WITHOUT ANY WARRANTY; without even the implied warranty
+ * of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ *
+ * You should have received a copy of the GNU Affero General Public
+ * License * along with this source Code.  If not, please visit
+ * <http://www.gnu.org/licenses/> and specifically the Affero license
+ * text at <http://www.gnu.org/licenses/agpl.html>.
+ */
+package net.rptools.maptool.webapi;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonObject;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Sends the state of topics, such as the initiative list, to the web clients subscribed to them.
+ *
+ * <p>Each topic has a version that goes up by one each time a changed state is published. A client
+ * that subscribes is sent the whole state, after that it is only sent the top level values that
+ * changed from one version to the next. Deltas may be dropped for clients that can't keep up, so a
+ * client that sees a gap in the versions asks to be sent the whole state again.
+ */
+class WebEventBus {
+
+  /** The topic for the initiative list of the current map. */
+  static final String INITIATIVE = "initiative";
+
+  /** The message type of deltas. */
+  static final String DELTA = "delta";
+
+  private static final WebEventBus instance = new WebEventBus();
+
+  private static class Topic {
+    private final Set<MTWebSocket> subscribers = new HashSet<>();
+    private long version;
+    private JsonObject state;
+  }
+
+  private final Map<String, Topic> topics = new HashMap<>();
+
+  private WebEventBus() {}
+
+  /**
+   * Returns the singleton instance of WebEventBus.
+   *
+   * @return the instance of WebEventBus.
+   */
+  static WebEventBus getInstance() {
+    return instance;
+  }
+
+  /**
+   * Returns if a state has been published for a topic.
+   *
+   * @param topicName the name of the topic.
+   * @return {@code true} if the topic has a state.
+   */
+  synchronized boolean hasState(String topicName) {
+    return getTopic(topicName).state != null;
+  }
+
+  /**
+   * Subscribes a client to a topic and sends it the current state of the topic.
+   *
+   * @param ws the web socket of the client.
+   * @param topicName the name of the topic.
+   */
+  synchronized void subscribe(MTWebSocket ws, String topicName) {
+    Topic topic = getTopic(topicName);
+    topic.subscribers.add(ws);
+    sendState(ws, topicName, topic);
+  }
+
+  /**
+   * Unsubscribes a client from a topic.
+   *
+   * @param ws the web socket of the client.
+   * @param topicName the name of the topic.
+   */
+  synchronized void unsubscribe(MTWebSocket ws, String topicName) {
+    getTopic(topicName).subscribers.remove(ws);
+  }
+
+  /**
+   * Unsubscribes a client from all topics.
+   *
+   * @param ws the web socket of the client.
+   */
+  synchronized void removeClient(MTWebSocket ws) {
+    for (Topic topic : topics.values()) {
+      topic.subscribers.remove(ws);
+    }
+  }
+
+  /**
+   * Sends the current state of a topic to a client that missed some of the deltas.
+   *
+   * @param ws the web socket of the client.
+   * @param topicName the name of the topic.
+   */
+  synchronized void resync(MTWebSocket ws, String topicName) {
+    Topic topic = getTopic(topicName);
+    if (topic.subscribers.contains(ws)) {
+      sendState(ws, topicName, topic);
+    }
+  }
+
+  /**
+   * Publishes a new state for a topic, sending the changes to the subscribers. The state must not
+   * be modified afterwards.
+   *
+   * @param topicName the name of the topic.
+   * @param state the new state.
+   */
+  synchronized void publish(String topicName, JsonObject state) {
+    Topic topic = getTopic(topicName);
+    JsonObject delta = topic.state == null ? null : diff(topic.state, state);
+    if (delta != null
+        && delta.getAsJsonObject("changed").size() == 0
+        && delta.getAsJsonArray("removed").size() == 0) {
+      return;
+    }
+
+    topic.version++;
+    topic.state = state;
+    if (delta == null) {
+      for (MTWebSocket ws : topic.subscribers) {
+        sendState(ws, topicName, topic);
+      }
+      return;
+    }
+
+    delta.addProperty("topic", topicName);
+    delta.addProperty("version", topic.version);
+    JsonObject message = new JsonObject();
+    message.addProperty("messageType", DELTA);
+    message.add("data", delta);
+    String text = message.toString();
+    for (MTWebSocket ws : topic.subscribers) {
+      ws.queueMessage(text, true);
+    }
+  }
+
+  /**
+   * Returns the difference between two states, as the top level values of the new state that are
+   * not in or are different in the old state, and the names of the values that were removed.
+   *
+   * @param from the old state.
+   * @param to the new state.
+   * @return an object with the changed values in {@code changed} and the removed names in {@code
+   *     removed}.
+   */
+  static JsonObject diff(JsonObject from, JsonObject to) {
+    JsonObject changed = new JsonObject();
+    for (var entry : to.entrySet()) {
+      if (!entry.getValue().equals(from.get(entry.getKey()))) {
+        changed.add(entry.getKey(), entry.getValue());
+      }
+    }
+    JsonArray removed = new JsonArray();
+    for (String name : from.keySet()) {
+      if (!to.has(name)) {
+        removed.add(name);
+      }
+    }
+
+    JsonObject delta = new JsonObject();
+    delta.add("changed", changed);
+    delta.add("removed", removed);
+    return delta;
+  }
+
+  private Topic getTopic(String topicName) {
+    return topics.computeIfAbsent(topicName, n -> new Topic());
+  }
+
+  private void sendState(MTWebSocket ws, String topicName, Topic topic) {
+    if (topic.state == null) {
+      return;
+    }
+    JsonObject message = new JsonObject();
+    message.addProperty("messageType", topicName);
+    message.addProperty("version", topic.version);
+    message.add("data", topic.state);
+    ws.queueMessage(message.toString(), false);
+  }
+}
@@ -0,0 +1,89 @@
+const maptool_patch = {
+    // Makes the children of target the same as those of source, changing
+    // only the nodes that differ so that the rest of the page, its scroll
+    // position and the state of its controls are left alone.
+    patchChildren: function(target, source) {
+	let targetChild = target.firstChild;
+	let sourceChild = source.firstChild;
+	while (sourceChild !== null) {
+	    const nextSource = sourceChild.nextSibling;
+	    if (targetChild === null) {
+		target.appendChild(document.adoptNode(sourceChild));
+	    } else if (maptool_patch.sameKind(targetChild, sourceChild)) {
+		maptool_patch.patchNode(targetChild, sourceChild);
+		targetChild = targetChild.nextSibling;
+	    } else {
+		const nextTarget = targetChild.nextSibling;
+		target.replaceChild(document.adoptNode(sourceChild), targetChild);
+		targetChild = nextTarget;
+	    }
+	    sourceChild = nextSource;
+	}
+	while (targetChild !== null) {
+	    const nextTarget = targetChild.nextSibling;
+	    target.removeChild(targetChild);
+	    targetChild = nextTarget;
+	}
+    },
+
+    sameKind: function(target, source) {
+	if (target.nodeType !== source.nodeType || target.nodeName !== source.nodeName) {
+	    return false;
+	}
+	if (target.nodeType !== Node.ELEMENT_NODE) {
+	    return true;
+	}
+	return target.getAttribute('id') === source.getAttribute('id')
+	    && target.getAttribute('type') === source.getAttribute('type');
+    },
+
+    patchNode: function(target, source) {
+	if (target.nodeType !== Node.ELEMENT_NODE) {
+	    if (target.nodeValue !== source.nodeValue) {
+		target.nodeValue = source.nodeValue;
+	    }
+	    return;
+	}
+	const valueChanged = target.getAttribute('value') !== source.getAttribute('value');
+	maptool_patch.patchAttributes(target, source);
+	if (valueChanged && 'value' in target) {
+	    target.value = source.getAttribute('value') || '';
+	}
+	maptool_patch.patchChildren(target, source);
+    },
+
+    patchAttributes: function(target, source) {
+	for (let i = target.attributes.length - 1; i >= 0; i--) {
+	    const name = target.attributes[i].name;
+	    if (!source.hasAttribute(name)) {
+		target.removeAttribute(name);
+	    }
+	}
+	for (let i = 0; i < source.attributes.length; i++) {
+	    const attribute = source.attributes[i];
+	    if (target.getAttribute(attribute.name) !== attribute.value) {
+		target.setAttribute(attribute.name, attribute.value);
+	    }
+	}
+    },
+
+    // Updates the body of the page to the body of the html.
+    patchBody: function(html) {
+	const source = new DOMParser().parseFromString(html, 'text/html');
+	maptool_patch.patchAttributes(document.body, source.body);
+	maptool_patch.patchChildren(document.body, source.body);
+    },
+
+    // Updates the contents of the element with the id to the html. Returns
+    // false if there is no such element.
+    patchElement: function(id, html) {
+	const target = document.getElementById(id);
+	if (target === null) {
+	    return false;
+	}
+	const source = document.createElement('template');
+	source.innerHTML = html;
+	maptool_patch.patchChildren(target, source.content);
+	return true;
+    }
+};
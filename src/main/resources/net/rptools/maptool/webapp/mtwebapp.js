@@ -32,6 +32,8 @@ var __MapTool = new (function __MapToolClient() {
 
     var listeners = {};
 
+    var topics = {};
+
     ////////////////////////////////////////////////////////////////////////////
     //
     // Checks to see if there is a call back registered for the specific message.
@@ -56,6 +58,34 @@ var __MapTool = new (function __MapToolClient() {
         return listeners[messageType];
     }
 
+    ////////////////////////////////////////////////////////////////////////////
+    //
+    // Applies the changes to the state of a topic that MapTool sent. If any
+    // changes were missed the whole state is asked for again. Returns the
+    // message to despatch with the new state, or null if there is nothing to
+    // despatch yet.
+    //
+    ////////////////////////////////////////////////////////////////////////////
+    var applyDelta = function(delta) {
+        var topic = topics[delta.topic];
+        if (!topic || delta.version !== topic.version + 1) {
+            if (topic && !topic.resyncing) {
+                topic.resyncing = true;
+                __MapTool.sendMessage('resync', { topic: delta.topic });
+            }
+            return null;
+        }
+
+        var state = jQuery.extend({}, topic.state, delta.changed);
+        for (var i = 0; i < delta.removed.length; i++) {
+            delete state[delta.removed[i]];
+        }
+        topic.version = delta.version;
+        topic.state = state;
+
+        return { messageType: delta.topic, data: state };
+    }
+
     ////////////////////////////////////////////////////////////////////////////
     //
     // Handle information coming back from the the web socket and despatch it
@@ -69,6 +99,15 @@ var __MapTool = new (function __MapToolClient() {
             return;
         }
 
+        if (msg.messageType === 'delta') {
+            msg = applyDelta(msg.data);
+            if (!msg) {
+                return;
+            }
+        } else if (msg.version !== undefined) {
+            topics[msg.messageType] = { version: msg.version, state: msg.data };
+        }
+
         var callback;
 
         if (msg.inResponseTo && hasCallback(msg.messageType, msg.inResponseTo)) {
@@ -0,0 +1,71 @@
+/*
+ * This software Copyright by the RPTools.net development team, and
+ * licensed under the Affero GPL Version 3 or, at your option, any later
+ * version.
+ *
+ * MapTool Source Code is distributed in the hope that it will be
+ * useful, but WITHOUT ANY WARRANTY; without even the implied warranty
+ * of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ *
+ * You should have received a copy of the GNU Affero General Public
+ * License * along with this source Code.  If not, please visit
+ * <http://www.gnu.org/licenses/> and specifically the Affero license
+ * text at <http://www.gnu.org/licenses/agpl.html>.
+ */
+package net.rptools.lib;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import org.junit.jupiter.api.Test;
+
+class MD5KeyTest {
+
+  private static final byte[] DATA = "The quick brown fox".getBytes(StandardCharsets.UTF_8);
+  private static final String DATA_MD5 = "a2004f37730b9445670a738fa0fc9ee5";
+
+  @Test
+  void keysFromDataAndFromTheirStringAreEqual() throws IOException {
+    var fromBytes = new MD5Key(DATA);
+    var fromStream = new MD5Key(new ByteArrayInputStream(DATA));
+    var fromString = new MD5Key(DATA_MD5);
+
+    assertEquals(DATA_MD5, fromBytes.toString());
+    assertEquals(fromBytes, fromStream);
+    assertEquals(fromBytes, fromString);
+    assertEquals(fromBytes.hashCode(), fromString.hashCode());
+  }
+
+  @Test
+  void idsThatAreNotMd5SumsAreKeptAsIs() {
+    var key = new MD5Key("bad-location");
+    assertEquals("bad-location", key.toString());
+    assertEquals(new MD5Key("bad-location"), key);
+
+    var upperCase = new MD5Key(DATA_MD5.toUpperCase());
+    assertEquals(DATA_MD5.toUpperCase(), upperCase.toString());
+    assertNotEquals(new MD5Key(DATA_MD5), upperCase);
+  }
+
+  @Test
+  void internReturnsOneInstanceForEqualKeys() {
+    var first = new MD5Key(DATA_MD5);
+    var second = new MD5Key(DATA_MD5);
+    assertNotSame(first, second);
+    assertSame(MD5Key.intern(first), MD5Key.intern(second));
+  }
+
+  @Test
+  void xmlFormIsUnchanged() {
+    var xStream = FileUtil.getConfiguredXStream();
+    var xml = xStream.toXML(new MD5Key(DATA_MD5));
+    assertEquals(
+        "<net.rptools.lib.MD5Key>\n  <id>" + DATA_MD5 + "</id>\n</net.rptools.lib.MD5Key>", xml);
+    assertEquals(new MD5Key(DATA_MD5), xStream.fromXML(xml));
+  }
+}
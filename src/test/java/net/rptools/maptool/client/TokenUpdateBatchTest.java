@@ -0,0 +1,90 @@
+/*
+ * This software Copyright by the RPTools.net development team, and
+ * licensed under the Affero GPL Version 3 or, at your option, any later
+ * version.
+ *
+ * MapTool Source Code is distributed in the hope that it will be
+ * useful, but WITHOUT ANY WARRANTY; without even the implied warranty
+ * of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ *
+ * You should have received a copy of the GNU Affero General Public
+ * License * along with this source Code.  If not, please visit
+ * <http://www.gnu.org/licenses/> and specifically the Affero license
+ * text at <http://www.gnu.org/licenses/agpl.html>.
+ */
+package net.rptools.maptool.client;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+import net.rptools.maptool.server.proto.TokenPropertyValueDto;
+import net.rptools.maptool.server.proto.TokenUpdateDto;
+import net.rptools.maptool.server.proto.UpdateTokenPropertyMsg;
+import org.junit.jupiter.api.Test;
+
+public class TokenUpdateBatchTest {
+
+  private static UpdateTokenPropertyMsg update(
+      String token, TokenUpdateDto property, String... values) {
+    var msg =
+        UpdateTokenPropertyMsg.newBuilder()
+            .setZoneGuid("zone")
+            .setTokenGuid(token)
+            .setProperty(property);
+    for (String value : values) {
+      msg.addValues(TokenPropertyValueDto.newBuilder().setStringValue(value));
+    }
+    return msg.build();
+  }
+
+  @Test
+  void nestedScopes() {
+    var batch = new TokenUpdateBatch();
+    assertFalse(batch.isOpen());
+    batch.begin();
+    batch.begin();
+    assertFalse(batch.end());
+    assertTrue(batch.isOpen());
+    assertTrue(batch.end());
+    assertFalse(batch.isOpen());
+  }
+
+  @Test
+  void replacingUpdatesAreMerged() {
+    var batch = new TokenUpdateBatch();
+    batch.add(update("a", TokenUpdateDto.setProperty, "HP", "1"));
+    batch.add(update("a", TokenUpdateDto.setName, "Bob"));
+    batch.add(update("a", TokenUpdateDto.setProperty, "AC", "12"));
+    batch.add(update("b", TokenUpdateDto.setProperty, "HP", "3"));
+    batch.add(update("a", TokenUpdateDto.setProperty, "HP", "2"));
+    batch.add(update("a", TokenUpdateDto.setName, "Fred"));
+
+    assertEquals(
+        List.of(
+            update("a", TokenUpdateDto.setProperty, "AC", "12"),
+            update("b", TokenUpdateDto.setProperty, "HP", "3"),
+            update("a", TokenUpdateDto.setProperty, "HP", "2"),
+            update("a", TokenUpdateDto.setName, "Fred")),
+        batch.drain());
+    assertTrue(batch.isEmpty());
+  }
+
+  @Test
+  void otherUpdatesKeepTheirOrder() {
+    var batch = new TokenUpdateBatch();
+    batch.add(update("a", TokenUpdateDto.setProperty, "HP", "1"));
+    batch.add(update("a", TokenUpdateDto.addOwner, "Bob"));
+    batch.add(update("a", TokenUpdateDto.resetProperty, "HP"));
+    batch.add(update("a", TokenUpdateDto.addOwner, "Bob"));
+
+    assertEquals(
+        List.of(
+            update("a", TokenUpdateDto.setProperty, "HP", "1"),
+            update("a", TokenUpdateDto.addOwner, "Bob"),
+            update("a", TokenUpdateDto.resetProperty, "HP"),
+            update("a", TokenUpdateDto.addOwner, "Bob")),
+        batch.drain());
+  }
+}
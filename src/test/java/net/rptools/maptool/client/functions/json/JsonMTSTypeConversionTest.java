@@ -114,6 +114,43 @@ void asJsonElement() {
     }
   }
 
+  @Test
+  void asJsonElementCached() {
+    JsonObject jsonObject = new JsonObject();
+    for (int i = 0; i < 20; i++) {
+      jsonObject.addProperty("key" + i, "value" + i);
+    }
+    String json = jsonObject.toString();
+
+    JsonElement first = typeConversion.asJsonElement(json);
+    JsonElement second = typeConversion.asJsonElement(new String(json));
+    assertEquals(jsonObject, first);
+    assertEquals(first, second);
+    assertSame(first, second, "The cached parse should be shared by read-only callers");
+    assertEquals(1, typeConversion.getParsedJsonCacheStats().hitCount());
+    assertTrue(typeConversion.getParseNanosAvoided() >= 0);
+    assertEquals(first, typeConversion.asStrictJsonObject(json));
+
+    // Changing a cloned element must not change what later callers get.
+    JsonObject nested = new JsonObject();
+    nested.add("inner", jsonObject.deepCopy());
+    String nestedJson = nested.toString();
+    typeConversion
+        .asClonedJsonElement(typeConversion.asJsonElement(nestedJson))
+        .getAsJsonObject()
+        .getAsJsonObject("inner")
+        .addProperty("key0", "changed");
+    assertEquals(nested, typeConversion.asJsonElement(nestedJson));
+
+    String lenient = "{a:1, b:2, c:3, d:4, e:5, f:6, g:7, h:8, i:9, j:10, k:11, l:12, m:13}";
+    assertTrue(typeConversion.asJsonElement(lenient).isJsonObject());
+    assertNull(typeConversion.asStrictJsonObject(lenient));
+
+    String invalid = "[ this is not valid json, but it is long enough to have its result cached ]]";
+    assertEquals(new JsonPrimitive(invalid), typeConversion.asJsonElement(invalid));
+    assertEquals(new JsonPrimitive(invalid), typeConversion.asJsonElement(invalid));
+  }
+
   @Test
   void asClonedJsonElement() throws ParserException {
     JsonObject jsonObject = new JsonObject();
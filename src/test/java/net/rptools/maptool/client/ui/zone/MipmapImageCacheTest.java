@@ -0,0 +1,90 @@
+/*
+ * This software Copyright by the RPTools.net development team, and
+ * licensed under the Affero GPL Version 3 or, at your option, any later
+ * version.
+ *
+ * MapTool Source Code is distributed in the hope that it will be
+ * useful, but WITHOUT ANY WARRANTY; without even the implied warranty
+ * of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ *
+ * You should have received a copy of the GNU Affero General Public
+ * License * along with this source Code.  If not, please visit
+ * <http://www.gnu.org/licenses/> and specifically the Affero license
+ * text at <http://www.gnu.org/licenses/agpl.html>.
+ */
+package net.rptools.maptool.client.ui.zone;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+import java.awt.geom.AffineTransform;
+import java.awt.image.BufferedImage;
+import net.rptools.lib.MD5Key;
+import org.junit.jupiter.api.Test;
+
+class MipmapImageCacheTest {
+
+  private static final MD5Key KEY = new MD5Key("0123456789abcdef0123456789abcdef");
+
+  @Test
+  void levelIsTheSmallestAtLeastAsLargeAsTheScreen() {
+    var image = new BufferedImage(2048, 2048, BufferedImage.TYPE_INT_ARGB);
+
+    assertEquals(0, MipmapImageCache.levelFor(AffineTransform.getScaleInstance(1, 1), image));
+    assertEquals(0, MipmapImageCache.levelFor(AffineTransform.getScaleInstance(.6, .6), image));
+    assertEquals(1, MipmapImageCache.levelFor(AffineTransform.getScaleInstance(.5, .5), image));
+    // 40 pixels on screen is drawn from the 64 pixel level.
+    assertEquals(
+        5, MipmapImageCache.levelFor(AffineTransform.getScaleInstance(40 / 2048.0, .01), image));
+    // Levels are never smaller than 8 pixels.
+    assertEquals(
+        8, MipmapImageCache.levelFor(AffineTransform.getScaleInstance(.0001, .0001), image));
+  }
+
+  @Test
+  void levelsAreCachedUntilTheSourceChanges() {
+    var cache = new MipmapImageCache(Long.MAX_VALUE);
+    var image = new BufferedImage(64, 32, BufferedImage.TYPE_INT_ARGB);
+
+    assertSame(image, cache.get(KEY, image, 0, 0));
+
+    var flipped = cache.get(KEY, image, MipmapImageCache.FLIP_X, 0);
+    assertNotSame(image, flipped);
+    assertSame(flipped, cache.get(KEY, image, MipmapImageCache.FLIP_X, 0));
+
+    var level = cache.get(KEY, image, 0, 2);
+    assertEquals(16, level.getWidth());
+    assertEquals(8, level.getHeight());
+    assertSame(level, cache.get(KEY, image, 0, 2));
+
+    var replacement = new BufferedImage(64, 32, BufferedImage.TYPE_INT_ARGB);
+    assertNotSame(level, cache.get(KEY, replacement, 0, 2));
+  }
+
+  @Test
+  void leastRecentlyUsedImagesAreEvicted() {
+    // Room for one 64x32 image.
+    var cache = new MipmapImageCache(64 * 32 * 4);
+    var image = new BufferedImage(64, 32, BufferedImage.TYPE_INT_ARGB);
+
+    var flippedX = cache.get(KEY, image, MipmapImageCache.FLIP_X, 0);
+    var flippedY = cache.get(KEY, image, MipmapImageCache.FLIP_Y, 0);
+    assertSame(flippedY, cache.get(KEY, image, MipmapImageCache.FLIP_Y, 0));
+    assertNotSame(flippedX, cache.get(KEY, image, MipmapImageCache.FLIP_X, 0));
+  }
+
+  @Test
+  void flushedAssetsAreRemoved() {
+    var cache = new MipmapImageCache(Long.MAX_VALUE);
+    var other = new MD5Key("fedcba9876543210fedcba9876543210");
+    var image = new BufferedImage(64, 32, BufferedImage.TYPE_INT_ARGB);
+
+    var flipped = cache.get(KEY, image, MipmapImageCache.FLIP_X, 0);
+    var otherFlipped = cache.get(other, image, MipmapImageCache.FLIP_X, 0);
+    cache.retainIf(id -> !id.equals(KEY));
+
+    assertNotSame(flipped, cache.get(KEY, image, MipmapImageCache.FLIP_X, 0));
+    assertSame(otherFlipped, cache.get(other, image, MipmapImageCache.FLIP_X, 0));
+  }
+}
@@ -0,0 +1,62 @@
+/*
+ * This software Copyright by the RPTools.net development team, and
+ * licensed under the Affero GPL Version 3 or, at your option, any later
+ * version.
+ *
+ * MapTool Source Code is distributed in the hope that it will be
+ * useful, but WITHOUT ANY WARRANTY; without even the implied warranty
+ * of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ *
+ * You should have received a copy of the GNU Affero General Public
+ * License * along with this source Code.  If not, please visit
+ * <http://www.gnu.org/licenses/> and specifically the Affero license
+ * text at <http://www.gnu.org/licenses/agpl.html>.
+ */
+package net.rptools.maptool.client.ui.zone;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.awt.Rectangle;
+import java.awt.geom.Area;
+import javax.swing.SwingUtilities;
+import net.rptools.maptool.model.Zone;
+import org.junit.jupiter.api.Test;
+
+class ZoneViewTest {
+
+  @Test
+  void topologyChangesAreCapturedOnce() throws Exception {
+    var zone = new Zone();
+    var zoneView = new ZoneView(zone);
+    zoneView.getTopology(Zone.TopologyType.WALL_VBL);
+    int captures = zoneView.getTopologyCaptureCount();
+
+    // Changes made together on the EDT are captured after they are all made.
+    SwingUtilities.invokeAndWait(
+        () -> {
+          zone.addTopology(new Area(new Rectangle(0, 0, 10, 10)), Zone.TopologyType.WALL_VBL);
+          zone.addTopology(new Area(new Rectangle(20, 0, 10, 10)), Zone.TopologyType.WALL_VBL);
+          zone.addTopology(new Area(new Rectangle(40, 0, 10, 10)), Zone.TopologyType.WALL_VBL);
+        });
+    SwingUtilities.invokeAndWait(() -> {});
+
+    assertEquals(captures + 1, zoneView.getTopologyCaptureCount());
+  }
+
+  @Test
+  void topologyIsCurrentBeforeFogIsExposed() throws Exception {
+    var zone = new Zone();
+    var zoneView = new ZoneView(zone);
+    zoneView.getTopology(Zone.TopologyType.WALL_VBL);
+
+    SwingUtilities.invokeAndWait(
+        () -> {
+          zone.addTopology(new Area(new Rectangle(0, 0, 10, 10)), Zone.TopologyType.WALL_VBL);
+          // The background build has not been started yet, but exposing fog can't wait for it.
+          zoneView.ensureTopologyCurrent();
+
+          assertTrue(zoneView.getTopology(Zone.TopologyType.WALL_VBL).contains(5, 5));
+        });
+  }
+}
@@ -0,0 +1,87 @@
+/*
+ * This software Copyright by the RPTools.net development team, and
+ * licensed under the Affero GPL Version 3 or, at your option, any later
+ * version.
+ *
+ * MapTool Source Code is distributed in the hope that it will be
+ * useful, but WITHOUT ANY WARRANTY; without even the implied warranty
+ * of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ *
+ * You should have received a copy of the GNU Affero General Public
+ * License * along with this source Code.  If not, please visit
+ * <http://www.gnu.org/licenses/> and specifically the Affero license
+ * text at <http://www.gnu.org/licenses/agpl.html>.
+ */
+package net.rptools.maptool.client.ui.zone.vbl;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+import org.locationtech.jts.geom.Coordinate;
+import org.locationtech.jts.geom.Envelope;
+import org.locationtech.jts.geom.GeometryFactory;
+import org.locationtech.jts.geom.LineString;
+import org.locationtech.jts.geom.prep.PreparedGeometryFactory;
+
+class AreaMetaTest {
+
+  private static final int SIDES = 128;
+  private static final double RADIUS = 100;
+
+  @Test
+  void onlyFacesInsideTheVisionAreReturned() {
+    // Enough faces for the boundary to be indexed.
+    var meta = new AreaMeta();
+    for (int i = 0; i < SIDES; i++) {
+      double angle = 2 * Math.PI * i / SIDES;
+      meta.addPoint(RADIUS * Math.cos(angle), RADIUS * Math.sin(angle));
+    }
+    meta.close();
+
+    var geometryFactory = new GeometryFactory();
+    double minX = 50.5;
+    var vision =
+        PreparedGeometryFactory.prepare(
+            geometryFactory.toGeometry(new Envelope(minX, 200, -200, 200)));
+
+    var segments = meta.getFacingSegments(geometryFactory, new Coordinate(0, 0), false, vision);
+
+    int expectedFaces = 0;
+    for (int i = 0; i < SIDES; i++) {
+      double x0 = RADIUS * Math.cos(2 * Math.PI * i / SIDES);
+      double x1 = RADIUS * Math.cos(2 * Math.PI * (i + 1) / SIDES);
+      if (Math.max(x0, x1) >= minX) {
+        expectedFaces++;
+      }
+    }
+    int faces = 0;
+    for (LineString segment : segments) {
+      faces += segment.getNumPoints() - 1;
+      for (Coordinate coordinate : segment.getCoordinates()) {
+        assertTrue(coordinate.x > 40, "point outside the vision: " + coordinate);
+      }
+    }
+    // The faces either side of the first vertex are in separate segments.
+    assertEquals(2, segments.size());
+    assertEquals(expectedFaces, faces);
+  }
+
+  @Test
+  void facesFacingTheWrongWayAreNotReturned() {
+    var meta = new AreaMeta();
+    for (int i = 0; i < SIDES; i++) {
+      double angle = 2 * Math.PI * i / SIDES;
+      meta.addPoint(RADIUS * Math.cos(angle), RADIUS * Math.sin(angle));
+    }
+    meta.close();
+
+    var geometryFactory = new GeometryFactory();
+    var vision =
+        PreparedGeometryFactory.prepare(
+            geometryFactory.toGeometry(new Envelope(-200, 200, -200, 200)));
+
+    assertEquals(
+        0, meta.getFacingSegments(geometryFactory, new Coordinate(0, 0), true, vision).size());
+  }
+}
@@ -0,0 +1,88 @@
+/*
+ * This software Copyright by the RPTools.net development team, and
+ * licensed under the Affero GPL Version 3 or, at your option, any later
+ * version.
+ *
+ * MapTool Source Code is distributed in the hope that it will be
+ * useful, but WITHOUT ANY WARRANTY; without even the implied warranty
+ * of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ *
+ * You should have received a copy of the GNU Affero General Public
+ * License * along with this source Code.  If not, please visit
+ * <http://www.gnu.org/licenses/> and specifically the Affero license
+ * text at <http://www.gnu.org/licenses/agpl.html>.
+ */
+package net.rptools.maptool.client.ui.zone.vbl;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.awt.Color;
+import java.awt.Rectangle;
+import java.awt.geom.Area;
+import java.awt.image.BufferedImage;
+import java.util.Random;
+import org.junit.jupiter.api.Test;
+
+class TokenVBLTest {
+
+  private static final Color TRANSPARENT = new Color(0, 0, 0, 0);
+
+  private static void assertCoversPixels(Area area, BufferedImage image) {
+    for (int y = 0; y < image.getHeight(); y++) {
+      for (int x = 0; x < image.getWidth(); x++) {
+        boolean opaque = (image.getRGB(x, y) >>> 24) != 0;
+        assertEquals(opaque, area.contains(x + .5, y + .5), "pixel " + x + ", " + y);
+      }
+    }
+  }
+
+  @Test
+  void ringWithHole() {
+    var image = new BufferedImage(8, 8, BufferedImage.TYPE_INT_ARGB);
+    for (int y = 1; y < 7; y++) {
+      for (int x = 1; x < 7; x++) {
+        if (x < 3 || x > 4 || y < 3 || y > 4) {
+          image.setRGB(x, y, 0xff000000);
+        }
+      }
+    }
+
+    Area area = TokenVBL.createTopologyArea(image, 0, true, TRANSPARENT);
+    assertEquals(new Rectangle(1, 1, 6, 6), area.getBounds());
+    assertCoversPixels(area, image);
+  }
+
+  @Test
+  void pixelsTouchingAtCorners() {
+    var image = new BufferedImage(3, 3, BufferedImage.TYPE_INT_ARGB);
+    image.setRGB(0, 0, 0xff000000);
+    image.setRGB(1, 1, 0xff000000);
+    image.setRGB(2, 2, 0xff000000);
+    image.setRGB(2, 0, 0xff000000);
+
+    assertCoversPixels(TokenVBL.createTopologyArea(image, 0, true, TRANSPARENT), image);
+  }
+
+  @Test
+  void randomImagesOfEitherLayout() {
+    var random = new Random(42);
+    for (int type : new int[] {BufferedImage.TYPE_INT_ARGB, BufferedImage.TYPE_4BYTE_ABGR}) {
+      for (int i = 0; i < 20; i++) {
+        var image = new BufferedImage(1 + random.nextInt(40), 1 + random.nextInt(40), type);
+        for (int y = 0; y < image.getHeight(); y++) {
+          for (int x = 0; x < image.getWidth(); x++) {
+            image.setRGB(x, y, random.nextBoolean() ? 0xff336699 : 0);
+          }
+        }
+        assertCoversPixels(TokenVBL.createTopologyArea(image, 0, true, TRANSPARENT), image);
+      }
+    }
+  }
+
+  @Test
+  void emptyImage() {
+    var image = new BufferedImage(4, 4, BufferedImage.TYPE_INT_ARGB);
+    assertTrue(TokenVBL.createTopologyArea(image, 0, true, TRANSPARENT).isEmpty());
+  }
+}
@@ -0,0 +1,187 @@
+/*
+ * This software Copyright by the RPTools.net development team, and
+ * licensed under the Affero GPL Version 3 or, at your option, any later
+ * version.
+ *
+ * MapTool Source Code is distributed in the hope that it will be
+ * useful, but WITHOUT ANY WARRANTY; without even the implied warranty
+ * of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ *
+ * You should have received a copy of the GNU Affero General Public
+ * License * along with this source Code.  If not, please visit
+ * <http://www.gnu.org/licenses/> and specifically the Affero license
+ * text at <http://www.gnu.org/licenses/agpl.html>.
+ */
+package net.rptools.maptool.server;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.List;
+import net.rptools.maptool.server.proto.Message;
+import net.rptools.maptool.server.proto.PutTokenMsg;
+import net.rptools.maptool.server.proto.PutZoneMsg;
+import net.rptools.maptool.server.proto.RemoveTokenMsg;
+import net.rptools.maptool.server.proto.RemoveTokensMsg;
+import net.rptools.maptool.server.proto.SetCampaignNameMsg;
+import net.rptools.maptool.server.proto.TokenDto;
+import net.rptools.maptool.server.proto.ZoneDto;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class MessageJournalTest {
+
+  private static Message removeToken(String zone, String token) {
+    return Message.newBuilder()
+        .setRemoveTokenMsg(RemoveTokenMsg.newBuilder().setZoneGuid(zone).setTokenGuid(token))
+        .build();
+  }
+
+  private static Message removeTokens(String zone, String... tokens) {
+    return Message.newBuilder()
+        .setRemoveTokensMsg(
+            RemoveTokensMsg.newBuilder().setZoneGuid(zone).addAllTokenGuid(List.of(tokens)))
+        .build();
+  }
+
+  private static Message putToken(String zone, String token) {
+    return Message.newBuilder()
+        .setPutTokenMsg(
+            PutTokenMsg.newBuilder().setZoneGuid(zone).setToken(TokenDto.newBuilder().setId(token)))
+        .build();
+  }
+
+  private static Message putZone(String zone) {
+    return Message.newBuilder()
+        .setPutZoneMsg(PutZoneMsg.newBuilder().setZone(ZoneDto.newBuilder().setId(zone)))
+        .build();
+  }
+
+  private static Message setCampaignName(String name) {
+    return Message.newBuilder()
+        .setSetCampaignNameMsg(SetCampaignNameMsg.newBuilder().setName(name))
+        .build();
+  }
+
+  @Test
+  void messagesInTheSnapshotAreNotCarriedOver(@TempDir File dir) throws IOException {
+    var journal = new MessageJournal(new File(dir, "journal"));
+    journal.record(removeToken("a", "1"));
+
+    journal.beginSnapshot();
+    journal.record(removeToken("a", "2"));
+    journal.record(removeToken("b", "3"));
+    journal.zoneCopied("a");
+    journal.record(setCampaignName("name"));
+    journal.record(removeToken("a", "4"));
+    journal.record(removeToken("b", "5"));
+    journal.zoneCopied("b");
+    journal.record(removeToken("b", "6"));
+    journal.rotate();
+    journal.record(removeToken("a", "7"));
+    journal.flush();
+
+    // Nothing is lost or repeated until the snapshot has been saved.
+    assertEquals(
+        List.of(
+            removeToken("a", "1"),
+            removeToken("a", "2"),
+            removeToken("b", "3"),
+            setCampaignName("name"),
+            removeToken("a", "4"),
+            removeToken("b", "5"),
+            removeToken("b", "6"),
+            removeToken("a", "7")),
+        journal.readAll());
+
+    journal.commitRotation();
+    assertEquals(
+        List.of(
+            setCampaignName("name"),
+            removeToken("a", "4"),
+            removeToken("b", "6"),
+            removeToken("a", "7")),
+        journal.readAll());
+  }
+
+  @Test
+  void tokensCopiedAfterTheirZoneAreCheckedOnTheirOwn(@TempDir File dir) throws IOException {
+    var journal = new MessageJournal(new File(dir, "journal"));
+    journal.beginSnapshot();
+    journal.zoneCopied("a");
+    journal.record(removeToken("a", "1"));
+    // Token 2 moves to zone b before either of them is copied.
+    journal.record(removeToken("a", "2"));
+    journal.record(putToken("b", "2"));
+    journal.tokensCopied("a", List.of("1"));
+    journal.record(putZone("c"));
+    journal.record(removeTokens("a", "1", "2"));
+    journal.tokensCopied("a", List.of("2"));
+    journal.zoneCopied("b");
+    journal.record(putToken("b", "3"));
+    journal.rotate();
+    journal.commitRotation();
+
+    assertEquals(
+        List.of(putZone("c"), removeTokens("a", "1"), putToken("b", "3")), journal.readAll());
+  }
+
+  @Test
+  void unsavedSnapshotKeepsEverythingSinceTheLastSavedOne(@TempDir File dir) throws IOException {
+    var journal = new MessageJournal(new File(dir, "journal"));
+    journal.record(removeToken("a", "1"));
+    journal.beginSnapshot();
+    journal.record(removeToken("a", "2"));
+    journal.zoneCopied("a");
+    journal.record(removeToken("a", "3"));
+    journal.rotate();
+    journal.record(removeToken("a", "4"));
+
+    // The snapshot was never saved, so the next one has to start from the one before it.
+    journal.beginSnapshot();
+    journal.record(removeToken("a", "5"));
+    journal.zoneCopied("a");
+    journal.rotate();
+    journal.flush();
+
+    assertEquals(
+        List.of(
+            removeToken("a", "1"),
+            removeToken("a", "2"),
+            removeToken("a", "3"),
+            removeToken("a", "4"),
+            removeToken("a", "5")),
+        journal.readAll());
+
+    var moved = new File(dir, "moved");
+    journal.moveTo(moved);
+    assertEquals(5, new MessageJournal(moved).readAll().size());
+  }
+
+  @Test
+  void sizeCountsTheLengthOfEachMessage(@TempDir File dir) throws IOException {
+    var file = new File(dir, "journal");
+    var journal = new MessageJournal(file);
+    journal.record(removeToken("a", "1"));
+    journal.record(setCampaignName("x".repeat(200)));
+    journal.flush();
+
+    assertEquals(file.length(), journal.size());
+  }
+
+  @Test
+  void movedJournalIsNotAppendedTo(@TempDir File dir) throws IOException {
+    var journal = new MessageJournal(new File(dir, "journal"));
+    journal.record(removeToken("a", "1"));
+    journal.flush();
+
+    var moved = new File(dir, "moved");
+    journal.moveTo(moved);
+    journal.record(removeToken("a", "2"));
+    journal.flush();
+
+    assertEquals(List.of(removeToken("a", "1")), new MessageJournal(moved).readAll());
+    assertEquals(List.of(removeToken("a", "2")), journal.readAll());
+  }
+}
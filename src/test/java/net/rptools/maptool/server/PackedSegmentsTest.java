@@ -0,0 +1,86 @@
+/*
+ * This software Copyright by the RPTools.net development team, and
+ * licensed under the Affero GPL Version 3 or, at your option, any later
+ * version.
+ *
+ * MapTool Source Code is distributed in the hope that it will be
+ * useful, but WITHOUT ANY WARRANTY; without even the implied warranty
+ * of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ *
+ * You should have received a copy of the GNU Affero General Public
+ * License * along with this source Code.  If not, please visit
+ * <http://www.gnu.org/licenses/> and specifically the Affero license
+ * text at <http://www.gnu.org/licenses/agpl.html>.
+ */
+package net.rptools.maptool.server;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.google.protobuf.ByteString;
+import java.awt.Rectangle;
+import java.awt.geom.Area;
+import java.awt.geom.Path2D;
+import java.awt.geom.Rectangle2D;
+import net.rptools.maptool.server.proto.drawing.AreaDto;
+import org.junit.jupiter.api.Test;
+
+class PackedSegmentsTest {
+
+  @Test
+  void areasSurviveTheRoundTrip() {
+    var area = new Area(new Rectangle(-50, 100, 300, 25));
+    area.add(new Area(new Rectangle2D.Double(1000.25, 2000.5, 75.125, 40)));
+    area.subtract(new Area(new Rectangle(0, 110, 10, 5)));
+
+    AreaDto dto = Mapper.map(area);
+    assertEquals(0, dto.getSegmentsCount());
+    assertTrue(Mapper.map(dto).equals(area));
+  }
+
+  @Test
+  void gridAlignedEdgesTakeFewBytes() {
+    var area = new Area();
+    for (int i = 0; i < 100; i++) {
+      area.add(new Area(new Rectangle(i * 100, (i % 7) * 50, 50, 50)));
+    }
+
+    // A type byte and up to three bytes for each coordinate of an edge shorter than 1024 units,
+    // where the segment messages take over twenty bytes.
+    int segments = 0;
+    for (var it = area.getPathIterator(null); !it.isDone(); it.next()) {
+      segments++;
+    }
+    assertTrue(Mapper.map(area).getPackedSegments().size() < segments * 6);
+  }
+
+  @Test
+  void coordinatesAreRoundedToTheFixedPointScale() {
+    var path = new Path2D.Double();
+    path.moveTo(0.1, 0.2);
+    path.lineTo(3, 4);
+
+    var unpacked = new Path2D.Double();
+    PackedSegments.unpack(PackedSegments.pack(path.getPathIterator(null)), unpacked);
+
+    var start = unpacked.getPathIterator(null);
+    double[] coords = new double[6];
+    start.currentSegment(coords);
+    assertEquals(Math.round(0.1f * PackedSegments.SCALE) / PackedSegments.SCALE, coords[0]);
+    assertEquals(Math.round(0.2f * PackedSegments.SCALE) / PackedSegments.SCALE, coords[1]);
+    assertEquals(3, unpacked.getCurrentPoint().getX());
+    assertEquals(4, unpacked.getCurrentPoint().getY());
+  }
+
+  @Test
+  void malformedSegmentsAreRejected() {
+    var path = new Path2D.Double();
+    assertThrows(
+        IllegalArgumentException.class,
+        () -> PackedSegments.unpack(ByteString.copyFrom(new byte[] {9}), path));
+    assertThrows(
+        IllegalArgumentException.class,
+        () -> PackedSegments.unpack(ByteString.copyFrom(new byte[] {0, 1}), path));
+  }
+}
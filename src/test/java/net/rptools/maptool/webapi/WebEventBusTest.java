@@ -0,0 +1,62 @@
+/*
+ * This software Copyright by the RPTools.net development team, and
+ * licensed under the Affero GPL Version 3 or, at your option, any later
+ * version.
+ *
+ * MapTool Source Code is distributed in the hope that it will be
+ * useful, but WITHOUT ANY WARRANTY; without even the implied warranty
+ * of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ *
+ * You should have received a copy of the GNU Affero General Public
+ * License * along with this source Code.  If not, please visit
+ * <http://www.gnu.org/licenses/> and specifically the Affero license
+ * text at <http://www.gnu.org/licenses/agpl.html>.
+ */
+package net.rptools.maptool.webapi;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonObject;
+import org.junit.jupiter.api.Test;
+
+class WebEventBusTest {
+
+  @Test
+  void diffHasOnlyChangedAndRemovedValues() {
+    JsonArray tokens = new JsonArray();
+    tokens.add("a");
+    tokens.add("b");
+
+    JsonObject from = new JsonObject();
+    from.add("initiative", tokens);
+    from.addProperty("current", 0);
+    from.addProperty("round", 1);
+    from.addProperty("canAdvance", true);
+
+    JsonObject to = new JsonObject();
+    to.add("initiative", tokens.deepCopy());
+    to.addProperty("current", 1);
+    to.addProperty("round", 1);
+
+    JsonObject delta = WebEventBus.diff(from, to);
+
+    JsonObject changed = new JsonObject();
+    changed.addProperty("current", 1);
+    JsonArray removed = new JsonArray();
+    removed.add("canAdvance");
+    assertEquals(changed, delta.getAsJsonObject("changed"));
+    assertEquals(removed, delta.getAsJsonArray("removed"));
+  }
+
+  @Test
+  void diffOfEqualStatesIsEmpty() {
+    JsonObject state = new JsonObject();
+    state.addProperty("current", 3);
+
+    JsonObject delta = WebEventBus.diff(state, state.deepCopy());
+
+    assertEquals(0, delta.getAsJsonObject("changed").size());
+    assertEquals(0, delta.getAsJsonArray("removed").size());
+  }
+}